@@ -0,0 +1,153 @@
+package src.bench;
+
+import src.main.SystemManager;
+import src.util.InventoryGenerator;
+import src.util.InventorySnapshot;
+import src.util.Property;
+import src.util.PropertySnapshotFile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the property inventories used by the benchmarks.
+ *
+ * Inventories are generated from a fixed seed, so every run of a benchmark works
+ * on the same data. Properties are spread over a square part of the grid sized
+ * for about four properties per street/avenue cell on average, so radius searches
+ * return a similar number of results at every inventory size.
+ *
+ * @see src.main.SystemManager
+ * @see src.util.InventoryGenerator
+ */
+final class BenchmarkInventory {
+
+    /** Seed used for all generated inventories */
+    static final long SEED = 20240101L;
+
+    /** Average number of properties per street/avenue cell */
+    private static final int PROPERTIES_PER_CELL = 4;
+
+    private BenchmarkInventory() {
+    }
+
+    /**
+     * Gets the number of streets (and avenues) the inventory is spread over.
+     *
+     * @param size The number of properties
+     * @return The side length of the occupied square of the grid
+     */
+    static int gridSide(int size) {
+        return Math.max(1, (int) Math.ceil(Math.sqrt((double) size / PROPERTIES_PER_CELL)));
+    }
+
+    /**
+     * Generates a seeded inventory with clustered neighborhoods and realistic prices.
+     *
+     * @param size The number of properties
+     * @return The generated properties
+     */
+    static List<Property> generate(int size) {
+        int side = gridSide(size);
+        return new InventoryGenerator(SEED).grid(side, side).generate(size);
+    }
+
+    /**
+     * Generates random center points inside the occupied part of the grid.
+     *
+     * @param size The number of properties in the inventory
+     * @param count The number of centers
+     * @return The center addresses
+     */
+    static int[][] centers(int size, int count) {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        int side = gridSide(size);
+        int[][] centers = new int[count][];
+        for (int i = 0; i < count; i++) {
+            centers[i] = new int[]{1 + random.nextInt(side), 1 + random.nextInt(side)};
+        }
+        return centers;
+    }
+
+    /**
+     * Replaces the SystemManager inventory with the given properties.
+     * The properties are loaded through a temporary snapshot file.
+     *
+     * @param properties The properties to load
+     */
+    static void loadIntoSystem(List<Property> properties) {
+        Path snapshot = writeSnapshotFile(properties);
+        try {
+            SystemManager.getInstance().initializeFromSnapshot(snapshot.toString());
+        } finally {
+            delete(snapshot);
+        }
+    }
+
+    /**
+     * Writes properties to a temporary file in the FileReaderProperty text format.
+     *
+     * @param properties The properties to write
+     * @return The path of the file
+     */
+    static Path writeTextFile(List<Property> properties) {
+        try {
+            Path file = Files.createTempFile("bench-properties", ".txt");
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                for (Property property : properties) {
+                    int[] address = property.getAddress();
+                    for (int i = 0; i < address.length; i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(Integer.toString(address[i]));
+                    }
+                    writer.write(' ');
+                    writer.write(Long.toString((long) property.getArea()));
+                    writer.write(' ');
+                    writer.write(Long.toString((long) property.getPricePerSquareMeter()));
+                    writer.write(' ');
+                    writer.write(Boolean.toString(property.getStatus()));
+                    writer.newLine();
+                }
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes properties to a temporary binary snapshot file.
+     *
+     * @param properties The properties to write
+     * @return The path of the file
+     */
+    static Path writeSnapshotFile(List<Property> properties) {
+        try {
+            Path file = Files.createTempFile("bench-properties", ".snapshot");
+            PropertySnapshotFile.write(file.toString(), new InventorySnapshot(0, properties));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes a temporary file, ignoring errors.
+     *
+     * @param file The file to delete
+     */
+    static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Temporary files are cleaned up by the system eventually
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package src.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once per thread count, with the GC profiler enabled,
+ * so every run reports throughput, latency percentiles and allocation rate.
+ *
+ * Usage:
+ * java -cp bench/target/benchmarks.jar src.bench.BenchmarkRunner [JMH options]
+ *
+ * Any standard JMH command line options (e.g. a benchmark regex, or -p inventorySize=1000)
+ * are passed through. Results are written as JSON to bench-results-&lt;threads&gt;-threads.json.
+ */
+public final class BenchmarkRunner {
+
+    /** Thread counts every benchmark is run with */
+    private static final int[] THREAD_COUNTS = {1, 4, 16};
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        for (int threads : THREAD_COUNTS) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("bench-results-" + threads + "-threads.json");
+            if (commandLine.getIncludes().isEmpty()) {
+                options.include("src\\.bench\\..*");
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
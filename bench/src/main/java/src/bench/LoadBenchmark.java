@@ -0,0 +1,77 @@
+package src.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.util.BulkPropertyLoader;
+import src.util.FileReaderProperty;
+import src.util.Property;
+import src.util.PropertySnapshotFile;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of loading an inventory from disk: the line-by-line text reader,
+ * the parallel bulk loader and the binary snapshot reader.
+ *
+ * Parameters:
+ * - inventorySize: number of properties in the file
+ *
+ * @see src.util.FileReaderProperty
+ * @see src.util.BulkPropertyLoader
+ * @see src.util.PropertySnapshotFile
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int inventorySize;
+
+    private Path textFile;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Property> properties = BenchmarkInventory.generate(inventorySize);
+        textFile = BenchmarkInventory.writeTextFile(properties);
+        snapshotFile = BenchmarkInventory.writeSnapshotFile(properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkInventory.delete(textFile);
+        BenchmarkInventory.delete(snapshotFile);
+    }
+
+    @Benchmark
+    public List<Property> fileReaderProperty() {
+        return new FileReaderProperty().readPropertiesFromFile(textFile.toString());
+    }
+
+    @Benchmark
+    public List<Property> bulkPropertyLoader() {
+        return new BulkPropertyLoader().readPropertiesFromFile(textFile.toString());
+    }
+
+    @Benchmark
+    public List<Property> snapshotFile() {
+        return PropertySnapshotFile.read(snapshotFile.toString()).getProperties();
+    }
+}
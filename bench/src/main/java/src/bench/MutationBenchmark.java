@@ -0,0 +1,157 @@
+package src.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.factory.Broker;
+import src.factory.Buyer;
+import src.factory.Seller;
+import src.factory.User;
+import src.factory.UserFactory;
+import src.main.SystemManager;
+import src.util.Property;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks of the write paths: editing properties in place, moving them to
+ * another address and executing deals.
+ *
+ * Parameters:
+ * - inventorySize: number of properties in the system
+ * - concurrentMode: whether the lock-striped store is used
+ * - writeAheadLog: whether every change is written to the write-ahead log
+ *
+ * Every benchmark thread works on its own slice of the inventory, so threads do
+ * not undo each other's changes. Deals record their progress in the AuditJournal,
+ * which is off unless a level is set, so the measured path does no console output.
+ *
+ * @see src.main.SystemManager
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class MutationBenchmark {
+
+    /** Largest supported number of benchmark threads */
+    static final int MAX_THREADS = 64;
+
+    @Param({"1000", "100000", "1000000"})
+    public int inventorySize;
+
+    @Param({"false", "true"})
+    public boolean concurrentMode;
+
+    @Param({"false", "true"})
+    public boolean writeAheadLog;
+
+    private SystemManager systemManager;
+    private List<Property> properties;
+    private Path logFile;
+    private Path snapshotFile;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    /**
+     * The slice of the inventory owned by one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Slice {
+        private int slot;
+        private int next;
+        private int[][] addresses;
+        private int[] movedAddress;
+        private boolean moved;
+        private Property dealProperty;
+        private Seller seller;
+        private Buyer buyer;
+        private Broker broker;
+
+        @Setup(Level.Trial)
+        public void setUp(MutationBenchmark benchmark) {
+            slot = benchmark.nextSlot.getAndIncrement();
+            if (slot >= MAX_THREADS) {
+                throw new IllegalStateException("At most " + MAX_THREADS + " threads are supported");
+            }
+            int count = Math.max(1, benchmark.properties.size() / MAX_THREADS);
+            addresses = new int[count][];
+            for (int i = 0; i < count; i++) {
+                addresses[i] = benchmark.properties.get(i * MAX_THREADS + slot).getAddress();
+            }
+            // The first address of the slice is moved back and forth, the second is sold repeatedly
+            movedAddress = new int[]{-1 - slot, -1, 0};
+            dealProperty = benchmark.systemManager.findProperty(addresses[Math.min(1, count - 1)]);
+            int userId = 1_000_000 + slot * 3;
+            seller = (Seller) UserFactory.createUser(User.UserType.SELLER, userId);
+            buyer = (Buyer) UserFactory.createUser(User.UserType.BUYER, userId + 1);
+            broker = (Broker) UserFactory.createUser(User.UserType.BROKER, userId + 2);
+        }
+
+        int[] nextAddress() {
+            int[] address = addresses[next];
+            next = next + 1 == addresses.length ? 0 : next + 1;
+            return address;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        systemManager = SystemManager.getInstance();
+        systemManager.setConcurrentMode(concurrentMode);
+        properties = BenchmarkInventory.generate(inventorySize);
+        BenchmarkInventory.loadIntoSystem(properties);
+        if (writeAheadLog) {
+            logFile = Files.createTempFile("bench-mutations", ".log");
+            snapshotFile = Files.createTempFile("bench-mutations", ".snapshot");
+            systemManager.enableWriteAheadLog(logFile.toString(), snapshotFile.toString());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        systemManager.disableWriteAheadLog();
+        if (logFile != null) {
+            BenchmarkInventory.delete(logFile);
+            BenchmarkInventory.delete(snapshotFile);
+        }
+    }
+
+    @Benchmark
+    public boolean updateInPlace(Slice slice) {
+        int[] address = slice.nextAddress();
+        return systemManager.updateProperty(address, new Property(address, 75, 12000, false));
+    }
+
+    @Benchmark
+    public boolean updateMove(Slice slice) {
+        int[] from = slice.moved ? slice.movedAddress : slice.addresses[0];
+        int[] to = slice.moved ? slice.addresses[0] : slice.movedAddress;
+        slice.moved = !slice.moved;
+        return systemManager.updateProperty(from, new Property(to, 75, 12000, false));
+    }
+
+    @Benchmark
+    public Property executeWholeDeal(Slice slice) {
+        slice.dealProperty.setStatus(false);
+        systemManager.executeWholeDeal(slice.dealProperty, List.of("EVENING", "CLEANING"),
+                slice.seller, slice.buyer, slice.broker);
+        return slice.dealProperty;
+    }
+}
@@ -0,0 +1,96 @@
+package src.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.SystemManager;
+import src.util.Property;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmark of removing properties.
+ *
+ * A removal cannot be repeated on the same property, so every iteration starts
+ * from a freshly loaded inventory and runs a fixed batch of removals of distinct,
+ * existing properties per thread (single-shot mode). The reported time is per batch.
+ *
+ * Parameters:
+ * - inventorySize: number of properties in the system
+ * - concurrentMode: whether the lock-striped store is used
+ *
+ * @see src.main.SystemManager#removeProperty(int[])
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = RemoveBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = RemoveBenchmark.BATCH_SIZE)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class RemoveBenchmark {
+
+    /** Number of removals per thread and iteration */
+    static final int BATCH_SIZE = 1000;
+
+    @Param({"100000", "1000000", "10000000"})
+    public int inventorySize;
+
+    @Param({"false", "true"})
+    public boolean concurrentMode;
+
+    private SystemManager systemManager;
+    private List<Property> properties;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    /**
+     * The removal position of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Slice {
+        private int slot;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(RemoveBenchmark benchmark) {
+            slot = benchmark.nextSlot.getAndIncrement();
+            if (slot >= MutationBenchmark.MAX_THREADS) {
+                throw new IllegalStateException("At most " + MutationBenchmark.MAX_THREADS + " threads are supported");
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            next = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        systemManager = SystemManager.getInstance();
+        systemManager.setConcurrentMode(concurrentMode);
+        properties = BenchmarkInventory.generate(inventorySize);
+    }
+
+    @Setup(Level.Iteration)
+    public void reload() {
+        BenchmarkInventory.loadIntoSystem(properties);
+    }
+
+    @Benchmark
+    public boolean removeProperty(Slice slice) {
+        // Threads take interleaved properties, so every removal hits an existing property
+        int index = (slice.next++ * MutationBenchmark.MAX_THREADS + slice.slot) % properties.size();
+        return systemManager.removeProperty(properties.get(index).getAddress());
+    }
+}
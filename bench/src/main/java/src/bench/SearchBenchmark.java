@@ -0,0 +1,120 @@
+package src.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.SystemManager;
+import src.strategy.SearchByAveragePriceStrategy;
+import src.strategy.SearchByPriceStrategy;
+import src.strategy.SearchByStatusStrategy;
+import src.util.Property;
+import src.util.RadiusCalculator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the read paths: radius searches, the three search strategies
+ * and address lookups.
+ *
+ * Parameters:
+ * - inventorySize: number of properties in the system
+ * - radius: Manhattan radius of the searches
+ * - concurrentMode: whether the lock-striped store is used
+ *
+ * Each thread cycles through a fixed set of random center points, so results
+ * are comparable between runs and thread counts.
+ *
+ * @see src.util.RadiusCalculator
+ * @see src.strategy.PropertySearchStrategy
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    /** Number of distinct center points each benchmark cycles through */
+    private static final int CENTER_COUNT = 1024;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int inventorySize;
+
+    @Param({"1", "5", "25"})
+    public int radius;
+
+    @Param({"false", "true"})
+    public boolean concurrentMode;
+
+    private SystemManager systemManager;
+    private int[][] centers;
+    private int[][] addresses;
+    private SearchByStatusStrategy statusStrategy;
+    private SearchByPriceStrategy priceStrategy;
+    private SearchByAveragePriceStrategy averagePriceStrategy;
+
+    /**
+     * Per-thread position in the center and address arrays.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int advance() {
+            return next++ & (CENTER_COUNT - 1);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        systemManager = SystemManager.getInstance();
+        systemManager.setConcurrentMode(concurrentMode);
+        List<Property> properties = BenchmarkInventory.generate(inventorySize);
+        BenchmarkInventory.loadIntoSystem(properties);
+
+        centers = BenchmarkInventory.centers(inventorySize, CENTER_COUNT);
+        addresses = new int[CENTER_COUNT][];
+        for (int i = 0; i < CENTER_COUNT; i++) {
+            addresses[i] = properties.get((int) ((long) i * properties.size() / CENTER_COUNT)).getAddress();
+        }
+        statusStrategy = new SearchByStatusStrategy(false);
+        priceStrategy = new SearchByPriceStrategy(1_000_000, SearchByPriceStrategy.PriceComparison.LOWER);
+        averagePriceStrategy = new SearchByAveragePriceStrategy();
+    }
+
+    @Benchmark
+    public List<Property> radiusSearch(Cursor cursor) {
+        return RadiusCalculator.getPropertiesInRadius(centers[cursor.advance()], radius);
+    }
+
+    @Benchmark
+    public List<Property> searchByStatus(Cursor cursor) {
+        return statusStrategy.search(centers[cursor.advance()], radius);
+    }
+
+    @Benchmark
+    public List<Property> searchByPrice(Cursor cursor) {
+        return priceStrategy.search(centers[cursor.advance()], radius);
+    }
+
+    @Benchmark
+    public Double searchByAveragePrice(Cursor cursor) {
+        return averagePriceStrategy.search(centers[cursor.advance()], radius);
+    }
+
+    @Benchmark
+    public Property findProperty(Cursor cursor) {
+        return systemManager.findProperty(addresses[cursor.advance()]);
+    }
+}
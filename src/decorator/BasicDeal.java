@@ -1,8 +1,8 @@
 package src.decorator;
 
-import java.util.Arrays;
 import src.factory.Broker;
 import src.factory.User;
+import src.util.AuditJournal;
 import src.util.Property;
 
 /**
@@ -43,8 +43,15 @@ public class BasicDeal implements Deal {
      * @param buyer The buyer in the transaction
      * @param seller The seller in the transaction
      * @param broker The broker managing the transaction
+     * @throws IllegalArgumentException if any participant or the property is null
      */
     public BasicDeal(Property property, User buyer, User seller, Broker broker) {
+        if (property == null) {
+            throw new IllegalArgumentException("Property cannot be null");
+        }
+        if (buyer == null || seller == null || broker == null) {
+            throw new IllegalArgumentException("Buyer, seller and broker cannot be null");
+        }
         this.property = property;
         this.buyer = buyer;
         this.seller = seller;
@@ -52,15 +59,20 @@ public class BasicDeal implements Deal {
     }
 
     /**
-     * Executes the basic deal by displaying transaction information
-     * and updating the property status to sold.
+     * Executes the basic deal by marking the property as sold
+     * and recording the transaction in the audit journal.
+     * The property is marked sold with an atomic check, so a property
+     * can only be sold by one deal. The participants are validated when the
+     * deal is constructed, so nothing can fail once the property is marked sold.
+     * 
+     * @throws IllegalStateException if the property is already sold
      */
     @Override
     public void executeDeal() {
-        System.out.println("Broker " + broker.getUserId() + " : I'm managing this deal");
-        System.out.println("Seller " + seller.getUserId() + " : I'm offering the property at " + Arrays.toString(property.getAddress()) + " for " + property.getTotalPrice());
-        System.out.println("Buyer " + buyer.getUserId() + " : I'm interested in buying the property");
-        property.setStatus(true); // Mark property as sold
+        if (!property.markSold()) {
+            throw new IllegalStateException("Property is already sold");
+        }
+        AuditJournal.getInstance().dealExecuted(broker.getUserId(), seller.getUserId(), buyer.getUserId(), property);
     }
 
     /**
@@ -1,5 +1,7 @@
 package src.decorator;
 
+import src.util.AuditJournal;
+
 /**
  * Decorator that adds cleaning services to a property deal.
  * Part of the Decorator pattern implementation that allows adding
@@ -17,7 +19,7 @@ package src.decorator;
 public class CleaningDecorator extends DealDecorator {
     
     /** The cost of cleaning services in dollars */
-    private static final double CLEANING_SERVICES_COST = 2000;
+    private static final double CLEANING_SERVICES_COST = DealService.CLEANING.getCost();
 
     /**
      * Constructs a cleaning decorator for the specified deal.
@@ -35,7 +37,7 @@ public class CleaningDecorator extends DealDecorator {
     @Override
     public void executeDeal() {
         deal.executeDeal();
-        System.out.println("Adding cleaning services: " + CLEANING_SERVICES_COST);
+        AuditJournal.getInstance().serviceAdded("cleaning", CLEANING_SERVICES_COST);
     }
 
     /**
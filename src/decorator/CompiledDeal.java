@@ -0,0 +1,96 @@
+package src.decorator;
+
+import java.util.List;
+import src.factory.Broker;
+import src.factory.User;
+import src.util.Property;
+
+/**
+ * Deal whose additional services are resolved once into a list of services.
+ *
+ * A CompiledDeal gives the same prices and the same effect as a BasicDeal
+ * wrapped in one decorator per service, but without the chain:
+ * - getTotalPrice adds the precomputed surcharge of the services to the
+ *   property price, in constant time and without allocating
+ * - executeDeal runs the basic deal, then reports each service
+ *
+ * As with the decorators, services are reported in the order they are
+ * requested, and a service requested twice is charged twice. The decorator
+ * classes remain available to compose deals by hand.
+ *
+ * Example - a deal with cleaning and design services:
+ * new CompiledDeal(property, buyer, seller, broker, DealService.resolve(List.of("CLEANING", "DESIGN")));
+ *
+ * @see src.decorator.DealService
+ * @see src.decorator.BasicDeal
+ */
+public class CompiledDeal implements Deal {
+
+    /** The deal without services */
+    private final BasicDeal basicDeal;
+
+    /** The property being sold in this deal */
+    private final Property property;
+
+    /** The services of this deal, in the order they were requested */
+    private final List<DealService> services;
+
+    /** The total cost of the services */
+    private final double surcharge;
+
+    /**
+     * Constructs a deal with the specified participants and services.
+     *
+     * @param property The property being sold
+     * @param buyer The buyer in the transaction
+     * @param seller The seller in the transaction
+     * @param broker The broker managing the transaction
+     * @param services The services of the deal, as returned by DealService.resolve
+     * @throws IllegalArgumentException if services is null or contains null
+     */
+    public CompiledDeal(Property property, User buyer, User seller, Broker broker, List<DealService> services) {
+        if (services == null) {
+            throw new IllegalArgumentException("Services cannot be null");
+        }
+        try {
+            this.services = List.copyOf(services);
+        } catch (NullPointerException e) {
+            throw new IllegalArgumentException("Services cannot contain null");
+        }
+        this.surcharge = DealService.surcharge(this.services);
+        this.basicDeal = new BasicDeal(property, buyer, seller, broker);
+        this.property = property;
+    }
+
+    /**
+     * Gets the services of this deal.
+     *
+     * @return An unmodifiable list of the services, in the order they were requested
+     */
+    public List<DealService> getServices() {
+        return services;
+    }
+
+    /**
+     * Executes the basic deal, then adds the services.
+     *
+     * @throws IllegalStateException if the property is already sold
+     */
+    @Override
+    public void executeDeal() {
+        basicDeal.executeDeal();
+        for (DealService service : services) {
+            service.recordAdded();
+        }
+    }
+
+    /**
+     * Calculates the total price including the services.
+     *
+     * @return The property's total price plus the cost of the services
+     */
+    @Override
+    public double getTotalPrice() {
+        return property.getTotalPrice() + surcharge;
+    }
+}
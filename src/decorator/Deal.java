@@ -24,6 +24,8 @@ public interface Deal {
      * Executes the property deal.
      * This method handles the actual transaction process and updates
      * the property status accordingly.
+     * 
+     * @throws IllegalStateException if the property is already sold
      */
     void executeDeal();
     
@@ -0,0 +1,104 @@
+package src.decorator;
+
+/**
+ * The result of one deal in a batch of deals.
+ *
+ * Each request ends in exactly one status:
+ * - COMMITTED: the property was sold, and logged if the write-ahead log is enabled
+ * - ALREADY_SOLD: the property was sold before, possibly by another deal of the same batch
+ * - INVALID: the request could not be executed, for example because of an unknown service
+ *
+ * @see src.decorator.DealRequest
+ * @see src.main.SystemManager#executeDeals(java.util.List)
+ */
+public class DealOutcome {
+    /**
+     * Enumeration defining how a deal ended.
+     */
+    public enum Status {
+        /** The property was sold by this deal */
+        COMMITTED,
+        /** The property was already sold; nothing was changed */
+        ALREADY_SOLD,
+        /** The request was invalid; nothing was changed */
+        INVALID
+    }
+
+    /** The request this outcome is for */
+    private final DealRequest request;
+
+    /** How the deal ended */
+    private final Status status;
+
+    /** The total price including services, or 0 if the deal was not committed */
+    private final double totalPrice;
+
+    /** The reason the deal was not committed, or null if it was */
+    private final String message;
+
+    /**
+     * Constructs a deal outcome.
+     *
+     * @param request The request this outcome is for
+     * @param status How the deal ended
+     * @param totalPrice The total price including services, or 0 if the deal was not committed
+     * @param message The reason the deal was not committed, or null if it was
+     */
+    public DealOutcome(DealRequest request, Status status, double totalPrice, String message) {
+        this.request = request;
+        this.status = status;
+        this.totalPrice = totalPrice;
+        this.message = message;
+    }
+
+    /**
+     * Gets the request this outcome is for.
+     *
+     * @return The deal request
+     */
+    public DealRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Gets how the deal ended.
+     *
+     * @return The outcome status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks whether the property was sold by this deal.
+     *
+     * @return true if the deal was committed
+     */
+    public boolean isCommitted() {
+        return status == Status.COMMITTED;
+    }
+
+    /**
+     * Gets the total price of the deal including services.
+     *
+     * @return The total price, or 0 if the deal was not committed
+     */
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    /**
+     * Gets the reason the deal was not committed.
+     *
+     * @return The reason, or null if the deal was committed
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "deal: " + request.getProperty() + " outcome: " + status
+                + (message == null ? " total price: " + totalPrice : " reason: " + message);
+    }
+}
@@ -0,0 +1,107 @@
+package src.decorator;
+
+import java.util.List;
+import src.factory.Broker;
+import src.factory.Buyer;
+import src.factory.Seller;
+import src.util.Property;
+
+/**
+ * A request to sell one property, as submitted to a batch of deals.
+ * Holds the same arguments as SystemManager.executeWholeDeal.
+ *
+ * Supported services:
+ * - "EVENING": Evening services (+$1000)
+ * - "CLEANING": Cleaning services (+$2000)
+ * - "MOVING": Moving services (+$3000)
+ * - "DESIGN": Design services (+$4000)
+ *
+ * @see src.decorator.DealOutcome
+ * @see src.main.SystemManager#executeDeals(List)
+ */
+public class DealRequest {
+
+    /** The property being sold */
+    private final Property property;
+
+    /** The additional services requested, in the order they are applied */
+    private final List<String> services;
+
+    /** The seller in this transaction */
+    private final Seller seller;
+
+    /** The buyer in this transaction */
+    private final Buyer buyer;
+
+    /** The broker managing this transaction */
+    private final Broker broker;
+
+    /**
+     * Constructs a deal request.
+     *
+     * @param property The property being sold
+     * @param services List of additional services to include
+     * @param seller The seller user
+     * @param buyer The buyer user
+     * @param broker The broker managing the transaction
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public DealRequest(Property property, List<String> services, Seller seller, Buyer buyer, Broker broker) {
+        if (property == null || services == null) {
+            throw new IllegalArgumentException("Property and services cannot be null");
+        }
+        if (seller == null || buyer == null || broker == null) {
+            throw new IllegalArgumentException("Seller, buyer and broker cannot be null");
+        }
+        this.property = property;
+        this.services = List.copyOf(services);
+        this.seller = seller;
+        this.buyer = buyer;
+        this.broker = broker;
+    }
+
+    /**
+     * Gets the property being sold.
+     *
+     * @return The property
+     */
+    public Property getProperty() {
+        return property;
+    }
+
+    /**
+     * Gets the additional services requested.
+     *
+     * @return An unmodifiable list of service names
+     */
+    public List<String> getServices() {
+        return services;
+    }
+
+    /**
+     * Gets the seller.
+     *
+     * @return The seller user
+     */
+    public Seller getSeller() {
+        return seller;
+    }
+
+    /**
+     * Gets the buyer.
+     *
+     * @return The buyer user
+     */
+    public Buyer getBuyer() {
+        return buyer;
+    }
+
+    /**
+     * Gets the broker managing the transaction.
+     *
+     * @return The broker
+     */
+    public Broker getBroker() {
+        return broker;
+    }
+}
@@ -0,0 +1,120 @@
+package src.decorator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import src.util.AuditJournal;
+
+/**
+ * Enumeration of the additional services that can be added to a deal.
+ *
+ * Each service has a fixed cost. Service names are resolved once into a list
+ * of services, in the order they are requested, and its total surcharge is the
+ * sum of the costs of its entries, so a service requested twice is charged twice
+ * like a deal wrapped twice in its decorator.
+ *
+ * Service names are matched without regard to case:
+ * - "EVENING": Evening services (+$1000)
+ * - "CLEANING": Cleaning services (+$2000)
+ * - "MOVING": Moving services (+$3000)
+ * - "DESIGN": Design services (+$4000)
+ *
+ * @see src.decorator.CompiledDeal
+ * @see src.decorator.DealDecorator
+ */
+public enum DealService {
+    /** After-hours signing, viewings and support */
+    EVENING("evening", 1000),
+    /** Professional cleaning before move-in */
+    CLEANING("cleaning", 2000),
+    /** Moving company, packing and transportation */
+    MOVING("moving", 3000),
+    /** Interior design consultation */
+    DESIGN("design", 4000);
+
+    /** Services by name */
+    private static final Map<String, DealService> BY_NAME = new HashMap<>();
+
+    static {
+        for (DealService service : values()) {
+            BY_NAME.put(service.name(), service);
+        }
+    }
+
+    /** Lower case description used in audit records */
+    private final String description;
+
+    /** The cost of the service in dollars */
+    private final double cost;
+
+    DealService(String description, double cost) {
+        this.description = description;
+        this.cost = cost;
+    }
+
+    /**
+     * Gets the cost of the service.
+     *
+     * @return The cost in dollars
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Records in the audit journal that the service is added to a deal.
+     */
+    void recordAdded() {
+        AuditJournal.getInstance().serviceAdded(description, cost);
+    }
+
+    /**
+     * Finds a service by name, without regard to case.
+     *
+     * @param name The service name
+     * @return The service
+     * @throws IllegalArgumentException if no service has this name
+     */
+    public static DealService fromName(String name) {
+        DealService service = BY_NAME.get(name);
+        if (service == null && name != null) {
+            service = BY_NAME.get(name.toUpperCase(Locale.ROOT));
+        }
+        if (service == null) {
+            throw new IllegalArgumentException("Unknown service: " + name);
+        }
+        return service;
+    }
+
+    /**
+     * Resolves service names into services, in the order they are requested.
+     * A service requested more than once is included once per request.
+     *
+     * @param names The service names
+     * @return An unmodifiable list of the requested services
+     * @throws IllegalArgumentException if a name is not a known service
+     */
+    public static List<DealService> resolve(List<String> names) {
+        DealService[] services = new DealService[names.size()];
+        int i = 0;
+        for (String name : names) {
+            services[i++] = fromName(name);
+        }
+        return List.of(services);
+    }
+
+    /**
+     * Gets the total cost of services, each entry charged.
+     *
+     * @param services The services
+     * @return The total cost in dollars
+     */
+    public static double surcharge(List<DealService> services) {
+        double surcharge = 0;
+        for (DealService service : services) {
+            surcharge += service.cost;
+        }
+        return surcharge;
+    }
+}
@@ -1,5 +1,7 @@
 package src.decorator;
 
+import src.util.AuditJournal;
+
 /**
  * Decorator that adds design services to a property deal.
  * Part of the Decorator pattern implementation that allows adding
@@ -18,7 +20,7 @@ package src.decorator;
 public class DesignDecorator extends DealDecorator {
     
     /** The cost of design services in dollars */
-    private static final double DESIGN_SERVICES_COST = 4000;
+    private static final double DESIGN_SERVICES_COST = DealService.DESIGN.getCost();
 
     /**
      * Constructs a design decorator for the specified deal.
@@ -36,7 +38,7 @@ public class DesignDecorator extends DealDecorator {
     @Override
     public void executeDeal() {
         deal.executeDeal();
-        System.out.println("Adding design services: " + DESIGN_SERVICES_COST);
+        AuditJournal.getInstance().serviceAdded("design", DESIGN_SERVICES_COST);
     }
 
     /**
@@ -1,5 +1,7 @@
 package src.decorator;
 
+import src.util.AuditJournal;
+
 /**
  * Decorator that adds evening services to a property deal.
  * Part of the Decorator pattern implementation that allows adding
@@ -18,7 +20,7 @@ package src.decorator;
 public class EveningServicesDecorator extends DealDecorator {
     
     /** The cost of evening services in dollars */
-    private static final double EVENING_SERVICES_COST = 1000;
+    private static final double EVENING_SERVICES_COST = DealService.EVENING.getCost();
 
     /**
      * Constructs an evening services decorator for the specified deal.
@@ -36,7 +38,7 @@ public class EveningServicesDecorator extends DealDecorator {
     @Override
     public void executeDeal() {
         deal.executeDeal();
-        System.out.println("Adding evening services: " + EVENING_SERVICES_COST);
+        AuditJournal.getInstance().serviceAdded("evening", EVENING_SERVICES_COST);
     }
 
     /**
@@ -1,5 +1,7 @@
 package src.decorator;
 
+import src.util.AuditJournal;
+
 /**
  * Decorator that adds moving services to a property deal.
  * Part of the Decorator pattern implementation that allows adding
@@ -18,7 +20,7 @@ package src.decorator;
 public class MovingDecorator extends DealDecorator {
 
     /** The cost of moving services in dollars */
-    private static final double MOVING_SERVICES_COST = 3000;
+    private static final double MOVING_SERVICES_COST = DealService.MOVING.getCost();
 
     /**
      * Constructs a moving decorator for the specified deal.
@@ -36,7 +38,7 @@ public class MovingDecorator extends DealDecorator {
     @Override
     public void executeDeal() {
         deal.executeDeal();
-        System.out.println("Adding moving services: " + MOVING_SERVICES_COST);
+        AuditJournal.getInstance().serviceAdded("moving", MOVING_SERVICES_COST);
     }
 
     /**
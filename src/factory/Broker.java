@@ -1,10 +1,10 @@
 package src.factory;
 
-import java.util.Arrays;
 import src.main.SystemManager;
 import src.observer.PropertyDeletionObserver;
 import src.permission.EditPermission;
 import src.permission.ViewPermission;
+import src.util.AuditJournal;
 import src.util.Property;
 
 /**
@@ -59,6 +59,6 @@ public class Broker extends User implements ViewPermission, EditPermission, Prop
      */
     @Override
     public void onPropertyDeleted(int[] address) {
-        System.out.println("Notification: Property at address " + Arrays.toString(address) + " has been deleted");
+        AuditJournal.getInstance().deletionNotified(getUserId(), address);
     }
 } 
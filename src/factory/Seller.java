@@ -2,6 +2,7 @@ package src.factory;
 
 import src.permission.DeletePermission;
 import src.main.SystemManager;
+import src.observer.PropertyDeletionBus;
 import src.observer.PropertyDeletionObserver;
 import src.permission.ViewPermission;
 
@@ -11,7 +12,8 @@ import src.permission.ViewPermission;
  * and delete properties from the system.
  * 
  * This class implements the Observer pattern as a subject - when a seller
- * deletes a property, all registered observers (brokers) are notified.
+ * deletes a property, the deletion is published on the shared PropertyDeletionBus
+ * and all subscribed observers (brokers) are notified on their own threads.
  * 
  * Seller capabilities:
  * - View individual property details by address
@@ -24,12 +26,10 @@ import src.permission.ViewPermission;
  * @see src.permission.ViewPermission
  * @see src.permission.DeletePermission
  * @see src.observer.PropertyDeletionObserver
+ * @see src.observer.PropertyDeletionBus
  */
 public class Seller extends User implements ViewPermission, DeletePermission {
     
-    /** Observer to be notified when properties are deleted */
-    private PropertyDeletionObserver observer;
-    
     /**
      * Constructs a new Seller with the specified user ID.
      * 
@@ -40,17 +40,21 @@ public class Seller extends User implements ViewPermission, DeletePermission {
     }
     
     /**
-     * Sets the observer to be notified when properties are deleted.
-     * Part of the Observer pattern implementation.
+     * Subscribes an observer to property deletions.
+     * Part of the Observer pattern implementation. Deletions of all sellers go
+     * through the shared PropertyDeletionBus, so the observer is notified of each of them,
+     * and any number of observers can be subscribed.
      * 
      * @param observer The observer to notify (typically a broker)
+     * @see src.observer.PropertyDeletionBus#subscribe(PropertyDeletionObserver)
      */
     public void setObserver(PropertyDeletionObserver observer) {
-        this.observer = observer;
+        PropertyDeletionBus.getInstance().subscribe(observer);
     }
     
     /**
      * Deletes a property from the system and notifies observers.
+     * Observers are notified asynchronously, so the deletion does not wait for them.
      * 
      * @param address The address of the property to delete
      * @return true if the property was successfully deleted, false otherwise
@@ -58,8 +62,8 @@ public class Seller extends User implements ViewPermission, DeletePermission {
     @Override
     public boolean deleteProperty(int[] address) {
         boolean deleted = SystemManager.getInstance().removeProperty(address);
-        if (deleted && observer != null) {
-            observer.onPropertyDeleted(address);
+        if (deleted) {
+            PropertyDeletionBus.getInstance().publish(address);
         }
         return deleted;
     }
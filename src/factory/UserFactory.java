@@ -1,43 +1,65 @@
 package src.factory;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import src.observer.PropertyDeletionBus;
+import src.util.AuditJournal;
 
 /**
  * Factory class for creating users in the real estate system.
  * Implements the Factory Method pattern to centralize user creation
  * and ensure proper initialization and validation.
- * 
+ *
  * This factory:
  * - Creates users of different types (Buyer, Seller, Broker)
- * - Maintains collections of each user type
+ * - Maintains a registry of each user type, indexed by user ID
  * - Prevents duplicate user IDs within each type
+ * - Allocates free user IDs for callers that do not choose one
  * - Sets up observer relationships between sellers and brokers
- * 
+ *
  * The factory ensures that:
  * - Each user type has unique IDs within their category
  * - Proper observer patterns are established
  * - Users are properly initialized with their permissions
- * 
+ *
+ * The registries are concurrent hash maps, so users can be created and looked up
+ * from many sessions at once, and checking an ID for duplicates takes constant time.
+ *
  * @see src.factory.User
  * @see src.factory.Buyer
  * @see src.factory.Seller
  * @see src.factory.Broker
  */
 public class UserFactory {
-    /** Collection of all brokers in the system */
-    private static final List<Broker> brokers = new ArrayList<>();
-    
-    /** Collection of all sellers in the system */
-    private static final List<Seller> sellers = new ArrayList<>();
-    
-    /** Collection of all buyers in the system */
-    private static final List<Buyer> buyers = new ArrayList<>();
-    
+    /**
+     * First ID handed out by allocation. IDs chosen by callers are expected
+     * to stay below it, so the two never compete for the same IDs.
+     */
+    public static final int FIRST_ALLOCATED_ID = 1_000_000_000;
+
+    /** Users of each type, indexed by user ID */
+    private static final Map<User.UserType, ConcurrentHashMap<Integer, User>> registries =
+            new EnumMap<>(User.UserType.class);
+
+    /** Next ID to try when allocating an ID, for each user type */
+    private static final Map<User.UserType, AtomicInteger> nextAllocatedIds =
+            new EnumMap<>(User.UserType.class);
+
+    static {
+        for (User.UserType type : User.UserType.values()) {
+            registries.put(type, new ConcurrentHashMap<>());
+            nextAllocatedIds.put(type, new AtomicInteger(FIRST_ALLOCATED_ID));
+        }
+    }
+
     /**
      * Creates a user of the specified type with the given ID.
      * This is the main factory method that delegates to specific creation methods.
-     * 
+     *
      * @param type The type of user to create (BUYER, SELLER, or BROKER)
      * @param userId The unique identifier for the user
      * @return The created user instance
@@ -45,83 +67,165 @@ public class UserFactory {
      *                                  within the same type, or if userId is negative
      */
     public static User createUser(User.UserType type, int userId) {
-        return switch (type) {
-            case BROKER -> createBroker(userId);
-            case SELLER -> createSeller(userId);
-            case BUYER -> createBuyer(userId);
-        };
+        User user = newUser(type, userId);
+        if (registries.get(type).putIfAbsent(userId, user) != null) {
+            throw new IllegalArgumentException(typeName(type) + " with ID " + userId + " already exists.");
+        }
+        AuditJournal.getInstance().userCreated(typeName(type), userId);
+        return user;
     }
-    
+
     /**
-     * Creates a new broker with the specified ID.
-     * 
-     * @param userId The unique identifier for the broker
-     * @return The created broker instance
-     * @throws IllegalArgumentException if a broker with the same ID already exists
+     * Creates a user of the specified type with a newly allocated ID.
+     * IDs are allocated without locking, starting at FIRST_ALLOCATED_ID and
+     * skipping IDs already in use.
+     *
+     * @param type The type of user to create (BUYER, SELLER, or BROKER)
+     * @return The created user instance
+     * @throws IllegalStateException if no ID is left to allocate
      */
-    private static Broker createBroker(int userId) {
-        for (Broker broker : brokers) {
-            if (broker.getUserId() == userId) {
-                throw new IllegalArgumentException("Broker with ID " + userId + " already exists.");
+    public static User createUser(User.UserType type) {
+        ConcurrentHashMap<Integer, User> registry = registries.get(type);
+        AtomicInteger nextId = nextAllocatedIds.get(type);
+        while (true) {
+            int userId = nextId.getAndIncrement();
+            if (userId < FIRST_ALLOCATED_ID) {
+                // The counter wrapped around
+                throw new IllegalStateException("No " + typeName(type) + " ID left to allocate");
+            }
+            if (registry.containsKey(userId)) {
+                continue;
+            }
+            User user = newUser(type, userId);
+            if (registry.putIfAbsent(userId, user) == null) {
+                AuditJournal.getInstance().userCreated(typeName(type), userId);
+                return user;
             }
         }
-        Broker broker = new Broker(userId);
-        brokers.add(broker);
-        System.out.println("Broker created with ID: " + broker.getUserId());
-        return broker;
     }
 
     /**
-     * Creates a new seller with the specified ID.
-     * 
-     * @param userId The unique identifier for the seller
-     * @return The created seller instance
-     * @throws IllegalArgumentException if a seller with the same ID already exists
+     * Creates a number of users of the specified type with newly allocated IDs.
+     *
+     * @param type The type of users to create
+     * @param count The number of users to create (must not be negative)
+     * @return The created users
+     * @throws IllegalArgumentException if count is negative
+     * @throws IllegalStateException if no ID is left to allocate
      */
-    private static Seller createSeller(int userId) {
-        for (Seller seller : sellers) {
-            if (seller.getUserId() == userId) {
-                throw new IllegalArgumentException("Seller with ID " + userId + " already exists.");
-            }
+    public static List<User> createUsers(User.UserType type, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Number of users cannot be negative");
+        }
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(createUser(type));
         }
-            
-        Seller seller = new Seller(userId);
-        sellers.add(seller);
-        System.out.println("Seller created with ID: " + seller.getUserId());
-        return seller;
+        return users;
     }
-    
+
     /**
-     * Creates a new buyer with the specified ID.
-     * 
-     * @param userId The unique identifier for the buyer
-     * @return The created buyer instance
-     * @throws IllegalArgumentException if a buyer with the same ID already exists
+     * Creates users of the specified type with the given IDs, all or none.
+     * If any ID is invalid, repeated or already used, no user is created.
+     *
+     * @param type The type of users to create
+     * @param userIds The unique identifiers of the users
+     * @return The created users, in the order of the IDs
+     * @throws IllegalArgumentException if userIds is null, if an ID is negative,
+     *                                  repeated, or already used within the same type
      */
-    private static Buyer createBuyer(int userId) {
-        for (Buyer buyer : buyers) {
-            if (buyer.getUserId() == userId) {
-                throw new IllegalArgumentException("Buyer with ID " + userId + " already exists.");
+    public static List<User> createUsers(User.UserType type, int[] userIds) {
+        if (userIds == null) {
+            throw new IllegalArgumentException("User IDs cannot be null");
+        }
+        List<User> users = new ArrayList<>(userIds.length);
+        for (int userId : userIds) {
+            users.add(newUser(type, userId));
+        }
+        ConcurrentHashMap<Integer, User> registry = registries.get(type);
+        for (int i = 0; i < users.size(); i++) {
+            if (registry.putIfAbsent(userIds[i], users.get(i)) != null) {
+                // Undo the users registered so far
+                for (int j = 0; j < i; j++) {
+                    registry.remove(userIds[j], users.get(j));
+                }
+                throw new IllegalArgumentException(typeName(type) + " with ID " + userIds[i] + " already exists.");
+            }
+        }
+        AuditJournal journal = AuditJournal.getInstance();
+        if (journal.isEnabled(AuditJournal.Level.INFO)) {
+            for (int userId : userIds) {
+                journal.userCreated(typeName(type), userId);
             }
         }
-        Buyer buyer = new Buyer(userId);
-        buyers.add(buyer);
-        System.out.println("Buyer created with ID: " + buyer.getUserId());
-        return buyer;
+        return users;
     }
-    
+
+    /**
+     * Finds a user by type and ID.
+     *
+     * @param type The type of the user
+     * @param userId The identifier of the user
+     * @return The user, or null if no user of this type has this ID
+     */
+    public static User findUser(User.UserType type, int userId) {
+        return registries.get(type).get(userId);
+    }
+
+    /**
+     * Gets the number of users of a type.
+     *
+     * @param type The type of users to count
+     * @return The number of users of this type
+     */
+    public static int getUserCount(User.UserType type) {
+        return registries.get(type).size();
+    }
+
+    /**
+     * Creates a new user object of the specified type, without registering it.
+     *
+     * @param type The type of user to create
+     * @param userId The identifier of the user
+     * @return The new user
+     * @throws IllegalArgumentException if userId is negative
+     */
+    private static User newUser(User.UserType type, int userId) {
+        return switch (type) {
+            case BROKER -> new Broker(userId);
+            case SELLER -> new Seller(userId);
+            case BUYER -> new Buyer(userId);
+        };
+    }
+
+    /**
+     * Gets the name of a user type as used in messages.
+     *
+     * @param type The user type
+     * @return The name, for example "Broker"
+     */
+    private static String typeName(User.UserType type) {
+        return switch (type) {
+            case BROKER -> "Broker";
+            case SELLER -> "Seller";
+            case BUYER -> "Buyer";
+        };
+    }
+
     /**
      * Sets up observer relationships between sellers and brokers.
      * Each seller will notify all brokers when a property is deleted.
-     * This method should be called after creating all users.
-     * 
+     * This method should be called after creating all users; calling it again
+     * subscribes the brokers created since.
+     *
      * Implements the Observer pattern where:
-     * - Sellers are subjects that notify when properties are deleted
-     * - Brokers are observers that receive deletion notifications
+     * - Sellers are subjects that publish deletions on the PropertyDeletionBus
+     * - Brokers are observers subscribed to the bus
      */
     public static void setupObserver() {
-        sellers.forEach(seller -> 
-            brokers.forEach(broker -> 
-                seller.setObserver(broker)));
+        PropertyDeletionBus bus = PropertyDeletionBus.getInstance();
+        for (User broker : registries.get(User.UserType.BROKER).values()) {
+            bus.subscribe((Broker) broker);
+        }
     }
-} 
+}
@@ -0,0 +1,45 @@
+package src.main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a deal executed by the SystemManager, alone or in a batch.
+ * Its fields are only filled in when Flight Recorder keeps the event.
+ *
+ * @see src.main.SystemManager#executeWholeDeal
+ * @see src.main.SystemManager#executeDeals
+ */
+@Name("src.Deal")
+@Label("Deal")
+@Category({"Real Estate", "Deal"})
+@Description("Sale of a property with its additional services")
+class DealEvent extends Event {
+
+    @Label("Street")
+    @Description("Street of the property")
+    int street;
+
+    @Label("Avenue")
+    @Description("Avenue of the property")
+    int avenue;
+
+    @Label("Services")
+    @Description("Requested additional services")
+    String services;
+
+    @Label("Broker")
+    @Description("ID of the broker managing the deal")
+    int brokerId;
+
+    @Label("Status")
+    @Description("How the deal ended: COMMITTED, ALREADY_SOLD or INVALID")
+    String status;
+
+    @Label("Total Price")
+    @Description("Price of the property and services, for committed deals")
+    double totalPrice;
+}
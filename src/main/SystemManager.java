@@ -4,12 +4,31 @@ import src.decorator.*;
 import src.factory.Broker;
 import src.factory.Buyer;
 import src.factory.Seller;
-import src.util.FileReaderProperty;
+import src.observer.PropertyChangeObserver;
+import src.util.AddressKey;
+import src.util.AuditJournal;
+import src.util.BulkPropertyLoader;
+import src.util.ColumnarPropertyStore;
+import src.util.DuplicateAddressReport;
+import src.util.IndexedPropertyStore;
+import src.util.InventorySnapshot;
+import src.util.MetricsRegistry;
+import src.util.OperationMetrics;
 import src.util.Property;
+import src.util.PropertyMutationLog;
+import src.util.PropertySnapshotFile;
+import src.util.PropertyStore;
+import src.util.RadiusAggregate;
+import src.util.StripedPropertyStore;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Central system manager for the Manhattan real estate broker system.
@@ -27,58 +46,616 @@ import java.util.List;
  * - Moving services
  * - Design services
  * 
+ * Properties are kept in a PropertyStore whose memory layout can be chosen
+ * with setStorageLayout (see StorageLayout).
+ * 
+ * By default the system is meant to be used from a single thread. When many
+ * broker and seller sessions run in parallel, setConcurrentMode(true) switches
+ * to a lock-striped store where reads run concurrently and writers only lock
+ * the neighborhood block of the property they change.
+ * 
+ * The full property list is served from an immutable, versioned snapshot
+ * (see getSnapshot) that is shared by all readers until the next change.
+ * 
+ * Edits, deletions and sales are kept in memory only, unless a write-ahead log
+ * is enabled with enableWriteAheadLog: each change is then recorded durably
+ * before it is reported as done, and replayed on the next startup.
+ * 
+ * Components that keep data derived from the inventory can register a
+ * PropertyChangeObserver to be told which addresses each change affects.
+ * 
+ * Removals, updates, deals and radius scans record their latency in the
+ * MetricsRegistry, where they can be read over JMX. Deals are also reported
+ * to Flight Recorder as DealEvents.
+ * 
+ * @see src.util.MetricsRegistry
  * @see src.decorator.Deal
  * @see src.util.Property
+ * @see src.util.PropertyStore
+ * @see src.observer.PropertyChangeObserver
  * @see src.factory.User
  */
 public class SystemManager {
-    /** Single instance of SystemManager (Singleton pattern) */
-    private static SystemManager instance = null;
+    /**
+     * Enumeration defining the memory layouts available for storing properties.
+     */
+    public enum StorageLayout {
+        /** One object per property, with address and spatial grid indexes (default) */
+        INDEXED,
+        /** Parallel primitive arrays per attribute, scanned sequentially */
+        COLUMNAR
+    }
+
+    /** Number of lock stripes used in concurrent mode */
+    private static final int CONCURRENT_LOCK_STRIPES = 64;
+
+    /** Default log size in bytes after which the log is compacted into a snapshot */
+    private static final long DEFAULT_LOG_COMPACTION_THRESHOLD = 64L * 1024 * 1024;
+
+    /** Metrics of removeProperty */
+    private static final OperationMetrics REMOVE_METRICS = MetricsRegistry.getInstance().operation("system.remove");
+
+    /** Metrics of updateProperty */
+    private static final OperationMetrics UPDATE_METRICS = MetricsRegistry.getInstance().operation("system.update");
+
+    /** Metrics of deals, single or in batches */
+    private static final OperationMetrics DEAL_METRICS = MetricsRegistry.getInstance().operation("system.deal");
+
+    /** Metrics of findPropertiesInRadius */
+    private static final OperationMetrics RADIUS_METRICS = MetricsRegistry.getInstance().operation("system.radius");
+
+    /**
+     * Holder of the single instance of SystemManager (Singleton pattern).
+     * The class is initialized on first use by the JVM, which guarantees the
+     * instance is created once and safely published to all threads.
+     */
+    private static class InstanceHolder {
+        private static final SystemManager INSTANCE = new SystemManager();
+    }
     
-    /** List to store all properties in the system */
-    private final List<Property> properties;
+    /** Store holding all properties in the system, indexed by address */
+    private volatile PropertyStore properties;
+
+    /** The memory layout of the current store */
+    private volatile StorageLayout storageLayout;
+
+    /** Whether the lock-striped store is used */
+    private volatile boolean concurrentMode;
+
+    /** Inventory version, incremented after every change to the set of properties */
+    private final AtomicLong version;
+
+    /** The latest published snapshot of the inventory */
+    private final AtomicReference<InventorySnapshot> snapshot;
+
+    /** The write-ahead log of mutations, or null if logging is disabled */
+    private volatile PropertyMutationLog mutationLog;
+
+    /** The snapshot file the log is compacted into */
+    private String logSnapshotPath;
+
+    /** Log size in bytes after which the log is compacted */
+    private long logCompactionThreshold;
+
+    /** Orders changes and their log records, so the log replays in the order changes were applied */
+    private final Object logMutex = new Object();
+
+    /** Observers notified after every change to the inventory */
+    private final CopyOnWriteArrayList<PropertyChangeObserver> changeObservers;
 
     /**
      * Private constructor to prevent direct instantiation.
-     * Initializes the properties list.
+     * Initializes an empty store with the default layout.
      */
     private SystemManager() {
-        properties = new ArrayList<>();
+        properties = new IndexedPropertyStore();
+        storageLayout = StorageLayout.INDEXED;
+        version = new AtomicLong();
+        snapshot = new AtomicReference<>(new InventorySnapshot(0, new ArrayList<>()));
+        changeObservers = new CopyOnWriteArrayList<>();
     }
     
     /**
      * Returns the single instance of SystemManager (Singleton pattern).
-     * Creates the instance if it doesn't exist.
+     * Creates the instance on first call; safe to call from any thread.
      * 
      * @return The single SystemManager instance
      */
     public static SystemManager getInstance() {
-        if (instance == null) {
-            instance = new SystemManager();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
     
+    /**
+     * Gets the memory layout used to store properties.
+     * 
+     * @return The current storage layout
+     */
+    public StorageLayout getStorageLayout() {
+        return storageLayout;
+    }
+
+    /**
+     * Changes the memory layout used to store properties.
+     * Existing properties are moved to a new store of the requested layout.
+     * 
+     * With the COLUMNAR layout the store hands out its own Property views,
+     * so Property objects obtained before the change are no longer linked to the system.
+     * 
+     * @param layout The new storage layout
+     * @throws IllegalArgumentException if layout is null
+     * @throws IllegalStateException if the COLUMNAR layout is requested in concurrent mode
+     */
+    public synchronized void setStorageLayout(StorageLayout layout) {
+        if (layout == null) {
+            throw new IllegalArgumentException("Storage layout cannot be null");
+        }
+        if (layout == storageLayout) {
+            return;
+        }
+        if (concurrentMode && layout == StorageLayout.COLUMNAR) {
+            throw new IllegalStateException("The columnar layout is not supported in concurrent mode");
+        }
+        migrateTo(createStore(layout, concurrentMode));
+        storageLayout = layout;
+    }
+
+    /**
+     * Checks whether the system is in concurrent mode.
+     * 
+     * @return true if the lock-striped store is used, false otherwise
+     */
+    public boolean isConcurrentMode() {
+        return concurrentMode;
+    }
+
+    /**
+     * Enables or disables concurrent mode.
+     * In concurrent mode properties are partitioned by neighborhood block into lock stripes,
+     * so lookups and searches run in parallel and edits, deletions and deals only lock
+     * the stripe of the property they change. Existing properties are moved to the new store.
+     * 
+     * This should be called before sessions start using the system.
+     * Concurrent mode requires the INDEXED storage layout, because columnar views
+     * read their row without holding the stripe lock.
+     * 
+     * @param enabled true to enable concurrent mode, false to disable it
+     * @throws IllegalStateException if enabling concurrent mode with the COLUMNAR layout
+     * @see src.util.StripedPropertyStore
+     */
+    public synchronized void setConcurrentMode(boolean enabled) {
+        if (enabled == concurrentMode) {
+            return;
+        }
+        if (enabled && storageLayout == StorageLayout.COLUMNAR) {
+            throw new IllegalStateException("The columnar layout is not supported in concurrent mode");
+        }
+        migrateTo(createStore(storageLayout, enabled));
+        concurrentMode = enabled;
+    }
+
+    /**
+     * Creates an empty store for the given layout and mode.
+     * 
+     * @param layout The storage layout
+     * @param concurrent true to create a lock-striped store
+     * @return The new store
+     */
+    private static PropertyStore createStore(StorageLayout layout, boolean concurrent) {
+        if (concurrent) {
+            return new StripedPropertyStore(CONCURRENT_LOCK_STRIPES, IndexedPropertyStore::withoutAggregateIndex);
+        }
+        return switch (layout) {
+            case INDEXED -> new IndexedPropertyStore();
+            case COLUMNAR -> new ColumnarPropertyStore();
+        };
+    }
+
+    /**
+     * Moves all properties to a new store and makes it the current store.
+     * 
+     * @param store The new store
+     */
+    private void migrateTo(PropertyStore store) {
+        for (Property property : properties.toList()) {
+            store.put(property);
+        }
+        properties = store;
+        version.incrementAndGet();
+        notifyInventoryChanged();
+    }
+
     /**
      * Initializes the system with properties from a file.
-     * Uses FileReaderProperty to read and parse property data.
+     * Uses BulkPropertyLoader to parse the file in parallel and add the properties
+     * directly to the store. Nothing is loaded if the file contains an invalid line.
+     * A loaded property replaces any existing property with the same address.
      * 
      * @param filePath The path to the file containing property data
+     * @throws IllegalArgumentException if a property is invalid or an address appears twice in the file
      * @throws RuntimeException if file reading fails
+     * @see src.util.BulkPropertyLoader
      * @see src.util.FileReaderProperty
      */
     public void initializeProperties(String filePath) {
-        FileReaderProperty fileReader = new FileReaderProperty();
-        properties.addAll(fileReader.readPropertiesFromFile(filePath));
+        initializeProperties(filePath, DuplicateAddressReport.Policy.FAIL_FAST);
+    }
+
+    /**
+     * Initializes the system with properties from a file, handling duplicate
+     * addresses within the file with the given policy.
+     * 
+     * @param filePath The path to the file containing property data
+     * @param duplicatePolicy How duplicate addresses in the file are handled
+     * @return The report of the duplicate addresses found in the file
+     * @throws IllegalArgumentException if a property is invalid, or the policy is FAIL_FAST
+     *                                  and an address appears twice in the file
+     * @throws RuntimeException if file reading fails
+     * @see src.util.DuplicateAddressReport
+     */
+    public DuplicateAddressReport initializeProperties(String filePath, DuplicateAddressReport.Policy duplicatePolicy) {
+        DuplicateAddressReport report = new BulkPropertyLoader(duplicatePolicy).loadInto(filePath, properties);
+        version.incrementAndGet();
+        notifyInventoryChanged();
+        return report;
+    }
+
+    /**
+     * Initializes the system with properties from a binary snapshot file.
+     * The file is memory-mapped and decoded column by column, without text parsing.
+     * A loaded property replaces any existing property with the same address.
+     * 
+     * @param filePath The path to the snapshot file
+     * @return The number of properties loaded
+     * @throws IllegalArgumentException if the file is not a valid snapshot
+     * @throws RuntimeException if file reading fails
+     * @see src.util.PropertySnapshotFile
+     */
+    public int initializeFromSnapshot(String filePath) {
+        PropertySnapshotFile snapshotFile = PropertySnapshotFile.read(filePath);
+        for (Property property : snapshotFile.getProperties()) {
+            properties.put(property);
+        }
+        version.incrementAndGet();
+        notifyInventoryChanged();
+        return snapshotFile.getProperties().size();
+    }
+
+    /**
+     * Writes the current inventory to a binary snapshot file.
+     * The file is replaced atomically, so it always holds a complete snapshot.
+     * 
+     * @param filePath The path to the snapshot file
+     * @throws RuntimeException if file writing fails
+     * @see src.util.PropertySnapshotFile
+     */
+    public void writeSnapshot(String filePath) {
+        PropertySnapshotFile.write(filePath, getSnapshot());
+    }
+
+    /**
+     * Enables the write-ahead log with the default compaction threshold.
+     * 
+     * @param logPath The path to the log file
+     * @param snapshotPath The path to the snapshot file the log is compacted into
+     * @return The number of log records replayed
+     * @see #enableWriteAheadLog(String, String, long)
+     */
+    public int enableWriteAheadLog(String logPath, String snapshotPath) {
+        return enableWriteAheadLog(logPath, snapshotPath, DEFAULT_LOG_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Enables the write-ahead log.
+     * 
+     * Changes recorded in an existing log are first replayed on top of the current
+     * inventory, which should have been loaded from the latest snapshot with
+     * initializeFromSnapshot or initializeProperties. From then on every edit,
+     * deletion and sale is appended to the log and synced before the call returns;
+     * concurrent callers share each sync (group commit).
+     * 
+     * When the log grows beyond the compaction threshold, the inventory is written
+     * to the snapshot file and the log is emptied. Bulk loads are not logged:
+     * they are the base the log applies to.
+     * 
+     * This should be called at startup, before sessions start using the system.
+     * 
+     * @param logPath The path to the log file
+     * @param snapshotPath The path to the snapshot file the log is compacted into
+     * @param compactionThreshold The log size in bytes after which the log is compacted (must be positive)
+     * @return The number of log records replayed
+     * @throws IllegalArgumentException if a path is null or compactionThreshold is not positive
+     * @throws IllegalStateException if the log is already enabled
+     * @throws RuntimeException if the log cannot be opened or read
+     * @see src.util.PropertyMutationLog
+     */
+    public synchronized int enableWriteAheadLog(String logPath, String snapshotPath, long compactionThreshold) {
+        if (logPath == null || snapshotPath == null) {
+            throw new IllegalArgumentException("Log and snapshot paths cannot be null");
+        }
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Compaction threshold must be positive");
+        }
+        if (mutationLog != null) {
+            throw new IllegalStateException("Write-ahead log is already enabled");
+        }
+        PropertyMutationLog log = new PropertyMutationLog(logPath);
+        int replayed;
+        try {
+            replayed = log.replayInto(properties);
+        } catch (RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        version.incrementAndGet();
+        notifyInventoryChanged();
+        logSnapshotPath = snapshotPath;
+        logCompactionThreshold = compactionThreshold;
+        mutationLog = log;
+        return replayed;
+    }
+
+    /**
+     * Checks whether the write-ahead log is enabled.
+     * 
+     * @return true if changes are logged, false otherwise
+     */
+    public boolean isWriteAheadLogEnabled() {
+        return mutationLog != null;
+    }
+
+    /**
+     * Writes the inventory to the snapshot file and empties the write-ahead log.
+     * Changes are held back while the snapshot is written.
+     * 
+     * @throws IllegalStateException if the log is not enabled
+     * @throws RuntimeException if the snapshot or the log cannot be written
+     */
+    public void compactLog() {
+        PropertyMutationLog log = mutationLog;
+        if (log == null) {
+            throw new IllegalStateException("Write-ahead log is not enabled");
+        }
+        synchronized (logMutex) {
+            log.flush();
+            // Changes bump the version under the mutex, so the snapshot includes every logged change.
+            // The snapshot is complete on disk before the log is emptied,
+            // and replaying records already in the snapshot is harmless
+            PropertySnapshotFile.write(logSnapshotPath, getSnapshot());
+            log.truncate();
+        }
+    }
+
+    /**
+     * Writes any pending log records and disables the write-ahead log.
+     * 
+     * @throws RuntimeException if the remaining records cannot be written
+     */
+    public synchronized void disableWriteAheadLog() {
+        PropertyMutationLog log = mutationLog;
+        if (log == null) {
+            return;
+        }
+        mutationLog = null;
+        synchronized (logMutex) {
+            log.close();
+        }
+    }
+
+    /**
+     * Waits until a log record is on disk, then compacts the log if it has grown too large.
+     * 
+     * @param log The log the record was appended to
+     * @param sequence The sequence number of the record
+     */
+    private void commit(PropertyMutationLog log, long sequence) {
+        log.awaitDurable(sequence);
+        if (log.size() >= logCompactionThreshold && log == mutationLog) {
+            synchronized (logMutex) {
+                if (log.size() >= logCompactionThreshold) {
+                    compactLog();
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers an observer to be notified after every change to the inventory.
+     * Registering the same observer twice has no effect.
+     * 
+     * @param observer The observer to register
+     * @throws IllegalArgumentException if observer is null
+     * @see src.observer.PropertyChangeObserver
+     */
+    public void addPropertyChangeObserver(PropertyChangeObserver observer) {
+        if (observer == null) {
+            throw new IllegalArgumentException("Observer cannot be null");
+        }
+        changeObservers.addIfAbsent(observer);
+    }
+
+    /**
+     * Unregisters a change observer.
+     * 
+     * @param observer The observer to unregister
+     */
+    public void removePropertyChangeObserver(PropertyChangeObserver observer) {
+        changeObservers.remove(observer);
+    }
+
+    /**
+     * Notifies the observers that the property at an address changed.
+     * 
+     * @param key The address of the changed property
+     */
+    private void notifyPropertyChanged(AddressKey key) {
+        for (PropertyChangeObserver observer : changeObservers) {
+            observer.onPropertyChanged(key);
+        }
+    }
+
+    /**
+     * Notifies the observers that a property was edited, at both addresses if it moved.
+     * 
+     * @param oldKey The address before the edit
+     * @param newKey The address after the edit
+     */
+    private void notifyPropertyMoved(AddressKey oldKey, AddressKey newKey) {
+        notifyPropertyChanged(oldKey);
+        if (!newKey.equals(oldKey)) {
+            notifyPropertyChanged(newKey);
+        }
+    }
+
+    /**
+     * Notifies the observers that many properties may have changed.
+     */
+    private void notifyInventoryChanged() {
+        for (PropertyChangeObserver observer : changeObservers) {
+            observer.onInventoryChanged();
+        }
     }
     
     /**
-     * Returns a copy of all properties in the system.
+     * Returns all properties in the system.
+     * The list comes from the current inventory snapshot and is shared between callers,
+     * so it is not copied on every call and cannot be modified.
      * 
-     * @return A new list containing all properties
+     * @return An unmodifiable list containing all properties
+     * @see #getSnapshot()
      */
     public List<Property> getAllProperties() {
-        return new ArrayList<>(properties);
+        return getSnapshot().getProperties();
+    }
+
+    /**
+     * Returns an immutable snapshot of the current inventory.
+     * 
+     * Snapshots are copy-on-write: changes only bump the inventory version, and the
+     * first reader after a change builds and publishes the snapshot of the new version.
+     * All later readers get the published snapshot without copying, until the next change.
+     * 
+     * @return The snapshot of the current inventory version
+     * @see src.util.InventorySnapshot
+     */
+    public InventorySnapshot getSnapshot() {
+        InventorySnapshot current = snapshot.get();
+        // Read the version before the properties, so the snapshot is never newer than its label
+        long currentVersion = version.get();
+        if (current.getVersion() == currentVersion) {
+            return current;
+        }
+        InventorySnapshot fresh = new InventorySnapshot(currentVersion, properties.toList());
+        // Publish unless another reader already published the same or a newer version
+        return snapshot.accumulateAndGet(fresh,
+                (published, candidate) -> published.getVersion() >= candidate.getVersion() ? published : candidate);
+    }
+
+    /**
+     * Finds a property by its address.
+     * 
+     * @param address The address coordinates of the property
+     * @return The property at the specified address, or null if not found
+     * @throws IllegalArgumentException if address is null
+     */
+    public Property findProperty(int[] address) {
+        return properties.get(address);
+    }
+
+    /**
+     * Returns the properties within a Manhattan distance radius from a center address.
+     * With the default layout only the occupied grid cells inside the radius are visited.
+     * 
+     * @param centerAddress The center point coordinates (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units (must be non-negative)
+     * @return A new list containing the properties in the radius
+     * @see src.util.RadiusCalculator
+     */
+    public List<Property> findPropertiesInRadius(int[] centerAddress, int radius) {
+        long start = RADIUS_METRICS.start();
+        List<Property> result = new ArrayList<>();
+        properties.forEachInRadius(centerAddress[0], centerAddress[1], radius, null, result::add);
+        RADIUS_METRICS.stop(start, result.size(), result.size());
+        return result;
+    }
+
+    /**
+     * Passes every property within a Manhattan distance radius from a center address
+     * that matches the filter to the action, without collecting them into a list.
+     * 
+     * @param centerAddress The center point coordinates (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units (must be non-negative)
+     * @param filter The filter properties must match, or null to include all properties
+     * @param action The action to perform on each matching property
+     * @see src.strategy.PropertyQuery
+     */
+    public void forEachPropertyInRadius(int[] centerAddress, int radius,
+                                        PropertyStore.ValueFilter filter, Consumer<Property> action) {
+        properties.forEachInRadius(centerAddress[0], centerAddress[1], radius, filter, action);
+    }
+
+    /**
+     * Passes the properties within a Manhattan distance radius from a center address that
+     * match the filter and lie on the first occupied street at or after fromStreet to the action.
+     * Used to stream search results one street at a time.
+     * 
+     * @param centerAddress The center point coordinates (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units (must be non-negative)
+     * @param fromStreet The smallest street to visit
+     * @param filter The filter properties must match, or null to include all properties
+     * @param action The action to perform on each matching property of the visited street
+     * @return The visited street, or Long.MIN_VALUE if no street in the radius is left
+     * @see src.strategy.PropertyQuery#spliterator()
+     */
+    public long forEachPropertyInRadiusOnNextStreet(int[] centerAddress, int radius, long fromStreet,
+                                                    PropertyStore.ValueFilter filter, Consumer<Property> action) {
+        return properties.forEachInRadiusOnNextStreet(centerAddress[0], centerAddress[1], radius, fromStreet, filter, action);
+    }
+
+    /**
+     * Passes the values of every property within a Manhattan distance radius from a center address
+     * that matches the filter to the visitor. Used for aggregations that do not need Property objects.
+     * 
+     * @param centerAddress The center point coordinates (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units (must be non-negative)
+     * @param filter The filter properties must match, or null to include all properties
+     * @param visitor The visitor receiving the values of each matching property
+     * @see src.strategy.PropertyQuery
+     */
+    public void visitPropertyValuesInRadius(int[] centerAddress, int radius,
+                                            PropertyStore.ValueFilter filter, PropertyStore.ValueVisitor visitor) {
+        properties.visitValuesInRadius(centerAddress[0], centerAddress[1], radius, filter, visitor);
+    }
+
+    /**
+     * Finds the properties closest to a center address by Manhattan distance.
+     * With the INDEXED layout the search walks outwards from the center and stops
+     * as soon as the closest properties are known, so its cost depends on count
+     * rather than on the size of the inventory.
+     * 
+     * @param centerAddress The center point coordinates (must have at least 2 elements)
+     * @param count The maximum number of properties to return (must be non-negative)
+     * @param maxDistance The largest distance searched (must be non-negative)
+     * @param filter The filter properties must match, or null to include all properties
+     * @return A new list of at most count properties, closest first
+     * @see src.strategy.SearchByNearestStrategy
+     */
+    public List<Property> findNearestProperties(int[] centerAddress, int count, int maxDistance,
+                                                PropertyStore.ValueFilter filter) {
+        return properties.findNearest(centerAddress[0], centerAddress[1], count, maxDistance, filter);
+    }
+
+    /**
+     * Counts the properties within a Manhattan distance radius from a center address
+     * and sums their total prices. With the INDEXED layout this takes constant time,
+     * whatever the number of properties in the radius.
+     * 
+     * @param centerAddress The center point coordinates (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units (must be non-negative)
+     * @return The count and total price of the properties in the radius
+     * @see src.util.RadiusAggregateIndex
+     */
+    public RadiusAggregate aggregatePropertiesInRadius(int[] centerAddress, int radius) {
+        return properties.aggregateInRadius(centerAddress[0], centerAddress[1], radius);
     }
    
     /**
@@ -95,17 +672,50 @@ public class SystemManager {
         if (address.length < 2) {
             throw new IllegalArgumentException("Address must contain at least 2 coordinates");
         }   
-        for (int i = 0; i < properties.size(); i++) {
-            if (Arrays.equals(properties.get(i).getAddress(), address)) {
-                properties.remove(i);
-                return true;
+        long start = REMOVE_METRICS.start();
+        try {
+            // Probe without copying the address; the stored property's key is kept by the log and observers
+            Property current = properties.get(address);
+            return current != null && removeProperty(current.getAddressKey());
+        } finally {
+            REMOVE_METRICS.stop(start);
+        }
+    }
+
+    /**
+     * Removes the property with an address key.
+     * 
+     * @param key The address key of the property to remove
+     * @return true if the property was found and removed, false otherwise
+     */
+    private boolean removeProperty(AddressKey key) {
+        PropertyMutationLog log = mutationLog;
+        if (log == null) {
+            if (properties.remove(key) == null) {
+                return false;
+            }
+            version.incrementAndGet();
+            notifyPropertyChanged(key);
+            return true;
+        }
+        long sequence;
+        synchronized (logMutex) {
+            if (properties.remove(key) == null) {
+                return false;
             }
+            sequence = log.logRemove(key);
+            // Bumped under the mutex, so a compaction never writes a snapshot older than the log
+            version.incrementAndGet();
         }
-        return false;
+        notifyPropertyChanged(key);
+        commit(log, sequence);
+        return true;
     }
     
     /**
      * Updates an existing property in the system.
+     * If the address is unchanged the property keeps its position in the list,
+     * otherwise it is re-indexed under its new address at the end of the list.
      * 
      * @param address The current address of the property to update
      * @param updatedProperty The new property data
@@ -121,28 +731,52 @@ public class SystemManager {
         if  (address.length < 2) {
             throw new IllegalArgumentException("Address must contain at least 2 coordinates");
         }
-        // Check if the new address already exists (if address is being changed)
-        if (!Arrays.equals(address, updatedProperty.getAddress())) {
-            for (Property property : properties) {
-                if (Arrays.equals(property.getAddress(), updatedProperty.getAddress())) {
-                    throw new IllegalArgumentException("Cannot update: new address already exists");
-                }
+        long start = UPDATE_METRICS.start();
+        try {
+            // Probe without copying the address; the stored property's key is kept by the log and observers
+            Property current = properties.get(address);
+            return current != null && updateProperty(current.getAddressKey(), updatedProperty);
+        } finally {
+            UPDATE_METRICS.stop(start);
+        }
+    }
+
+    /**
+     * Replaces the property with an address key.
+     * 
+     * @param key The address key of the property to update
+     * @param updatedProperty The new property data
+     * @return true if the property was found and updated, false otherwise
+     * @throws IllegalArgumentException if the new address already exists
+     */
+    private boolean updateProperty(AddressKey key, Property updatedProperty) {
+        PropertyMutationLog log = mutationLog;
+        if (log == null) {
+            if (!properties.replace(key, updatedProperty)) {
+                return false;
             }
+            version.incrementAndGet();
+            notifyPropertyMoved(key, updatedProperty.getAddressKey());
+            return true;
         }
-        
-        // Find and update the property
-        for (int i = 0; i < properties.size(); i++) {
-            if (Arrays.equals(properties.get(i).getAddress(), address)) {
-                properties.set(i, updatedProperty);
-                return true;
+        long sequence;
+        synchronized (logMutex) {
+            if (!properties.replace(key, updatedProperty)) {
+                return false;
             }
+            sequence = log.logReplace(key, updatedProperty);
+            // Bumped under the mutex, so a compaction never writes a snapshot older than the log
+            version.incrementAndGet();
         }
-        return false;
+        notifyPropertyMoved(key, updatedProperty.getAddressKey());
+        commit(log, sequence);
+        return true;
     }
     
     /**
      * Executes a complete property deal with optional additional services.
-     * Uses the Decorator pattern to add services to the base deal.
+     * Services are resolved into a CompiledDeal, priced like the equivalent decorator chain:
+     * each requested entry is charged, and services are reported in the order they are requested.
      * 
      * Supported services:
      * - "EVENING": Evening services (+$1000)
@@ -150,46 +784,233 @@ public class SystemManager {
      * - "MOVING": Moving services (+$3000)
      * - "DESIGN": Design services (+$4000)
      * 
+     * The property is marked sold with an atomic check, so two brokers cannot both
+     * see the property as available and sell it, even from different threads.
+     * A property that was replaced or removed from the inventory cannot be sold.
+     * With the write-ahead log enabled, the sale is logged before the call returns.
+     * The conversation and the deal are recorded in the AuditJournal.
+     * 
      * @param property The property being sold
      * @param services List of additional services to include
      * @param seller The seller user
      * @param buyer The buyer user
      * @param broker The broker managing the transaction
      * @throws IllegalStateException if the property is already sold
-     * @throws IllegalArgumentException if an unknown service is requested
+     * @throws IllegalArgumentException if an unknown service is requested,
+     *                                  if a participant is null,
+     *                                  or if the property is no longer in the inventory
      */
     public void executeWholeDeal(Property property, List<String> services, Seller seller, Buyer buyer, Broker broker) {
-        // Check if property is already sold
-        if (property.getStatus()) {
-            throw new IllegalStateException("Property is already sold");
-        }
-
-        // Create base deal and apply decorator pattern for additional services
-        Deal deal = new BasicDeal(property, buyer, seller, broker);
-        System.out.println("broker: did you want to add any of the following services?\nEveningServices\nCleaning\nMoving\nDesign");
-        System.out.println("buyer: yes, I want to add services:");
-        if (services.isEmpty()) {
-            System.out.println("No services needed.");
-        } else {
-            services.forEach(service -> System.out.print(service + "\n"));
-        }
-        if (services.isEmpty()) {
-            deal.executeDeal();
-            System.out.println("Total price: " + deal.getTotalPrice()); 
+        long start = DEAL_METRICS.start();
+        DealEvent event = new DealEvent();
+        event.begin();
+        // Rejected deals are measured and recorded too, with the status they would have in a batch
+        DealOutcome.Status status = DealOutcome.Status.INVALID;
+        double totalPrice = 0;
+        try {
+            // Check if property is already sold
+            if (property.getStatus()) {
+                throw new IllegalStateException("Property is already sold");
+            }
+
+            AuditJournal journal = AuditJournal.getInstance();
+            if (journal.isEnabled(AuditJournal.Level.INFO)) {
+                journal.message(AuditJournal.Level.INFO, "broker: did you want to add any of the following services?\nEveningServices\nCleaning\nMoving\nDesign");
+                journal.message(AuditJournal.Level.INFO, "buyer: yes, I want to add services:");
+                journal.message(AuditJournal.Level.INFO, services.isEmpty() ? "No services needed." : String.join("\n", services));
+            }
+            Deal deal = createDeal(property, services, seller, buyer, broker);
+            sell(property, deal);
+            status = DealOutcome.Status.COMMITTED;
+            totalPrice = deal.getTotalPrice();
+            if (journal.isEnabled(AuditJournal.Level.INFO)) {
+                journal.message(AuditJournal.Level.INFO, "Total price: " + totalPrice);
+            }
+        } catch (IllegalStateException e) {
+            status = DealOutcome.Status.ALREADY_SOLD;
+            throw e;
+        } finally {
+            DEAL_METRICS.stop(start);
+            event.end();
+            if (event.shouldCommit()) {
+                commitDealEvent(event, property, services, broker, status, totalPrice);
+            }
+        }
+    }
+
+    /**
+     * Executes a batch of deals in parallel on the common ForkJoinPool.
+     * 
+     * @param requests The deals to execute
+     * @return The outcome of each deal, in the order of the requests
+     * @throws IllegalArgumentException if requests is null
+     * @see #executeDeals(List, ForkJoinPool)
+     */
+    public List<DealOutcome> executeDeals(List<DealRequest> requests) {
+        return executeDeals(requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Executes a batch of deals in parallel, for settlement runs of many deals at once.
+     * 
+     * Every deal marks its property sold with an atomic check, so when several
+     * requests of the batch (or concurrent brokers) target the same property exactly
+     * one of them is committed and the others end as ALREADY_SOLD. A request for a
+     * property that was replaced or removed from the inventory ends as INVALID.
+     * A failing deal never stops the others: each request gets its own outcome.
+     * 
+     * With the write-ahead log enabled, deals running at the same time share the
+     * disk writes of the log, and every committed sale is on disk before this returns.
+     * 
+     * @param requests The deals to execute
+     * @param pool The pool the deals run on
+     * @return The outcome of each deal, in the order of the requests
+     * @throws IllegalArgumentException if requests or pool is null
+     * @see src.decorator.DealOutcome
+     */
+    public List<DealOutcome> executeDeals(List<DealRequest> requests, ForkJoinPool pool) {
+        if (requests == null || pool == null) {
+            throw new IllegalArgumentException("Requests and pool cannot be null");
+        }
+        List<ForkJoinTask<DealOutcome>> tasks = new ArrayList<>(requests.size());
+        for (DealRequest request : requests) {
+            tasks.add(pool.submit(() -> executeDeal(request)));
+        }
+        List<DealOutcome> outcomes = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<DealOutcome> task : tasks) {
+            outcomes.add(task.join());
+        }
+        return outcomes;
+    }
+
+    /**
+     * Executes one deal and reports how it ended instead of throwing.
+     * Used for each deal of a batch, and by callers that answer many clients,
+     * such as the HTTP front end, where a deal that fails is a normal outcome.
+     * 
+     * @param request The deal to execute
+     * @return The outcome of the deal
+     * @throws IllegalArgumentException if request is null
+     * @see src.server.PropertyHttpServer
+     */
+    public DealOutcome executeDeal(DealRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Request cannot be null");
+        }
+        long start = DEAL_METRICS.start();
+        DealEvent event = new DealEvent();
+        event.begin();
+        DealOutcome outcome = executeDealRequest(request);
+        DEAL_METRICS.stop(start);
+        event.end();
+        if (event.shouldCommit()) {
+            commitDealEvent(event, request.getProperty(), request.getServices(), request.getBroker(),
+                    outcome.getStatus(), outcome.getTotalPrice());
+        }
+        return outcome;
+    }
+
+    /**
+     * Fills in and commits the Flight Recorder event of a deal.
+     * 
+     * @param event The ended event
+     * @param property The property of the deal
+     * @param services The requested services
+     * @param broker The broker managing the deal
+     * @param status How the deal ended
+     * @param totalPrice The total price of a committed deal, 0 otherwise
+     */
+    private static void commitDealEvent(DealEvent event, Property property, List<String> services, Broker broker,
+                                        DealOutcome.Status status, double totalPrice) {
+        if (property != null) {
+            int[] address = property.getAddress();
+            event.street = address[0];
+            event.avenue = address[1];
+        }
+        event.services = services == null ? null : String.join(",", services);
+        event.brokerId = broker == null ? -1 : broker.getUserId();
+        event.status = status.name();
+        event.totalPrice = totalPrice;
+        event.commit();
+    }
+
+    /**
+     * Executes the deal of a request.
+     * 
+     * @param request The deal to execute
+     * @return The outcome of the deal
+     */
+    private DealOutcome executeDealRequest(DealRequest request) {
+        Property property = request.getProperty();
+        Deal deal;
+        try {
+            deal = createDeal(property, request.getServices(), request.getSeller(), request.getBuyer(), request.getBroker());
+            sell(property, deal);
+        } catch (IllegalArgumentException e) {
+            return new DealOutcome(request, DealOutcome.Status.INVALID, 0, e.getMessage());
+        } catch (IllegalStateException e) {
+            return new DealOutcome(request, DealOutcome.Status.ALREADY_SOLD, 0, e.getMessage());
+        }
+        return new DealOutcome(request, DealOutcome.Status.COMMITTED, deal.getTotalPrice(), null);
+    }
+
+    /**
+     * Creates the deal for a property with the requested services.
+     * The service names are resolved once into a list of services, so the deal is priced
+     * without a chain of decorators.
+     * 
+     * @param property The property being sold
+     * @param services List of additional services to include
+     * @param seller The seller user
+     * @param buyer The buyer user
+     * @param broker The broker managing the transaction
+     * @return The deal
+     * @throws IllegalArgumentException if an unknown service is requested
+     * @see src.decorator.CompiledDeal
+     */
+    private static Deal createDeal(Property property, List<String> services, Seller seller, Buyer buyer, Broker broker) {
+        return new CompiledDeal(property, buyer, seller, broker, DealService.resolve(services));
+    }
+
+    /**
+     * Executes a deal on a property of the inventory, then notifies observers of the sale
+     * and waits until it is logged, if the log is enabled.
+     * The check that the property is still in the inventory and the sale run as one step
+     * of the store, so a concurrent replacement or removal of the address cannot slip in
+     * between. With the log enabled they also run under the log mutex together with the
+     * MARK_SOLD record, which is ordered against the REPLACE and REMOVE records.
+     * 
+     * @param property The property being sold
+     * @param deal The deal for the property
+     * @throws IllegalArgumentException if the property is no longer in the inventory
+     * @throws IllegalStateException if the property is already sold
+     */
+    private void sell(Property property, Deal deal) {
+        AddressKey key = property.getAddressKey();
+        PropertyMutationLog log = mutationLog;
+        if (log == null) {
+            requireCurrent(properties.runIfCurrent(key, property, deal::executeDeal));
+            notifyPropertyChanged(key);
             return;
         }
-        
-        // Apply decorators based on requested services
-        for (String service : services) {
-            switch (service.toUpperCase()) {
-                case "EVENING" -> deal = new EveningServicesDecorator(deal);
-                case "CLEANING" -> deal = new CleaningDecorator(deal);
-                case "MOVING" -> deal = new MovingDecorator(deal);
-                case "DESIGN" -> deal = new DesignDecorator(deal);
-                default -> throw new IllegalArgumentException("Unknown service: " + service);
-            }
+        long sequence;
+        synchronized (logMutex) {
+            requireCurrent(properties.runIfCurrent(key, property, deal::executeDeal));
+            sequence = log.logMarkSold(key);
+        }
+        notifyPropertyChanged(key);
+        commit(log, sequence);
+    }
+
+    /**
+     * Checks that a deal ran on a property still stored under its address.
+     * 
+     * @param current Whether the deal ran
+     * @throws IllegalArgumentException if the property was replaced or removed
+     */
+    private static void requireCurrent(boolean current) {
+        if (!current) {
+            throw new IllegalArgumentException("Property is no longer in the inventory");
         }
-        deal.executeDeal();
-            System.out.println("Total price: " + deal.getTotalPrice()); 
     }
-} 
+}
@@ -1,12 +1,15 @@
 package src.main;
 
 import src.factory.*;
+import src.observer.PropertyDeletionBus;
 import src.strategy.SearchByAveragePriceStrategy;
 import src.strategy.SearchByStatusStrategy;
+import src.util.AuditJournal;
 import src.util.Property;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main demonstration class for the Manhattan Real Estate System.
@@ -40,8 +43,12 @@ public class runningExample {
      * 
      * @param args Command line arguments (not used)
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         System.out.println("welcome to my project this is the running example");
+
+        // Events are written by the audit journal's background thread; include property views
+        AuditJournal journal = AuditJournal.getInstance();
+        journal.setLevel(AuditJournal.Level.DEBUG);
         
         // Initialize system using Singleton pattern
         SystemManager systemManager = SystemManager.getInstance();
@@ -58,6 +65,7 @@ public class runningExample {
         
         // Set up Observer pattern relationships
         UserFactory.setupObserver();
+        journal.flush();
         
         // Display all properties in the system
         System.out.println("\nlist of all Properties in the system:");
@@ -68,6 +76,9 @@ public class runningExample {
         // Demonstrate Observer pattern: seller deletes property, brokers get notified
         System.out.println("\nThe seller will send a message to the brokers (observer) when the property is sold.");
         seller1.deleteProperty(systemManager.getAllProperties().get(2).getAddress());
+        // Brokers are notified on their own threads; wait for them before moving on
+        PropertyDeletionBus.getInstance().awaitDelivery(1, TimeUnit.SECONDS);
+        journal.flush();
         
         // Show properties after deletion
         System.out.println("\nlist of all Properties in the system after deletion:");
@@ -78,6 +89,7 @@ public class runningExample {
         // Demonstrate ViewPermission: buyer views property details
         System.out.println("\nthe buyer can see all the property details,for example the 2nd property ");
         buyer1.viewProperty(systemManager.getAllProperties().get(1).getAddress());  
+        journal.flush();
         
         // Demonstrate EditPermission: broker edits property
         Property updatedProperty = new Property(new int[]{4,5,1,1}, 80, 10000, false);
@@ -110,6 +122,7 @@ public class runningExample {
         System.out.println("\nexecute deal with no services");
         List<String> services = new ArrayList<>();
         systemManager.executeWholeDeal(systemManager.getAllProperties().get(0), services, seller1, buyer1, broker1);
+        journal.flush();
         System.out.println("\n");
 
         // Demonstrate Decorator pattern: execute deal with multiple services
@@ -117,6 +130,7 @@ public class runningExample {
         services.add("cleaning");
         System.out.println("\nexecute deal with services");
         systemManager.executeWholeDeal(systemManager.getAllProperties().get(2), services, seller2, buyer2, broker2);
+        journal.flush();
 
         // Show that properties are now sold
         System.out.println("\nthe property's status is true after the deals");
@@ -0,0 +1,39 @@
+package src.observer;
+
+import src.util.AddressKey;
+
+/**
+ * Observer interface for receiving notifications about changes to the inventory.
+ * Part of the Observer pattern implementation in the real estate system.
+ *
+ * The SystemManager notifies its registered observers after every change,
+ * so components that keep data derived from the inventory, such as cached
+ * search results, can discard exactly the data the change affects.
+ *
+ * Observer Pattern participants:
+ * - Subject: SystemManager (which applies every change)
+ * - Observer: components holding derived data
+ * - ConcreteObserver: SearchResultCache implements this interface
+ *
+ * Notifications are delivered on the thread that made the change, after the
+ * change is visible to readers. Observers should return quickly.
+ *
+ * @see src.main.SystemManager
+ * @see src.strategy.SearchResultCache
+ */
+public interface PropertyChangeObserver {
+
+    /**
+     * Called when a property is edited, deleted or sold.
+     * An edit that moves a property is reported for both its old and its new address.
+     *
+     * @param address The address of the changed property
+     */
+    void onPropertyChanged(AddressKey address);
+
+    /**
+     * Called when many properties may have changed at once, such as after a bulk
+     * load, a log replay or a change of storage layout.
+     */
+    void onInventoryChanged();
+}
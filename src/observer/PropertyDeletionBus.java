@@ -0,0 +1,440 @@
+package src.observer;
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Event bus delivering property deletions to any number of observers, asynchronously.
+ *
+ * Deletions are published into a fixed-size ring buffer shared by all subscribers:
+ * - publish claims the next sequence number with one atomic increment and writes
+ *   the event into its slot; it never locks, waits or touches the subscribers, so
+ *   its cost does not depend on how many observers listen or how slow they are
+ * - every subscriber has its own position in the ring and is served by one of a small
+ *   fixed set of dispatcher threads; a dispatcher walks its subscribers, delivering to
+ *   each a bounded batch of the events published since its last pass, and blocks when
+ *   none of them has anything left until the next publish wakes it
+ *
+ * Subscribers are spread over the dispatchers, so any number of observers costs
+ * the same few threads. Observers sharing a dispatcher wait for each other, so a
+ * blocked observer delays the others on its dispatcher but never the publishers.
+ *
+ * Each subscriber receives the events in publication order. A subscriber that falls
+ * more than the ring capacity behind skips the events it missed, which are counted
+ * (see getMissedCount), rather than slowing down publishers. An exception thrown by
+ * an observer is counted and does not stop delivery.
+ *
+ * Example - every broker is told about deletions made by any seller:
+ * PropertyDeletionBus.getInstance().subscribe(broker);
+ * PropertyDeletionBus.getInstance().publish(new int[]{4, 5});
+ *
+ * @see src.observer.PropertyDeletionObserver
+ * @see src.factory.Seller
+ */
+public class PropertyDeletionBus {
+
+    /** Default number of events kept in the ring */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Default number of dispatcher threads */
+    public static final int DEFAULT_DISPATCHERS = 4;
+
+    /** Largest number of events delivered to one subscriber before moving to the next */
+    private static final int MAX_BATCH = 256;
+
+    /** Pause between checks of awaitDelivery */
+    private static final long AWAIT_PAUSE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** Number of dispatcher threads started, used to name them */
+    private static final AtomicLong threadCount = new AtomicLong();
+
+    /**
+     * Holder of the shared bus, created on first use.
+     */
+    private static class InstanceHolder {
+        private static final PropertyDeletionBus INSTANCE = new PropertyDeletionBus(DEFAULT_CAPACITY, DEFAULT_DISPATCHERS);
+    }
+
+    /** The ring of published events, indexed by sequence & mask */
+    private final AtomicReferenceArray<Event> ring;
+
+    /** Capacity - 1, the capacity being a power of two */
+    private final int mask;
+
+    /** Sequence number of the next event to publish */
+    private final AtomicLong nextSequence;
+
+    /** The subscriptions currently delivering events */
+    private final CopyOnWriteArrayList<Subscription> subscriptions;
+
+    /** The dispatchers serving the subscriptions */
+    private final Dispatcher[] dispatchers;
+
+    /**
+     * Constructs a bus whose ring holds the given number of events,
+     * with the default number of dispatcher threads.
+     *
+     * @param capacity The ring capacity (must be a positive power of two)
+     * @throws IllegalArgumentException if capacity is not a positive power of two
+     */
+    public PropertyDeletionBus(int capacity) {
+        this(capacity, DEFAULT_DISPATCHERS);
+    }
+
+    /**
+     * Constructs a bus whose ring holds the given number of events.
+     * Dispatcher threads are started with the first subscriber they serve
+     * and end when they have no subscribers left.
+     *
+     * @param capacity The ring capacity (must be a positive power of two)
+     * @param dispatchers The largest number of threads delivering events
+     * @throws IllegalArgumentException if capacity is not a positive power of two
+     *                                  or if dispatchers is not positive
+     */
+    public PropertyDeletionBus(int capacity, int dispatchers) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+        }
+        if (dispatchers <= 0) {
+            throw new IllegalArgumentException("Dispatcher count must be positive");
+        }
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.nextSequence = new AtomicLong();
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.dispatchers = new Dispatcher[dispatchers];
+        for (int i = 0; i < dispatchers; i++) {
+            this.dispatchers[i] = new Dispatcher();
+        }
+    }
+
+    /**
+     * Returns the bus shared by all sellers and brokers.
+     *
+     * @return The shared bus
+     */
+    public static PropertyDeletionBus getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Subscribes an observer to the deletions published from now on.
+     * Subscribing an observer that is already subscribed has no effect.
+     *
+     * @param observer The observer to notify
+     * @return true if the observer was subscribed, false if it already was
+     * @throws IllegalArgumentException if observer is null
+     */
+    public synchronized boolean subscribe(PropertyDeletionObserver observer) {
+        if (observer == null) {
+            throw new IllegalArgumentException("Observer cannot be null");
+        }
+        if (find(observer) != null) {
+            return false;
+        }
+        Dispatcher dispatcher = dispatchers[0];
+        for (Dispatcher candidate : dispatchers) {
+            if (candidate.subscriptions.size() < dispatcher.subscriptions.size()) {
+                dispatcher = candidate;
+            }
+        }
+        Subscription subscription = new Subscription(observer, nextSequence.get(), dispatcher);
+        subscriptions.add(subscription);
+        dispatcher.subscriptions.add(subscription);
+        dispatcher.start();
+        return true;
+    }
+
+    /**
+     * Unsubscribes an observer. Events it has not received yet are not delivered.
+     *
+     * @param observer The observer to remove
+     * @return true if the observer was subscribed
+     */
+    public synchronized boolean unsubscribe(PropertyDeletionObserver observer) {
+        Subscription subscription = find(observer);
+        if (subscription == null) {
+            return false;
+        }
+        subscriptions.remove(subscription);
+        subscription.running = false;
+        subscription.dispatcher.subscriptions.remove(subscription);
+        subscription.dispatcher.wake();
+        return true;
+    }
+
+    /**
+     * Gets the number of subscribed observers.
+     *
+     * @return The number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Publishes the deletion of a property to all subscribers.
+     * Returns as soon as the event is in the ring and idle dispatchers are woken;
+     * observers are notified on the dispatcher threads.
+     *
+     * @param address The address of the deleted property
+     * @throws IllegalArgumentException if address is null
+     */
+    public void publish(int[] address) {
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        long sequence = nextSequence.getAndIncrement();
+        ring.set((int) (sequence & mask), new Event(sequence, Arrays.copyOf(address, address.length)));
+        for (Dispatcher dispatcher : dispatchers) {
+            if (dispatcher.waiting) {
+                dispatcher.wake();
+            }
+        }
+    }
+
+    /**
+     * Waits until every subscriber has handled the events published before this call.
+     * Meant for orderly shutdown, demos and tests; publishers never need to call it.
+     *
+     * @param timeout The longest time to wait
+     * @param unit The unit of timeout
+     * @return true if all events were handled, false if the timeout elapsed first
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean awaitDelivery(long timeout, TimeUnit unit) throws InterruptedException {
+        long target = nextSequence.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Subscription subscription : subscriptions) {
+            while (subscription.running && subscription.position < target) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                LockSupport.parkNanos(AWAIT_PAUSE_NANOS);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of events an observer skipped because it fell too far behind.
+     *
+     * @param observer A subscribed observer
+     * @return The number of missed events, or 0 if the observer is not subscribed
+     */
+    public long getMissedCount(PropertyDeletionObserver observer) {
+        Subscription subscription = find(observer);
+        return subscription == null ? 0 : subscription.missed;
+    }
+
+    /**
+     * Gets the number of notifications for which an observer threw an exception.
+     *
+     * @param observer A subscribed observer
+     * @return The number of failed notifications, or 0 if the observer is not subscribed
+     */
+    public long getFailureCount(PropertyDeletionObserver observer) {
+        Subscription subscription = find(observer);
+        return subscription == null ? 0 : subscription.failures;
+    }
+
+    /**
+     * Finds the subscription of an observer.
+     *
+     * @param observer The observer
+     * @return Its subscription, or null if it is not subscribed
+     */
+    private Subscription find(PropertyDeletionObserver observer) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.observer == observer) {
+                return subscription;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A published deletion. Immutable, so it is safely shared with subscriber threads.
+     */
+    private static final class Event {
+        private final long sequence;
+        private final int[] address;
+
+        private Event(long sequence, int[] address) {
+            this.sequence = sequence;
+            this.address = address;
+        }
+    }
+
+    /**
+     * A thread delivering events to a share of the subscriptions.
+     * The thread, started by subscribe and cleared when it ends, is guarded by the bus.
+     */
+    private final class Dispatcher implements Runnable {
+
+        /** The subscriptions served by this dispatcher */
+        private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+        /** Whether the thread is about to block or blocked; read by publishers */
+        private volatile boolean waiting;
+
+        /** The delivering thread, or null when not running */
+        private volatile Thread thread;
+
+        /**
+         * Starts the thread if it is not running. Called with the bus locked.
+         */
+        private void start() {
+            if (thread == null) {
+                thread = new Thread(this, "property-deletion-dispatcher-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        /**
+         * Wakes the thread if it is blocked.
+         */
+        private void wake() {
+            Thread current = thread;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                int delivered = 0;
+                for (Subscription subscription : subscriptions) {
+                    delivered += subscription.deliverBatch(MAX_BATCH);
+                }
+                if (delivered > 0) {
+                    continue;
+                }
+                if (subscriptions.isEmpty() && retire()) {
+                    return;
+                }
+                // Publishers read waiting after publishing, so an event published
+                // after the check below always unparks the thread
+                waiting = true;
+                if (hasPending()) {
+                    // A claimed event is still being written
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.park(this);
+                }
+                waiting = false;
+            }
+        }
+
+        /**
+         * Checks whether a subscription has events it has not received yet.
+         *
+         * @return true if an event is pending
+         */
+        private boolean hasPending() {
+            long end = nextSequence.get();
+            for (Subscription subscription : subscriptions) {
+                if (subscription.running && subscription.position < end) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Ends the thread if the dispatcher still has no subscriptions.
+         *
+         * @return true if the thread must end
+         */
+        private boolean retire() {
+            synchronized (PropertyDeletionBus.this) {
+                if (!subscriptions.isEmpty()) {
+                    return false;
+                }
+                thread = null;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * One observer and its position in the ring.
+     */
+    private final class Subscription {
+
+        /** The observer notified of deletions */
+        private final PropertyDeletionObserver observer;
+
+        /** Sequence number of the next event to deliver; only written by the dispatcher */
+        private volatile long position;
+
+        /** Whether the subscription is still active */
+        private volatile boolean running;
+
+        /** Number of events skipped after falling behind; only written by the dispatcher */
+        private volatile long missed;
+
+        /** Number of notifications that threw; only written by the dispatcher */
+        private volatile long failures;
+
+        /** The dispatcher delivering events to the observer */
+        private final Dispatcher dispatcher;
+
+        private Subscription(PropertyDeletionObserver observer, long position, Dispatcher dispatcher) {
+            this.observer = observer;
+            this.position = position;
+            this.dispatcher = dispatcher;
+            this.running = true;
+        }
+
+        /**
+         * Delivers the events published since the last pass, up to a limit.
+         *
+         * @param limit The largest number of events to deliver
+         * @return The number of events delivered
+         */
+        private int deliverBatch(int limit) {
+            long next = position;
+            long end = nextSequence.get();
+            if (end - next > ring.length()) {
+                // Lapped: the oldest events were overwritten
+                long skipTo = end - ring.length();
+                missed += skipTo - next;
+                next = skipTo;
+            }
+            int delivered = 0;
+            while (next < end && running && delivered < limit) {
+                Event event = ring.get((int) (next & mask));
+                if (event == null || event.sequence < next) {
+                    // Claimed but not written yet
+                    break;
+                }
+                if (event.sequence > next) {
+                    // Overwritten since end was read: resume at the oldest event left
+                    long skipTo = event.sequence - ring.length() + 1;
+                    missed += skipTo - next;
+                    next = skipTo;
+                    continue;
+                }
+                try {
+                    observer.onPropertyDeleted(Arrays.copyOf(event.address, event.address.length));
+                } catch (RuntimeException e) {
+                    failures++;
+                }
+                next++;
+                delivered++;
+            }
+            position = next;
+            return delivered;
+        }
+    }
+}
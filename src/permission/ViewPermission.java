@@ -1,9 +1,9 @@
 package src.permission;
 
 import src.main.SystemManager;
+import src.util.AuditJournal;
 import src.util.Property;
 
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -35,20 +35,17 @@ public interface ViewPermission {
             throw new IllegalArgumentException("Address cannot be null");
         }
         
-        List<Property> properties = SystemManager.getInstance().getAllProperties();
-        for (Property property : properties) {
-            if (Arrays.equals(property.getAddress(), address)) {
-                System.out.println("Property found: " + property.toString());
-                return property;
-            }
+        Property property = SystemManager.getInstance().findProperty(address);
+        if (property != null) {
+            AuditJournal.getInstance().propertyViewed(property);
         }
-        return null;
+        return property;
     }
 
     /**
      * Views all properties in the system.
      * 
-     * @return A list of all properties in the system
+     * @return An unmodifiable list of all properties in the system
      */
     default List<Property> viewAllProperties() {
         return SystemManager.getInstance().getAllProperties();
@@ -0,0 +1,245 @@
+package src.server;
+
+import java.io.IOException;
+import java.io.Writer;
+import src.util.Property;
+
+/**
+ * Minimal JSON writer that writes values to a character stream as they are given.
+ *
+ * Nothing is buffered beyond the underlying writer, so a large array can be sent
+ * while it is produced. Commas between members and elements are added automatically;
+ * the caller is responsible for balancing begin and end calls and for giving a name
+ * before each member of an object.
+ *
+ * Example - {"updated":true}:
+ * json.beginObject().name("updated").value(true).endObject();
+ *
+ * @see src.server.PropertyHttpServer
+ */
+final class JsonWriter {
+
+    /** Deepest nesting of arrays and objects supported */
+    private static final int MAX_DEPTH = 32;
+
+    /** The output */
+    private final Writer out;
+
+    /** Whether a value was already written at each nesting level */
+    private final boolean[] hasValue;
+
+    /** Current nesting level, 0 at the top */
+    private int depth;
+
+    /** Whether the next value follows a member name */
+    private boolean afterName;
+
+    /**
+     * Constructs a writer over a character stream.
+     *
+     * @param out The output
+     */
+    JsonWriter(Writer out) {
+        this.out = out;
+        this.hasValue = new boolean[MAX_DEPTH + 1];
+    }
+
+    /**
+     * Begins an object.
+     *
+     * @return This writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter beginObject() throws IOException {
+        return begin('{');
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return This writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter endObject() throws IOException {
+        return end('}');
+    }
+
+    /**
+     * Begins an array.
+     *
+     * @return This writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter beginArray() throws IOException {
+        return begin('[');
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return This writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter endArray() throws IOException {
+        return end(']');
+    }
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name The member name
+     * @return This writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value, or null.
+     *
+     * @param value The value
+     * @return This writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a number value. Numbers that are not finite are written as null.
+     *
+     * @param value The value
+     * @return This writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter value(double value) throws IOException {
+        separate();
+        out.write(Double.isFinite(value) ? Double.toString(value) : "null");
+        return this;
+    }
+
+    /**
+     * Writes an integer value.
+     *
+     * @param value The value
+     * @return This writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value The value
+     * @return This writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a property as an object with its address, area, price per square meter,
+     * total price and sale status.
+     *
+     * @param property The property
+     * @return This writer
+     * @throws IOException if writing fails
+     */
+    JsonWriter value(Property property) throws IOException {
+        beginObject();
+        name("address").beginArray();
+        for (int coordinate : property.getAddress()) {
+            value(coordinate);
+        }
+        endArray();
+        name("area").value(property.getArea());
+        name("pricePerSquareMeter").value(property.getPricePerSquareMeter());
+        name("totalPrice").value(property.getTotalPrice());
+        name("sold").value(property.getStatus());
+        return endObject();
+    }
+
+    /**
+     * Flushes the underlying writer.
+     *
+     * @throws IOException if writing fails
+     */
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private JsonWriter begin(char bracket) throws IOException {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nested too deeply");
+        }
+        separate();
+        out.write(bracket);
+        hasValue[++depth] = false;
+        return this;
+    }
+
+    private JsonWriter end(char bracket) throws IOException {
+        out.write(bracket);
+        depth--;
+        return this;
+    }
+
+    /**
+     * Writes the comma before a value or member, unless it follows a member name
+     * or is the first of its array or object.
+     */
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasValue[depth]) {
+            out.write(',');
+        }
+        hasValue[depth] = true;
+    }
+
+    /**
+     * Writes a quoted and escaped string.
+     */
+    private void string(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.write(value, start, i - start);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> out.write(String.format("\\u%04x", (int) c));
+            }
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,609 @@
+package src.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import src.decorator.DealOutcome;
+import src.decorator.DealRequest;
+import src.factory.Broker;
+import src.factory.Buyer;
+import src.factory.Seller;
+import src.factory.User;
+import src.factory.UserFactory;
+import src.main.SystemManager;
+import src.permission.DeletePermission;
+import src.permission.EditPermission;
+import src.permission.ViewPermission;
+import src.strategy.PropertySearchContext;
+import src.strategy.SearchByAveragePriceStrategy;
+import src.strategy.SearchByNearestStrategy;
+import src.strategy.SearchByPriceStrategy;
+import src.strategy.SearchByStatusStrategy;
+import src.strategy.StreamingSearchContext;
+import src.strategy.StreamingSearchStrategy;
+import src.util.Property;
+
+/**
+ * HTTP front end of the system, built on the JDK's com.sun.net.httpserver.
+ *
+ * Every operation takes its arguments as query parameters and answers in JSON.
+ * Addresses are written as comma-separated coordinates (for example 4,5,1), and
+ * the acting user is given by role (BUYER, SELLER or BROKER) and user (the ID):
+ * - POST /users?role=&user= : creates a user; without user an ID is allocated.
+ *   Anyone reaching the server could then act as a broker, so user creation is
+ *   disabled unless setUserCreationEnabled(true) is called
+ * - GET /properties?role=&user= : all properties (ViewPermission)
+ * - GET /properties/view?role=&user=&address= : one property (ViewPermission)
+ * - POST /properties/edit?role=&user=&address=&area=&price=[&newAddress=][&sold=] :
+ *   replaces a property (EditPermission)
+ * - POST /properties/delete?role=&user=&address= : deletes a property (DeletePermission)
+ * - GET /search?strategy=&center=&radius= : runs a search strategy, with
+ *   sold=true|false for status, price= and comparison=HIGHER|LOWER|EQUAL for price,
+ *   and k= for nearest; average takes no other parameter. Status and price
+ *   searches accept limit= and are streamed as they are read from the store.
+ * - POST /deals?property=&seller=&buyer=&broker=[&services=] : executes a deal,
+ *   services being a comma-separated list such as CLEANING,DESIGN; answers
+ *   {"status": ..., "totalPrice": ...} with the DealOutcome status
+ *
+ * Errors are answered with {"error": message} and the status 400 for invalid
+ * arguments, 403 for unknown users or missing permissions, 404 for unknown
+ * properties, 405 for a wrong method, 409 for a property already sold and 500
+ * for any other failure.
+ *
+ * Responses are written with chunked encoding through a small buffer, so a large
+ * list of properties is sent while it is produced instead of being built in memory.
+ *
+ * Connections are accepted and read by the server's selector thread; each request
+ * then runs as a task of the request executor. Requests run in parallel, so the
+ * SystemManager must be in concurrent mode before the server is created. On JDK 21 and later the default
+ * executor starts one virtual thread per request, so requests blocked on the
+ * write-ahead log do not hold a platform thread. On older JDKs it falls back to
+ * a fixed pool of daemon threads.
+ *
+ * Example - serve the sample inventory on port 8080 of the loopback address:
+ * java src.server.PropertyHttpServer 8080 src/main/prop1.txt
+ *
+ * @see src.main.SystemManager
+ * @see src.permission.ViewPermission
+ * @see src.strategy.PropertySearchStrategy
+ */
+public class PropertyHttpServer {
+
+    /** Default number of pending connections queued by the operating system */
+    public static final int DEFAULT_BACKLOG = 4096;
+
+    /** Size of the buffer in front of each response body */
+    private static final int RESPONSE_BUFFER_SIZE = 8192;
+
+    /** Number of threads of the request pool used without virtual threads */
+    private static final int FALLBACK_THREADS = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+
+    /** The underlying server */
+    private final HttpServer server;
+
+    /** The executor running the requests */
+    private final ExecutorService executor;
+
+    /** Whether POST /users creates users */
+    private volatile boolean userCreationEnabled;
+
+    /**
+     * Constructs a server listening on an address, with the default request executor.
+     * The server does not accept requests until it is started.
+     *
+     * @param address The address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     * @throws IllegalStateException if the SystemManager is not in concurrent mode
+     */
+    public PropertyHttpServer(InetSocketAddress address) throws IOException {
+        this(address, DEFAULT_BACKLOG, newRequestExecutor());
+    }
+
+    /**
+     * Constructs a server listening on an address.
+     * The server does not accept requests until it is started.
+     *
+     * @param address The address to listen on; port 0 picks a free port
+     * @param backlog The number of pending connections queued by the operating system
+     * @param executor The executor running the requests, shut down when the server stops
+     * @throws IOException if the address cannot be bound
+     * @throws IllegalArgumentException if address or executor is null
+     * @throws IllegalStateException if the SystemManager is not in concurrent mode
+     */
+    public PropertyHttpServer(InetSocketAddress address, int backlog, ExecutorService executor) throws IOException {
+        if (address == null || executor == null) {
+            throw new IllegalArgumentException("Address and executor cannot be null");
+        }
+        if (!SystemManager.getInstance().isConcurrentMode()) {
+            throw new IllegalStateException("The HTTP server requires concurrent mode");
+        }
+        this.executor = executor;
+        this.server = HttpServer.create(address, backlog);
+        server.setExecutor(executor);
+        server.createContext("/users", exchange -> handle(exchange, "POST", this::createUser));
+        server.createContext("/properties", exchange -> handle(exchange, "GET", this::viewAll));
+        server.createContext("/properties/view", exchange -> handle(exchange, "GET", this::view));
+        server.createContext("/properties/edit", exchange -> handle(exchange, "POST", this::edit));
+        server.createContext("/properties/delete", exchange -> handle(exchange, "POST", this::delete));
+        server.createContext("/search", exchange -> handle(exchange, "GET", this::search));
+        server.createContext("/deals", exchange -> handle(exchange, "POST", this::deal));
+    }
+
+    /**
+     * Creates the default request executor: one virtual thread per request when
+     * the JDK supports it, otherwise a fixed pool of daemon threads.
+     *
+     * @return A new executor
+     */
+    public static ExecutorService newRequestExecutor() {
+        try {
+            // Looked up at runtime so the server also runs on JDKs without virtual threads
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newFixedThreadPool(FALLBACK_THREADS, task -> {
+                Thread thread = new Thread(task, "property-http-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits for the running exchanges to end and shuts down the executor.
+     *
+     * @param delaySeconds The longest time to wait for running exchanges
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Enables or disables the creation of users with POST /users, disabled by default.
+     * Enable it only when every client that can reach the server is trusted.
+     *
+     * @param enabled true to create users, false to answer 403
+     */
+    public void setUserCreationEnabled(boolean enabled) {
+        userCreationEnabled = enabled;
+    }
+
+    /**
+     * Gets the address the server listens on.
+     *
+     * @return The bound address, with the actual port
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Loads a property file and serves the system over HTTP until the process ends.
+     * User creation is enabled only when the server listens on a loopback address.
+     *
+     * @param args The port (default 8080), the property file (default src/main/prop1.txt)
+     *             and the host to listen on (default the loopback address)
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String filePath = args.length > 1 ? args[1] : "src/main/prop1.txt";
+        InetAddress host = args.length > 2 ? InetAddress.getByName(args[2]) : InetAddress.getLoopbackAddress();
+        SystemManager systemManager = SystemManager.getInstance();
+        systemManager.setConcurrentMode(true);
+        systemManager.initializeProperties(filePath);
+        PropertyHttpServer server = new PropertyHttpServer(new InetSocketAddress(host, port));
+        server.setUserCreationEnabled(host.isLoopbackAddress());
+        server.start();
+        System.out.println("Serving " + filePath + " on " + host.getHostAddress() + ":" + server.getAddress().getPort());
+    }
+
+    /**
+     * Handles a request of type POST /users.
+     */
+    private void createUser(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        if (!userCreationEnabled) {
+            throw new RequestException(403, "User creation is disabled");
+        }
+        User.UserType type = userType(required(parameters, "role"));
+        String id = parameters.get("user");
+        User user = id == null ? UserFactory.createUser(type) : UserFactory.createUser(type, integer(id, "user"));
+        respond(exchange, 200, json -> json.beginObject()
+                .name("role").value(type.name())
+                .name("user").value(user.getUserId())
+                .endObject());
+    }
+
+    /**
+     * Handles a request of type GET /properties.
+     */
+    private void viewAll(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/properties")) {
+            throw new RequestException(404, "Unknown path: " + exchange.getRequestURI().getPath());
+        }
+        ViewPermission viewer = permission(parameters, ViewPermission.class);
+        writeProperties(exchange, viewer.viewAllProperties().stream());
+    }
+
+    /**
+     * Handles a request of type GET /properties/view.
+     */
+    private void view(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        ViewPermission viewer = permission(parameters, ViewPermission.class);
+        Property property = viewer.viewProperty(address(required(parameters, "address")));
+        if (property == null) {
+            throw new RequestException(404, "Property not found");
+        }
+        respond(exchange, 200, json -> json.value(property));
+    }
+
+    /**
+     * Handles a request of type POST /properties/edit.
+     */
+    private void edit(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        EditPermission editor = permission(parameters, EditPermission.class);
+        int[] address = address(required(parameters, "address"));
+        String newAddress = parameters.get("newAddress");
+        Property updated = new Property(
+                newAddress == null ? address : address(newAddress),
+                decimal(required(parameters, "area"), "area"),
+                decimal(required(parameters, "price"), "price"),
+                Boolean.parseBoolean(parameters.get("sold")));
+        if (!editor.editProperty(address, updated)) {
+            throw new RequestException(404, "Property not found");
+        }
+        respond(exchange, 200, json -> json.beginObject().name("updated").value(true).endObject());
+    }
+
+    /**
+     * Handles a request of type POST /properties/delete.
+     */
+    private void delete(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        DeletePermission deleter = permission(parameters, DeletePermission.class);
+        if (!deleter.deleteProperty(address(required(parameters, "address")))) {
+            throw new RequestException(404, "Property not found");
+        }
+        respond(exchange, 200, json -> json.beginObject().name("deleted").value(true).endObject());
+    }
+
+    /**
+     * Handles a request of type GET /search.
+     */
+    private void search(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        String strategy = required(parameters, "strategy");
+        int[] center = address(required(parameters, "center"));
+        int radius = integer(required(parameters, "radius"), "radius");
+        switch (strategy) {
+            case "status" -> streamSearch(exchange, parameters,
+                    new SearchByStatusStrategy(Boolean.parseBoolean(required(parameters, "sold"))), center, radius);
+            case "price" -> streamSearch(exchange, parameters, new SearchByPriceStrategy(
+                    decimal(required(parameters, "price"), "price"),
+                    comparison(parameters.getOrDefault("comparison", "EQUAL"))), center, radius);
+            case "nearest" -> {
+                List<Property> nearest = new PropertySearchContext<>(
+                        new SearchByNearestStrategy(integer(required(parameters, "k"), "k"))).makeSearch(center, radius);
+                writeProperties(exchange, nearest.stream());
+            }
+            case "average" -> {
+                double average = new PropertySearchContext<>(new SearchByAveragePriceStrategy()).makeSearch(center, radius);
+                respond(exchange, 200, json -> json.beginObject().name("averagePrice").value(average).endObject());
+            }
+            default -> throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+
+    /**
+     * Streams the results of a streaming search strategy, up to the optional limit.
+     */
+    private void streamSearch(HttpExchange exchange, Map<String, String> parameters, StreamingSearchStrategy strategy,
+                              int[] center, int radius) throws IOException {
+        Stream<Property> results = new StreamingSearchContext(strategy).stream(center, radius);
+        String limit = parameters.get("limit");
+        if (limit != null) {
+            int count = integer(limit, "limit");
+            if (count < 0) {
+                throw new IllegalArgumentException("Limit cannot be negative");
+            }
+            results = results.limit(count);
+        }
+        writeProperties(exchange, results);
+    }
+
+    /**
+     * Handles a request of type POST /deals.
+     */
+    private void deal(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+        Property property = SystemManager.getInstance().findProperty(address(required(parameters, "property")));
+        if (property == null) {
+            throw new RequestException(404, "Property not found");
+        }
+        Seller seller = user(parameters, "seller", User.UserType.SELLER);
+        Buyer buyer = user(parameters, "buyer", User.UserType.BUYER);
+        Broker broker = user(parameters, "broker", User.UserType.BROKER);
+        String services = parameters.get("services");
+        List<String> serviceList = services == null || services.isEmpty() ? List.of() : Arrays.asList(services.split(","));
+        DealOutcome outcome = SystemManager.getInstance()
+                .executeDeal(new DealRequest(property, serviceList, seller, buyer, broker));
+        int status = switch (outcome.getStatus()) {
+            case COMMITTED -> 200;
+            case ALREADY_SOLD -> 409;
+            case INVALID -> 400;
+        };
+        respond(exchange, status, json -> {
+            json.beginObject().name("status").value(outcome.getStatus().name());
+            if (outcome.isCommitted()) {
+                json.name("totalPrice").value(outcome.getTotalPrice());
+            } else {
+                json.name("error").value(outcome.getMessage());
+            }
+            json.endObject();
+        });
+    }
+
+    /**
+     * Runs a request handler and turns its exceptions into error responses.
+     *
+     * @param exchange The exchange
+     * @param method The accepted request method
+     * @param handler The handler
+     */
+    private static void handle(HttpExchange exchange, String method, Handler handler) {
+        try (exchange) {
+            try {
+                if (!exchange.getRequestMethod().equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    throw new RequestException(405, "Method not allowed: " + exchange.getRequestMethod());
+                }
+                handler.handle(exchange, parameters(exchange.getRequestURI().getRawQuery()));
+            } catch (RequestException e) {
+                error(exchange, e.status, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                error(exchange, 400, e.getMessage());
+            } catch (IllegalStateException e) {
+                error(exchange, 409, e.getMessage());
+            } catch (RuntimeException e) {
+                // Not caused by the request: answer without exposing the failure
+                error(exchange, 500, "Internal error");
+            }
+        } catch (IOException e) {
+            // The client went away; the exchange is closed
+        }
+    }
+
+    /**
+     * Sends an error response, unless the response has already started.
+     */
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        respond(exchange, status, json -> json.beginObject().name("error").value(message).endObject());
+    }
+
+    /**
+     * Sends a JSON response, written through a buffer with chunked encoding.
+     *
+     * @param exchange The exchange
+     * @param status The status code
+     * @param body Writes the response body
+     */
+    private static void respond(HttpExchange exchange, int status, Body body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), RESPONSE_BUFFER_SIZE);
+        JsonWriter json = new JsonWriter(writer);
+        body.write(json);
+        json.flush();
+    }
+
+    /**
+     * Sends a JSON array of properties, writing each property as the stream produces it.
+     */
+    private static void writeProperties(HttpExchange exchange, Stream<Property> properties) throws IOException {
+        respond(exchange, 200, json -> {
+            json.beginArray();
+            for (Property property : (Iterable<Property>) properties::iterator) {
+                json.value(property);
+            }
+            json.endArray();
+        });
+    }
+
+    /**
+     * Finds the acting user and checks that it has a permission.
+     *
+     * @param parameters The request parameters, with role and user
+     * @param permission The permission interface
+     * @return The user, as the permission
+     * @throws RequestException if the user does not exist or does not have the permission
+     */
+    private static <P> P permission(Map<String, String> parameters, Class<P> permission) {
+        User.UserType type = userType(required(parameters, "role"));
+        int id = integer(required(parameters, "user"), "user");
+        User user = UserFactory.findUser(type, id);
+        if (user == null) {
+            throw new RequestException(403, "Unknown user: " + type + " " + id);
+        }
+        if (!permission.isInstance(user)) {
+            throw new RequestException(403, type + " does not have " + permission.getSimpleName());
+        }
+        return permission.cast(user);
+    }
+
+    /**
+     * Finds a user of a type whose ID is given by a parameter.
+     *
+     * @throws RequestException if the user does not exist
+     */
+    @SuppressWarnings("unchecked")
+    private static <U extends User> U user(Map<String, String> parameters, String name, User.UserType type) {
+        int id = integer(required(parameters, name), name);
+        User user = UserFactory.findUser(type, id);
+        if (user == null) {
+            throw new RequestException(403, "Unknown user: " + type + " " + id);
+        }
+        return (U) user;
+    }
+
+    /**
+     * Decodes the parameters of a query string. A parameter given twice keeps its last value.
+     *
+     * @param query The raw query string, or null
+     * @return The parameters by name
+     */
+    static Map<String, String> parameters(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Gets a parameter that must be present.
+     *
+     * @throws IllegalArgumentException if the parameter is missing
+     */
+    private static String required(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Parses an integer parameter.
+     *
+     * @throws IllegalArgumentException if the value is not an integer
+     */
+    private static int integer(String value, String name) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Parses a decimal parameter.
+     *
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    private static double decimal(String value, String name) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Parses an address written as comma-separated coordinates.
+     *
+     * @throws IllegalArgumentException if a coordinate is not an integer
+     */
+    private static int[] address(String value) {
+        String[] parts = value.split(",");
+        int[] address = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            address[i] = integer(parts[i], "address");
+        }
+        return address;
+    }
+
+    /**
+     * Parses a user type, without regard to case.
+     *
+     * @throws IllegalArgumentException if the value is not a user type
+     */
+    private static User.UserType userType(String value) {
+        try {
+            return User.UserType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown role: " + value);
+        }
+    }
+
+    /**
+     * Parses a price comparison, without regard to case.
+     *
+     * @throws IllegalArgumentException if the value is not a price comparison
+     */
+    private static SearchByPriceStrategy.PriceComparison comparison(String value) {
+        try {
+            return SearchByPriceStrategy.PriceComparison.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown comparison: " + value);
+        }
+    }
+
+    /**
+     * Handler of the requests of one path.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange, Map<String, String> parameters) throws IOException;
+    }
+
+    /**
+     * Writer of a response body.
+     */
+    @FunctionalInterface
+    private interface Body {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    /**
+     * Request failure answered with a specific status code.
+     */
+    private static final class RequestException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        /** The status code of the response */
+        private final int status;
+
+        private RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package src.server;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import src.util.Property;
+
+/**
+ * Client of PropertyWireServer, safe to share between threads.
+ *
+ * The client keeps a pool of up to poolSize connections. Each call borrows a
+ * connection, so up to poolSize calls run at once and further calls wait for a
+ * connection to be returned. Connections are opened on first use and kept open;
+ * a connection that fails is closed and replaced on the next call.
+ *
+ * Batches go over one connection in a single round trip:
+ * - viewProperties sends one MULTI_VIEW request for all addresses
+ * - averagePrices pipelines one AVERAGE_PRICE request per center, then reads
+ *   the responses in order, PIPELINE_WINDOW requests at a time so the pending
+ *   responses never fill the server's output and stop it from reading
+ *
+ * Example - the average price within 5 blocks of two centers:
+ * try (PropertyWireClient client = new PropertyWireClient(new InetSocketAddress("localhost", 7070))) {
+ *     double[] averages = client.averagePrices(List.of(new int[]{4, 5}, new int[]{9, 6}), 5);
+ * }
+ *
+ * @see src.server.WireProtocol
+ * @see src.server.PropertyWireServer
+ */
+public class PropertyWireClient implements Closeable {
+
+    /** Default number of pooled connections */
+    public static final int DEFAULT_POOL_SIZE = 8;
+
+    /** Initial size of the buffers of a connection */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /** Largest number of pipelined requests sent before their responses are read */
+    static final int PIPELINE_WINDOW = 1024;
+
+    /** The server address */
+    private final InetSocketAddress address;
+
+    /** Connections not in use */
+    private final LinkedBlockingQueue<Connection> idle;
+
+    /** One permit per connection that may be in use */
+    private final Semaphore permits;
+
+    /** ID of the next request */
+    private final AtomicInteger nextRequestId;
+
+    /** Whether the client is closed */
+    private volatile boolean closed;
+
+    /**
+     * Constructs a client with the default pool size. No connection is opened yet.
+     *
+     * @param address The server address
+     */
+    public PropertyWireClient(InetSocketAddress address) {
+        this(address, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Constructs a client. No connection is opened yet.
+     *
+     * @param address The server address
+     * @param poolSize The largest number of connections (must be positive)
+     * @throws IllegalArgumentException if address is null or poolSize is not positive
+     */
+    public PropertyWireClient(InetSocketAddress address, int poolSize) {
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.address = address;
+        this.idle = new LinkedBlockingQueue<>();
+        this.permits = new Semaphore(poolSize);
+        this.nextRequestId = new AtomicInteger();
+    }
+
+    /**
+     * Finds a property by address.
+     *
+     * @param propertyAddress The address coordinates
+     * @return The property as stored on the server, or null if not found
+     * @throws IllegalArgumentException if the address is null or rejected by the server
+     * @throws IOException if the call fails
+     */
+    public Property viewProperty(int[] propertyAddress) throws IOException {
+        if (propertyAddress == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        Connection connection = borrow();
+        boolean healthy = false;
+        try {
+            int requestId = nextRequestId.incrementAndGet();
+            int start = connection.beginRequest(requestId, WireProtocol.VIEW, WireProtocol.addressSize(propertyAddress));
+            WireProtocol.putAddress(connection.output, propertyAddress);
+            connection.endRequest(start);
+            connection.send();
+            ByteBuffer response = connection.receive(requestId);
+            healthy = true;
+            byte status = response.get();
+            if (status == WireProtocol.NOT_FOUND) {
+                return null;
+            }
+            checkOk(status, response);
+            return WireProtocol.getProperty(response);
+        } finally {
+            release(connection, healthy);
+        }
+    }
+
+    /**
+     * Finds several properties by address in one round trip.
+     *
+     * @param addresses The addresses (at most 32767)
+     * @return The properties, in the order of the addresses, with null for addresses not found
+     * @throws IllegalArgumentException if addresses is null, too long, contains null,
+     *                                  or is rejected by the server
+     * @throws IOException if the call fails
+     */
+    public List<Property> viewProperties(List<int[]> addresses) throws IOException {
+        if (addresses == null || addresses.size() > WireProtocol.MAX_BATCH) {
+            throw new IllegalArgumentException("Addresses must be a list of at most " + WireProtocol.MAX_BATCH);
+        }
+        int size = Short.BYTES;
+        for (int[] propertyAddress : addresses) {
+            if (propertyAddress == null) {
+                throw new IllegalArgumentException("Address cannot be null");
+            }
+            size += WireProtocol.addressSize(propertyAddress);
+        }
+        Connection connection = borrow();
+        boolean healthy = false;
+        try {
+            int requestId = nextRequestId.incrementAndGet();
+            int start = connection.beginRequest(requestId, WireProtocol.MULTI_VIEW, size);
+            connection.output.putShort((short) addresses.size());
+            for (int[] propertyAddress : addresses) {
+                WireProtocol.putAddress(connection.output, propertyAddress);
+            }
+            connection.endRequest(start);
+            connection.send();
+            ByteBuffer response = connection.receive(requestId);
+            healthy = true;
+            checkOk(response.get(), response);
+            int count = response.getShort();
+            List<Property> properties = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                properties.add(response.get() == 0 ? null : WireProtocol.getProperty(response));
+            }
+            return properties;
+        } finally {
+            release(connection, healthy);
+        }
+    }
+
+    /**
+     * Calculates the average total price of the properties within a radius.
+     *
+     * @param centerAddress The center point coordinates (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units
+     * @return The average price, or 0.0 if no property is in the radius
+     * @throws IllegalArgumentException if the center is invalid or the server rejects the radius
+     * @throws IOException if the call fails
+     */
+    public double averagePrice(int[] centerAddress, int radius) throws IOException {
+        return averagePrices(Collections.singletonList(centerAddress), radius)[0];
+    }
+
+    /**
+     * Calculates the average total price within a radius of each center, pipelining
+     * the requests over one connection.
+     * Requests are sent PIPELINE_WINDOW at a time, each window once the responses
+     * of the previous one are read, so batches of any size keep the connection moving.
+     *
+     * @param centers The center point coordinates (each with at least 2 elements)
+     * @param radius The search radius in Manhattan distance units
+     * @return The average price for each center, in order
+     * @throws IllegalArgumentException if a center is invalid or the server rejects the radius
+     * @throws IOException if the call fails
+     */
+    public double[] averagePrices(List<int[]> centers, int radius) throws IOException {
+        if (centers == null) {
+            throw new IllegalArgumentException("Centers cannot be null");
+        }
+        for (int[] center : centers) {
+            if (center == null || center.length < 2) {
+                throw new IllegalArgumentException("Center address must contain at least street and avenue coordinates");
+            }
+        }
+        Connection connection = borrow();
+        boolean healthy = false;
+        try {
+            int firstId = nextRequestId.getAndAdd(centers.size()) + 1;
+            double[] averages = new double[centers.size()];
+            String error = null;
+            for (int from = 0; from < averages.length; from += PIPELINE_WINDOW) {
+                int to = Math.min(from + PIPELINE_WINDOW, averages.length);
+                for (int i = from; i < to; i++) {
+                    int[] center = centers.get(i);
+                    int start = connection.beginRequest(firstId + i, WireProtocol.AVERAGE_PRICE, 3 * Integer.BYTES);
+                    connection.output.putInt(center[0]).putInt(center[1]).putInt(radius);
+                    connection.endRequest(start);
+                }
+                connection.send();
+                for (int i = from; i < to; i++) {
+                    ByteBuffer response = connection.receive(firstId + i);
+                    byte status = response.get();
+                    if (status == WireProtocol.OK) {
+                        averages[i] = response.getDouble();
+                    } else if (error == null) {
+                        // Keep reading the remaining responses so the connection stays usable
+                        error = status == WireProtocol.BAD_REQUEST ? WireProtocol.getMessage(response) : "Status " + status;
+                    }
+                }
+            }
+            healthy = true;
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            return averages;
+        } finally {
+            release(connection, healthy);
+        }
+    }
+
+    /**
+     * Closes the idle connections. Connections in use are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Connection connection; (connection = idle.poll()) != null; ) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Takes a pooled connection, opening one if none is idle, and waiting if all are in use.
+     *
+     * @return The connection
+     * @throws IOException if the client is closed, the wait is interrupted or the connection cannot be opened
+     */
+    private Connection borrow() throws IOException {
+        if (closed) {
+            throw new IOException("Client is closed");
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection");
+        }
+        Connection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        try {
+            return new Connection(address);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a connection to the pool, or closes it if a call on it failed midway.
+     *
+     * @param connection The connection
+     * @param healthy Whether every response of the call was read
+     */
+    private void release(Connection connection, boolean healthy) {
+        if (healthy && !closed) {
+            idle.offer(connection);
+        } else {
+            connection.close();
+        }
+        permits.release();
+    }
+
+    /**
+     * Throws the error of a response that is not OK.
+     */
+    private static void checkOk(byte status, ByteBuffer response) {
+        if (status == WireProtocol.BAD_REQUEST) {
+            throw new IllegalArgumentException(WireProtocol.getMessage(response));
+        }
+        if (status != WireProtocol.OK) {
+            throw new IllegalStateException("Unexpected status: " + status);
+        }
+    }
+
+    /**
+     * A blocking connection to the server with its buffers.
+     */
+    private static final class Connection {
+
+        /** The channel, in blocking mode */
+        private final SocketChannel channel;
+
+        /** Requests not sent yet, in write mode */
+        private ByteBuffer output;
+
+        /** The last response received */
+        private ByteBuffer input;
+
+        private Connection(InetSocketAddress address) throws IOException {
+            this.channel = SocketChannel.open(address);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            this.output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+        /**
+         * Writes the header of a request, with room for the payload.
+         *
+         * @return The position of the request, to pass to endRequest
+         */
+        private int beginRequest(int requestId, byte opcode, int payloadSize) {
+            int frameSize = WireProtocol.HEADER_SIZE + payloadSize;
+            if (frameSize > WireProtocol.MAX_FRAME_SIZE) {
+                throw new IllegalArgumentException("Request too large");
+            }
+            if (output.remaining() < frameSize) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(2 * output.capacity(), output.position() + frameSize));
+                output.flip();
+                larger.put(output);
+                output = larger;
+            }
+            int start = output.position();
+            output.putInt(0).putInt(requestId).put(opcode);
+            return start;
+        }
+
+        /**
+         * Fills in the length of a request.
+         */
+        private void endRequest(int start) {
+            output.putInt(start, output.position() - start - Integer.BYTES);
+        }
+
+        /**
+         * Writes all pending requests.
+         */
+        private void send() throws IOException {
+            output.flip();
+            while (output.hasRemaining()) {
+                channel.write(output);
+            }
+            output.clear();
+        }
+
+        /**
+         * Reads the next response, which must answer the given request.
+         *
+         * @param requestId The expected request ID
+         * @return The response, positioned at the status
+         * @throws IOException if reading fails or the response does not match
+         */
+        private ByteBuffer receive(int requestId) throws IOException {
+            input.clear().limit(Integer.BYTES);
+            readFully();
+            int length = input.getInt(0);
+            if (length < WireProtocol.HEADER_SIZE - Integer.BYTES || length > WireProtocol.MAX_FRAME_SIZE) {
+                throw new IOException("Invalid frame length: " + length);
+            }
+            if (input.capacity() < length) {
+                input = ByteBuffer.allocateDirect(Math.max(length, 2 * input.capacity()));
+            }
+            input.clear().limit(length);
+            readFully();
+            input.flip();
+            int responseId = input.getInt();
+            if (responseId != requestId) {
+                throw new IOException("Response to request " + responseId + " while expecting " + requestId);
+            }
+            return input;
+        }
+
+        private void readFully() throws IOException {
+            while (input.hasRemaining()) {
+                if (channel.read(input) < 0) {
+                    throw new EOFException("Connection closed by the server");
+                }
+            }
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package src.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import src.main.SystemManager;
+import src.strategy.PropertySearchContext;
+import src.strategy.SearchByAveragePriceStrategy;
+import src.util.AuditJournal;
+import src.util.Property;
+
+/**
+ * Non-blocking server of the binary WireProtocol, for clients making many small calls.
+ *
+ * One thread runs a NIO selector over all connections. For each connection it:
+ * - reads whatever bytes have arrived into a direct buffer
+ * - decodes every complete frame in the buffer and answers it at once, so a client
+ *   may pipeline any number of requests without waiting for the responses
+ * - encodes the responses, in request order, straight into a direct output buffer
+ *   and writes as much as the socket accepts
+ *
+ * Lookups by address take microseconds, so they run on the selector thread without
+ * handing off to other threads. Average prices may scan the store or rebuild the
+ * aggregate index, so they run on a worker executor: the connection stops decoding
+ * until the worker posts the result back to the selector thread, which writes the
+ * response and resumes with the next request, keeping the responses in order while
+ * other connections are served. A client that sends requests faster than it reads
+ * responses is not read from until its pending output drops below MAX_PENDING_OUTPUT.
+ *
+ * Property views are recorded in the AuditJournal like ViewPermission.viewProperty,
+ * and average prices go through a PropertySearchContext, so they are measured like
+ * other searches.
+ *
+ * Example - serve the sample inventory on port 7070:
+ * java src.server.PropertyWireServer 7070 src/main/prop1.txt
+ *
+ * @see src.server.WireProtocol
+ * @see src.server.PropertyWireClient
+ */
+public class PropertyWireServer implements Closeable {
+
+    /** Initial size of the input and output buffers of a connection */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Pending output in bytes above which a connection is no longer read */
+    private static final int MAX_PENDING_OUTPUT = 1 << 20;
+
+    /** Number of threads of the default search executor */
+    private static final int SEARCH_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /** The selector over the server channel and the connections */
+    private final Selector selector;
+
+    /** The listening channel */
+    private final ServerSocketChannel serverChannel;
+
+    /** The search answering AVERAGE_PRICE requests */
+    private final PropertySearchContext<Double> averageSearch;
+
+    /** The executor running AVERAGE_PRICE searches */
+    private final ExecutorService searchExecutor;
+
+    /** Searches finished by the executor, to be answered by the selector thread */
+    private final Queue<SearchResult> searchResults;
+
+    /** The selector thread */
+    private final Thread thread;
+
+    /** Whether the selector thread keeps running */
+    private volatile boolean running;
+
+    /**
+     * Constructs a server listening on an address, with the default search executor.
+     * The server does not accept connections until it is started.
+     *
+     * @param address The address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     * @throws IllegalArgumentException if address is null
+     */
+    public PropertyWireServer(InetSocketAddress address) throws IOException {
+        this(address, newSearchExecutor());
+    }
+
+    /**
+     * Constructs a server listening on an address.
+     * The server does not accept connections until it is started.
+     *
+     * @param address The address to listen on; port 0 picks a free port
+     * @param searchExecutor The executor running AVERAGE_PRICE searches, shut down when the server closes
+     * @throws IOException if the address cannot be bound
+     * @throws IllegalArgumentException if address or searchExecutor is null
+     */
+    public PropertyWireServer(InetSocketAddress address, ExecutorService searchExecutor) throws IOException {
+        if (address == null || searchExecutor == null) {
+            throw new IllegalArgumentException("Address and search executor cannot be null");
+        }
+        this.searchExecutor = searchExecutor;
+        this.searchResults = new ConcurrentLinkedQueue<>();
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, PropertyHttpServer.DEFAULT_BACKLOG);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.averageSearch = new PropertySearchContext<>(new SearchByAveragePriceStrategy());
+        this.thread = new Thread(this::selectLoop, "property-wire-server");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Creates the default search executor, a fixed pool of daemon threads.
+     *
+     * @return A new executor
+     */
+    private static ExecutorService newSearchExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(SEARCH_THREADS, task -> {
+            Thread thread = new Thread(task, "property-wire-search-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Gets the address the server listens on.
+     *
+     * @return The bound address, with the actual port
+     * @throws IOException if the address cannot be read
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Stops the server, closes all connections and shuts down the search executor.
+     *
+     * @throws IOException if closing the channels fails
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        if (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        searchExecutor.shutdownNow();
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        try {
+            searchExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Loads a property file and serves the system until the process ends.
+     *
+     * @param args The port (default 7070) and the property file (default src/main/prop1.txt)
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        String filePath = args.length > 1 ? args[1] : "src/main/prop1.txt";
+        SystemManager.getInstance().initializeProperties(filePath);
+        PropertyWireServer server = new PropertyWireServer(new InetSocketAddress(port));
+        server.start();
+        System.out.println("Serving " + filePath + " on port " + server.getAddress().getPort());
+    }
+
+    /**
+     * Selects ready channels and serves them until the server is closed.
+     */
+    private void selectLoop() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                return;
+            }
+            answerSearches();
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        onReadable(key, connection);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        onWritable(key, connection);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // The client went away or broke the protocol
+                    closeQuietly(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the responses of the searches finished by the executor, and resumes
+     * decoding the requests of their connections.
+     */
+    private void answerSearches() {
+        SearchResult result;
+        while ((result = searchResults.poll()) != null) {
+            Connection connection = result.connection;
+            SelectionKey key = connection.channel.keyFor(selector);
+            if (key == null || !key.isValid()) {
+                continue;
+            }
+            try {
+                connection.searching = false;
+                if (result.failure == null) {
+                    int start = beginResponse(connection, result.requestId, WireProtocol.OK, Double.BYTES);
+                    connection.output.putDouble(result.average);
+                    endResponse(connection, start);
+                } else if (result.failure instanceof IllegalArgumentException) {
+                    writeError(connection, result.requestId, result.failure.getMessage());
+                } else {
+                    throw result.failure;
+                }
+                process(key, connection);
+            } catch (IOException | RuntimeException e) {
+                closeQuietly(key);
+            }
+        }
+    }
+
+    /**
+     * Runs an AVERAGE_PRICE search on the executor and posts the result to the selector thread.
+     * The connection decodes no other request until the result is answered.
+     *
+     * @param connection The connection
+     * @param requestId The request ID to echo
+     * @param center The center address
+     * @param radius The radius
+     */
+    private void submitSearch(Connection connection, int requestId, int[] center, int radius) {
+        connection.searching = true;
+        try {
+            searchExecutor.execute(() -> {
+                SearchResult result;
+                try {
+                    result = new SearchResult(connection, requestId, averageSearch.makeSearch(center, radius), null);
+                } catch (RuntimeException e) {
+                    result = new SearchResult(connection, requestId, 0, e);
+                }
+                searchResults.add(result);
+                selector.wakeup();
+            });
+        } catch (RejectedExecutionException e) {
+            // The server is closing
+            connection.searching = false;
+            throw e;
+        }
+    }
+
+    /**
+     * Accepts a pending connection, if any.
+     */
+    private void accept() {
+        SocketChannel channel = null;
+        try {
+            channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+        } catch (IOException e) {
+            // Drop this connection; the server keeps listening
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Already closed
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the bytes that arrived and answers the complete requests.
+     */
+    private void onReadable(SelectionKey key, Connection connection) throws IOException {
+        if (connection.channel.read(connection.input) < 0) {
+            closeQuietly(key);
+            return;
+        }
+        process(key, connection);
+    }
+
+    /**
+     * Writes pending responses, and resumes decoding requests once a backlogged
+     * connection has drained.
+     */
+    private void onWritable(SelectionKey key, Connection connection) throws IOException {
+        boolean backlogged = connection.output.position() >= MAX_PENDING_OUTPUT;
+        flush(key, connection);
+        if (backlogged && connection.output.position() < MAX_PENDING_OUTPUT) {
+            process(key, connection);
+        }
+    }
+
+    /**
+     * Answers the complete requests in the input buffer and writes the responses.
+     */
+    private void process(SelectionKey key, Connection connection) throws IOException {
+        connection.input.flip();
+        int required = decodeFrames(connection);
+        connection.input.compact();
+        if (required > connection.input.capacity()) {
+            connection.input = grow(connection.input, required);
+        }
+        flush(key, connection);
+    }
+
+    /**
+     * Writes as much pending output as the socket accepts, and updates the
+     * operations the connection waits for. A connection waiting for a search
+     * is not read from until the search is answered.
+     */
+    private static void flush(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer output = connection.output;
+        if (output.position() > 0) {
+            output.flip();
+            connection.channel.write(output);
+            output.compact();
+        }
+        int pending = output.position();
+        key.interestOps((pending >= MAX_PENDING_OUTPUT || connection.searching ? 0 : SelectionKey.OP_READ)
+                | (pending > 0 ? SelectionKey.OP_WRITE : 0));
+    }
+
+    /**
+     * Decodes and answers the complete frames of the flipped input buffer.
+     * Stops early while the output is backlogged or a search is running.
+     *
+     * @param connection The connection
+     * @return The buffer size needed by an incomplete frame, or 0
+     * @throws IOException if a frame length is invalid
+     */
+    private int decodeFrames(Connection connection) throws IOException {
+        ByteBuffer input = connection.input;
+        while (input.remaining() >= Integer.BYTES && connection.output.position() < MAX_PENDING_OUTPUT
+                && !connection.searching) {
+            int length = input.getInt(input.position());
+            if (length < WireProtocol.HEADER_SIZE - Integer.BYTES || length > WireProtocol.MAX_FRAME_SIZE - Integer.BYTES) {
+                throw new IOException("Invalid frame length: " + length);
+            }
+            int frameSize = Integer.BYTES + length;
+            if (input.remaining() < frameSize) {
+                return frameSize;
+            }
+            int frameEnd = input.position() + frameSize;
+            int limit = input.limit();
+            input.position(input.position() + Integer.BYTES);
+            input.limit(frameEnd);
+            int requestId = input.getInt();
+            byte opcode = input.get();
+            int responseStart = connection.output.position();
+            try {
+                answer(connection, requestId, opcode, input);
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                // Drop the partial response and report the error instead
+                connection.output.position(responseStart);
+                String message = e instanceof BufferUnderflowException ? "Truncated request" : e.getMessage();
+                writeError(connection, requestId, message);
+            }
+            input.limit(limit);
+            input.position(frameEnd);
+        }
+        return 0;
+    }
+
+    /**
+     * Answers one request, or submits it to the search executor.
+     *
+     * @param connection The connection
+     * @param requestId The request ID to echo
+     * @param opcode The request opcode
+     * @param payload The request payload, limited to the frame
+     * @throws IllegalArgumentException if the request is invalid
+     * @throws BufferUnderflowException if the payload is truncated
+     */
+    private void answer(Connection connection, int requestId, byte opcode, ByteBuffer payload) {
+        switch (opcode) {
+            case WireProtocol.VIEW -> {
+                Property property = view(WireProtocol.getAddress(payload));
+                if (property == null) {
+                    int start = beginResponse(connection, requestId, WireProtocol.NOT_FOUND, 0);
+                    endResponse(connection, start);
+                } else {
+                    int size = WireProtocol.propertySize(property.getAddress().length);
+                    int start = beginResponse(connection, requestId, WireProtocol.OK, size);
+                    WireProtocol.putProperty(connection.output, property);
+                    endResponse(connection, start);
+                }
+            }
+            case WireProtocol.MULTI_VIEW -> {
+                int count = payload.getShort();
+                if (count < 0) {
+                    throw new IllegalArgumentException("Invalid batch size: " + count);
+                }
+                int start = beginResponse(connection, requestId, WireProtocol.OK, Short.BYTES);
+                connection.output.putShort((short) count);
+                for (int i = 0; i < count; i++) {
+                    Property property = view(WireProtocol.getAddress(payload));
+                    if (property == null) {
+                        ensureOutput(connection, Byte.BYTES);
+                        connection.output.put((byte) 0);
+                    } else {
+                        int[] address = property.getAddress();
+                        ensureOutput(connection, Byte.BYTES + WireProtocol.propertySize(address.length));
+                        connection.output.put((byte) 1);
+                        WireProtocol.putProperty(connection.output, property);
+                    }
+                }
+                endResponse(connection, start);
+            }
+            case WireProtocol.AVERAGE_PRICE -> {
+                int[] center = {payload.getInt(), payload.getInt()};
+                int radius = payload.getInt();
+                submitSearch(connection, requestId, center, radius);
+            }
+            default -> throw new IllegalArgumentException("Unknown opcode: " + opcode);
+        }
+    }
+
+    /**
+     * Finds a property by address and records the view, like ViewPermission.viewProperty.
+     *
+     * @param address The address
+     * @return The property, or null if not found
+     * @throws IllegalArgumentException if the address is invalid
+     */
+    private static Property view(int[] address) {
+        Property property = SystemManager.getInstance().findProperty(address);
+        if (property != null) {
+            AuditJournal.getInstance().propertyViewed(property);
+        }
+        return property;
+    }
+
+    /**
+     * Writes a BAD_REQUEST response.
+     */
+    private static void writeError(Connection connection, int requestId, String message) {
+        // At most 3 UTF-8 bytes per char, and no more than putMessage writes
+        int size = Short.BYTES + (message == null ? 0 : Math.min(3 * message.length(), Short.MAX_VALUE));
+        int start = beginResponse(connection, requestId, WireProtocol.BAD_REQUEST, size);
+        WireProtocol.putMessage(connection.output, message);
+        endResponse(connection, start);
+    }
+
+    /**
+     * Writes the header of a response, with room for the payload.
+     *
+     * @param connection The connection
+     * @param requestId The request ID to echo
+     * @param status The response status
+     * @param payloadSize The number of payload bytes to make room for
+     * @return The position of the response, to pass to endResponse
+     */
+    private static int beginResponse(Connection connection, int requestId, byte status, int payloadSize) {
+        ensureOutput(connection, WireProtocol.HEADER_SIZE + payloadSize);
+        ByteBuffer output = connection.output;
+        int start = output.position();
+        output.putInt(0);
+        output.putInt(requestId);
+        output.put(status);
+        return start;
+    }
+
+    /**
+     * Fills in the length of a response.
+     */
+    private static void endResponse(Connection connection, int start) {
+        connection.output.putInt(start, connection.output.position() - start - Integer.BYTES);
+    }
+
+    /**
+     * Makes room for a number of bytes in the output buffer.
+     */
+    private static void ensureOutput(Connection connection, int size) {
+        if (connection.output.remaining() < size) {
+            connection.output = grow(connection.output, connection.output.position() + size);
+        }
+    }
+
+    /**
+     * Replaces a buffer in write mode by a larger direct buffer with the same content.
+     *
+     * @param buffer The buffer, in write mode
+     * @param required The capacity needed
+     * @return The new buffer, in write mode
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, int required) {
+        ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(required, 2 * buffer.capacity()));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Buffers of one client connection, both kept in write mode between selections.
+     */
+    private static final class Connection {
+
+        /** The client channel */
+        private final SocketChannel channel;
+
+        /** Bytes received and not decoded yet */
+        private ByteBuffer input;
+
+        /** Responses not written yet */
+        private ByteBuffer output;
+
+        /** Whether an AVERAGE_PRICE search of the connection is running */
+        private boolean searching;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * The result of an AVERAGE_PRICE search, posted to the selector thread.
+     */
+    private static final class SearchResult {
+
+        /** The connection that sent the request */
+        private final Connection connection;
+
+        /** The request ID to echo */
+        private final int requestId;
+
+        /** The average price, if the search succeeded */
+        private final double average;
+
+        /** The exception thrown by the search, or null */
+        private final RuntimeException failure;
+
+        private SearchResult(Connection connection, int requestId, double average, RuntimeException failure) {
+            this.connection = connection;
+            this.requestId = requestId;
+            this.average = average;
+            this.failure = failure;
+        }
+    }
+}
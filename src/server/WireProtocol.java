@@ -0,0 +1,180 @@
+package src.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import src.util.Property;
+
+/**
+ * Binary request/response protocol of PropertyWireServer and PropertyWireClient.
+ *
+ * Every message is a frame of big-endian fields:
+ * - int length: number of bytes that follow this field
+ * - int requestId: chosen by the client and echoed in the response
+ * - byte opcode (requests) or status (responses)
+ * - the payload
+ *
+ * Requests:
+ * - VIEW: byte n, int[n] address
+ * - MULTI_VIEW: short count, then count addresses as in VIEW
+ * - AVERAGE_PRICE: int street, int avenue, int radius
+ *
+ * Responses:
+ * - OK to VIEW: a property
+ * - OK to MULTI_VIEW: short count, then for each address byte found (0 or 1),
+ *   followed by the property if found
+ * - OK to AVERAGE_PRICE: double average
+ * - NOT_FOUND to VIEW: no payload
+ * - BAD_REQUEST: short n, byte[n] UTF-8 message
+ *
+ * A property is written as byte n, int[n] address, double area,
+ * double pricePerSquareMeter, byte sold (0 or 1).
+ *
+ * A client may send any number of requests without waiting for the responses
+ * (pipelining); the server answers them in the order they were sent.
+ *
+ * @see src.server.PropertyWireServer
+ * @see src.server.PropertyWireClient
+ */
+final class WireProtocol {
+
+    /** Request for one property by address */
+    static final byte VIEW = 1;
+
+    /** Request for several properties by address */
+    static final byte MULTI_VIEW = 2;
+
+    /** Request for the average price of the properties within a radius */
+    static final byte AVERAGE_PRICE = 3;
+
+    /** The request succeeded */
+    static final byte OK = 0;
+
+    /** No property has the requested address */
+    static final byte NOT_FOUND = 1;
+
+    /** The request is invalid */
+    static final byte BAD_REQUEST = 2;
+
+    /** Size of the length, request ID and opcode or status fields */
+    static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Byte.BYTES;
+
+    /** Largest frame accepted, length field included */
+    static final int MAX_FRAME_SIZE = 1 << 20;
+
+    /** Largest number of coordinates of an address */
+    static final int MAX_COORDINATES = Byte.MAX_VALUE;
+
+    /** Largest number of addresses of a MULTI_VIEW request */
+    static final int MAX_BATCH = Short.MAX_VALUE;
+
+    private WireProtocol() {
+    }
+
+    /**
+     * Writes an address.
+     *
+     * @param buffer The buffer
+     * @param address The address
+     * @throws IllegalArgumentException if the address has too many coordinates
+     */
+    static void putAddress(ByteBuffer buffer, int[] address) {
+        if (address.length > MAX_COORDINATES) {
+            throw new IllegalArgumentException("Address has too many coordinates");
+        }
+        buffer.put((byte) address.length);
+        for (int coordinate : address) {
+            buffer.putInt(coordinate);
+        }
+    }
+
+    /**
+     * Reads an address.
+     *
+     * @param buffer The buffer
+     * @return The address
+     * @throws IllegalArgumentException if the coordinate count is invalid
+     */
+    static int[] getAddress(ByteBuffer buffer) {
+        int length = buffer.get();
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid address length: " + length);
+        }
+        int[] address = new int[length];
+        for (int i = 0; i < length; i++) {
+            address[i] = buffer.getInt();
+        }
+        return address;
+    }
+
+    /**
+     * Gets the encoded size of an address.
+     *
+     * @param address The address
+     * @return The size in bytes
+     */
+    static int addressSize(int[] address) {
+        return Byte.BYTES + address.length * Integer.BYTES;
+    }
+
+    /**
+     * Writes a property.
+     *
+     * @param buffer The buffer
+     * @param property The property
+     */
+    static void putProperty(ByteBuffer buffer, Property property) {
+        putAddress(buffer, property.getAddress());
+        buffer.putDouble(property.getArea());
+        buffer.putDouble(property.getPricePerSquareMeter());
+        buffer.put(property.getStatus() ? (byte) 1 : (byte) 0);
+    }
+
+    /**
+     * Reads a property.
+     *
+     * @param buffer The buffer
+     * @return The property
+     */
+    static Property getProperty(ByteBuffer buffer) {
+        int[] address = getAddress(buffer);
+        double area = buffer.getDouble();
+        double pricePerSquareMeter = buffer.getDouble();
+        boolean sold = buffer.get() != 0;
+        return new Property(address, area, pricePerSquareMeter, sold);
+    }
+
+    /**
+     * Gets the largest encoded size of a property with a number of coordinates.
+     *
+     * @param coordinates The number of coordinates of the address
+     * @return The size in bytes
+     */
+    static int propertySize(int coordinates) {
+        return Byte.BYTES + coordinates * Integer.BYTES + 2 * Double.BYTES + Byte.BYTES;
+    }
+
+    /**
+     * Writes a message as a short length and UTF-8 bytes, truncated if too long.
+     *
+     * @param buffer The buffer
+     * @param message The message
+     */
+    static void putMessage(ByteBuffer buffer, String message) {
+        byte[] bytes = message == null ? new byte[0] : message.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, Short.MAX_VALUE);
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+    }
+
+    /**
+     * Reads a message written by putMessage.
+     *
+     * @param buffer The buffer
+     * @return The message
+     */
+    static String getMessage(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,80 @@
+package src.strategy;
+
+import src.util.Property;
+import src.util.PropertyStore;
+
+/**
+ * Predicate over the attributes of a property, used by property queries
+ * to filter properties while they are being scanned.
+ *
+ * Filters are tested on the raw property values (area, price per square meter
+ * and sale status) so the property store can evaluate them directly on its own
+ * representation, without creating intermediate lists or objects.
+ * They can be combined so several criteria are checked in the same pass:
+ *
+ * Example:
+ * PropertyFilter.status(false).and(PropertyFilter.price(500000, PriceComparison.HIGHER))
+ *
+ * @see src.strategy.PropertyQuery
+ * @see src.strategy.SearchByPriceStrategy.PriceComparison
+ * @see src.util.PropertyStore.ValueFilter
+ */
+@FunctionalInterface
+public interface PropertyFilter extends PropertyStore.ValueFilter {
+
+    /**
+     * Tests whether a property matches this filter.
+     *
+     * @param property The property to test
+     * @return true if the property matches, false otherwise
+     */
+    default boolean test(Property property) {
+        return test(property.getArea(), property.getPricePerSquareMeter(), property.getStatus());
+    }
+
+    /**
+     * Combines this filter with another one.
+     * The resulting filter matches only properties that match both filters.
+     *
+     * @param other The filter to combine with
+     * @return A filter that matches when both filters match
+     * @throws IllegalArgumentException if other is null
+     */
+    default PropertyFilter and(PropertyFilter other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+        return (area, pricePerSquareMeter, sold) ->
+                test(area, pricePerSquareMeter, sold) && other.test(area, pricePerSquareMeter, sold);
+    }
+
+    /**
+     * Creates a filter that matches properties with the given sale status.
+     *
+     * @param searchForSold true to match sold properties, false to match available properties
+     * @return A filter on the sale status
+     */
+    static PropertyFilter status(boolean searchForSold) {
+        return (area, pricePerSquareMeter, sold) -> sold == searchForSold;
+    }
+
+    /**
+     * Creates a filter that compares the total price of properties to a target price.
+     * The total price is calculated as area * pricePerSquareMeter, as in Property.
+     *
+     * @param targetPrice The target price for comparison
+     * @param comparison The type of price comparison to perform
+     * @return A filter on the total price
+     * @throws IllegalArgumentException if comparison is null
+     */
+    static PropertyFilter price(double targetPrice, SearchByPriceStrategy.PriceComparison comparison) {
+        if (comparison == null) {
+            throw new IllegalArgumentException("Price comparison type cannot be null");
+        }
+        return switch (comparison) {
+            case HIGHER -> (area, pricePerSquareMeter, sold) -> area * pricePerSquareMeter > targetPrice;
+            case LOWER -> (area, pricePerSquareMeter, sold) -> area * pricePerSquareMeter < targetPrice;
+            case EQUAL -> (area, pricePerSquareMeter, sold) -> area * pricePerSquareMeter == targetPrice;
+        };
+    }
+}
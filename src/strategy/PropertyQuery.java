@@ -0,0 +1,447 @@
+package src.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import src.main.SystemManager;
+import src.util.MetricsRegistry;
+import src.util.OperationMetrics;
+import src.util.Property;
+import src.util.PropertyStore;
+
+/**
+ * Single-pass query over the properties within a radius from a center address.
+ * Used by the search strategies to combine the radius test, property filters
+ * and aggregations into one scan of the system's spatial index.
+ *
+ * A query is built in steps and then executed by one of its terminal operations:
+ * - toList(): the matching properties
+ * - count(): the number of matching properties
+ * - averagePrice(): the average total price of the matching properties
+ * - nearest(k): the k matching properties closest to the center
+ * - spliterator() / stream(): the matching properties, produced lazily
+ *
+ * Example - average price of unsold properties over $500,000 within 5 blocks:
+ * PropertyQuery.within(new int[]{4, 5}, 5)
+ *              .sold(false)
+ *              .price(500000, PriceComparison.HIGHER)
+ *              .averagePrice();
+ *
+ * Each terminal operation scans the radius exactly once. The filters are handed
+ * to the property store and tested as properties are visited, so no intermediate
+ * lists are created and only the matching properties are collected.
+ * Aggregations read the property values directly and do not collect anything;
+ * without filters they are answered by the store's aggregate index and do not
+ * visit the properties at all.
+ *
+ * The latency and the rows scanned and returned of each terminal operation are
+ * recorded in the MetricsRegistry, under search.list, search.count,
+ * search.average and search.nearest. While a PropertySearchContext records a
+ * search, the rows scanned by the queries it runs are also added up for its
+ * Flight Recorder event.
+ *
+ * @see src.util.MetricsRegistry
+ * @see src.strategy.PropertyFilter
+ * @see src.util.RadiusAggregateIndex
+ * @see src.main.SystemManager
+ */
+public class PropertyQuery {
+
+    /** Metrics of toList */
+    private static final OperationMetrics LIST_METRICS = MetricsRegistry.getInstance().operation("search.list");
+
+    /** Metrics of count */
+    private static final OperationMetrics COUNT_METRICS = MetricsRegistry.getInstance().operation("search.count");
+
+    /** Metrics of averagePrice */
+    private static final OperationMetrics AVERAGE_METRICS = MetricsRegistry.getInstance().operation("search.average");
+
+    /** Metrics of nearest */
+    private static final OperationMetrics NEAREST_METRICS = MetricsRegistry.getInstance().operation("search.nearest");
+
+    /** Rows scanned by the queries of a search being recorded on this thread, or null */
+    private static final ThreadLocal<long[]> SEARCH_SCANNED = new ThreadLocal<>();
+
+    /** The center point coordinates of the search */
+    private final int[] centerAddress;
+
+    /** The search radius in Manhattan distance units */
+    private final int radius;
+
+    /** The filter properties must match to be included, or null to include all */
+    private PropertyFilter filter;
+
+    /**
+     * Constructs a query over the properties within the radius.
+     *
+     * @param centerAddress The center point coordinates
+     * @param radius The search radius in Manhattan distance units
+     */
+    private PropertyQuery(int[] centerAddress, int radius) {
+        this.centerAddress = centerAddress;
+        this.radius = radius;
+    }
+
+    /**
+     * Starts a query over the properties within a radius from a center address.
+     *
+     * @param centerAddress The center point coordinates (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units (must be non-negative)
+     * @return A new query matching every property in the radius
+     * @throws IllegalArgumentException if centerAddress is null, has less than 2 coordinates,
+     *                                  or if radius is negative
+     */
+    public static PropertyQuery within(int[] centerAddress, int radius) {
+        if (centerAddress == null || centerAddress.length < 2) {
+            throw new IllegalArgumentException("Center address must contain at least street and avenue coordinates");
+        }
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius cannot be negative");
+        }
+        return new PropertyQuery(new int[]{centerAddress[0], centerAddress[1]}, radius);
+    }
+
+    /**
+     * Adds a filter to the query. Properties must match all filters to be included.
+     *
+     * @param filter The filter to add
+     * @return This query
+     * @throws IllegalArgumentException if filter is null
+     */
+    public PropertyQuery where(PropertyFilter filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+        this.filter = this.filter == null ? filter : this.filter.and(filter);
+        return this;
+    }
+
+    /**
+     * Restricts the query to properties with the given sale status.
+     *
+     * @param searchForSold true for sold properties, false for available properties
+     * @return This query
+     */
+    public PropertyQuery sold(boolean searchForSold) {
+        return where(PropertyFilter.status(searchForSold));
+    }
+
+    /**
+     * Restricts the query to properties whose total price compares to the target price.
+     *
+     * @param targetPrice The target price for comparison
+     * @param comparison The type of price comparison to perform
+     * @return This query
+     * @throws IllegalArgumentException if comparison is null
+     */
+    public PropertyQuery price(double targetPrice, SearchByPriceStrategy.PriceComparison comparison) {
+        return where(PropertyFilter.price(targetPrice, comparison));
+    }
+
+    /**
+     * Passes every matching property to the action.
+     *
+     * @param action The action to perform on each matching property
+     */
+    public void forEach(Consumer<Property> action) {
+        SystemManager.getInstance().forEachPropertyInRadius(centerAddress, radius, filter, action);
+    }
+
+    /**
+     * Returns the matching properties.
+     *
+     * @return A new list of the matching properties
+     */
+    public List<Property> toList() {
+        long start = LIST_METRICS.start();
+        long[] searchScanned = SEARCH_SCANNED.get();
+        CountingFilter counting = countingFilter(start, searchScanned);
+        List<Property> result = new ArrayList<>();
+        SystemManager.getInstance().forEachPropertyInRadius(centerAddress, radius,
+                counting == null ? filter : counting, result::add);
+        long scanned = scanned(counting, result.size());
+        LIST_METRICS.stop(start, scanned, result.size());
+        addScanned(searchScanned, scanned);
+        return result;
+    }
+
+    /**
+     * Returns the matching properties lazily, one street at a time.
+     *
+     * Nothing is searched until the first property is requested, and each time the
+     * matches of one street are used up the next occupied street in the radius is read.
+     * The spliterator therefore holds at most the matches of one street, however large
+     * the result, and abandoning it stops the search.
+     *
+     * The result is weakly consistent: each street reflects the inventory at the time it
+     * is read, and a property moved to another street while streaming may be missed or
+     * seen twice. Properties are produced by street, then avenue.
+     *
+     * @return A sequential spliterator over the matching properties
+     */
+    public Spliterator<Property> spliterator() {
+        return new StreetSpliterator(centerAddress, radius, filter);
+    }
+
+    /**
+     * Returns the matching properties as a lazy sequential stream.
+     * Short-circuiting operations such as limit or findFirst stop the search early.
+     *
+     * @return A stream over the matching properties
+     * @see #spliterator()
+     */
+    public Stream<Property> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns the matching properties closest to the center, closest first.
+     * The search walks outwards from the center and stops as soon as the k closest
+     * properties are known, so the radius only limits how far it may go.
+     *
+     * @param k The maximum number of properties to return (must be non-negative)
+     * @return A new list of at most k matching properties, closest first
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<Property> nearest(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of properties cannot be negative");
+        }
+        long start = NEAREST_METRICS.start();
+        long[] searchScanned = SEARCH_SCANNED.get();
+        CountingFilter counting = countingFilter(start, searchScanned);
+        List<Property> result = SystemManager.getInstance()
+                .findNearestProperties(centerAddress, k, radius, counting == null ? filter : counting);
+        long scanned = scanned(counting, result.size());
+        NEAREST_METRICS.stop(start, scanned, result.size());
+        addScanned(searchScanned, scanned);
+        return result;
+    }
+
+    /**
+     * Counts the matching properties.
+     *
+     * @return The number of matching properties
+     */
+    public int count() {
+        long start = COUNT_METRICS.start();
+        if (filter == null) {
+            int count = (int) SystemManager.getInstance().aggregatePropertiesInRadius(centerAddress, radius).getCount();
+            COUNT_METRICS.stop(start, 0, 1);
+            return count;
+        }
+        PriceAccumulator accumulator = accumulate(start);
+        COUNT_METRICS.stop(start, accumulator.scanned, 1);
+        return accumulator.count;
+    }
+
+    /**
+     * Calculates the average total price of the matching properties.
+     *
+     * @return The average price, or 0.0 if no property matches
+     */
+    public double averagePrice() {
+        long start = AVERAGE_METRICS.start();
+        if (filter == null) {
+            double average = SystemManager.getInstance().aggregatePropertiesInRadius(centerAddress, radius).getAverage();
+            AVERAGE_METRICS.stop(start, 0, 1);
+            return average;
+        }
+        PriceAccumulator accumulator = accumulate(start);
+        AVERAGE_METRICS.stop(start, accumulator.scanned, 1);
+        return accumulator.count == 0 ? 0.0 : accumulator.sum / accumulator.count;
+    }
+
+    /**
+     * Visits the values of the matching properties with a new accumulator.
+     * The filter must not be null.
+     *
+     * @param start The value returned by OperationMetrics.start
+     * @return The accumulator, with the number of rows scanned if they are counted
+     */
+    private PriceAccumulator accumulate(long start) {
+        PriceAccumulator accumulator = new PriceAccumulator();
+        long[] searchScanned = SEARCH_SCANNED.get();
+        CountingFilter counting = countingFilter(start, searchScanned);
+        SystemManager.getInstance().visitPropertyValuesInRadius(centerAddress, radius,
+                counting == null ? filter : counting, accumulator);
+        accumulator.scanned = counting == null ? 0 : counting.scanned;
+        addScanned(searchScanned, accumulator.scanned);
+        return accumulator;
+    }
+
+    /**
+     * Wraps the filter to count the rows it examines, if metrics are recorded or
+     * a search is recorded on this thread.
+     * Without a filter every row in the radius is returned, so nothing is wrapped.
+     *
+     * @param start The value returned by OperationMetrics.start
+     * @param searchScanned The rows scanned by the recorded search, or null
+     * @return The counting filter, or null if the filter is used as is
+     */
+    private CountingFilter countingFilter(long start, long[] searchScanned) {
+        if (filter == null || (start == OperationMetrics.NOT_RECORDED && searchScanned == null)) {
+            return null;
+        }
+        return new CountingFilter(filter);
+    }
+
+    /**
+     * Adds the rows scanned by a terminal operation to the search recorded on this thread.
+     *
+     * @param searchScanned The rows scanned by the recorded search, or null if none is recorded
+     * @param scanned The rows scanned by the terminal operation
+     */
+    private static void addScanned(long[] searchScanned, long scanned) {
+        if (searchScanned != null) {
+            searchScanned[0] += scanned;
+        }
+    }
+
+    /**
+     * Starts counting the rows scanned by the queries run on this thread,
+     * for the Flight Recorder event of a search.
+     * Aggregates answered by the aggregate index scan no rows.
+     */
+    static void startCountingScans() {
+        SEARCH_SCANNED.set(new long[1]);
+    }
+
+    /**
+     * Stops counting the rows scanned by the queries run on this thread.
+     *
+     * @return The rows scanned since startCountingScans
+     */
+    static long stopCountingScans() {
+        long[] searchScanned = SEARCH_SCANNED.get();
+        SEARCH_SCANNED.remove();
+        return searchScanned == null ? 0 : searchScanned[0];
+    }
+
+    /**
+     * Gets the number of rows scanned by a terminal operation.
+     *
+     * @param counting The counting filter, or null
+     * @param returned The number of rows returned
+     * @return The rows counted by the filter, or the rows returned without one
+     */
+    private static long scanned(CountingFilter counting, long returned) {
+        return counting == null ? returned : counting.scanned;
+    }
+
+    /**
+     * Spliterator reading the matching properties of one street at a time from the SystemManager.
+     */
+    private static final class StreetSpliterator implements Spliterator<Property> {
+
+        /** The center point coordinates of the search */
+        private final int[] centerAddress;
+
+        /** The search radius in Manhattan distance units */
+        private final int radius;
+
+        /** The filter properties must match, or null to include all */
+        private final PropertyFilter filter;
+
+        /** The matches of the current street */
+        private final List<Property> buffer;
+
+        /** Position of the next property in the buffer */
+        private int position;
+
+        /** The smallest street not read yet */
+        private long nextStreet;
+
+        /** Whether all streets of the radius have been read */
+        private boolean exhausted;
+
+        private StreetSpliterator(int[] centerAddress, int radius, PropertyFilter filter) {
+            this.centerAddress = centerAddress;
+            this.radius = radius;
+            this.filter = filter;
+            this.buffer = new ArrayList<>();
+            this.nextStreet = Long.MIN_VALUE;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Property> action) {
+            while (position == buffer.size()) {
+                if (exhausted) {
+                    return false;
+                }
+                buffer.clear();
+                position = 0;
+                long street = SystemManager.getInstance()
+                        .forEachPropertyInRadiusOnNextStreet(centerAddress, radius, nextStreet, filter, buffer::add);
+                if (street == Long.MIN_VALUE) {
+                    exhausted = true;
+                } else {
+                    nextStreet = street + 1;
+                }
+            }
+            action.accept(buffer.get(position++));
+            return true;
+        }
+
+        @Override
+        public Spliterator<Property> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL;
+        }
+    }
+
+    /**
+     * Filter counting the rows it examines before delegating to another filter.
+     */
+    private static final class CountingFilter implements PropertyStore.ValueFilter {
+
+        /** The filter properties must match */
+        private final PropertyStore.ValueFilter delegate;
+
+        /** Number of rows examined */
+        private long scanned;
+
+        private CountingFilter(PropertyStore.ValueFilter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean test(double area, double pricePerSquareMeter, boolean sold) {
+            scanned++;
+            return delegate.test(area, pricePerSquareMeter, sold);
+        }
+    }
+
+    /**
+     * Accumulates the count and the sum of total prices of the visited properties.
+     */
+    private static final class PriceAccumulator implements PropertyStore.ValueVisitor {
+
+        /** Number of properties visited */
+        private int count;
+
+        /** Sum of the total prices of the visited properties */
+        private double sum;
+
+        /** Number of rows examined by the filter */
+        private long scanned;
+
+        @Override
+        public void visit(double area, double pricePerSquareMeter, boolean sold) {
+            count++;
+            sum += area * pricePerSquareMeter;
+        }
+    }
+}
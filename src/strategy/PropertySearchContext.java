@@ -1,5 +1,7 @@
 package src.strategy;
 
+import java.util.Collection;
+
 /**
  * Context class for the Strategy pattern implementation in property searches.
  * This class provides a unified interface for executing different search strategies
@@ -11,14 +13,25 @@ package src.strategy;
  * - Execute searches without knowing the specific strategy implementation
  * - Switch between different search algorithms dynamically
  * 
+ * A context can be given a SearchResultCache, shared with other contexts, so
+ * repeated searches with the same strategy parameters, center and radius are
+ * answered without running the strategy again. Caching suits strategies whose
+ * result only depends on the properties within the radius, like the built-in ones.
+ * 
+ * Each search is reported to Flight Recorder as a PropertySearchEvent.
+ * 
  * @param <T> The type of result returned by the search strategy
  * @see src.strategy.PropertySearchStrategy
+ * @see src.strategy.SearchResultCache
  */
 public class PropertySearchContext<T> {
     
     /** The current search strategy being used */
     private PropertySearchStrategy<T> searchStrategy;
 
+    /** The cache of search results, or null if searches are not cached */
+    private SearchResultCache resultCache;
+
     /**
      * Constructs a search context with the specified strategy.
      * 
@@ -28,6 +41,35 @@ public class PropertySearchContext<T> {
         this.searchStrategy = strategy;
     }
 
+    /**
+     * Constructs a search context with the specified strategy and result cache.
+     * 
+     * @param strategy The initial search strategy to use
+     * @param resultCache The cache of search results, or null to disable caching
+     */
+    public PropertySearchContext(PropertySearchStrategy<T> strategy, SearchResultCache resultCache) {
+        this.searchStrategy = strategy;
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Sets the cache of search results used by this context.
+     * 
+     * @param resultCache The cache of search results, or null to disable caching
+     */
+    public void setResultCache(SearchResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Gets the cache of search results used by this context.
+     * 
+     * @return The result cache, or null if searches are not cached
+     */
+    public SearchResultCache getResultCache() {
+        return resultCache;
+    }
+
     /**
      * Sets a new search strategy for this context.
      * Allows runtime switching between different search algorithms.
@@ -44,6 +86,7 @@ public class PropertySearchContext<T> {
     
     /**
      * Executes a search using the current strategy.
+     * With a result cache, a cached result of the same search is returned if there is one.
      * 
      * @param centerAddress The center point coordinates for the search
      * @param radius The search radius in Manhattan distance units
@@ -54,6 +97,42 @@ public class PropertySearchContext<T> {
         if (searchStrategy == null) {
             throw new IllegalStateException("Search strategy not set");
         }
-        return searchStrategy.search(centerAddress, radius);
+        PropertySearchStrategy<T> strategy = searchStrategy;
+        SearchResultCache cache = resultCache;
+        PropertySearchEvent event = new PropertySearchEvent();
+        boolean recorded = event.isEnabled();
+        boolean[] searched = new boolean[1];
+        long scanned;
+        event.begin();
+        T result;
+        if (recorded) {
+            PropertyQuery.startCountingScans();
+        }
+        try {
+            if (cache == null || centerAddress == null || centerAddress.length < 2 || radius < 0) {
+                // Invalid arguments are reported by the strategy
+                searched[0] = true;
+                result = strategy.search(centerAddress, radius);
+            } else {
+                result = cache.getOrSearch(strategy, centerAddress, radius, () -> {
+                    searched[0] = true;
+                    return strategy.search(centerAddress, radius);
+                });
+            }
+        } finally {
+            scanned = recorded ? PropertyQuery.stopCountingScans() : 0;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.street = centerAddress[0];
+            event.avenue = centerAddress[1];
+            event.radius = radius;
+            event.strategy = strategy.getClass().getSimpleName();
+            event.candidateCount = scanned;
+            event.cached = !searched[0];
+            event.resultCount = result instanceof Collection<?> collection ? collection.size() : 1;
+            event.commit();
+        }
+        return result;
     }
 } 
@@ -0,0 +1,54 @@
+package src.strategy;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a search made through a PropertySearchContext.
+ *
+ * The event is created and timed on every search, but its fields are only filled
+ * in when Flight Recorder keeps the event, and the candidates are only counted
+ * while the event is enabled. They are counted as the search scans them, so a
+ * search answered by the result cache or the aggregate index has no candidates.
+ * While no recording is running this costs close to nothing: the JIT removes
+ * the allocation of the event and shouldCommit is a constant false.
+ *
+ * @see src.strategy.PropertySearchContext#makeSearch(int[], int)
+ */
+@Name("src.PropertySearch")
+@Label("Property Search")
+@Category({"Real Estate", "Search"})
+@Description("Search of the properties within a radius by a search strategy")
+class PropertySearchEvent extends Event {
+
+    @Label("Street")
+    @Description("Street of the center address")
+    int street;
+
+    @Label("Avenue")
+    @Description("Avenue of the center address")
+    int avenue;
+
+    @Label("Radius")
+    @Description("Search radius in Manhattan distance units")
+    int radius;
+
+    @Label("Strategy")
+    @Description("Class of the search strategy")
+    String strategy;
+
+    @Label("Candidate Count")
+    @Description("Number of properties examined by the search")
+    long candidateCount;
+
+    @Label("Cached")
+    @Description("Whether the result came from the search result cache")
+    boolean cached;
+
+    @Label("Result Count")
+    @Description("Number of properties returned, or 1 for an aggregate such as an average")
+    int resultCount;
+}
@@ -1,18 +1,14 @@
 package src.strategy;
 
-import java.util.List;
-import src.util.Property;
-import src.util.RadiusCalculator;
-
 /**
  * Strategy for calculating the average price of properties within a specified radius.
  * Part of the Strategy pattern implementation that provides market analysis
  * functionality by computing average property prices in an area.
  * 
  * This strategy:
- * 1. Gets all properties within the specified radius
- * 2. Calculates the sum of all property prices
- * 3. Returns the average price per property
+ * 1. Looks up the count and sum of property prices within the specified radius
+ *    in the aggregate index, without visiting the properties
+ * 2. Returns the average price per property
  * 
  * The average price calculation helps with:
  * - Market analysis and pricing trends
@@ -22,7 +18,7 @@ import src.util.RadiusCalculator;
  * 
  * @see src.strategy.PropertySearchStrategy
  * @see src.util.Property
- * @see src.util.RadiusCalculator
+ * @see src.strategy.PropertyQuery
  */
 public class SearchByAveragePriceStrategy implements PropertySearchStrategy<Double> {
     
@@ -44,21 +40,24 @@ public class SearchByAveragePriceStrategy implements PropertySearchStrategy<Doub
             throw new IllegalArgumentException("Radius cannot be negative");
         }
 
-        // Get all properties within the radius
-        List<Property> propertiesInRadius = RadiusCalculator.getPropertiesInRadius(centerAddress, radius);
-        
-        // Return 0.0 if no properties found
-        if (propertiesInRadius.isEmpty()) {
-            return 0.0;
-        }
+        // Average the prices in the radius from the aggregate index
+        return PropertyQuery.within(centerAddress, radius).averagePrice();
+    }
 
-        // Calculate sum of all property prices
-        double sum = 0.0;
-        for (Property property : propertiesInRadius) {
-            sum += property.getTotalPrice();
-        }
-        
-        // Return average price
-        return sum / propertiesInRadius.size();
+    /**
+     * All average price strategies are equal, as they have no parameters,
+     * so their results can be shared by the search result cache.
+     *
+     * @param o The object to compare with
+     * @return true if o is an average price strategy
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().getName().hashCode();
     }
-} 
+}
@@ -0,0 +1,106 @@
+package src.strategy;
+
+import java.util.List;
+import java.util.Objects;
+import src.util.Property;
+
+/**
+ * Strategy for finding the properties closest to a center address.
+ * Part of the Strategy pattern implementation that answers questions such as
+ * "the 10 closest available apartments to [4,5]" in one call.
+ *
+ * This strategy:
+ * 1. Walks the grid ring by ring, outwards from the center address
+ * 2. Keeps the properties matching the optional filter
+ * 3. Stops as soon as the k closest properties are known
+ * 4. Returns them sorted by Manhattan distance, closest first
+ *
+ * The radius passed to search is the largest distance searched; pass
+ * Integer.MAX_VALUE to search the whole grid. The cost of a search depends on k
+ * and on how far the k-th property is, not on the size of the inventory.
+ *
+ * Example - the 10 closest available apartments to [4,5]:
+ * new SearchByNearestStrategy(10, PropertyFilter.status(false)).search(new int[]{4, 5}, Integer.MAX_VALUE);
+ *
+ * @see src.strategy.PropertySearchStrategy
+ * @see src.strategy.PropertyFilter
+ * @see src.strategy.PropertyQuery#nearest(int)
+ */
+public class SearchByNearestStrategy implements PropertySearchStrategy<List<Property>> {
+
+    /** The maximum number of properties to return */
+    private final int k;
+
+    /** The filter properties must match, or null to include all properties */
+    private final PropertyFilter filter;
+
+    /**
+     * Constructs a nearest search strategy over all properties.
+     *
+     * @param k The maximum number of properties to return (must be positive)
+     * @throws IllegalArgumentException if k is not positive
+     */
+    public SearchByNearestStrategy(int k) {
+        this(k, null);
+    }
+
+    /**
+     * Constructs a nearest search strategy over the properties matching a filter.
+     *
+     * @param k The maximum number of properties to return (must be positive)
+     * @param filter The filter properties must match, or null to include all properties
+     * @throws IllegalArgumentException if k is not positive
+     */
+    public SearchByNearestStrategy(int k, PropertyFilter filter) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of properties must be positive");
+        }
+        this.k = k;
+        this.filter = filter;
+    }
+
+    /**
+     * Finds the k properties closest to the center address within the radius.
+     *
+     * @param centerAddress The center point coordinates for the search
+     * @param radius The largest Manhattan distance searched
+     * @return At most k matching properties, closest first
+     * @throws IllegalArgumentException if centerAddress is null, has less than 2 coordinates,
+     *                                  or if radius is negative
+     */
+    @Override
+    public List<Property> search(int[] centerAddress, int radius) {
+        if (centerAddress == null || centerAddress.length < 2) {
+            throw new IllegalArgumentException("Center address must contain at least street and avenue coordinates");
+        }
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius cannot be negative");
+        }
+
+        PropertyQuery query = PropertyQuery.within(centerAddress, radius);
+        if (filter != null) {
+            query.where(filter);
+        }
+        return query.nearest(k);
+    }
+
+    /**
+     * Two nearest strategies are equal if they have the same k and the same filter object,
+     * so their results can be shared by the search result cache.
+     *
+     * @param o The object to compare with
+     * @return true if o is a nearest strategy with the same parameters
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SearchByNearestStrategy other = (SearchByNearestStrategy) o;
+        return k == other.k && Objects.equals(filter, other.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * k + Objects.hashCode(filter);
+    }
+}
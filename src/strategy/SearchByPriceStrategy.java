@@ -1,9 +1,8 @@
 package src.strategy;
 
-import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
 import src.util.Property;
-import src.util.RadiusCalculator;
 
 /**
  * Strategy for searching properties by price comparison within a specified radius.
@@ -11,9 +10,9 @@ import src.util.RadiusCalculator;
  * based on their total price relative to a target price.
  * 
  * This strategy:
- * 1. Gets all properties within the specified radius
+ * 1. Scans the properties within the specified radius
  * 2. Compares each property's total price to the target price
- * 3. Filters properties based on the specified comparison type
+ * 3. Keeps properties matching the specified comparison type in the same pass
  * 4. Returns the matching properties
  * 
  * Supported comparison types:
@@ -23,9 +22,10 @@ import src.util.RadiusCalculator;
  * 
  * @see src.strategy.PropertySearchStrategy
  * @see src.util.Property
- * @see src.util.RadiusCalculator
+ * @see src.strategy.PropertyQuery
+ * @see src.strategy.StreamingSearchStrategy
  */
-public class SearchByPriceStrategy implements PropertySearchStrategy<List<Property>> {
+public class SearchByPriceStrategy implements StreamingSearchStrategy {
     
     /**
      * Enumeration defining the types of price comparisons available.
@@ -81,27 +81,50 @@ public class SearchByPriceStrategy implements PropertySearchStrategy<List<Proper
             throw new IllegalArgumentException("Radius cannot be negative");
         }
     
-        // Get all properties within the radius
-        List<Property> propertiesInRadius = RadiusCalculator.getPropertiesInRadius(centerAddress, radius);
-        
-        // Filter properties based on price comparison
-        Iterator<Property> iterator = propertiesInRadius.iterator();
-        while (iterator.hasNext()) {
-            Property property = iterator.next();
-            double propertyPrice = property.getTotalPrice();
-            
-            // Determine if property should be removed based on comparison type
-            boolean shouldRemove = switch (comparison) {
-                case HIGHER -> propertyPrice <= targetPrice;
-                case LOWER -> propertyPrice >= targetPrice;
-                case EQUAL -> propertyPrice != targetPrice;
-            };
+        // Filter properties in the radius by price comparison in a single pass
+        return PropertyQuery.within(centerAddress, radius)
+                .price(targetPrice, comparison)
+                .toList();
+    }
 
-            if (shouldRemove) {
-                iterator.remove();
-            }
+    /**
+     * Returns the properties matching the price criteria within the radius lazily,
+     * one street at a time.
+     * 
+     * @param centerAddress The center point coordinates for the search
+     * @param radius The search radius in Manhattan distance units
+     * @return A sequential spliterator over the matching properties
+     * @throws IllegalArgumentException if centerAddress is null, has less than 2 coordinates,
+     *                                  or if radius is negative
+     */
+    @Override
+    public Spliterator<Property> spliterator(int[] centerAddress, int radius) {
+        if (centerAddress == null || centerAddress.length < 2) {
+            throw new IllegalArgumentException("Center address must contain at least street and avenue coordinates");
         }
-        
-        return propertiesInRadius;
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius cannot be negative");
+        }
+        return PropertyQuery.within(centerAddress, radius).price(targetPrice, comparison).spliterator();
+    }
+
+    /**
+     * Two price strategies are equal if they have the same target price and comparison,
+     * so their results can be shared by the search result cache.
+     *
+     * @param o The object to compare with
+     * @return true if o is a price strategy with the same parameters
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SearchByPriceStrategy other = (SearchByPriceStrategy) o;
+        return Double.compare(targetPrice, other.targetPrice) == 0 && comparison == other.comparison;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(targetPrice) + comparison.hashCode();
     }
-} 
+}
@@ -1,9 +1,8 @@
 package src.strategy;
 
-import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
 import src.util.Property;
-import src.util.RadiusCalculator;
 
 /**
  * Strategy for searching properties by their sale status within a specified radius.
@@ -11,8 +10,8 @@ import src.util.RadiusCalculator;
  * based on whether they are sold or available for sale.
  * 
  * This strategy:
- * 1. Gets all properties within the specified radius
- * 2. Filters them based on their sale status
+ * 1. Scans the properties within the specified radius
+ * 2. Keeps those matching the requested sale status in the same pass
  * 3. Returns the matching properties
  * 
  * The search can be configured to find either:
@@ -21,9 +20,10 @@ import src.util.RadiusCalculator;
  * 
  * @see src.strategy.PropertySearchStrategy
  * @see src.util.Property
- * @see src.util.RadiusCalculator
+ * @see src.strategy.PropertyQuery
+ * @see src.strategy.StreamingSearchStrategy
  */
-public class SearchByStatusStrategy implements PropertySearchStrategy<List<Property>> {
+public class SearchByStatusStrategy implements StreamingSearchStrategy {
     
     /** Flag indicating whether to search for sold properties (true) or available properties (false) */
     private final boolean searchForSold;
@@ -55,18 +55,49 @@ public class SearchByStatusStrategy implements PropertySearchStrategy<List<Prope
             throw new IllegalArgumentException("Radius cannot be negative");
         }
         
-        // Get all properties within the radius
-        List<Property> propertiesInRadius = RadiusCalculator.getPropertiesInRadius(centerAddress, radius);
-        
-        // Filter properties based on status
-        Iterator<Property> iterator = propertiesInRadius.iterator();
-        while (iterator.hasNext()) {
-            Property property = iterator.next();
-            if (property.getStatus() != searchForSold) {
-                iterator.remove();
-            }
+        // Filter properties in the radius by status in a single pass
+        return PropertyQuery.within(centerAddress, radius)
+                .sold(searchForSold)
+                .toList();
+    }
+
+    /**
+     * Returns the properties matching the status within the radius lazily,
+     * one street at a time.
+     * 
+     * @param centerAddress The center point coordinates for the search
+     * @param radius The search radius in Manhattan distance units
+     * @return A sequential spliterator over the matching properties
+     * @throws IllegalArgumentException if centerAddress is null, has less than 2 coordinates,
+     *                                  or if radius is negative
+     */
+    @Override
+    public Spliterator<Property> spliterator(int[] centerAddress, int radius) {
+        if (centerAddress == null || centerAddress.length < 2) {
+            throw new IllegalArgumentException("Center address must contain at least street and avenue coordinates");
         }
-        
-        return propertiesInRadius;
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius cannot be negative");
+        }
+        return PropertyQuery.within(centerAddress, radius).sold(searchForSold).spliterator();
+    }
+
+    /**
+     * Two status strategies are equal if they search for the same status,
+     * so their results can be shared by the search result cache.
+     *
+     * @param o The object to compare with
+     * @return true if o is a status strategy searching for the same status
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return searchForSold == ((SearchByStatusStrategy) o).searchForSold;
+    }
+
+    @Override
+    public int hashCode() {
+        return Boolean.hashCode(searchForSold);
     }
-} 
+}
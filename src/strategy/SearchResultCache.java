@@ -0,0 +1,411 @@
+package src.strategy;
+
+import src.main.SystemManager;
+import src.observer.PropertyChangeObserver;
+import src.util.AddressKey;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search results, shared by the search contexts that use it.
+ *
+ * Results are keyed by the search strategy (its type and parameters, through the
+ * strategy's equals and hashCode), the street and avenue of the center address
+ * and the radius. When the cache is full, the least recently used result is evicted.
+ *
+ * The cache observes the SystemManager and invalidates results precisely:
+ * when a property is edited, deleted or sold, only the results whose search
+ * radius contains the property's street and avenue are discarded. Bulk changes,
+ * such as loading a file, discard all results. To find the affected results
+ * quickly, every result is registered in the 16 x 16 blocks of the grid its
+ * radius overlaps; results with very large radii are checked on every change.
+ *
+ * List results are stored and returned as unmodifiable lists. Like the lists
+ * returned by a search, they hold the live Property objects.
+ *
+ * The cache is thread-safe. A result computed while the inventory changed
+ * is returned to its caller but not stored, so the cache never keeps results
+ * older than the last change in their radius.
+ *
+ * Example:
+ * SearchResultCache cache = new SearchResultCache(1000);
+ * PropertySearchContext&lt;Double&gt; context = new PropertySearchContext&lt;&gt;(new SearchByAveragePriceStrategy(), cache);
+ * context.makeSearch(new int[]{4, 5}, 3);   // miss: runs the search
+ * context.makeSearch(new int[]{4, 5}, 3);   // hit: returns the stored result
+ *
+ * @see src.strategy.PropertySearchContext
+ * @see src.observer.PropertyChangeObserver
+ * @see src.main.SystemManager
+ */
+public class SearchResultCache implements PropertyChangeObserver {
+
+    /** Number of bits used to map a coordinate to its block (blocks of 16 x 16) */
+    private static final int BLOCK_SHIFT = 4;
+
+    /** Largest number of blocks a result is registered in; larger results are checked on every change */
+    private static final int MAX_BLOCKS_PER_ENTRY = 16;
+
+    /** Maximum number of results kept */
+    private final int maxEntries;
+
+    /** Cached results in access order, least recently used first */
+    private final LinkedHashMap<CacheKey, Object> entries;
+
+    /** Results registered in each block, by packed block coordinates */
+    private final Map<Long, Set<CacheKey>> blocks;
+
+    /** Results whose radius overlaps too many blocks to register them */
+    private final Set<CacheKey> wideEntries;
+
+    /** Number of changes observed, used to detect results computed during a change */
+    private long changeCount;
+
+    /** Number of searches answered from the cache */
+    private long hitCount;
+
+    /** Number of searches that had to be run */
+    private long missCount;
+
+    /** Number of results evicted to respect the size limit */
+    private long evictionCount;
+
+    /** Number of results discarded because the inventory changed */
+    private long invalidationCount;
+
+    /**
+     * Constructs a cache and registers it as a change observer of the SystemManager.
+     *
+     * @param maxEntries The maximum number of results kept (must be positive)
+     * @throws IllegalArgumentException if maxEntries is not positive
+     */
+    public SearchResultCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.blocks = new HashMap<>();
+        this.wideEntries = new HashSet<>();
+        SystemManager.getInstance().addPropertyChangeObserver(this);
+    }
+
+    /**
+     * Returns the cached result of a search, or runs the search and caches its result.
+     *
+     * @param strategy The search strategy
+     * @param centerAddress The center point coordinates (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units (must be non-negative)
+     * @param search Runs the search if the result is not cached
+     * @param <T> The type of result of the search
+     * @return The search result
+     */
+    @SuppressWarnings("unchecked")
+    <T> T getOrSearch(PropertySearchStrategy<T> strategy, int[] centerAddress, int radius, Supplier<T> search) {
+        CacheKey key = new CacheKey(strategy, centerAddress[0], centerAddress[1], radius);
+        long changesBefore;
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                hitCount++;
+                return (T) entries.get(key);
+            }
+            missCount++;
+            changesBefore = changeCount;
+        }
+
+        T result = search.get();
+        if (result instanceof List) {
+            result = (T) Collections.unmodifiableList((List<?>) result);
+        }
+
+        synchronized (this) {
+            // Do not keep a result that may not reflect a change made while it was computed
+            if (changeCount == changesBefore && !entries.containsKey(key)) {
+                entries.put(key, result);
+                register(key);
+                evictIfFull();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Discards the results whose radius contains the changed property.
+     *
+     * @param address The address of the changed property
+     */
+    @Override
+    public synchronized void onPropertyChanged(AddressKey address) {
+        changeCount++;
+        int street = address.getStreet();
+        int avenue = address.getAvenue();
+        List<CacheKey> affected = new ArrayList<>();
+        Set<CacheKey> candidates = blocks.get(packBlock(street >> BLOCK_SHIFT, avenue >> BLOCK_SHIFT));
+        if (candidates != null) {
+            for (CacheKey key : candidates) {
+                if (key.contains(street, avenue)) {
+                    affected.add(key);
+                }
+            }
+        }
+        for (CacheKey key : wideEntries) {
+            if (key.contains(street, avenue)) {
+                affected.add(key);
+            }
+        }
+        for (CacheKey key : affected) {
+            entries.remove(key);
+            unregister(key);
+            invalidationCount++;
+        }
+    }
+
+    /**
+     * Discards all results.
+     */
+    @Override
+    public synchronized void onInventoryChanged() {
+        changeCount++;
+        invalidationCount += entries.size();
+        entries.clear();
+        blocks.clear();
+        wideEntries.clear();
+    }
+
+    /**
+     * Discards all results without counting them as invalidated.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        blocks.clear();
+        wideEntries.clear();
+    }
+
+    /**
+     * Unregisters the cache from the SystemManager and discards all results.
+     * The cache no longer sees changes, so it should not be used afterwards.
+     */
+    public void close() {
+        SystemManager.getInstance().removePropertyChangeObserver(this);
+        clear();
+    }
+
+    /**
+     * Gets the number of results in the cache.
+     *
+     * @return The number of cached results
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the maximum number of results kept.
+     *
+     * @return The size limit
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Gets the number of searches answered from the cache.
+     *
+     * @return The hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of searches that had to be run.
+     *
+     * @return The miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the share of searches answered from the cache.
+     *
+     * @return The hit rate between 0 and 1, or 0 if no search was made
+     */
+    public synchronized double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Gets the number of results evicted to respect the size limit.
+     *
+     * @return The eviction count
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of results discarded because the inventory changed.
+     *
+     * @return The invalidation count
+     */
+    public synchronized long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "entries: " + entries.size() + " hits: " + hitCount + " misses: " + missCount
+                + " evictions: " + evictionCount + " invalidations: " + invalidationCount;
+    }
+
+    /**
+     * Evicts the least recently used results until the cache respects its size limit.
+     */
+    private void evictIfFull() {
+        Iterator<CacheKey> iterator = entries.keySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            CacheKey eldest = iterator.next();
+            iterator.remove();
+            unregister(eldest);
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Registers a result in the blocks its radius overlaps, or as a wide result.
+     *
+     * @param key The key of the result
+     */
+    private void register(CacheKey key) {
+        if (key.blockCount() > MAX_BLOCKS_PER_ENTRY) {
+            wideEntries.add(key);
+            return;
+        }
+        for (int streetBlock = key.fromStreetBlock(); streetBlock <= key.toStreetBlock(); streetBlock++) {
+            for (int avenueBlock = key.fromAvenueBlock(); avenueBlock <= key.toAvenueBlock(); avenueBlock++) {
+                blocks.computeIfAbsent(packBlock(streetBlock, avenueBlock), block -> new HashSet<>()).add(key);
+            }
+        }
+    }
+
+    /**
+     * Removes a result from the blocks it was registered in.
+     *
+     * @param key The key of the result
+     */
+    private void unregister(CacheKey key) {
+        if (key.blockCount() > MAX_BLOCKS_PER_ENTRY) {
+            wideEntries.remove(key);
+            return;
+        }
+        for (int streetBlock = key.fromStreetBlock(); streetBlock <= key.toStreetBlock(); streetBlock++) {
+            for (int avenueBlock = key.fromAvenueBlock(); avenueBlock <= key.toAvenueBlock(); avenueBlock++) {
+                long block = packBlock(streetBlock, avenueBlock);
+                Set<CacheKey> registered = blocks.get(block);
+                if (registered != null && registered.remove(key) && registered.isEmpty()) {
+                    blocks.remove(block);
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs block coordinates into a single map key.
+     *
+     * @param streetBlock The block index along the streets
+     * @param avenueBlock The block index along the avenues
+     * @return The key of the block
+     */
+    private static long packBlock(int streetBlock, int avenueBlock) {
+        return ((long) streetBlock << 32) | (avenueBlock & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Key of a cached result: the strategy, the center street and avenue and the radius.
+     */
+    private static final class CacheKey {
+
+        /** The search strategy, compared with its equals method */
+        private final Object strategy;
+
+        /** The street of the center point */
+        private final int street;
+
+        /** The avenue of the center point */
+        private final int avenue;
+
+        /** The search radius */
+        private final int radius;
+
+        /** Cached hash code */
+        private final int hash;
+
+        private CacheKey(Object strategy, int street, int avenue, int radius) {
+            this.strategy = strategy;
+            this.street = street;
+            this.avenue = avenue;
+            this.radius = radius;
+            this.hash = ((strategy.hashCode() * 31 + street) * 31 + avenue) * 31 + radius;
+        }
+
+        /**
+         * Checks whether an address is within the radius of this search.
+         *
+         * @param otherStreet The street of the address
+         * @param otherAvenue The avenue of the address
+         * @return true if a change at the address can affect the result
+         */
+        private boolean contains(int otherStreet, int otherAvenue) {
+            return Math.abs((long) otherStreet - street) + Math.abs((long) otherAvenue - avenue) <= radius;
+        }
+
+        private int fromStreetBlock() {
+            return (int) (((long) street - radius) >> BLOCK_SHIFT);
+        }
+
+        private int toStreetBlock() {
+            return (int) (((long) street + radius) >> BLOCK_SHIFT);
+        }
+
+        private int fromAvenueBlock() {
+            return (int) (((long) avenue - radius) >> BLOCK_SHIFT);
+        }
+
+        private int toAvenueBlock() {
+            return (int) (((long) avenue + radius) >> BLOCK_SHIFT);
+        }
+
+        /**
+         * Gets the number of blocks overlapped by the bounding square of the radius.
+         *
+         * @return The number of blocks
+         */
+        private long blockCount() {
+            return ((long) toStreetBlock() - fromStreetBlock() + 1) * ((long) toAvenueBlock() - fromAvenueBlock() + 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey other = (CacheKey) o;
+            return street == other.street && avenue == other.avenue && radius == other.radius
+                    && strategy.equals(other.strategy);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package src.strategy;
+
+import src.util.Property;
+
+import java.util.Spliterator;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Publisher of search results with demand-driven backpressure.
+ *
+ * Every subscriber gets its own search, which starts when it first requests
+ * properties. Properties are read from the search only as the subscriber requests
+ * them, so a slow subscriber never causes results to pile up in memory, and
+ * cancelling the subscription stops the search.
+ *
+ * Properties are delivered on the thread that calls request. A subscriber that
+ * requests more from within onNext does not recurse: the new demand is served
+ * by the loop already delivering properties. Errors raised by the search are
+ * reported through onError.
+ *
+ * Example - page through the available properties 50 at a time:
+ * new SearchByStatusStrategy(false).publish(new int[]{4, 5}, 100).subscribe(pagingSubscriber);
+ *
+ * @see src.strategy.StreamingSearchStrategy
+ * @see java.util.concurrent.Flow
+ */
+public class SearchResultPublisher implements Flow.Publisher<Property> {
+
+    /** Creates the search of each subscriber */
+    private final Supplier<Spliterator<Property>> search;
+
+    /**
+     * Constructs a publisher.
+     *
+     * @param search Creates a new search for each subscriber
+     * @throws IllegalArgumentException if search is null
+     */
+    public SearchResultPublisher(Supplier<Spliterator<Property>> search) {
+        if (search == null) {
+            throw new IllegalArgumentException("Search cannot be null");
+        }
+        this.search = search;
+    }
+
+    /**
+     * Subscribes a subscriber to a new search.
+     *
+     * @param subscriber The subscriber
+     * @throws NullPointerException if subscriber is null, as required by Flow
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Property> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+        subscriber.onSubscribe(new SearchSubscription(subscriber, search));
+    }
+
+    /**
+     * Subscription delivering the properties of one search to one subscriber.
+     */
+    private static final class SearchSubscription implements Flow.Subscription, Consumer<Property> {
+
+        /** The subscriber receiving the properties */
+        private final Flow.Subscriber<? super Property> subscriber;
+
+        /** Creates the search on the first request */
+        private final Supplier<Spliterator<Property>> searchFactory;
+
+        /** Number of properties requested and not delivered yet */
+        private final AtomicLong requested;
+
+        /** Number of drain requests; only the caller that raises it from 0 delivers */
+        private final AtomicInteger drains;
+
+        /** Whether the subscription was cancelled or completed */
+        private volatile boolean done;
+
+        /** Demand error to report from the delivery loop, or null */
+        private volatile Throwable demandError;
+
+        /** The search, created on the first request */
+        private Spliterator<Property> search;
+
+        /** The next property to deliver, read ahead to detect the end of the search */
+        private Property next;
+
+        private SearchSubscription(Flow.Subscriber<? super Property> subscriber,
+                                   Supplier<Spliterator<Property>> searchFactory) {
+            this.subscriber = subscriber;
+            this.searchFactory = searchFactory;
+            this.requested = new AtomicLong();
+            this.drains = new AtomicInteger();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                demandError = new IllegalArgumentException("Requested number of properties must be positive");
+            } else {
+                requested.accumulateAndGet(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        @Override
+        public void accept(Property property) {
+            next = property;
+        }
+
+        /**
+         * Delivers properties while there is demand. Runs in one thread at a time;
+         * calls made while it runs only record that another pass is needed.
+         */
+        private void drain() {
+            if (drains.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            while (true) {
+                long demand = requested.get();
+                long delivered = 0;
+                while (true) {
+                    if (done) {
+                        return;
+                    }
+                    if (demandError != null) {
+                        done = true;
+                        subscriber.onError(demandError);
+                        return;
+                    }
+                    try {
+                        if (search == null) {
+                            search = searchFactory.get();
+                        }
+                        if (next == null && !search.tryAdvance(this)) {
+                            done = true;
+                            subscriber.onComplete();
+                            return;
+                        }
+                    } catch (RuntimeException e) {
+                        done = true;
+                        subscriber.onError(e);
+                        return;
+                    }
+                    if (delivered == demand) {
+                        break;
+                    }
+                    Property property = next;
+                    next = null;
+                    try {
+                        subscriber.onNext(property);
+                    } catch (RuntimeException e) {
+                        // A failing subscriber is treated as cancelled
+                        done = true;
+                        throw e;
+                    }
+                    delivered++;
+                }
+                if (delivered != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-delivered);
+                }
+                missed = drains.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
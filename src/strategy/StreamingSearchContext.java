@@ -0,0 +1,96 @@
+package src.strategy;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+import src.util.Property;
+
+/**
+ * Context class for streaming property searches.
+ * The streaming counterpart of PropertySearchContext: it delegates to the current
+ * streaming strategy and can return results as a list, a lazy stream or a
+ * publisher with backpressure, so the caller picks how results are consumed.
+ *
+ * Example - the first 20 available properties within 50 blocks, without building the full list:
+ * StreamingSearchContext context = new StreamingSearchContext(new SearchByStatusStrategy(false));
+ * context.stream(new int[]{4, 5}, 50).limit(20).toList();
+ *
+ * @see src.strategy.StreamingSearchStrategy
+ * @see src.strategy.PropertySearchContext
+ */
+public class StreamingSearchContext {
+
+    /** The current search strategy being used */
+    private StreamingSearchStrategy searchStrategy;
+
+    /**
+     * Constructs a streaming search context with the specified strategy.
+     *
+     * @param strategy The initial search strategy to use
+     */
+    public StreamingSearchContext(StreamingSearchStrategy strategy) {
+        this.searchStrategy = strategy;
+    }
+
+    /**
+     * Sets a new search strategy for this context.
+     *
+     * @param searchStrategy The new search strategy to use
+     * @throws IllegalArgumentException if searchStrategy is null
+     */
+    public void setSearchStrategy(StreamingSearchStrategy searchStrategy) {
+        if (searchStrategy == null) {
+            throw new IllegalArgumentException("Search strategy cannot be null");
+        }
+        this.searchStrategy = searchStrategy;
+    }
+
+    /**
+     * Executes a search using the current strategy and returns all results.
+     *
+     * @param centerAddress The center point coordinates for the search
+     * @param radius The search radius in Manhattan distance units
+     * @return A list of the matching properties
+     * @throws IllegalStateException if no search strategy is set
+     */
+    public List<Property> makeSearch(int[] centerAddress, int radius) {
+        return strategy().search(centerAddress, radius);
+    }
+
+    /**
+     * Executes a search using the current strategy and returns its results as a lazy stream.
+     *
+     * @param centerAddress The center point coordinates for the search
+     * @param radius The search radius in Manhattan distance units
+     * @return A stream over the matching properties
+     * @throws IllegalStateException if no search strategy is set
+     */
+    public Stream<Property> stream(int[] centerAddress, int radius) {
+        return strategy().stream(centerAddress, radius);
+    }
+
+    /**
+     * Returns a publisher of the results of a search using the current strategy.
+     *
+     * @param centerAddress The center point coordinates for the search
+     * @param radius The search radius in Manhattan distance units
+     * @return A publisher of the matching properties with demand-driven backpressure
+     * @throws IllegalStateException if no search strategy is set
+     */
+    public Flow.Publisher<Property> publish(int[] centerAddress, int radius) {
+        return strategy().publish(centerAddress, radius);
+    }
+
+    /**
+     * Gets the current strategy.
+     *
+     * @return The current strategy
+     * @throws IllegalStateException if no search strategy is set
+     */
+    private StreamingSearchStrategy strategy() {
+        if (searchStrategy == null) {
+            throw new IllegalStateException("Search strategy not set");
+        }
+        return searchStrategy;
+    }
+}
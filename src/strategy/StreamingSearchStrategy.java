@@ -0,0 +1,71 @@
+package src.strategy;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import src.util.Property;
+
+/**
+ * Property search strategy that can produce its results lazily instead of as a list.
+ * Part of the Strategy pattern implementation, for searches whose results are
+ * properties and can be large.
+ *
+ * Besides the list returned by search, a streaming strategy offers:
+ * - spliterator / stream: results pulled one at a time by the caller
+ * - publish: results pushed to Flow subscribers as they request them
+ *
+ * In both cases properties are read from the inventory one street at a time as
+ * they are consumed, so paging through a wide radius runs in constant memory
+ * and stopping early stops the search.
+ *
+ * @see src.strategy.SearchByStatusStrategy
+ * @see src.strategy.SearchByPriceStrategy
+ * @see src.strategy.StreamingSearchContext
+ * @see src.strategy.SearchResultPublisher
+ */
+public interface StreamingSearchStrategy extends PropertySearchStrategy<List<Property>> {
+
+    /**
+     * Returns the search results as a lazy spliterator.
+     *
+     * @param centerAddress The center point coordinates for the search (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units (must be non-negative)
+     * @return A sequential spliterator over the matching properties
+     * @throws IllegalArgumentException if centerAddress is null, has less than 2 coordinates,
+     *                                  or if radius is negative
+     * @see src.strategy.PropertyQuery#spliterator()
+     */
+    Spliterator<Property> spliterator(int[] centerAddress, int radius);
+
+    /**
+     * Returns the search results as a lazy sequential stream.
+     *
+     * @param centerAddress The center point coordinates for the search (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units (must be non-negative)
+     * @return A stream over the matching properties
+     * @throws IllegalArgumentException if centerAddress is null, has less than 2 coordinates,
+     *                                  or if radius is negative
+     */
+    default Stream<Property> stream(int[] centerAddress, int radius) {
+        return StreamSupport.stream(spliterator(centerAddress, radius), false);
+    }
+
+    /**
+     * Returns a publisher of the search results with demand-driven backpressure.
+     * Each subscriber gets its own search, which starts on its first request.
+     *
+     * @param centerAddress The center point coordinates for the search (must have at least 2 elements)
+     * @param radius The search radius in Manhattan distance units (must be non-negative)
+     * @return A publisher of the matching properties
+     * @throws IllegalArgumentException if centerAddress is null, has less than 2 coordinates,
+     *                                  or if radius is negative
+     */
+    default Flow.Publisher<Property> publish(int[] centerAddress, int radius) {
+        // Check the arguments now rather than in each subscription
+        spliterator(centerAddress, radius);
+        int[] center = centerAddress.clone();
+        return new SearchResultPublisher(() -> spliterator(center, radius));
+    }
+}
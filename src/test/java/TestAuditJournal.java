@@ -0,0 +1,142 @@
+package src.test.java;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import src.util.AuditJournal;
+import src.util.Property;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the asynchronous audit journal.
+ *
+ * Test coverage includes:
+ * - Formatting of each kind of event into the journal file
+ * - Levels filtering events
+ * - Records of many threads all being written through full thread buffers
+ * - Rotation of the journal file
+ *
+ * @see src.util.AuditJournal
+ */
+public class TestAuditJournal {
+    private AuditJournal journal;
+    private Path directory;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        journal = AuditJournal.getInstance();
+        directory = Files.createTempDirectory("journal");
+        file = directory.resolve("audit.log");
+        journal.openFile(file.toString(), 64L * 1024 * 1024, 2);
+        journal.setLevel(AuditJournal.Level.INFO);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        journal.setLevel(AuditJournal.Level.OFF);
+        journal.closeFile();
+        try (var files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    // Test that each kind of event is written with its level and message
+    @Test
+    public void testEventsAreWritten() throws IOException {
+        journal.setLevel(AuditJournal.Level.DEBUG);
+        Property property = new Property(new int[]{4, 5, 1}, 50, 1000, false);
+        journal.userCreated("Broker", 7);
+        journal.dealExecuted(7, 8, 9, property);
+        journal.serviceAdded("cleaning", 2000);
+        journal.deletionNotified(7, new int[]{4, 5, 1});
+        journal.propertyViewed(property);
+        journal.message(AuditJournal.Level.INFO, "Total price: 52000.0");
+        journal.flush();
+
+        String text = Files.readString(file);
+        assertTrue(text.contains("INFO USER_CREATED Broker created with ID: 7"));
+        assertTrue(text.contains("Broker 7 : I'm managing this deal\nSeller 8 : I'm offering the property at [4, 5, 1] for 50000.0"));
+        assertTrue(text.contains("Adding cleaning services: 2000.0"));
+        assertTrue(text.contains("Notification: Property at address [4, 5, 1] has been deleted"));
+        assertTrue(text.contains("DEBUG PROPERTY_VIEWED Property found: address: [4, 5, 1]"));
+        assertTrue(text.contains("Total price: 52000.0"));
+    }
+
+    // Test that events below the level are not written
+    @Test
+    public void testLevelsFilterEvents() throws IOException {
+        assertFalse(journal.isEnabled(AuditJournal.Level.DEBUG));
+        assertTrue(journal.isEnabled(AuditJournal.Level.INFO));
+        journal.propertyViewed(new Property(new int[]{1, 1}, 10, 10, false));
+        journal.setLevel(AuditJournal.Level.OFF);
+        assertFalse(journal.isEnabled(AuditJournal.Level.INFO));
+        journal.userCreated("Buyer", 1);
+        journal.setLevel(AuditJournal.Level.INFO);
+        journal.userCreated("Buyer", 2);
+        journal.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("Buyer created with ID: 2"));
+    }
+
+    // Test that records from many threads are all written, in order within each thread,
+    // when they overflow the thread buffers
+    @Test
+    public void testRecordsFromManyThreads() throws Exception {
+        int threads = 8;
+        int perThread = 2 * AuditJournal.BUFFER_SIZE;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    journal.message(AuditJournal.Level.INFO, "thread " + thread + " record " + i);
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        journal.flush();
+
+        int[] next = new int[threads];
+        for (String line : Files.readAllLines(file)) {
+            String[] words = line.split(" ");
+            int thread = Integer.parseInt(words[words.length - 3]);
+            assertEquals(next[thread], Integer.parseInt(words[words.length - 1]));
+            next[thread]++;
+        }
+        for (int count : next) {
+            assertEquals(perThread, count);
+        }
+        assertEquals(0, journal.getWriteErrorCount());
+    }
+
+    // Test that the file is rotated at its maximum size, keeping the configured number of files
+    @Test
+    public void testRotation() throws IOException {
+        journal.openFile(file.toString(), 200, 2);
+        for (int i = 0; i < 30; i++) {
+            journal.message(AuditJournal.Level.INFO, "record " + i);
+            journal.flush();
+        }
+        assertTrue(Files.size(file) <= 200);
+        assertTrue(Files.exists(directory.resolve("audit.log.1")));
+        assertTrue(Files.exists(directory.resolve("audit.log.2")));
+        assertFalse(Files.exists(directory.resolve("audit.log.3")));
+        assertTrue(Files.readString(file).contains("record 29"));
+    }
+}
@@ -0,0 +1,148 @@
+package src.test.java;
+
+import org.junit.Test;
+import src.util.AddressKey;
+import src.util.BulkPropertyLoader;
+import src.util.DuplicateAddressReport;
+import src.util.FileReaderProperty;
+import src.util.IndexedPropertyStore;
+import src.util.Property;
+import src.util.PropertyStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the parallel bulk property loader.
+ *
+ * Test coverage includes:
+ * - Producing the same properties as FileReaderProperty
+ * - Lines split across chunk boundaries
+ * - Number notations handled by the fallback parsers
+ * - Error handling for invalid, duplicate and missing files
+ * - Duplicate address policies across chunks
+ * - Loading directly into a property store
+ *
+ * @see src.util.BulkPropertyLoader
+ */
+public class TestBulkPropertyLoader {
+
+    // Test that the loader returns the same properties as FileReaderProperty, in the same order
+    @Test
+    public void testMatchesFileReaderProperty() {
+        List<Property> expected = new FileReaderProperty().readPropertiesFromFile("src/main/prop1.txt");
+        List<Property> actual = new BulkPropertyLoader().readPropertiesFromFile("src/main/prop1.txt");
+        assertPropertiesEqual(expected, actual);
+    }
+
+    // Test that tiny chunks, which split the file at almost every line, give the same result
+    @Test
+    public void testSmallChunks() {
+        List<Property> expected = new FileReaderProperty().readPropertiesFromFile("src/main/prop1.txt");
+        for (int chunkSize = 1; chunkSize <= 64; chunkSize *= 4) {
+            BulkPropertyLoader loader = new BulkPropertyLoader(ForkJoinPool.commonPool(), chunkSize,
+                    DuplicateAddressReport.Policy.FAIL_FAST);
+            assertPropertiesEqual(expected, loader.readPropertiesFromFile("src/main/prop1.txt"));
+        }
+    }
+
+    // Test Windows line endings, trailing commas and notations parsed by the fallback paths
+    @Test
+    public void testNumberFormats() throws IOException {
+        Path file = writeTempFile("1,2, 1e2 +2500.5 TRUE\r\n-3,4,7 0.1 1234567890123456789 yes\r\n");
+        List<Property> expected = new FileReaderProperty().readPropertiesFromFile(file.toString());
+        List<Property> actual = new BulkPropertyLoader().readPropertiesFromFile(file.toString());
+        assertPropertiesEqual(expected, actual);
+        assertTrue(actual.get(0).getStatus());
+        assertFalse(actual.get(1).getStatus());
+    }
+
+    // Test reading an empty file
+    @Test
+    public void testReadEmptyFile() {
+        assertTrue(new BulkPropertyLoader().readPropertiesFromFile("src/test/java/Tempty.txt").isEmpty());
+    }
+
+    // Test reading a file with duplicate addresses
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateAddresses() {
+        new BulkPropertyLoader().readPropertiesFromFile("src/test/java/TduplicateAddresses");
+    }
+
+    // Test that duplicates in different chunks are resolved in file order with KEEP_LAST
+    @Test
+    public void testKeepLastAcrossChunks() throws IOException {
+        Path file = writeTempFile("4,5 80 10000 true\n9,6 60 8000 true\n4,5 70 9000 false\n4,5 75 9500 false\n");
+        PropertyStore store = new IndexedPropertyStore();
+        DuplicateAddressReport report = new BulkPropertyLoader(ForkJoinPool.commonPool(), 1,
+                DuplicateAddressReport.Policy.KEEP_LAST).loadInto(file.toString(), store);
+
+        assertEquals(2, store.size());
+        assertEquals(75, store.get(AddressKey.of(new int[]{4, 5})).getArea(), 0.001);
+        assertEquals(1, report.getDuplicates().size());
+        assertArrayEquals(new int[]{1, 3, 4}, report.getDuplicates().get(0).getLines());
+        assertEquals(4, report.getDuplicates().get(0).getKeptLine());
+        assertArrayEquals(new int[]{1, 3}, report.getDroppedLines());
+    }
+
+    // Test that a malformed line is reported with its line number
+    @Test
+    public void testMalformedLine() throws IOException {
+        Path file = writeTempFile("4,5 80 10000 true\n9,6 60  8000 true\n");
+        Exception exception = assertThrows(RuntimeException.class, () ->
+                new BulkPropertyLoader(ForkJoinPool.commonPool(), 4, DuplicateAddressReport.Policy.FAIL_FAST)
+                        .readPropertiesFromFile(file.toString()));
+        assertTrue(exception.getMessage().startsWith("Error reading from file: line 2"));
+    }
+
+    // Test that invalid property values are rejected
+    @Test(expected = RuntimeException.class)
+    public void testReadInvalidProperties() {
+        new BulkPropertyLoader().readPropertiesFromFile("src/test/java/TinvalidProperties.txt");
+    }
+
+    // Test handling of non-existent file
+    @Test
+    public void testNonExistentFile() {
+        Exception exception = assertThrows(RuntimeException.class, () ->
+                new BulkPropertyLoader().readPropertiesFromFile("nonexistent.txt"));
+        assertTrue(exception.getMessage().contains("Error reading from file"));
+    }
+
+    // Test loading into a store, and that nothing is loaded from an invalid file
+    @Test
+    public void testLoadInto() {
+        PropertyStore store = new IndexedPropertyStore();
+        DuplicateAddressReport report = new BulkPropertyLoader().loadInto("src/main/prop1.txt", store);
+        assertEquals(store.size(), report.getPropertyCount());
+        assertFalse(report.hasDuplicates());
+        assertNotNull(store.get(AddressKey.of(new int[]{4, 5, 1, 1})));
+
+        PropertyStore empty = new IndexedPropertyStore();
+        assertThrows(IllegalArgumentException.class, () ->
+                new BulkPropertyLoader().loadInto("src/test/java/TduplicateAddresses", empty));
+        assertEquals(0, empty.size());
+    }
+
+    private static Path writeTempFile(String content) throws IOException {
+        Path file = Files.createTempFile("properties", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static void assertPropertiesEqual(List<Property> expected, List<Property> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i).getAddress(), actual.get(i).getAddress());
+            assertEquals(expected.get(i).getArea(), actual.get(i).getArea(), 0.0);
+            assertEquals(expected.get(i).getPricePerSquareMeter(), actual.get(i).getPricePerSquareMeter(), 0.0);
+            assertEquals(expected.get(i).getStatus(), actual.get(i).getStatus());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package src.test.java;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import src.main.SystemManager;
+import src.strategy.SearchByAveragePriceStrategy;
+import src.util.AddressKey;
+import src.util.ColumnarPropertyStore;
+import src.util.IndexedPropertyStore;
+import src.util.Property;
+import src.util.PropertyStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the columnar property store.
+ *
+ * Test coverage includes:
+ * - Adding, replacing, finding and removing properties
+ * - Property views reading and writing their row
+ * - Detaching views of replaced and removed rows
+ * - Compaction after many removals
+ * - Radius scans matching the default indexed store
+ * - Switching the SystemManager storage layout
+ *
+ * @see src.util.ColumnarPropertyStore
+ */
+public class TestColumnarPropertyStore {
+    private ColumnarPropertyStore store;
+
+    @Before
+    public void setUp() {
+        store = new ColumnarPropertyStore();
+        store.put(new Property(new int[]{4, 5, 1, 1}, 80, 10000, true));
+        store.put(new Property(new int[]{4, 5, 1, 2}, 40, 5000, false));
+        store.put(new Property(new int[]{9, 6}, 70, 9000, false));
+    }
+
+    // Restore the default layout used by the other test classes
+    @After
+    public void tearDown() {
+        SystemManager.getInstance().setStorageLayout(SystemManager.StorageLayout.INDEXED);
+    }
+
+    // Test that stored properties can be found by address with their values
+    @Test
+    public void testPutAndGet() {
+        assertEquals(3, store.size());
+        Property property = store.get(AddressKey.of(new int[]{4, 5, 1, 2}));
+        assertNotNull(property);
+        assertArrayEquals(new int[]{4, 5, 1, 2}, property.getAddress());
+        assertEquals(40, property.getArea(), 0.001);
+        assertEquals(5000, property.getPricePerSquareMeter(), 0.001);
+        assertFalse(property.getStatus());
+        assertNull(store.get(AddressKey.of(new int[]{4, 5, 1})));
+    }
+
+    // Test that the same row always gives the same view and that status changes are stored
+    @Test
+    public void testViewWritesThrough() {
+        Property view = store.get(AddressKey.of(new int[]{9, 6}));
+        assertSame(view, store.get(AddressKey.of(new int[]{9, 6})));
+        view.setStatus(true);
+        assertTrue(store.toList().get(2).getStatus());
+    }
+
+    // Test that replacing a property keeps its position and detaches the old view
+    @Test
+    public void testReplaceKeepsOrder() {
+        Property old = store.get(AddressKey.of(new int[]{4, 5, 1, 1}));
+        Property replaced = store.put(new Property(new int[]{4, 5, 1, 1}, 100, 1000, false));
+        assertSame(old, replaced);
+        assertEquals(80, old.getArea(), 0.001);
+
+        List<Property> all = store.toList();
+        assertEquals(3, all.size());
+        assertEquals(100, all.get(0).getArea(), 0.001);
+    }
+
+    // Test that removed properties are no longer found and their views keep their values
+    @Test
+    public void testRemove() {
+        Property view = store.get(AddressKey.of(new int[]{4, 5, 1, 1}));
+        assertSame(view, store.remove(AddressKey.of(new int[]{4, 5, 1, 1})));
+        assertNull(store.remove(AddressKey.of(new int[]{4, 5, 1, 1})));
+        assertNull(store.get(AddressKey.of(new int[]{4, 5, 1, 1})));
+        assertEquals(2, store.size());
+
+        view.setStatus(false);
+        assertFalse(view.getStatus());
+        assertEquals(800000, view.getTotalPrice(), 0.001);
+    }
+
+    // Test that many removals compact the store without losing or reordering properties
+    @Test
+    public void testCompaction() {
+        for (int i = 0; i < 200; i++) {
+            store.put(new Property(new int[]{i, i, i}, 10 + i, 100, false));
+        }
+        Property kept = store.get(AddressKey.of(new int[]{199, 199, 199}));
+        for (int i = 0; i < 200; i += 2) {
+            assertNotNull(store.remove(AddressKey.of(new int[]{i, i, i})));
+        }
+
+        assertEquals(103, store.size());
+        assertSame(kept, store.get(AddressKey.of(new int[]{199, 199, 199})));
+        kept.setStatus(true);
+        assertTrue(store.get(AddressKey.of(new int[]{199, 199, 199})).getStatus());
+
+        List<Property> all = store.toList();
+        for (int i = 1; i < 200; i += 2) {
+            Property property = all.get(3 + i / 2);
+            assertArrayEquals(new int[]{i, i, i}, property.getAddress());
+            assertEquals(10 + i, property.getArea(), 0.001);
+        }
+    }
+
+    // Test that radius scans find the same properties as the indexed store
+    @Test
+    public void testRadiusScanMatchesIndexedStore() {
+        IndexedPropertyStore indexed = new IndexedPropertyStore();
+        ColumnarPropertyStore columnar = new ColumnarPropertyStore();
+        for (int i = 0; i < 50; i++) {
+            Property property = new Property(new int[]{i % 7, i % 11, i}, 10 + i, 100 * (i % 5 + 1), i % 3 == 0);
+            indexed.put(property);
+            columnar.put(property);
+        }
+        PropertyStore.ValueFilter unsold = (area, pricePerSquareMeter, sold) -> !sold;
+
+        for (int radius = 0; radius < 12; radius++) {
+            List<String> expected = new ArrayList<>();
+            List<String> found = new ArrayList<>();
+            indexed.forEachInRadius(3, 4, radius, unsold, p -> expected.add(p.toString()));
+            columnar.forEachInRadius(3, 4, radius, unsold, p -> found.add(p.toString()));
+            assertEquals(expected.size(), found.size());
+            assertTrue(found.containsAll(expected));
+        }
+    }
+
+    // Test that the system gives the same search results after switching to the columnar layout
+    @Test
+    public void testSystemManagerColumnarLayout() {
+        SystemManager systemManager = SystemManager.getInstance();
+        systemManager.initializeProperties("src/main/prop1.txt");
+        double expected = new SearchByAveragePriceStrategy().search(new int[]{4, 5}, 3);
+
+        systemManager.setStorageLayout(SystemManager.StorageLayout.COLUMNAR);
+        assertEquals(SystemManager.StorageLayout.COLUMNAR, systemManager.getStorageLayout());
+        assertEquals(expected, new SearchByAveragePriceStrategy().search(new int[]{4, 5}, 3), 0.001);
+
+        Property property = systemManager.findProperty(new int[]{9, 6});
+        assertSame(property, systemManager.findProperty(new int[]{9, 6}));
+    }
+}
@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 public class TestDealDecorators {
@@ -121,4 +122,71 @@ public class TestDealDecorators {
         // Second deal with the same property - should throw IllegalStateException
         systemManager.executeWholeDeal(property, services, seller, buyer, broker);
     }
-} 
\ No newline at end of file
+
+    // Test that a compiled deal is priced like the decorator chain for every set of services
+    @Test
+    public void testCompiledDealMatchesDecorators() {
+        DealService[] services = DealService.values();
+        for (int mask = 0; mask < 1 << services.length; mask++) {
+            Deal decorated = baseDeal;
+            List<String> names = new ArrayList<>();
+            for (DealService service : services) {
+                if ((mask & 1 << service.ordinal()) != 0) {
+                    names.add(service.name().toLowerCase());
+                    decorated = decorate(decorated, service);
+                }
+            }
+            Deal compiled = new CompiledDeal(property, buyer, seller, broker, DealService.resolve(names));
+            assertEquals(decorated.getTotalPrice(), compiled.getTotalPrice(), 0.001);
+        }
+    }
+
+    // Test that a service requested twice is charged twice, like two decorators, and kept in request order
+    @Test
+    public void testCompiledDealRepeatedServices() {
+        List<String> names = List.of("Moving", "CLEANING", "cleaning");
+        Deal decorated = baseDeal;
+        for (String name : names) {
+            decorated = decorate(decorated, DealService.fromName(name));
+        }
+        CompiledDeal compiled = new CompiledDeal(property, buyer, seller, broker, DealService.resolve(names));
+        assertEquals(property.getTotalPrice() + 3000 + 2000 + 2000, compiled.getTotalPrice(), 0.001);
+        assertEquals(decorated.getTotalPrice(), compiled.getTotalPrice(), 0.001);
+        assertEquals(List.of(DealService.MOVING, DealService.CLEANING, DealService.CLEANING), compiled.getServices());
+    }
+
+    // Test that service names resolve without regard to case, in request order, and reject unknown names
+    @Test
+    public void testResolveServices() {
+        assertEquals(List.of(DealService.CLEANING, DealService.DESIGN, DealService.CLEANING),
+                DealService.resolve(List.of("Cleaning", "DESIGN", "cleaning")));
+        assertEquals(List.of(), DealService.resolve(new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> DealService.resolve(List.of("CLEANING", "SPA")));
+        assertEquals(8000, DealService.surcharge(DealService.resolve(List.of("CLEANING", "DESIGN", "cleaning"))), 0.001);
+    }
+
+    // Test that executing a compiled deal sells the property once
+    @Test(expected = IllegalStateException.class)
+    public void testCompiledDealSellsOnce() {
+        Deal deal = new CompiledDeal(property, buyer, seller, broker, List.of(DealService.MOVING));
+        deal.executeDeal();
+        assertTrue(property.getStatus());
+        deal.executeDeal();
+    }
+
+    /**
+     * Wraps a deal in the decorator of a service.
+     *
+     * @param deal The deal to decorate
+     * @param service The service
+     * @return The decorated deal
+     */
+    private static Deal decorate(Deal deal, DealService service) {
+        return switch (service) {
+            case EVENING -> new EveningServicesDecorator(deal);
+            case CLEANING -> new CleaningDecorator(deal);
+            case MOVING -> new MovingDecorator(deal);
+            case DESIGN -> new DesignDecorator(deal);
+        };
+    }
+}
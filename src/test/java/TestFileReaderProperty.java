@@ -2,6 +2,7 @@ package src.test.java;
 
 import org.junit.Before;
 import org.junit.Test;
+import src.util.DuplicateAddressReport;
 import src.util.FileReaderProperty;
 import src.util.Property;
 
@@ -33,6 +34,32 @@ public class TestFileReaderProperty {
         fileReader.readPropertiesFromFile("src/test/java/TduplicateAddresses");
     }
 
+    // Test that KEEP_FIRST keeps the first line of a duplicated address and reports the duplicate lines
+    @Test
+    public void testDuplicateAddressesKeepFirst() {
+        List<Property> properties = fileReader.readPropertiesFromFile("src/test/java/TduplicateAddresses",
+                DuplicateAddressReport.Policy.KEEP_FIRST);
+        assertEquals(2, properties.size());
+        assertEquals(80, properties.get(0).getArea(), 0.001);
+
+        DuplicateAddressReport report = fileReader.getDuplicateReport();
+        assertTrue(report.hasDuplicates());
+        assertArrayEquals(new int[]{4, 5}, report.getDuplicates().get(0).getAddress().toArray());
+        assertArrayEquals(new int[]{1, 2}, report.getDuplicates().get(0).getLines());
+        assertArrayEquals(new int[]{2}, report.getDroppedLines());
+    }
+
+    // Test that KEEP_LAST keeps the data of the last line in the position of the first
+    @Test
+    public void testDuplicateAddressesKeepLast() {
+        List<Property> properties = fileReader.readPropertiesFromFile("src/test/java/TduplicateAddresses",
+                DuplicateAddressReport.Policy.KEEP_LAST);
+        assertEquals(2, properties.size());
+        assertEquals(70, properties.get(0).getArea(), 0.001);
+        assertArrayEquals(new int[]{9, 6}, properties.get(1).getAddress());
+        assertArrayEquals(new int[]{1}, fileReader.getDuplicateReport().getDroppedLines());
+    }
+
     // Test reading a file with invalid properties
     // We expect a RuntimeException because src.util.FileReaderProperty throws an exception
     // when it encounters invalid lines in the file
@@ -0,0 +1,186 @@
+package src.test.java;
+
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import src.decorator.DealRequest;
+import src.factory.Broker;
+import src.factory.Buyer;
+import src.factory.Seller;
+import src.factory.User;
+import src.factory.UserFactory;
+import src.main.SystemManager;
+import src.strategy.PropertySearchContext;
+import src.strategy.SearchByAveragePriceStrategy;
+import src.strategy.SearchByStatusStrategy;
+import src.strategy.SearchResultCache;
+import src.util.FileReaderProperty;
+import src.util.Property;
+import src.util.RadiusCalculator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Flight Recorder events of searches, loads and deals.
+ *
+ * Test coverage includes:
+ * - Search events with center, radius, strategy, candidate and result counts
+ * - Search events of cached results
+ * - Radius scan events
+ * - Load events of both property file readers
+ * - Deal events of single and batch deals
+ *
+ * @see src.strategy.PropertySearchContext
+ * @see src.util.RadiusCalculator
+ * @see src.util.FileReaderProperty
+ * @see src.main.SystemManager
+ */
+public class TestFlightRecorderEvents {
+    private SystemManager systemManager;
+    private Recording recording;
+
+    @Before
+    public void setUp() {
+        systemManager = SystemManager.getInstance();
+        systemManager.initializeProperties("src/main/prop1.txt");
+        recording = new Recording();
+        recording.enable("src.PropertySearch");
+        recording.enable("src.RadiusScan");
+        recording.enable("src.PropertyLoad");
+        recording.enable("src.Deal");
+        recording.start();
+    }
+
+    @After
+    public void tearDown() {
+        recording.close();
+    }
+
+    // Test that searches are recorded with their shape and counts
+    @Test
+    public void testSearchEvents() throws IOException {
+        List<Property> available = new PropertySearchContext<>(new SearchByStatusStrategy(false))
+                .makeSearch(new int[]{4, 5}, 10);
+        new PropertySearchContext<>(new SearchByAveragePriceStrategy()).makeSearch(new int[]{4, 5}, 10);
+        int inRadius = RadiusCalculator.getPropertiesInRadius(new int[]{4, 5}, 10).size();
+
+        List<RecordedEvent> searches = events("src.PropertySearch");
+        assertEquals(2, searches.size());
+        RecordedEvent status = searches.get(0);
+        assertEquals(4, status.getInt("street"));
+        assertEquals(5, status.getInt("avenue"));
+        assertEquals(10, status.getInt("radius"));
+        assertEquals("SearchByStatusStrategy", status.getString("strategy"));
+        assertEquals(inRadius, status.getLong("candidateCount"));
+        assertEquals(available.size(), status.getInt("resultCount"));
+        assertFalse(status.getBoolean("cached"));
+        assertEquals("SearchByAveragePriceStrategy", searches.get(1).getString("strategy"));
+        assertEquals(1, searches.get(1).getInt("resultCount"));
+        // Answered by the aggregate index without scanning
+        assertEquals(0, searches.get(1).getLong("candidateCount"));
+
+        List<RecordedEvent> scans = events("src.RadiusScan");
+        assertEquals(1, scans.size());
+        assertEquals(inRadius, scans.get(0).getInt("resultCount"));
+    }
+
+    // Test that a search answered by the result cache is recorded without candidates
+    @Test
+    public void testCachedSearchEvents() throws IOException {
+        SearchResultCache cache = new SearchResultCache(16);
+        PropertySearchContext<List<Property>> context =
+                new PropertySearchContext<>(new SearchByStatusStrategy(false), cache);
+        try {
+            context.makeSearch(new int[]{4, 5}, 10);
+            context.makeSearch(new int[]{4, 5}, 10);
+        } finally {
+            cache.close();
+        }
+        int inRadius = RadiusCalculator.getPropertiesInRadius(new int[]{4, 5}, 10).size();
+
+        List<RecordedEvent> searches = events("src.PropertySearch");
+        assertEquals(2, searches.size());
+        assertFalse(searches.get(0).getBoolean("cached"));
+        assertEquals(inRadius, searches.get(0).getLong("candidateCount"));
+        assertTrue(searches.get(1).getBoolean("cached"));
+        assertEquals(0, searches.get(1).getLong("candidateCount"));
+        assertEquals(searches.get(0).getInt("resultCount"), searches.get(1).getInt("resultCount"));
+    }
+
+    // Test that both property file readers record their loads
+    @Test
+    public void testLoadEvents() throws IOException {
+        int count = new FileReaderProperty().readPropertiesFromFile("src/main/prop1.txt").size();
+        systemManager.initializeProperties("src/main/prop1.txt");
+
+        List<RecordedEvent> loads = events("src.PropertyLoad");
+        assertEquals(2, loads.size());
+        for (RecordedEvent load : loads) {
+            assertEquals("src/main/prop1.txt", load.getString("path"));
+            assertEquals("FAIL_FAST", load.getString("duplicatePolicy"));
+            assertEquals(count, load.getInt("candidateCount"));
+            assertEquals(count, load.getInt("resultCount"));
+        }
+    }
+
+    // Test that single and batch deals are recorded with their status, rejected ones included
+    @Test
+    public void testDealEvents() throws IOException {
+        Property property = systemManager.getAllProperties().stream()
+                .filter(p -> !p.getStatus())
+                .findFirst()
+                .orElseThrow();
+        Seller seller = (Seller) UserFactory.createUser(User.UserType.SELLER);
+        Buyer buyer = (Buyer) UserFactory.createUser(User.UserType.BUYER);
+        Broker broker = (Broker) UserFactory.createUser(User.UserType.BROKER);
+        systemManager.executeWholeDeal(property, List.of("CLEANING"), seller, buyer, broker);
+        systemManager.executeDeals(List.of(
+                new DealRequest(property, List.of(), seller, buyer, broker)));
+        assertThrows(IllegalStateException.class,
+                () -> systemManager.executeWholeDeal(property, List.of(), seller, buyer, broker));
+
+        List<RecordedEvent> deals = events("src.Deal");
+        assertEquals(3, deals.size());
+        RecordedEvent sale = deals.get(0);
+        assertEquals(property.getAddress()[0], sale.getInt("street"));
+        assertEquals(property.getAddress()[1], sale.getInt("avenue"));
+        assertEquals("CLEANING", sale.getString("services"));
+        assertEquals(broker.getUserId(), sale.getInt("brokerId"));
+        assertEquals("COMMITTED", sale.getString("status"));
+        assertEquals(property.getTotalPrice() + 2000, sale.getDouble("totalPrice"), 0.001);
+        assertEquals("ALREADY_SOLD", deals.get(1).getString("status"));
+        assertEquals("ALREADY_SOLD", deals.get(2).getString("status"));
+    }
+
+    /**
+     * Stops the recording if it runs and reads its events of a type, in the order they started.
+     *
+     * @param name The event name
+     * @return The recorded events
+     */
+    private List<RecordedEvent> events(String name) throws IOException {
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        Path file = Files.createTempFile("events", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(name))
+                    .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
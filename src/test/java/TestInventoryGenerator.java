@@ -0,0 +1,146 @@
+package src.test.java;
+
+import org.junit.Test;
+import src.util.AddressKey;
+import src.util.BulkPropertyLoader;
+import src.util.FileReaderProperty;
+import src.util.InventoryGenerator;
+import src.util.Property;
+import src.util.PropertySnapshotFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the synthetic inventory generator.
+ *
+ * Test coverage includes:
+ * - Determinism for a given seed
+ * - Unique addresses, grid bounds and subdivision depth
+ * - Sold ratio and price ranges
+ * - Reading generated text and snapshot files back
+ * - Invalid settings
+ *
+ * @see src.util.InventoryGenerator
+ */
+public class TestInventoryGenerator {
+
+    // Test that the same seed produces the same inventory and a different seed does not
+    @Test
+    public void testDeterministic() {
+        List<Property> first = new InventoryGenerator(7).generate(2000);
+        List<Property> second = new InventoryGenerator(7).generate(2000);
+        List<Property> other = new InventoryGenerator(8).generate(2000);
+
+        assertEquals(first.size(), second.size());
+        boolean differs = false;
+        for (int i = 0; i < first.size(); i++) {
+            assertArrayEquals(first.get(i).getAddress(), second.get(i).getAddress());
+            assertEquals(first.get(i).getTotalPrice(), second.get(i).getTotalPrice(), 0.0);
+            assertEquals(first.get(i).getStatus(), second.get(i).getStatus());
+            differs |= !first.get(i).getAddressKey().equals(other.get(i).getAddressKey());
+        }
+        assertTrue(differs);
+    }
+
+    // Test that addresses are unique, stay on the grid and respect the subdivision depth
+    @Test
+    public void testAddressesUniqueAndBounded() {
+        List<Property> properties = new InventoryGenerator(1).grid(30, 10).maxSubdivisionDepth(2).generate(20000);
+        Set<AddressKey> keys = new HashSet<>();
+        for (Property property : properties) {
+            int[] address = property.getAddress();
+            assertTrue(keys.add(property.getAddressKey()));
+            assertTrue(address.length >= 2 && address.length <= 4);
+            assertTrue(address[0] >= 1 && address[0] <= 30);
+            assertTrue(address[1] >= 1 && address[1] <= 10);
+        }
+    }
+
+    // Test that the sold ratio is respected and prices are positive
+    @Test
+    public void testSoldRatioAndPrices() {
+        List<Property> properties = new InventoryGenerator(3).soldRatio(0.25).generate(20000);
+        int sold = 0;
+        for (Property property : properties) {
+            if (property.getStatus()) {
+                sold++;
+            }
+            assertTrue(property.getArea() >= 15);
+            assertTrue(property.getPricePerSquareMeter() >= 100);
+        }
+        assertEquals(0.25, sold / 20000.0, 0.02);
+
+        assertTrue(new InventoryGenerator(3).soldRatio(0).generate(500).stream().noneMatch(Property::getStatus));
+    }
+
+    // Test that every property fits in its own street/avenue cell when subdivisions are disabled
+    @Test
+    public void testNoSubdivisions() {
+        List<Property> properties = new InventoryGenerator(5).grid(10, 10).maxSubdivisionDepth(0).generate(100);
+        for (Property property : properties) {
+            assertEquals(2, property.getAddress().length);
+        }
+    }
+
+    // Test that generated text files are read back identically by both text loaders
+    @Test
+    public void testTextFileRoundTrip() throws IOException {
+        Path file = tempFile(".txt");
+        InventoryGenerator generator = new InventoryGenerator(11);
+        generator.writeTextFile(file.toString(), 3000);
+        List<Property> expected = generator.generate(3000);
+
+        List<Property> bulk = new BulkPropertyLoader().readPropertiesFromFile(file.toString());
+        List<Property> classic = new FileReaderProperty().readPropertiesFromFile(file.toString());
+        assertEquals(expected.size(), bulk.size());
+        assertEquals(expected.size(), classic.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i).getAddress(), bulk.get(i).getAddress());
+            assertArrayEquals(expected.get(i).getAddress(), classic.get(i).getAddress());
+            assertEquals(expected.get(i).getTotalPrice(), bulk.get(i).getTotalPrice(), 0.0);
+            assertEquals(expected.get(i).getStatus(), classic.get(i).getStatus());
+        }
+    }
+
+    // Test that generated snapshot files are read back identically
+    @Test
+    public void testSnapshotFileRoundTrip() throws IOException {
+        Path file = tempFile(".snapshot");
+        InventoryGenerator generator = new InventoryGenerator(12);
+        generator.writeSnapshotFile(file.toString(), 3000);
+        List<Property> expected = generator.generate(3000);
+
+        List<Property> actual = PropertySnapshotFile.read(file.toString()).getProperties();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i).getAddress(), actual.get(i).getAddress());
+            assertEquals(expected.get(i).getTotalPrice(), actual.get(i).getTotalPrice(), 0.0);
+        }
+    }
+
+    // Test that invalid settings are rejected
+    @Test
+    public void testInvalidSettings() {
+        InventoryGenerator generator = new InventoryGenerator(1);
+        assertThrows(IllegalArgumentException.class, () -> generator.grid(0, 5));
+        assertThrows(IllegalArgumentException.class, () -> generator.neighborhoods(0));
+        assertThrows(IllegalArgumentException.class, () -> generator.soldRatio(1.5));
+        assertThrows(IllegalArgumentException.class, () -> generator.maxSubdivisionDepth(-1));
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new InventoryGenerator(1).grid(2, 2).maxSubdivisionDepth(0).generate(5));
+    }
+
+    private static Path tempFile(String suffix) throws IOException {
+        Path file = Files.createTempFile("inventory", suffix);
+        file.toFile().deleteOnExit();
+        return file;
+    }
+}
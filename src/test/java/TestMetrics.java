@@ -0,0 +1,159 @@
+package src.test.java;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import src.factory.Broker;
+import src.factory.Buyer;
+import src.factory.Seller;
+import src.factory.User;
+import src.factory.UserFactory;
+import src.main.SystemManager;
+import src.strategy.PropertyQuery;
+import src.util.LatencyHistogram;
+import src.util.MetricsRegistry;
+import src.util.OperationMetrics;
+import src.util.Property;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for operation metrics.
+ *
+ * Test coverage includes:
+ * - Percentile accuracy of the latency histogram
+ * - Counts and rows recorded by searches and mutations
+ * - Rejected deals counted like committed ones
+ * - Disabling and resetting metrics
+ * - Metrics read through the platform MBean server
+ *
+ * @see src.util.MetricsRegistry
+ * @see src.util.LatencyHistogram
+ */
+public class TestMetrics {
+    private SystemManager systemManager;
+    private MetricsRegistry registry;
+
+    @Before
+    public void setUp() {
+        systemManager = SystemManager.getInstance();
+        systemManager.initializeProperties("src/main/prop1.txt");
+        registry = MetricsRegistry.getInstance();
+        registry.resetAll();
+    }
+
+    @After
+    public void tearDown() {
+        registry.setEnabled(true);
+    }
+
+    // Test that percentiles are within the precision of the histogram buckets
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 * 0.04);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 * 0.04);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100), 100_000_000 * 0.04);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+    }
+
+    // Test that searches record their count and the rows they scanned and returned
+    @Test
+    public void testSearchRowCounts() {
+        OperationMetrics metrics = registry.operation("search.list");
+        List<Property> all = PropertyQuery.within(new int[]{4, 5}, 100).toList();
+        List<Property> available = PropertyQuery.within(new int[]{4, 5}, 100).sold(false).toList();
+        assertEquals(2, metrics.getCount());
+        assertEquals(2L * all.size(), metrics.getRowsScanned());
+        assertEquals(all.size() + available.size(), metrics.getRowsReturned());
+        assertTrue(metrics.getMaxMicros() >= metrics.getP50Micros());
+    }
+
+    // Test that removals and updates are counted
+    @Test
+    public void testMutationsAreCounted() {
+        Property property = systemManager.getAllProperties().get(0);
+        Property updated = new Property(property.getAddress(), 10, 10, false);
+        assertTrue(systemManager.updateProperty(property.getAddress(), updated));
+        assertTrue(systemManager.removeProperty(property.getAddress()));
+        assertFalse(systemManager.removeProperty(property.getAddress()));
+        assertEquals(1, registry.operation("system.update").getCount());
+        assertEquals(2, registry.operation("system.remove").getCount());
+    }
+
+    // Test that rejected deals are counted like committed ones
+    @Test
+    public void testRejectedDealsAreCounted() {
+        Property property = systemManager.getAllProperties().get(0);
+        property.setStatus(false);
+        Seller seller = (Seller) UserFactory.createUser(User.UserType.SELLER);
+        Buyer buyer = (Buyer) UserFactory.createUser(User.UserType.BUYER);
+        Broker broker = (Broker) UserFactory.createUser(User.UserType.BROKER);
+        systemManager.executeWholeDeal(property, List.of(), seller, buyer, broker);
+        assertThrows(IllegalStateException.class,
+                () -> systemManager.executeWholeDeal(property, List.of(), seller, buyer, broker));
+        assertEquals(2, registry.operation("system.deal").getCount());
+    }
+
+    // Test that nothing is recorded while metrics are disabled, and that reset clears the metrics
+    @Test
+    public void testDisableAndReset() {
+        OperationMetrics metrics = registry.operation("search.count");
+        registry.setEnabled(false);
+        PropertyQuery.within(new int[]{4, 5}, 100).sold(false).count();
+        assertEquals(0, metrics.getCount());
+        registry.setEnabled(true);
+        PropertyQuery.within(new int[]{4, 5}, 100).sold(false).count();
+        assertEquals(1, metrics.getCount());
+        metrics.reset();
+        assertEquals(0, metrics.getCount());
+        assertEquals(0, metrics.getRowsScanned());
+        assertEquals(0.0, metrics.getP99Micros(), 0.0);
+    }
+
+    // Test that the registry and the operations are readable through JMX
+    @Test
+    public void testMetricsOverJmx() throws Exception {
+        systemManager.findPropertiesInRadius(new int[]{4, 5}, 100);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("src.util:type=OperationMetrics,name=" + ObjectName.quote("system.radius"));
+        assertTrue(server.isRegistered(name));
+        assertEquals(1L, server.getAttribute(name, "Count"));
+        assertTrue((Double) server.getAttribute(name, "P99Micros") > 0);
+        String[] operations = (String[]) server.getAttribute(new ObjectName("src.util:type=MetricsRegistry"), "OperationNames");
+        assertTrue(List.of(operations).contains("system.radius"));
+        server.invoke(name, "reset", null, null);
+        assertEquals(0L, server.getAttribute(name, "Count"));
+    }
+
+    // Test that allocations are counted while tracking is enabled
+    @Test
+    public void testAllocationTracking() {
+        OperationMetrics metrics = registry.operation("system.radius");
+        try {
+            registry.setAllocationTracking(true);
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        try {
+            systemManager.findPropertiesInRadius(new int[]{4, 5}, 100);
+        } finally {
+            registry.setAllocationTracking(false);
+        }
+        assertTrue(metrics.getAllocatedBytes() > 0);
+    }
+}
@@ -0,0 +1,200 @@
+package src.test.java;
+
+import org.junit.After;
+import org.junit.Test;
+import src.factory.Seller;
+import src.factory.User;
+import src.factory.UserFactory;
+import src.main.SystemManager;
+import src.observer.PropertyDeletionBus;
+import src.observer.PropertyDeletionObserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the asynchronous property deletion bus.
+ *
+ * Test coverage includes:
+ * - Delivery to many subscribers, in publication order
+ * - Subscribers sharing a fixed set of dispatcher threads
+ * - Publishers not waiting for slow subscribers
+ * - Subscribers skipping events they fell too far behind on
+ * - Failing observers and unsubscribing
+ * - Sellers notifying every subscribed observer
+ *
+ * @see src.observer.PropertyDeletionBus
+ */
+public class TestPropertyDeletionBus {
+    private PropertyDeletionBus bus;
+
+    @After
+    public void tearDown() {
+        SystemManager.getInstance().initializeProperties("src/main/prop1.txt");
+    }
+
+    // Test that every subscriber receives every event, in order
+    @Test
+    public void testDeliveryToAllSubscribers() throws Exception {
+        bus = new PropertyDeletionBus(64);
+        List<RecordingObserver> observers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            RecordingObserver observer = new RecordingObserver();
+            assertTrue(bus.subscribe(observer));
+            observers.add(observer);
+        }
+        assertFalse(bus.subscribe(observers.get(0)));
+        assertEquals(5, bus.getSubscriberCount());
+
+        for (int i = 0; i < 50; i++) {
+            bus.publish(new int[]{i, 1});
+        }
+        assertTrue(bus.awaitDelivery(5, TimeUnit.SECONDS));
+        for (RecordingObserver observer : observers) {
+            assertEquals(50, observer.streets.size());
+            for (int i = 0; i < 50; i++) {
+                assertEquals(i, (int) observer.streets.get(i));
+            }
+            bus.unsubscribe(observer);
+        }
+        assertEquals(0, bus.getSubscriberCount());
+    }
+
+    // Test that many subscribers are served by no more threads than the bus has dispatchers
+    @Test
+    public void testSubscribersShareDispatchers() throws Exception {
+        bus = new PropertyDeletionBus(64, 2);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        List<RecordingObserver> observers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            RecordingObserver observer = new RecordingObserver() {
+                @Override
+                public void onPropertyDeleted(int[] address) {
+                    threads.add(Thread.currentThread());
+                    super.onPropertyDeleted(address);
+                }
+            };
+            bus.subscribe(observer);
+            observers.add(observer);
+        }
+        for (int i = 0; i < 10; i++) {
+            bus.publish(new int[]{i, 1});
+        }
+        assertTrue(bus.awaitDelivery(5, TimeUnit.SECONDS));
+        for (RecordingObserver observer : observers) {
+            assertEquals(10, observer.streets.size());
+            bus.unsubscribe(observer);
+        }
+        assertEquals(2, threads.size());
+    }
+
+    // Test that a blocked subscriber does not block publishers, and skips what it missed
+    @Test
+    public void testSlowSubscriberSkipsMissedEvents() throws Exception {
+        bus = new PropertyDeletionBus(4, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingObserver slow = new RecordingObserver() {
+            @Override
+            public void onPropertyDeleted(int[] address) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onPropertyDeleted(address);
+            }
+        };
+        RecordingObserver fast = new RecordingObserver();
+        bus.subscribe(slow);
+        bus.subscribe(fast);
+
+        for (int i = 0; i < 20; i++) {
+            bus.publish(new int[]{i, 1});
+            awaitSize(fast, i + 1);
+        }
+        release.countDown();
+        assertTrue(bus.awaitDelivery(5, TimeUnit.SECONDS));
+
+        assertEquals(20, fast.streets.size());
+        assertEquals(20, slow.streets.size() + bus.getMissedCount(slow));
+        assertTrue(bus.getMissedCount(slow) > 0);
+        assertEquals(19, (int) slow.streets.get(slow.streets.size() - 1));
+        bus.unsubscribe(slow);
+        bus.unsubscribe(fast);
+    }
+
+    // Test that an observer throwing does not stop delivery
+    @Test
+    public void testFailingObserverKeepsReceiving() throws Exception {
+        bus = new PropertyDeletionBus(16);
+        RecordingObserver failing = new RecordingObserver() {
+            @Override
+            public void onPropertyDeleted(int[] address) {
+                super.onPropertyDeleted(address);
+                throw new IllegalStateException("observer failure");
+            }
+        };
+        bus.subscribe(failing);
+        bus.publish(new int[]{1, 1});
+        bus.publish(new int[]{2, 1});
+        assertTrue(bus.awaitDelivery(5, TimeUnit.SECONDS));
+        assertEquals(2, failing.streets.size());
+        assertEquals(2, bus.getFailureCount(failing));
+        assertTrue(bus.unsubscribe(failing));
+        assertFalse(bus.unsubscribe(failing));
+    }
+
+    // Test that a seller's deletion reaches every observer subscribed through sellers
+    @Test
+    public void testSellerNotifiesAllObservers() throws Exception {
+        PropertyDeletionBus shared = PropertyDeletionBus.getInstance();
+        Seller seller = (Seller) UserFactory.createUser(User.UserType.SELLER, 940000);
+        RecordingObserver first = new RecordingObserver();
+        RecordingObserver second = new RecordingObserver();
+        seller.setObserver(first);
+        seller.setObserver(second);
+        try {
+            assertTrue(seller.deleteProperty(new int[]{9, 6}));
+            assertFalse(seller.deleteProperty(new int[]{9, 6}));
+            assertTrue(shared.awaitDelivery(5, TimeUnit.SECONDS));
+            assertEquals(List.of(9), first.streets);
+            assertEquals(List.of(9), second.streets);
+        } finally {
+            shared.unsubscribe(first);
+            shared.unsubscribe(second);
+        }
+    }
+
+    // Test that the ring capacity must be a power of two
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new PropertyDeletionBus(100);
+    }
+
+    private static void awaitSize(RecordingObserver observer, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (observer.streets.size() < size) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Observer recording the street of each deleted address.
+     */
+    private static class RecordingObserver implements PropertyDeletionObserver {
+        final List<Integer> streets = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onPropertyDeleted(int[] address) {
+            streets.add(address[0]);
+        }
+    }
+}
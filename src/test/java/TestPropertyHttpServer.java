@@ -0,0 +1,257 @@
+package src.test.java;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import src.factory.User;
+import src.factory.UserFactory;
+import src.main.SystemManager;
+import src.server.PropertyHttpServer;
+import src.util.Property;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the HTTP front end.
+ *
+ * Test coverage includes:
+ * - Viewing, editing and deleting properties with the permissions of each role
+ * - Streamed and aggregate searches
+ * - Deals and their outcome statuses
+ * - Error statuses for invalid requests
+ * - User creation disabled by default
+ * - Many concurrent requests, including edits and deletions racing with reads
+ * - Refusing to serve outside concurrent mode
+ *
+ * @see src.server.PropertyHttpServer
+ */
+public class TestPropertyHttpServer {
+    private SystemManager systemManager;
+    private PropertyHttpServer server;
+    private HttpClient client;
+    private int buyer;
+    private int seller;
+    private int broker;
+
+    @Before
+    public void setUp() throws Exception {
+        systemManager = SystemManager.getInstance();
+        systemManager.initializeProperties("src/main/prop1.txt");
+        systemManager.setConcurrentMode(true);
+        server = new PropertyHttpServer(new InetSocketAddress("localhost", 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+        buyer = UserFactory.createUser(User.UserType.BUYER).getUserId();
+        seller = UserFactory.createUser(User.UserType.SELLER).getUserId();
+        broker = UserFactory.createUser(User.UserType.BROKER).getUserId();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        systemManager.setConcurrentMode(false);
+    }
+
+    // Test that users can only be created once user creation is enabled
+    @Test
+    public void testUserCreationIsDisabledByDefault() throws Exception {
+        assertEquals(403, post("/users?role=BROKER").statusCode());
+        server.setUserCreationEnabled(true);
+        HttpResponse<String> created = post("/users?role=BROKER");
+        assertEquals(200, created.statusCode());
+        assertTrue(created.body().contains("\"role\":\"BROKER\""));
+    }
+
+    // Test that every role can view properties, one or all
+    @Test
+    public void testViewProperties() throws Exception {
+        HttpResponse<String> one = get("/properties/view?role=BUYER&user=" + buyer + "&address=9,6");
+        assertEquals(200, one.statusCode());
+        assertTrue(one.body().startsWith("{\"address\":[9,6"));
+        assertTrue(one.body().contains("\"sold\":"));
+
+        HttpResponse<String> all = get("/properties?role=seller&user=" + seller);
+        assertEquals(200, all.statusCode());
+        assertEquals(systemManager.getAllProperties().size(), count(all.body(), "\"address\""));
+
+        assertEquals(404, get("/properties/view?role=BUYER&user=" + buyer + "&address=999,999").statusCode());
+        assertEquals(403, get("/properties?role=BUYER&user=" + Integer.MAX_VALUE).statusCode());
+    }
+
+    // Test that only brokers edit and only sellers delete
+    @Test
+    public void testEditAndDeletePermissions() throws Exception {
+        Property property = systemManager.getAllProperties().get(0);
+        String address = join(property.getAddress());
+        assertEquals(403, post("/properties/edit?role=BUYER&user=" + buyer + "&address=" + address + "&area=10&price=10").statusCode());
+        HttpResponse<String> edit = post("/properties/edit?role=BROKER&user=" + broker + "&address=" + address + "&area=10&price=10");
+        assertEquals(200, edit.statusCode());
+        assertEquals(100.0, systemManager.findProperty(property.getAddress()).getTotalPrice(), 0.001);
+
+        assertEquals(403, post("/properties/delete?role=BROKER&user=" + broker + "&address=" + address).statusCode());
+        assertEquals(200, post("/properties/delete?role=SELLER&user=" + seller + "&address=" + address).statusCode());
+        assertNull(systemManager.findProperty(property.getAddress()));
+        assertEquals(404, post("/properties/delete?role=SELLER&user=" + seller + "&address=" + address).statusCode());
+    }
+
+    // Test that searches return the same results as the strategies
+    @Test
+    public void testSearches() throws Exception {
+        HttpResponse<String> available = get("/search?strategy=status&sold=false&center=4,5&radius=10");
+        assertEquals(200, available.statusCode());
+        long expected = systemManager.findPropertiesInRadius(new int[]{4, 5}, 10).stream().filter(p -> !p.getStatus()).count();
+        assertEquals(expected, count(available.body(), "\"address\""));
+
+        HttpResponse<String> limited = get("/search?strategy=price&price=0&comparison=higher&center=4,5&radius=10&limit=1");
+        assertEquals(1, count(limited.body(), "\"address\""));
+
+        HttpResponse<String> nearest = get("/search?strategy=nearest&k=2&center=4,5&radius=10");
+        assertEquals(2, count(nearest.body(), "\"address\""));
+
+        HttpResponse<String> average = get("/search?strategy=average&center=4,5&radius=10");
+        assertTrue(average.body().startsWith("{\"averagePrice\":"));
+    }
+
+    // Test that a deal is committed once and then reported as already sold
+    @Test
+    public void testDeals() throws Exception {
+        Property property = systemManager.getAllProperties().stream()
+                .filter(p -> !p.getStatus())
+                .findFirst()
+                .orElseThrow();
+        String deal = "/deals?property=" + join(property.getAddress()) + "&services=CLEANING,DESIGN"
+                + "&seller=" + seller + "&buyer=" + buyer + "&broker=" + broker;
+        HttpResponse<String> committed = post(deal);
+        assertEquals(200, committed.statusCode());
+        assertEquals("{\"status\":\"COMMITTED\",\"totalPrice\":" + (property.getTotalPrice() + 6000) + "}", committed.body());
+        assertTrue(property.getStatus());
+
+        HttpResponse<String> again = post(deal);
+        assertEquals(409, again.statusCode());
+        assertTrue(again.body().contains("ALREADY_SOLD"));
+
+        assertEquals(400, post(deal.replace("CLEANING", "GARDENING")).statusCode());
+    }
+
+    // Test that invalid requests get error statuses and messages
+    @Test
+    public void testInvalidRequests() throws Exception {
+        HttpResponse<String> missing = get("/search?strategy=status&center=4,5&radius=10");
+        assertEquals(400, missing.statusCode());
+        assertEquals("{\"error\":\"Missing parameter: sold\"}", missing.body());
+        assertEquals(400, get("/search?strategy=magic&center=4,5&radius=10").statusCode());
+        assertEquals(400, get("/search?strategy=status&sold=false&center=4,5&radius=-1").statusCode());
+        assertEquals(400, get("/properties?role=ADMIN&user=1").statusCode());
+        assertEquals(405, get("/deals").statusCode());
+        assertEquals(404, get("/properties/unknown?role=BUYER&user=" + buyer).statusCode());
+    }
+
+    // Test that many concurrent requests are all answered
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uri("/search?strategy=status&sold=false&center=4,5&radius=" + (i % 20))).build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+            assertTrue(response.get().body().startsWith("["));
+        }
+    }
+
+    // Test that parallel edits and deletions are all applied while the inventory is read
+    @Test
+    public void testConcurrentEditsAndDeletes() throws Exception {
+        int count = 100;
+        Path file = Files.createTempFile("http-inventory", ".txt");
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            lines.append(100 + i).append(",100 50 1000 false\n");
+        }
+        Files.writeString(file, lines);
+        systemManager.initializeProperties(file.toString());
+        Files.delete(file);
+        try {
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String address = (100 + i) + ",100";
+                String path = i % 2 == 0
+                        ? "/properties/edit?role=BROKER&user=" + broker + "&address=" + address + "&area=99&price=1000"
+                        : "/properties/delete?role=SELLER&user=" + seller + "&address=" + address;
+                responses.add(client.sendAsync(HttpRequest.newBuilder(uri(path))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString()));
+                responses.add(client.sendAsync(HttpRequest.newBuilder(uri("/properties?role=BUYER&user=" + buyer)).build(),
+                        HttpResponse.BodyHandlers.ofString()));
+                responses.add(client.sendAsync(HttpRequest.newBuilder(
+                        uri("/search?strategy=average&center=" + address + "&radius=5")).build(),
+                        HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode());
+            }
+            for (int i = 0; i < count; i++) {
+                Property property = systemManager.findProperty(new int[]{100 + i, 100});
+                if (i % 2 == 0) {
+                    assertEquals(99, property.getArea(), 0.001);
+                } else {
+                    assertNull(property);
+                }
+            }
+        } finally {
+            for (int i = 0; i < count; i += 2) {
+                systemManager.removeProperty(new int[]{100 + i, 100});
+            }
+        }
+    }
+
+    // Test that the server is not created outside concurrent mode
+    @Test(expected = IllegalStateException.class)
+    public void testRequiresConcurrentMode() throws Exception {
+        systemManager.setConcurrentMode(false);
+        new PropertyHttpServer(new InetSocketAddress("localhost", 0));
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.noBody()).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    private static String join(int[] address) {
+        StringBuilder builder = new StringBuilder();
+        for (int coordinate : address) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(coordinate);
+        }
+        return builder.toString();
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int index = text.indexOf(part); index >= 0; index = text.indexOf(part, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,238 @@
+package src.test.java;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import src.factory.Broker;
+import src.factory.Buyer;
+import src.factory.Seller;
+import src.factory.User;
+import src.factory.UserFactory;
+import src.main.SystemManager;
+import src.util.AddressKey;
+import src.util.BulkPropertyLoader;
+import src.util.IndexedPropertyStore;
+import src.util.Property;
+import src.util.PropertyMutationLog;
+import src.util.PropertySnapshotFile;
+import src.util.PropertyStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the write-ahead log of property mutations.
+ *
+ * Test coverage includes:
+ * - Replaying removals, replacements and sales
+ * - Discarding a torn record at the end of the log
+ * - Concurrent appends with group commit
+ * - Recovering SystemManager changes after a restart
+ * - Compacting the log into a snapshot, also while other threads change the inventory
+ *
+ * @see src.util.PropertyMutationLog
+ */
+public class TestPropertyMutationLog {
+    private SystemManager systemManager;
+    private Path logFile;
+    private Path snapshotFile;
+
+    @Before
+    public void setUp() throws IOException {
+        systemManager = SystemManager.getInstance();
+        systemManager.initializeProperties("src/main/prop1.txt");
+        logFile = Files.createTempFile("properties", ".log");
+        snapshotFile = Files.createTempFile("properties", ".snapshot");
+        logFile.toFile().deleteOnExit();
+        snapshotFile.toFile().deleteOnExit();
+    }
+
+    @After
+    public void tearDown() {
+        systemManager.disableWriteAheadLog();
+        systemManager.removeProperty(new int[]{50, 50});
+    }
+
+    // Test that every kind of record is replayed onto a store
+    @Test
+    public void testReplay() {
+        PropertyMutationLog log = new PropertyMutationLog(logFile.toString());
+        log.logRemove(AddressKey.of(new int[]{9, 6}));
+        log.logReplace(AddressKey.of(new int[]{4, 5}), new Property(new int[]{4, 5, -2}, 55, 4000, false));
+        log.awaitDurable(log.logMarkSold(AddressKey.of(new int[]{4, 5, -2})));
+        log.close();
+
+        PropertyStore store = new IndexedPropertyStore();
+        store.put(new Property(new int[]{9, 6}, 60, 8000, true));
+        store.put(new Property(new int[]{4, 5}, 80, 10000, false));
+        PropertyMutationLog reopened = new PropertyMutationLog(logFile.toString());
+        assertEquals(3, reopened.replayInto(store));
+        reopened.close();
+
+        assertEquals(1, store.size());
+        assertNull(store.get(AddressKey.of(new int[]{9, 6})));
+        Property replaced = store.get(AddressKey.of(new int[]{4, 5, -2}));
+        assertEquals(55, replaced.getArea(), 0.001);
+        assertTrue(replaced.getStatus());
+    }
+
+    // Test that a partially written record at the end is dropped and the log stays usable
+    @Test
+    public void testTornRecordIsDiscarded() throws IOException {
+        PropertyMutationLog log = new PropertyMutationLog(logFile.toString());
+        log.awaitDurable(log.logRemove(AddressKey.of(new int[]{9, 6})));
+        log.close();
+        long validSize = Files.size(logFile);
+        Files.write(logFile, new byte[]{0, 0, 0, 20, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        PropertyMutationLog reopened = new PropertyMutationLog(logFile.toString());
+        assertEquals(1, reopened.replayInto(new IndexedPropertyStore()));
+        assertEquals(validSize, reopened.size());
+        reopened.awaitDurable(reopened.logRemove(AddressKey.of(new int[]{4, 5})));
+        reopened.close();
+
+        PropertyMutationLog again = new PropertyMutationLog(logFile.toString());
+        assertEquals(2, again.replayInto(new IndexedPropertyStore()));
+        again.close();
+    }
+
+    // Test that records appended from many threads are all durable and share syncs
+    @Test
+    public void testConcurrentAppends() throws InterruptedException {
+        PropertyMutationLog log = new PropertyMutationLog(logFile.toString());
+        int threads = 8;
+        int recordsPerThread = 200;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int street = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < recordsPerThread; i++) {
+                    log.awaitDurable(log.logMarkSold(AddressKey.of(new int[]{street, i})));
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(log.getSyncCount() <= threads * recordsPerThread);
+        log.close();
+
+        PropertyMutationLog reopened = new PropertyMutationLog(logFile.toString());
+        assertEquals(threads * recordsPerThread, reopened.replayInto(new IndexedPropertyStore()));
+        reopened.close();
+    }
+
+    // Test that SystemManager changes are recovered by replaying the log on the original data
+    @Test
+    public void testRecoverSystemManagerChanges() {
+        systemManager.enableWriteAheadLog(logFile.toString(), snapshotFile.toString());
+        Property sold = systemManager.findProperty(new int[]{4, 5, 1, 3});
+        AddressKey soldKey = sold.getAddressKey();
+        systemManager.executeWholeDeal(sold, new ArrayList<>(),
+                (Seller) UserFactory.createUser(User.UserType.SELLER, 9101),
+                (Buyer) UserFactory.createUser(User.UserType.BUYER, 9102),
+                (Broker) UserFactory.createUser(User.UserType.BROKER, 9103));
+        systemManager.updateProperty(new int[]{9, 6}, new Property(new int[]{50, 50}, 65, 7000, false));
+        systemManager.disableWriteAheadLog();
+
+        // Simulate a restart: load the original file and replay the log
+        PropertyStore restarted = new IndexedPropertyStore();
+        new BulkPropertyLoader().loadInto("src/main/prop1.txt", restarted);
+        PropertyMutationLog log = new PropertyMutationLog(logFile.toString());
+        assertEquals(2, log.replayInto(restarted));
+        log.close();
+
+        assertTrue(restarted.get(soldKey).getStatus());
+        assertNull(restarted.get(AddressKey.of(new int[]{9, 6})));
+        assertEquals(65, restarted.get(AddressKey.of(new int[]{50, 50})).getArea(), 0.001);
+        assertEquals(systemManager.getAllProperties().size(), restarted.size());
+    }
+
+    // Test that the log is compacted into the snapshot once it passes the threshold
+    @Test
+    public void testCompaction() throws IOException {
+        systemManager.enableWriteAheadLog(logFile.toString(), snapshotFile.toString(), 1);
+        assertTrue(systemManager.removeProperty(new int[]{9, 6}));
+
+        assertEquals(0, Files.size(logFile));
+        PropertySnapshotFile snapshot = PropertySnapshotFile.read(snapshotFile.toString());
+        assertEquals(systemManager.getAllProperties().size(), snapshot.getProperties().size());
+        for (Property property : snapshot.getProperties()) {
+            assertNotEquals(AddressKey.of(new int[]{9, 6}), property.getAddressKey());
+        }
+    }
+
+    // Test that changes made while other threads compact the log are all recovered
+    @Test
+    public void testCompactionDuringChanges() throws Exception {
+        int count = 400;
+        int threads = 4;
+        Path inventory = Files.createTempFile("compaction-inventory", ".txt");
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            lines.append(300 + i).append(",300 50 1000 false\n");
+        }
+        Files.writeString(inventory, lines);
+        systemManager.initializeProperties(inventory.toString());
+        Files.delete(inventory);
+        systemManager.enableWriteAheadLog(logFile.toString(), snapshotFile.toString(), 1);
+        try {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                workers.add(new Thread(() -> {
+                    for (int i = first; i < count; i += threads) {
+                        int[] address = {300 + i, 300};
+                        if (i % 2 == 0) {
+                            systemManager.removeProperty(address);
+                        } else {
+                            systemManager.updateProperty(address, new Property(address, 77, 1000, false));
+                        }
+                    }
+                }));
+            }
+            workers.forEach(Thread::start);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            systemManager.disableWriteAheadLog();
+
+            // Simulate a restart: load the last snapshot and replay the log
+            PropertyStore restarted = new IndexedPropertyStore();
+            PropertySnapshotFile.read(snapshotFile.toString()).getProperties().forEach(restarted::put);
+            PropertyMutationLog log = new PropertyMutationLog(logFile.toString());
+            log.replayInto(restarted);
+            log.close();
+
+            assertEquals(systemManager.getAllProperties().size(), restarted.size());
+            for (int i = 0; i < count; i++) {
+                Property property = restarted.get(AddressKey.of(new int[]{300 + i, 300}));
+                if (i % 2 == 0) {
+                    assertNull(property);
+                } else {
+                    assertEquals(77, property.getArea(), 0.001);
+                }
+            }
+        } finally {
+            systemManager.disableWriteAheadLog();
+            for (int i = 1; i < count; i += 2) {
+                systemManager.removeProperty(new int[]{300 + i, 300});
+            }
+        }
+    }
+
+    // Test that the log cannot be enabled twice
+    @Test(expected = IllegalStateException.class)
+    public void testEnableTwice() {
+        systemManager.enableWriteAheadLog(logFile.toString(), snapshotFile.toString());
+        systemManager.enableWriteAheadLog(logFile.toString(), snapshotFile.toString());
+    }
+}
@@ -0,0 +1,128 @@
+package src.test.java;
+
+import org.junit.Test;
+import src.main.SystemManager;
+import src.util.AddressKey;
+import src.util.FileReaderProperty;
+import src.util.InventorySnapshot;
+import src.util.Property;
+import src.util.PropertySnapshotFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the binary property snapshot format.
+ *
+ * Test coverage includes:
+ * - Writing and reading back addresses, values and sale status
+ * - Detecting corrupted and foreign files
+ * - Converting text property files
+ * - Writing and loading snapshots through the SystemManager
+ *
+ * @see src.util.PropertySnapshotFile
+ */
+public class TestPropertySnapshotFile {
+
+    // Test that a snapshot round trip keeps every value, including long and negative subdivisions
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<Property> properties = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            int[] address = i % 3 == 0 ? new int[]{i, -i} : new int[]{i, i + 1, -1, 300000 + i, i % 7};
+            properties.add(new Property(address, 10.5 + i, 1000.25 * (i + 1), i % 5 == 0));
+        }
+        Path file = tempFile();
+        PropertySnapshotFile.write(file.toString(), new InventorySnapshot(42, properties));
+
+        PropertySnapshotFile snapshot = PropertySnapshotFile.read(file.toString());
+        assertEquals(42, snapshot.getInventoryVersion());
+        assertEquals(properties.size(), snapshot.getProperties().size());
+        for (int i = 0; i < properties.size(); i++) {
+            Property expected = properties.get(i);
+            Property actual = snapshot.getProperties().get(i);
+            assertArrayEquals(expected.getAddress(), actual.getAddress());
+            assertEquals(expected.getArea(), actual.getArea(), 0.0);
+            assertEquals(expected.getPricePerSquareMeter(), actual.getPricePerSquareMeter(), 0.0);
+            assertEquals(expected.getStatus(), actual.getStatus());
+        }
+    }
+
+    // Test that an empty inventory can be written and read
+    @Test
+    public void testEmptySnapshot() throws IOException {
+        Path file = tempFile();
+        PropertySnapshotFile.write(file.toString(), new InventorySnapshot(0, new ArrayList<>()));
+        assertTrue(PropertySnapshotFile.read(file.toString()).getProperties().isEmpty());
+    }
+
+    // Test that a flipped byte is detected by the checksum
+    @Test
+    public void testCorruptedSnapshot() throws IOException {
+        Path file = tempFile();
+        PropertySnapshotFile.convert("src/main/prop1.txt", file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[30] ^= 0x01;
+        Files.write(file, bytes);
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () ->
+                PropertySnapshotFile.read(file.toString()));
+        assertTrue(exception.getMessage().contains("checksum"));
+    }
+
+    // Test that a text file is rejected as a snapshot
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotASnapshot() {
+        PropertySnapshotFile.read("src/main/prop1.txt");
+    }
+
+    // Test handling of non-existent file
+    @Test
+    public void testNonExistentFile() {
+        Exception exception = assertThrows(RuntimeException.class, () ->
+                PropertySnapshotFile.read("nonexistent.snapshot"));
+        assertTrue(exception.getMessage().contains("Error reading snapshot"));
+    }
+
+    // Test that converting a text file gives the same properties as reading it
+    @Test
+    public void testConvertTextFile() throws IOException {
+        Path file = tempFile();
+        int count = PropertySnapshotFile.convert("src/main/prop1.txt", file.toString());
+        List<Property> expected = new FileReaderProperty().readPropertiesFromFile("src/main/prop1.txt");
+        List<Property> actual = PropertySnapshotFile.read(file.toString()).getProperties();
+
+        assertEquals(expected.size(), count);
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    // Test that the SystemManager can save its inventory and load it back
+    @Test
+    public void testSystemManagerSnapshot() throws IOException {
+        SystemManager systemManager = SystemManager.getInstance();
+        systemManager.initializeProperties("src/main/prop1.txt");
+        Path file = tempFile();
+        systemManager.writeSnapshot(file.toString());
+
+        PropertySnapshotFile snapshot = PropertySnapshotFile.read(file.toString());
+        assertEquals(systemManager.getSnapshot().getVersion(), snapshot.getInventoryVersion());
+        assertEquals(systemManager.getAllProperties().size(), snapshot.getProperties().size());
+
+        int loaded = systemManager.initializeFromSnapshot(file.toString());
+        assertEquals(snapshot.getProperties().size(), loaded);
+        assertNotNull(systemManager.findProperty(new int[]{4, 5, 1, 1}));
+        assertEquals(AddressKey.of(new int[]{4, 5, 1, 1}),
+                systemManager.findProperty(new int[]{4, 5, 1, 1}).getAddressKey());
+    }
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("properties", ".snapshot");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+}
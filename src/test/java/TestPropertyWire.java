@@ -0,0 +1,216 @@
+package src.test.java;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import src.main.SystemManager;
+import src.server.PropertyWireClient;
+import src.server.PropertyWireServer;
+import src.strategy.PropertyQuery;
+import src.util.Property;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the binary wire protocol server and client, over loopback.
+ *
+ * Test coverage includes:
+ * - Single and batched property lookups
+ * - Pipelined average price searches, including batches sent in windows
+ * - Errors reported without breaking the connection
+ * - Raw pipelined frames split across writes
+ * - Concurrent calls sharing a small connection pool
+ *
+ * @see src.server.PropertyWireServer
+ * @see src.server.PropertyWireClient
+ */
+public class TestPropertyWire {
+    private SystemManager systemManager;
+    private PropertyWireServer server;
+    private PropertyWireClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        systemManager = SystemManager.getInstance();
+        systemManager.initializeProperties("src/main/prop1.txt");
+        server = new PropertyWireServer(new InetSocketAddress("localhost", 0));
+        server.start();
+        client = new PropertyWireClient(server.getAddress(), 4);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    // Test that a property is returned with all its fields, and null when not found
+    @Test
+    public void testViewProperty() throws IOException {
+        Property expected = systemManager.findProperty(new int[]{9, 6});
+        Property property = client.viewProperty(new int[]{9, 6});
+        assertArrayEquals(expected.getAddress(), property.getAddress());
+        assertEquals(expected.getArea(), property.getArea(), 0.0);
+        assertEquals(expected.getPricePerSquareMeter(), property.getPricePerSquareMeter(), 0.0);
+        assertEquals(expected.getStatus(), property.getStatus());
+        assertNull(client.viewProperty(new int[]{999, 999}));
+    }
+
+    // Test that a batch returns each property in order, with null for unknown addresses
+    @Test
+    public void testViewProperties() throws IOException {
+        List<Property> all = systemManager.getAllProperties();
+        List<int[]> addresses = new ArrayList<>();
+        for (Property property : all) {
+            addresses.add(property.getAddress());
+            addresses.add(new int[]{-1, -1});
+        }
+        List<Property> properties = client.viewProperties(addresses);
+        assertEquals(addresses.size(), properties.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(all.get(i).toString(), properties.get(2 * i).toString());
+            assertNull(properties.get(2 * i + 1));
+        }
+        assertTrue(client.viewProperties(List.of()).isEmpty());
+    }
+
+    // Test that pipelined averages match the query, and an error leaves the client usable
+    @Test
+    public void testAveragePrices() throws IOException {
+        List<int[]> centers = List.of(new int[]{4, 5}, new int[]{9, 6}, new int[]{100, 100});
+        double[] averages = client.averagePrices(centers, 5);
+        for (int i = 0; i < centers.size(); i++) {
+            assertEquals(PropertyQuery.within(centers.get(i), 5).averagePrice(), averages[i], 0.001);
+        }
+        assertEquals(averages[0], client.averagePrice(new int[]{4, 5}, 5), 0.0);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> client.averagePrices(centers, -1));
+        assertEquals("Radius cannot be negative", error.getMessage());
+        assertNotNull(client.viewProperty(new int[]{9, 6}));
+    }
+
+    // Test that batches larger than the server's pending output are answered in windows
+    @Test
+    public void testLargeAveragePriceBatch() throws IOException {
+        List<int[]> centers = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            centers.add(new int[]{i % 20, i % 13});
+        }
+        double[] averages = client.averagePrices(centers, 3);
+        assertEquals(centers.size(), averages.length);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(PropertyQuery.within(centers.get(i), 3).averagePrice(), averages[i], 0.001);
+        }
+        assertEquals(averages[0], averages[4940], 0.0);
+
+        // Every rejected request gets an error message, over 1 MB of responses in all
+        List<int[]> rejected = new ArrayList<>();
+        for (int i = 0; i < 40000; i++) {
+            rejected.add(new int[]{i, i});
+        }
+        assertThrows(IllegalArgumentException.class, () -> client.averagePrices(rejected, -1));
+        assertNotNull(client.viewProperty(new int[]{9, 6}));
+    }
+
+    // Test that raw frames pipelined in pieces are answered in order, unknown opcodes with an error,
+    // including a view sent after an average computed off the selector thread
+    @Test
+    public void testRawPipelining() throws IOException {
+        ByteBuffer requests = ByteBuffer.allocate(256);
+        requests.putInt(4 + 1 + 1 + 8).putInt(7).put((byte) 1).put((byte) 2).putInt(9).putInt(6);
+        requests.putInt(4 + 1).putInt(8).put((byte) 42);
+        requests.putInt(4 + 1 + 12).putInt(9).put((byte) 3).putInt(4).putInt(5).putInt(5);
+        requests.putInt(4 + 1 + 1 + 8).putInt(10).put((byte) 1).put((byte) 2).putInt(9).putInt(6);
+        requests.flip();
+        try (SocketChannel channel = SocketChannel.open(server.getAddress())) {
+            // Split the frames at arbitrary points
+            for (int cut : new int[]{3, 11, 22, requests.limit()}) {
+                ByteBuffer piece = requests.duplicate();
+                piece.limit(cut);
+                channel.write(piece);
+                requests.position(cut);
+            }
+            ByteBuffer view = readFrame(channel);
+            assertEquals(7, view.getInt());
+            assertEquals(0, view.get());
+            assertEquals(2, view.get());
+
+            ByteBuffer unknown = readFrame(channel);
+            assertEquals(8, unknown.getInt());
+            assertEquals(2, unknown.get());
+
+            ByteBuffer average = readFrame(channel);
+            assertEquals(9, average.getInt());
+            assertEquals(0, average.get());
+            assertEquals(PropertyQuery.within(new int[]{4, 5}, 5).averagePrice(), average.getDouble(), 0.001);
+
+            ByteBuffer afterAverage = readFrame(channel);
+            assertEquals(10, afterAverage.getInt());
+            assertEquals(0, afterAverage.get());
+        }
+    }
+
+    // Test that an invalid frame length closes the connection
+    @Test
+    public void testInvalidFrameClosesConnection() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(server.getAddress())) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, Integer.MAX_VALUE));
+            assertEquals(-1, channel.read(ByteBuffer.allocate(16)));
+        }
+        assertNotNull(client.viewProperty(new int[]{9, 6}));
+    }
+
+    // Test that many threads share the connection pool
+    @Test
+    public void testConcurrentCalls() throws Exception {
+        Property expected = systemManager.findProperty(new int[]{9, 6});
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        if (!expected.toString().equals(client.viewProperty(new int[]{9, 6}).toString())) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Reads one response frame, returning it positioned at the request ID
+    private static ByteBuffer readFrame(SocketChannel channel) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(channel, length);
+        ByteBuffer frame = ByteBuffer.allocate(length.getInt(0));
+        readFully(channel, frame);
+        frame.flip();
+        return frame;
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Connection closed");
+            }
+        }
+    }
+}
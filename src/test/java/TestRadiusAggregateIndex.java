@@ -0,0 +1,213 @@
+package src.test.java;
+
+import org.junit.Test;
+import src.util.AddressKey;
+import src.util.IndexedPropertyStore;
+import src.util.InventoryGenerator;
+import src.util.Property;
+import src.util.PropertyStore;
+import src.util.RadiusAggregate;
+import src.util.RadiusAggregateIndex;
+import src.util.StripedPropertyStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the radius aggregate index.
+ *
+ * Test coverage includes:
+ * - Counts and sums matching a scan of the radius
+ * - Additions, replacements and removals between queries
+ * - Rebuilding after many changes
+ * - Striped stores sharing one index across stripes
+ * - Sparse inventories falling back to a scan, up to the extreme coordinates
+ * - Table size limited by the number of properties, and changes while too sparse
+ *
+ * @see src.util.RadiusAggregateIndex
+ */
+public class TestRadiusAggregateIndex {
+
+    // Test that the index matches a scan at every center and radius
+    @Test
+    public void testMatchesScan() {
+        IndexedPropertyStore store = new IndexedPropertyStore();
+        for (Property property : new InventoryGenerator(21).grid(40, 12).generate(3000)) {
+            store.put(property);
+        }
+        assertMatchesScan(store, new SplittableRandom(1), 200);
+    }
+
+    // Test that changes between queries are reflected, including after the tables are rebuilt
+    @Test
+    public void testChangesBetweenQueries() {
+        IndexedPropertyStore store = new IndexedPropertyStore();
+        List<Property> properties = new ArrayList<>(new InventoryGenerator(22).grid(30, 10).generate(2000));
+        for (Property property : properties) {
+            store.put(property);
+        }
+        SplittableRandom random = new SplittableRandom(2);
+        // More changes than the pending list holds, so the tables are dropped and rebuilt
+        for (int i = 0; i < 1500; i++) {
+            int index = random.nextInt(properties.size());
+            Property property = properties.get(index);
+            if (random.nextBoolean()) {
+                store.remove(property.getAddressKey());
+                properties.set(index, properties.get(properties.size() - 1));
+                properties.remove(properties.size() - 1);
+            } else {
+                Property updated = new Property(property.getAddress(), property.getArea() + 1,
+                        property.getPricePerSquareMeter(), property.getStatus());
+                store.replace(property.getAddressKey(), updated);
+                properties.set(index, updated);
+            }
+            if (i % 50 == 0) {
+                assertMatchesScan(store, random, 5);
+            }
+        }
+        assertMatchesScan(store, random, 50);
+    }
+
+    // Test that a striped store answers from one index covering all stripes
+    @Test
+    public void testStripedStore() {
+        StripedPropertyStore store = new StripedPropertyStore(8, IndexedPropertyStore::withoutAggregateIndex);
+        for (Property property : new InventoryGenerator(23).grid(80, 40).generate(4000)) {
+            store.put(property);
+        }
+        SplittableRandom random = new SplittableRandom(3);
+        assertMatchesScan(store, random, 50);
+
+        // Move a property to another neighborhood block
+        Property moved = store.toList().get(0);
+        int[] address = moved.getAddress();
+        address[0] += 40;
+        address[1] = 1;
+        store.replace(moved.getAddressKey(), new Property(address, 50, 10000, false));
+        store.remove(store.toList().get(1).getAddressKey());
+        assertMatchesScan(store, random, 50);
+    }
+
+    // Test that inventories too sparse for the tables are answered by a scan
+    @Test
+    public void testSparseInventory() {
+        RadiusAggregateIndex index = new RadiusAggregateIndex();
+        List<Property> properties = List.of(
+                new Property(new int[]{1, 1}, 50, 1000, false),
+                new Property(new int[]{100000, 1}, 60, 1000, false),
+                new Property(new int[]{1, 100000}, 70, 1000, false));
+        index.rebuild(properties);
+        assertFalse(index.needsRebuild());
+        assertNull(index.aggregate(1, 1, 10));
+
+        IndexedPropertyStore store = new IndexedPropertyStore();
+        properties.forEach(store::put);
+        RadiusAggregate aggregate = store.aggregateInRadius(1, 1, 10);
+        assertEquals(1, aggregate.getCount());
+        assertEquals(50000, aggregate.getSum(), 0.001);
+    }
+
+    // Test that the cells allowed for the tables grow with the number of properties
+    @Test
+    public void testCellLimitScalesWithInventory() {
+        RadiusAggregateIndex index = new RadiusAggregateIndex();
+        List<Property> corners = List.of(
+                new Property(new int[]{0, 0}, 50, 1000, false),
+                new Property(new int[]{300, 0}, 60, 1000, false));
+        index.rebuild(corners);
+        assertNull(index.aggregate(0, 0, 10));
+
+        List<Property> filled = new ArrayList<>(corners);
+        for (int i = 1; i < 2000; i++) {
+            filled.add(new Property(new int[]{i % 300, i / 300}, 50, 1000, false));
+        }
+        index.rebuild(filled);
+        assertNotNull(index.aggregate(0, 0, 10));
+    }
+
+    // Test that changes to an inventory too sparse for the tables only check it again after as many changes
+    @Test
+    public void testUncoveredChanges() {
+        RadiusAggregateIndex index = new RadiusAggregateIndex();
+        List<Property> properties = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            properties.add(new Property(new int[]{i * 1000, i % 7}, 50, 1000, false));
+        }
+        index.rebuild(properties);
+        for (int i = 0; i < 999; i++) {
+            index.add(new Property(new int[]{i * 1000, 10}, 50, 1000, false));
+            assertFalse(index.needsRebuild());
+        }
+        index.remove(properties.get(0));
+        assertTrue(index.needsRebuild());
+
+        IndexedPropertyStore store = new IndexedPropertyStore();
+        properties.forEach(store::put);
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 600; i++) {
+            store.put(new Property(new int[]{random.nextInt(0, 80), random.nextInt(0, 40)}, 40, 2000, false));
+            if (i % 100 == 0) {
+                assertMatchesScan(store, random, 5);
+            }
+        }
+        assertMatchesScan(store, random, 50);
+    }
+
+    // Test that a bounding box whose cell count overflows a long is treated as too sparse
+    @Test
+    public void testExtremeCoordinates() {
+        RadiusAggregateIndex index = new RadiusAggregateIndex();
+        List<Property> properties = List.of(
+                new Property(new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE}, 50, 1000, false),
+                new Property(new int[]{Integer.MIN_VALUE, Integer.MIN_VALUE}, 60, 1000, false),
+                new Property(new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE}, 70, 1000, false),
+                new Property(new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE}, 80, 1000, false));
+        index.rebuild(properties);
+        assertNull(index.aggregate(0, 0, 10));
+
+        IndexedPropertyStore store = new IndexedPropertyStore();
+        properties.forEach(store::put);
+        RadiusAggregate aggregate = store.aggregateInRadius(Integer.MAX_VALUE, Integer.MAX_VALUE, 10);
+        assertEquals(1, aggregate.getCount());
+        assertEquals(50000, aggregate.getSum(), 0.001);
+    }
+
+    // Test the aggregate of an empty store and of a radius with no properties
+    @Test
+    public void testEmpty() {
+        IndexedPropertyStore store = new IndexedPropertyStore();
+        assertEquals(0, store.aggregateInRadius(5, 5, 10).getCount());
+        assertEquals(0.0, store.aggregateInRadius(5, 5, 10).getAverage(), 0.0);
+
+        store.put(new Property(new int[]{5, 5}, 80, 10000, false));
+        assertEquals(0, store.aggregateInRadius(50, 50, 3).getCount());
+        store.put(new Property(new int[]{6, 6}, 40, 10000, true));
+        assertEquals(2, store.aggregateInRadius(5, 5, 2).getCount());
+        assertEquals(600000, store.aggregateInRadius(5, 5, 2).getAverage(), 0.001);
+        store.remove(AddressKey.of(new int[]{5, 5}));
+        assertEquals(1, store.aggregateInRadius(5, 5, 2).getCount());
+    }
+
+    /**
+     * Checks the store's aggregates against a scan at random centers and radii.
+     */
+    private static void assertMatchesScan(PropertyStore store, SplittableRandom random, int queries) {
+        for (int i = 0; i < queries; i++) {
+            int street = random.nextInt(-5, 90);
+            int avenue = random.nextInt(-5, 45);
+            int radius = random.nextInt(0, 30);
+            long[] count = new long[1];
+            double[] sum = new double[1];
+            store.visitValuesInRadius(street, avenue, radius, null, (area, price, sold) -> {
+                count[0]++;
+                sum[0] += area * price;
+            });
+            RadiusAggregate aggregate = store.aggregateInRadius(street, avenue, radius);
+            assertEquals(count[0], aggregate.getCount());
+            assertEquals(sum[0], aggregate.getSum(), 1e-6 * Math.max(1, sum[0]));
+        }
+    }
+}
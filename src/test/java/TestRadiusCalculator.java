@@ -6,6 +6,7 @@ import org.junit.Test;
 import src.main.SystemManager;
 import src.util.Property;
 import src.util.RadiusCalculator;
+import src.util.SpatialGridIndex;
 
 import java.util.List;
 
@@ -92,4 +93,43 @@ public class TestRadiusCalculator {
         // Assert that the properties list is empty
         assertTrue(properties.isEmpty());
     }
-} 
\ No newline at end of file
+
+    // Test that the spatial index returns exactly the properties a full scan would find
+    @Test
+    public void testSpatialIndexMatchesFullScan() {
+        SpatialGridIndex index = new SpatialGridIndex();
+        List<Property> all = systemManager.getAllProperties();
+        all.forEach(index::add);
+
+        for (int radius = 0; radius <= 10; radius++) {
+            List<Property> found = index.getPropertiesInRadius(4, 5, radius);
+            int expected = 0;
+            for (Property property : all) {
+                if (RadiusCalculator.calculateManhattanDistance(new int[]{4, 5}, property.getAddress()) <= radius) {
+                    expected++;
+                    assertTrue(found.contains(property));
+                }
+            }
+            assertEquals(expected, found.size());
+        }
+
+        // Removed properties are no longer returned
+        Property removed = all.get(0);
+        assertTrue(index.remove(removed));
+        assertFalse(index.remove(removed));
+        assertFalse(index.getPropertiesInRadius(4, 5, 100).contains(removed));
+        assertEquals(all.size() - 1, index.size());
+    }
+
+    // Test that edits and deletions made through the SystemManager are reflected in radius searches
+    @Test
+    public void testGetPropertiesInRadius_AfterEditAndDelete() {
+        Property moved = new Property(new int[]{60, 60}, 10, 10, false);
+        assertTrue(systemManager.updateProperty(new int[]{9, 6}, moved));
+        assertTrue(RadiusCalculator.getPropertiesInRadius(new int[]{60, 60}, 0).contains(moved));
+        assertTrue(RadiusCalculator.getPropertiesInRadius(new int[]{9, 6}, 0).isEmpty());
+
+        assertTrue(systemManager.removeProperty(new int[]{60, 60}));
+        assertTrue(RadiusCalculator.getPropertiesInRadius(new int[]{60, 60}, 0).isEmpty());
+    }
+}
@@ -0,0 +1,158 @@
+package src.test.java;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import src.factory.Broker;
+import src.factory.Buyer;
+import src.factory.Seller;
+import src.factory.User;
+import src.factory.UserFactory;
+import src.main.SystemManager;
+import src.strategy.PropertySearchContext;
+import src.strategy.SearchByAveragePriceStrategy;
+import src.strategy.SearchByPriceStrategy;
+import src.strategy.SearchByStatusStrategy;
+import src.strategy.SearchResultCache;
+import src.util.Property;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the search result cache.
+ *
+ * Test coverage includes:
+ * - Hits and misses for repeated searches
+ * - Keys including the strategy parameters, center and radius
+ * - Invalidation of only the results whose radius contains a change
+ * - Invalidation after sales and bulk loads
+ * - Least recently used eviction
+ *
+ * @see src.strategy.SearchResultCache
+ */
+public class TestSearchResultCache {
+    private SystemManager systemManager;
+    private SearchResultCache cache;
+
+    @Before
+    public void setUp() {
+        systemManager = SystemManager.getInstance();
+        systemManager.initializeProperties("src/main/prop1.txt");
+        // Move a property away from the others, so searches around it do not overlap
+        systemManager.updateProperty(new int[]{9, 1, 6}, new Property(new int[]{60, 60}, 1, 1, false));
+        cache = new SearchResultCache(100);
+    }
+
+    // Unregister the cache and restore the property moved by the tests
+    @After
+    public void tearDown() {
+        cache.close();
+        systemManager.removeProperty(new int[]{60, 60});
+        systemManager.removeProperty(new int[]{61, 60});
+        systemManager.initializeProperties("src/main/prop1.txt");
+    }
+
+    // Test that a repeated search is answered from the cache with the same result
+    @Test
+    public void testHitsAndMisses() {
+        PropertySearchContext<List<Property>> context = new PropertySearchContext<>(new SearchByStatusStrategy(false), cache);
+        List<Property> first = context.makeSearch(new int[]{4, 5}, 2);
+        List<Property> second = context.makeSearch(new int[]{4, 5, 9}, 2);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0.5, cache.getHitRate(), 0.001);
+        assertThrows(UnsupportedOperationException.class, () -> second.clear());
+    }
+
+    // Test that different strategy parameters, centers and radii are cached separately
+    @Test
+    public void testKeys() {
+        PropertySearchContext<List<Property>> context = new PropertySearchContext<>(new SearchByStatusStrategy(false), cache);
+        context.makeSearch(new int[]{4, 5}, 2);
+        context.setSearchStrategy(new SearchByStatusStrategy(true));
+        context.makeSearch(new int[]{4, 5}, 2);
+        context.makeSearch(new int[]{4, 6}, 2);
+        context.makeSearch(new int[]{4, 6}, 3);
+        context.setSearchStrategy(new SearchByPriceStrategy(100000, SearchByPriceStrategy.PriceComparison.HIGHER));
+        context.makeSearch(new int[]{4, 5}, 2);
+        assertEquals(5, cache.getMissCount());
+
+        // Equal parameters in a new strategy object share the result
+        context.setSearchStrategy(new SearchByPriceStrategy(100000, SearchByPriceStrategy.PriceComparison.HIGHER));
+        context.makeSearch(new int[]{4, 5}, 2);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(5, cache.size());
+    }
+
+    // Test that an edit only invalidates the results whose radius contains it
+    @Test
+    public void testPreciseInvalidation() {
+        PropertySearchContext<Double> context = new PropertySearchContext<>(new SearchByAveragePriceStrategy(), cache);
+        double near = context.makeSearch(new int[]{4, 5}, 2);
+        context.makeSearch(new int[]{60, 60}, 1);
+
+        systemManager.updateProperty(new int[]{60, 60}, new Property(new int[]{60, 60}, 2, 1, false));
+        assertEquals(1, cache.getInvalidationCount());
+        assertEquals(near, context.makeSearch(new int[]{4, 5}, 2), 0.0);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, context.makeSearch(new int[]{60, 60}, 1), 0.001);
+
+        // A property moved into the radius invalidates the result around its new address
+        context.makeSearch(new int[]{62, 60}, 1);
+        systemManager.updateProperty(new int[]{60, 60}, new Property(new int[]{61, 60}, 4, 1, false));
+        assertEquals(4, context.makeSearch(new int[]{62, 60}, 1), 0.001);
+    }
+
+    // Test that a sale and a bulk load invalidate cached results
+    @Test
+    public void testSaleAndReloadInvalidate() {
+        PropertySearchContext<List<Property>> context = new PropertySearchContext<>(new SearchByStatusStrategy(false), cache);
+        assertEquals(1, context.makeSearch(new int[]{60, 60}, 0).size());
+
+        Seller seller = (Seller) UserFactory.createUser(User.UserType.SELLER, 910001);
+        Buyer buyer = (Buyer) UserFactory.createUser(User.UserType.BUYER, 910002);
+        Broker broker = (Broker) UserFactory.createUser(User.UserType.BROKER, 910003);
+        systemManager.executeWholeDeal(systemManager.findProperty(new int[]{60, 60}), new ArrayList<>(), seller, buyer, broker);
+        assertTrue(context.makeSearch(new int[]{60, 60}, 0).isEmpty());
+
+        context.makeSearch(new int[]{4, 5}, 2);
+        assertEquals(2, cache.size());
+        systemManager.initializeProperties("src/main/prop1.txt");
+        assertEquals(0, cache.size());
+    }
+
+    // Test that the least recently used result is evicted when the cache is full
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        cache.close();
+        cache = new SearchResultCache(2);
+        PropertySearchContext<Double> context = new PropertySearchContext<>(new SearchByAveragePriceStrategy(), cache);
+        context.makeSearch(new int[]{1, 1}, 1);
+        context.makeSearch(new int[]{2, 2}, 1);
+        context.makeSearch(new int[]{1, 1}, 1);
+        context.makeSearch(new int[]{3, 3}, 1);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        // {2, 2} was the least recently used
+        context.makeSearch(new int[]{1, 1}, 1);
+        assertEquals(2, cache.getHitCount());
+        context.makeSearch(new int[]{2, 2}, 1);
+        assertEquals(4, cache.getMissCount());
+    }
+
+    // Test that invalid arguments are still rejected and not cached
+    @Test
+    public void testInvalidArguments() {
+        PropertySearchContext<Double> context = new PropertySearchContext<>(new SearchByAveragePriceStrategy(), cache);
+        assertThrows(IllegalArgumentException.class, () -> context.makeSearch(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> context.makeSearch(new int[]{4, 5}, -1));
+        assertThrows(IllegalArgumentException.class, () -> new SearchResultCache(0));
+        assertEquals(0, cache.size());
+    }
+}
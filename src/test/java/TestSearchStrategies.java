@@ -4,15 +4,29 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import src.main.SystemManager;
+import src.strategy.PropertyFilter;
+import src.strategy.PropertyQuery;
 import src.strategy.SearchByAveragePriceStrategy;
+import src.strategy.SearchByNearestStrategy;
 import src.strategy.SearchByPriceStrategy;
 import src.strategy.SearchByStatusStrategy;
+import src.util.ColumnarPropertyStore;
+import src.util.IndexedPropertyStore;
+import src.util.InventoryGenerator;
 import src.util.Property;
+import src.util.PropertyStore;
 import src.util.RadiusCalculator;
+import src.util.StripedPropertyStore;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.SplittableRandom;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 //good
 public class TestSearchStrategies {
@@ -122,4 +136,93 @@ public class TestSearchStrategies {
         SearchByAveragePriceStrategy strategy = new SearchByAveragePriceStrategy();
         strategy.search(null, radius);
     }
-} 
\ No newline at end of file
+
+    // Test that a combined query returns the same properties as filtering the radius list by hand
+    @Test
+    public void testCombinedQuery() {
+        double targetPrice = 300000;
+        List<Property> expected = RadiusCalculator.getPropertiesInRadius(centerAddress, 5);
+        expected.removeIf(p -> p.getStatus() || p.getTotalPrice() <= targetPrice);
+
+        PropertyQuery query = PropertyQuery.within(centerAddress, 5)
+                .sold(false)
+                .price(targetPrice, SearchByPriceStrategy.PriceComparison.HIGHER);
+        List<Property> found = query.toList();
+        assertEquals(expected, found);
+        assertEquals(expected.size(), query.count());
+
+        double sum = 0;
+        for (Property p : expected) {
+            sum += p.getTotalPrice();
+        }
+        assertEquals(expected.isEmpty() ? 0.0 : sum / expected.size(), query.averagePrice(), 0.001);
+    }
+
+    // Test that combined filters match only when both filters match
+    @Test
+    public void testFilterCombination() {
+        PropertyFilter filter = PropertyFilter.status(true)
+                .and(PropertyFilter.price(1000, SearchByPriceStrategy.PriceComparison.LOWER));
+        assertTrue(filter.test(new Property(new int[]{1, 1}, 10, 50, true)));
+        assertFalse(filter.test(new Property(new int[]{1, 1}, 10, 50, false)));
+        assertFalse(filter.test(new Property(new int[]{1, 1}, 10, 500, true)));
+    }
+
+    // Test that the nearest available properties are returned closest first
+    @Test
+    public void testNearestAvailable() {
+        SearchByNearestStrategy strategy = new SearchByNearestStrategy(2, PropertyFilter.status(false));
+        List<Property> nearest = strategy.search(centerAddress, Integer.MAX_VALUE);
+        assertEquals(2, nearest.size());
+        assertArrayEquals(new int[]{4, 5, 1, 3}, nearest.get(0).getAddress());
+        assertArrayEquals(new int[]{3, 2, 1, 4}, nearest.get(1).getAddress());
+
+        // The radius limits how far the search goes
+        assertEquals(1, strategy.search(centerAddress, 3).size());
+        assertEquals(3, new SearchByNearestStrategy(3).search(centerAddress, 0).size());
+        assertThrows(IllegalArgumentException.class, () -> new SearchByNearestStrategy(0));
+    }
+
+    // Test that every store finds the same nearest distances as sorting the whole inventory
+    @Test
+    public void testNearestMatchesSort() {
+        List<Property> inventory = new InventoryGenerator(31).grid(60, 20).generate(3000);
+        PropertyStore[] stores = {
+                new IndexedPropertyStore(),
+                new ColumnarPropertyStore(),
+                new StripedPropertyStore(8, IndexedPropertyStore::withoutAggregateIndex)
+        };
+        for (PropertyStore store : stores) {
+            inventory.forEach(store::put);
+        }
+        PropertyFilter filter = PropertyFilter.status(false);
+        SplittableRandom random = new SplittableRandom(4);
+        for (int i = 0; i < 100; i++) {
+            int street = random.nextInt(-10, 70);
+            int avenue = random.nextInt(-10, 30);
+            int k = random.nextInt(1, 40);
+            int maxDistance = random.nextInt(0, 60);
+            List<Property> expected = new ArrayList<>();
+            for (Property property : inventory) {
+                if (filter.test(property) && distance(property, street, avenue) <= maxDistance) {
+                    expected.add(property);
+                }
+            }
+            expected.sort(Comparator.comparingInt(property -> distance(property, street, avenue)));
+            expected = expected.subList(0, Math.min(k, expected.size()));
+
+            for (PropertyStore store : stores) {
+                List<Property> found = store.findNearest(street, avenue, k, maxDistance, filter);
+                assertEquals(expected.size(), found.size());
+                for (int j = 0; j < found.size(); j++) {
+                    assertTrue(filter.test(found.get(j)));
+                    assertEquals(distance(expected.get(j), street, avenue), distance(found.get(j), street, avenue));
+                }
+            }
+        }
+    }
+
+    private static int distance(Property property, int street, int avenue) {
+        return RadiusCalculator.calculateManhattanDistance(property.getAddress(), new int[]{street, avenue});
+    }
+}
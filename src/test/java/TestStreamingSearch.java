@@ -0,0 +1,200 @@
+package src.test.java;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import src.main.SystemManager;
+import src.strategy.SearchByPriceStrategy;
+import src.strategy.SearchByStatusStrategy;
+import src.strategy.StreamingSearchContext;
+import src.util.ColumnarPropertyStore;
+import src.util.IndexedPropertyStore;
+import src.util.InventoryGenerator;
+import src.util.Property;
+import src.util.PropertyStore;
+import src.util.StripedPropertyStore;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for streaming search results.
+ *
+ * Test coverage includes:
+ * - Streams returning the same properties as list searches
+ * - Street-by-street reads matching a radius scan in every store
+ * - Publisher backpressure, completion and cancellation
+ * - Invalid demand and invalid search arguments
+ *
+ * @see src.strategy.StreamingSearchStrategy
+ * @see src.strategy.SearchResultPublisher
+ */
+public class TestStreamingSearch {
+    private SystemManager systemManager;
+
+    @Before
+    public void setUp() {
+        systemManager = SystemManager.getInstance();
+        systemManager.initializeProperties("src/main/prop1.txt");
+    }
+
+    // Restore the default layout and mode used by the other test classes
+    @After
+    public void tearDown() {
+        systemManager.setStorageLayout(SystemManager.StorageLayout.INDEXED);
+        systemManager.setConcurrentMode(false);
+    }
+
+    // Test that streams return the same properties as list searches in every layout and mode
+    @Test
+    public void testStreamMatchesList() {
+        StreamingSearchContext context = new StreamingSearchContext(new SearchByStatusStrategy(false));
+        assertStreamMatchesList(context);
+        systemManager.setConcurrentMode(true);
+        assertStreamMatchesList(context);
+        systemManager.setConcurrentMode(false);
+        systemManager.setStorageLayout(SystemManager.StorageLayout.COLUMNAR);
+        assertStreamMatchesList(context);
+
+        context.setSearchStrategy(new SearchByPriceStrategy(300000, SearchByPriceStrategy.PriceComparison.HIGHER));
+        assertStreamMatchesList(context);
+    }
+
+    // Test that reading street by street visits the same properties as a radius scan in every store
+    @Test
+    public void testStreetByStreetMatchesScan() {
+        List<Property> inventory = new InventoryGenerator(41).grid(50, 15).generate(2000);
+        PropertyStore[] stores = {
+                new IndexedPropertyStore(),
+                new ColumnarPropertyStore(),
+                new StripedPropertyStore(8, IndexedPropertyStore::withoutAggregateIndex)
+        };
+        SplittableRandom random = new SplittableRandom(5);
+        for (PropertyStore store : stores) {
+            inventory.forEach(store::put);
+            for (int i = 0; i < 20; i++) {
+                int street = random.nextInt(0, 55);
+                int avenue = random.nextInt(0, 20);
+                int radius = random.nextInt(0, 30);
+                PropertyStore.ValueFilter filter = (area, price, sold) -> !sold;
+
+                Set<Property> expected = new HashSet<>();
+                store.forEachInRadius(street, avenue, radius, filter, expected::add);
+                List<Property> streamed = new ArrayList<>();
+                long previous = Long.MIN_VALUE;
+                long next = store.forEachInRadiusOnNextStreet(street, avenue, radius, Long.MIN_VALUE, filter, streamed::add);
+                while (next != Long.MIN_VALUE) {
+                    assertTrue(next > previous);
+                    previous = next;
+                    next = store.forEachInRadiusOnNextStreet(street, avenue, radius, next + 1, filter, streamed::add);
+                }
+                assertEquals(expected.size(), streamed.size());
+                assertEquals(expected, new HashSet<>(streamed));
+            }
+        }
+    }
+
+    // Test that the publisher only delivers what was requested, then completes
+    @Test
+    public void testPublisherBackpressure() {
+        List<Property> expected = new SearchByStatusStrategy(false).search(new int[]{4, 5}, 100);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new SearchByStatusStrategy(false).publish(new int[]{4, 5}, 100).subscribe(subscriber);
+
+        assertTrue(subscriber.received.isEmpty());
+        subscriber.subscription.request(2);
+        assertEquals(2, subscriber.received.size());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(new HashSet<>(expected), new HashSet<>(subscriber.received));
+        assertEquals(expected.size(), subscriber.received.size());
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    // Test that requesting from within onNext does not recurse and cancelling stops delivery
+    @Test
+    public void testPublisherReentrantRequestAndCancel() {
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(Property item) {
+                super.onNext(item);
+                if (received.size() == 3) {
+                    subscription.cancel();
+                } else {
+                    subscription.request(1);
+                }
+            }
+        };
+        new SearchByStatusStrategy(false).publish(new int[]{4, 5}, 100).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertEquals(3, subscriber.received.size());
+        assertEquals(1, subscriber.maxDepth);
+        assertFalse(subscriber.completed);
+    }
+
+    // Test that invalid demand is reported through onError and invalid arguments are rejected
+    @Test
+    public void testInvalidDemandAndArguments() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new SearchByStatusStrategy(false).publish(new int[]{4, 5}, 100).subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+
+        SearchByStatusStrategy strategy = new SearchByStatusStrategy(true);
+        assertThrows(IllegalArgumentException.class, () -> strategy.stream(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> strategy.publish(new int[]{4, 5}, -1));
+    }
+
+    private static void assertStreamMatchesList(StreamingSearchContext context) {
+        int[] center = {4, 5};
+        List<Property> list = context.makeSearch(center, 10);
+        List<Property> streamed = context.stream(center, 10).collect(Collectors.toList());
+        assertEquals(list.size(), streamed.size());
+        assertEquals(new HashSet<>(list), new HashSet<>(streamed));
+        assertEquals(Math.min(2, list.size()), context.stream(center, 10).limit(2).count());
+    }
+
+    /**
+     * Subscriber recording what it receives, requesting nothing by itself.
+     */
+    private static class RecordingSubscriber implements Flow.Subscriber<Property> {
+        final List<Property> received = new ArrayList<>();
+        Flow.Subscription subscription;
+        boolean completed;
+        Throwable error;
+        int depth;
+        int maxDepth;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Property item) {
+            depth++;
+            maxDepth = Math.max(maxDepth, depth);
+            received.add(item);
+            depth--;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package src.test.java;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import src.decorator.DealOutcome;
+import src.decorator.DealRequest;
+import src.factory.*;
+import src.main.SystemManager;
+import src.observer.PropertyChangeObserver;
+import src.util.AddressKey;
+import src.util.IndexedPropertyStore;
+import src.util.InventoryGenerator;
+import src.util.InventorySnapshot;
+import src.util.Property;
+import src.util.PropertyStore;
+import src.util.RadiusCalculator;
+import src.util.StripedPropertyStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the address-indexed operations of the SystemManager.
+ *
+ * Test coverage includes:
+ * - Address key equality and immutability
+ * - Lookup of properties by address
+ * - Updating properties in place and under a new address
+ * - Removing properties by address
+ * - Change notifications independent of the caller's address array
+ * - Versioned inventory snapshots
+ * - Concurrent edits, searches and deals in concurrent mode
+ * - Insertion order of the lock-striped store
+ * - Batches of deals executed in parallel
+ *
+ * @see src.main.SystemManager
+ * @see src.util.AddressKey
+ */
+public class TestSystemManager {
+    private SystemManager systemManager;
+
+    @Before
+    public void setUp() {
+        systemManager = SystemManager.getInstance();
+        systemManager.initializeProperties("src/main/prop1.txt");
+    }
+
+    // Remove properties added by the tests so other test classes see only prop1.txt
+    @After
+    public void tearDown() {
+        systemManager.removeProperty(new int[]{50, 50});
+        systemManager.removeProperty(new int[]{50, 51});
+        systemManager.setConcurrentMode(false);
+    }
+
+    // Test that address keys compare by value and are not affected by the source array
+    @Test
+    public void testAddressKeyEquality() {
+        int[] address = {4, 5, 1, 1};
+        AddressKey key = AddressKey.of(address);
+        address[0] = 999;
+
+        assertEquals(AddressKey.of(new int[]{4, 5, 1, 1}), key);
+        assertEquals(AddressKey.of(new int[]{4, 5, 1, 1}).hashCode(), key.hashCode());
+        assertNotEquals(AddressKey.of(new int[]{4, 5, 1}), key);
+        assertArrayEquals(new int[]{4, 5, 1, 1}, key.toArray());
+    }
+
+    // Test that the keys seen by observers of an update and a removal do not share the caller's array
+    @Test
+    public void testChangedKeysIndependentOfCallerArray() {
+        List<AddressKey> changed = new ArrayList<>();
+        PropertyChangeObserver observer = new PropertyChangeObserver() {
+            @Override
+            public void onPropertyChanged(AddressKey address) {
+                changed.add(address);
+            }
+
+            @Override
+            public void onInventoryChanged() {
+            }
+        };
+        systemManager.addPropertyChangeObserver(observer);
+        try {
+            int[] address = {9, 6};
+            assertTrue(systemManager.updateProperty(address, new Property(new int[]{9, 6}, 70, 3000, false)));
+            assertTrue(systemManager.removeProperty(address));
+            address[0] = 999;
+            assertFalse(systemManager.removeProperty(address));
+
+            assertEquals(2, changed.size());
+            for (AddressKey key : changed) {
+                assertArrayEquals(new int[]{9, 6}, key.toArray());
+            }
+            assertNull(systemManager.findProperty(new int[]{9, 6}));
+        } finally {
+            systemManager.removePropertyChangeObserver(observer);
+        }
+    }
+
+    // Test that a loaded property is found by its address
+    @Test
+    public void testFindProperty() {
+        Property property = systemManager.findProperty(new int[]{9, 6});
+        assertNotNull(property);
+        assertArrayEquals(new int[]{9, 6}, property.getAddress());
+        assertNull(systemManager.findProperty(new int[]{9, 6, 1}));
+    }
+
+    // Test that reloading the same file does not duplicate properties
+    @Test
+    public void testReloadReplacesExistingAddresses() {
+        int size = systemManager.getAllProperties().size();
+        systemManager.initializeProperties("src/main/prop1.txt");
+        assertEquals(size, systemManager.getAllProperties().size());
+    }
+
+    // Test updating a property while keeping its address
+    @Test
+    public void testUpdatePropertySameAddress() {
+        Property updated = new Property(new int[]{9, 6}, 100, 1000, false);
+        assertTrue(systemManager.updateProperty(new int[]{9, 6}, updated));
+        assertSame(updated, systemManager.findProperty(new int[]{9, 6}));
+    }
+
+    // Test updating a property under a new address
+    @Test
+    public void testUpdatePropertyNewAddress() {
+        // Updating an address that does not exist fails
+        assertFalse(systemManager.updateProperty(new int[]{50, 50}, new Property(new int[]{50, 50}, 10, 10, false)));
+        assertNull(systemManager.findProperty(new int[]{50, 50}));
+
+        Property moved = new Property(new int[]{50, 51}, 10, 10, false);
+        Property original = systemManager.findProperty(new int[]{9, 6});
+        assertTrue(systemManager.updateProperty(new int[]{9, 6}, moved));
+        assertNull(systemManager.findProperty(new int[]{9, 6}));
+        assertSame(moved, systemManager.findProperty(new int[]{50, 51}));
+
+        // Restore the original property
+        assertTrue(systemManager.updateProperty(new int[]{50, 51}, original));
+    }
+
+    // Test that updating to an address that is already taken throws an exception
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdatePropertyDuplicateAddress() {
+        systemManager.updateProperty(new int[]{9, 6}, new Property(new int[]{2, 1, 5}, 10, 10, false));
+    }
+
+    // Test removing a property by address
+    @Test
+    public void testRemoveProperty() {
+        int size = systemManager.getAllProperties().size();
+        assertTrue(systemManager.removeProperty(new int[]{9, 1, 6}));
+        assertFalse(systemManager.removeProperty(new int[]{9, 1, 6}));
+        assertNull(systemManager.findProperty(new int[]{9, 1, 6}));
+        assertEquals(size - 1, systemManager.getAllProperties().size());
+    }
+
+    // Test that the singleton is the same instance from every thread
+    @Test
+    public void testSingletonAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<SystemManager>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(SystemManager::getInstance));
+            }
+            for (Future<SystemManager> result : results) {
+                assertSame(systemManager, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Test that concurrent edits in concurrent mode are not lost and searches keep working
+    @Test
+    public void testConcurrentEdits() throws Exception {
+        systemManager.setConcurrentMode(true);
+        assertTrue(systemManager.isConcurrentMode());
+        int size = systemManager.getAllProperties().size();
+        List<Property> all = systemManager.getAllProperties();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int round = 0; round < 50; round++) {
+                for (Property property : all) {
+                    int[] address = property.getAddress();
+                    double area = 10 + round;
+                    tasks.add(executor.submit(() -> systemManager.updateProperty(address,
+                            new Property(address, area, 1000, false))));
+                    tasks.add(executor.submit(() -> RadiusCalculator.getPropertiesInRadius(address, 3)));
+                }
+            }
+            for (Future<?> task : tasks) {
+                task.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(size, systemManager.getAllProperties().size());
+        for (Property property : all) {
+            assertNotNull(systemManager.findProperty(property.getAddress()));
+        }
+        assertEquals(size, RadiusCalculator.getPropertiesInRadius(new int[]{4, 5}, 100).size());
+    }
+
+    // Test that two brokers cannot sell the same property at the same time in concurrent mode
+    @Test
+    public void testConcurrentDealsSellOnce() throws Exception {
+        systemManager.setConcurrentMode(true);
+        Property property = systemManager.findProperty(new int[]{9, 6});
+        property.setStatus(false);
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int id = 900000 + i * 3;
+                Seller seller = (Seller) UserFactory.createUser(User.UserType.SELLER, id);
+                Buyer buyer = (Buyer) UserFactory.createUser(User.UserType.BUYER, id + 1);
+                Broker broker = (Broker) UserFactory.createUser(User.UserType.BROKER, id + 2);
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        systemManager.executeWholeDeal(property, new ArrayList<>(), seller, buyer, broker);
+                        sold.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, sold.get());
+        assertEquals(threads - 1, rejected.get());
+        assertTrue(property.getStatus());
+    }
+
+    // Test that a batch sells each property once, whatever the mode, and reports every request
+    @Test
+    public void testBatchDealsSellOnce() {
+        assertBatchSellsOnce(910000);
+        systemManager.initializeProperties("src/main/prop1.txt");
+        systemManager.setConcurrentMode(true);
+        assertBatchSellsOnce(920000);
+    }
+
+    // Test that an invalid request in a batch does not change the property or stop other deals
+    @Test
+    public void testBatchDealsReportInvalidRequests() {
+        Property first = systemManager.findProperty(new int[]{9, 6});
+        Property second = systemManager.findProperty(new int[]{2, 1, 5});
+        first.setStatus(false);
+        second.setStatus(false);
+        Seller seller = (Seller) UserFactory.createUser(User.UserType.SELLER, 930000);
+        Buyer buyer = (Buyer) UserFactory.createUser(User.UserType.BUYER, 930001);
+        Broker broker = (Broker) UserFactory.createUser(User.UserType.BROKER, 930002);
+
+        List<DealOutcome> outcomes = systemManager.executeDeals(List.of(
+                new DealRequest(first, List.of("CLEANING", "UNKNOWN"), seller, buyer, broker),
+                new DealRequest(second, List.of("CLEANING", "DESIGN"), seller, buyer, broker)));
+
+        assertEquals(DealOutcome.Status.INVALID, outcomes.get(0).getStatus());
+        assertFalse(first.getStatus());
+        assertTrue(outcomes.get(1).isCommitted());
+        assertEquals(second.getTotalPrice() + 6000, outcomes.get(1).getTotalPrice(), 0.001);
+        assertTrue(second.getStatus());
+    }
+
+    // Test that deal requests and deals reject missing participants before selling anything
+    @Test
+    public void testDealsRejectMissingParticipants() {
+        Property property = systemManager.findProperty(new int[]{9, 6});
+        property.setStatus(false);
+        Seller seller = (Seller) UserFactory.createUser(User.UserType.SELLER, 941000);
+        Buyer buyer = (Buyer) UserFactory.createUser(User.UserType.BUYER, 941001);
+        assertThrows(IllegalArgumentException.class,
+                () -> new DealRequest(property, List.of(), seller, buyer, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> systemManager.executeWholeDeal(property, List.of(), seller, buyer, null));
+        assertFalse(property.getStatus());
+    }
+
+    // Test that a deal for a property replaced in the inventory is invalid and sells nothing
+    @Test
+    public void testBatchDealsRejectStaleProperties() {
+        assertStaleDealRejected(942000);
+    }
+
+    // Test that the stale check also holds with the lock-striped store of concurrent mode
+    @Test
+    public void testBatchDealsRejectStalePropertiesInConcurrentMode() {
+        systemManager.setConcurrentMode(true);
+        assertStaleDealRejected(942100);
+    }
+
+    private void assertStaleDealRejected(int firstUserId) {
+        Property stale = systemManager.findProperty(new int[]{9, 6});
+        stale.setStatus(false);
+        systemManager.updateProperty(new int[]{9, 6}, new Property(new int[]{9, 6}, 60, 8000, false));
+        Seller seller = (Seller) UserFactory.createUser(User.UserType.SELLER, firstUserId);
+        Buyer buyer = (Buyer) UserFactory.createUser(User.UserType.BUYER, firstUserId + 1);
+        Broker broker = (Broker) UserFactory.createUser(User.UserType.BROKER, firstUserId + 2);
+
+        List<DealOutcome> outcomes = systemManager.executeDeals(List.of(
+                new DealRequest(stale, List.of(), seller, buyer, broker)));
+
+        assertEquals(DealOutcome.Status.INVALID, outcomes.get(0).getStatus());
+        assertFalse(stale.getStatus());
+        assertFalse(systemManager.findProperty(new int[]{9, 6}).getStatus());
+    }
+
+    // Test that the lock-striped store of concurrent mode lists properties in the same order as the default store
+    @Test
+    public void testStripedStoreKeepsInsertionOrder() {
+        PropertyStore indexed = new IndexedPropertyStore();
+        PropertyStore striped = new StripedPropertyStore(8, IndexedPropertyStore::withoutAggregateIndex);
+        List<Property> inventory = new InventoryGenerator(41).grid(100, 100).generate(500);
+        for (PropertyStore store : List.of(indexed, striped)) {
+            inventory.forEach(store::put);
+            // Replace in place, move to another block, remove, and add again
+            Property first = inventory.get(0);
+            store.put(new Property(first.getAddress(), 99, 1000, false));
+            store.replace(inventory.get(1).getAddressKey(), new Property(new int[]{500, 500}, 50, 1000, false));
+            store.remove(inventory.get(2).getAddressKey());
+            store.put(inventory.get(2));
+        }
+        assertEquals(addresses(indexed.toList()), addresses(striped.toList()));
+    }
+
+    private static List<String> addresses(List<Property> properties) {
+        List<String> addresses = new ArrayList<>();
+        for (Property property : properties) {
+            addresses.add(property.getAddressKey().toString());
+        }
+        return addresses;
+    }
+
+    // Test that the columnar layout cannot be combined with concurrent mode
+    @Test(expected = IllegalStateException.class)
+    public void testConcurrentModeRejectsColumnarLayout() {
+        systemManager.setConcurrentMode(true);
+        systemManager.setStorageLayout(SystemManager.StorageLayout.COLUMNAR);
+    }
+
+    // Test that readers share the same snapshot until the inventory changes
+    @Test
+    public void testSnapshotSharedUntilChange() {
+        InventorySnapshot before = systemManager.getSnapshot();
+        assertSame(before, systemManager.getSnapshot());
+        assertSame(before.getProperties(), systemManager.getAllProperties());
+
+        assertTrue(systemManager.removeProperty(new int[]{9, 1, 6}));
+        InventorySnapshot after = systemManager.getSnapshot();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(before.size() - 1, after.size());
+
+        // The old snapshot is not affected by the change
+        assertTrue(before.getProperties().stream()
+                .anyMatch(p -> p.getAddressKey().equals(AddressKey.of(new int[]{9, 1, 6}))));
+    }
+
+    /**
+     * Sends four deals for each available property in one batch and checks that
+     * exactly one deal per property is committed.
+     */
+    private void assertBatchSellsOnce(int firstUserId) {
+        List<Property> available = new ArrayList<>();
+        for (Property property : systemManager.getAllProperties()) {
+            if (!property.getStatus()) {
+                available.add(property);
+            }
+        }
+        assertFalse(available.isEmpty());
+        Property alreadySold = systemManager.getAllProperties().stream()
+                .filter(Property::getStatus).findFirst().orElseThrow();
+
+        List<DealRequest> requests = new ArrayList<>();
+        int id = firstUserId;
+        for (int round = 0; round < 4; round++) {
+            for (Property property : available) {
+                Seller seller = (Seller) UserFactory.createUser(User.UserType.SELLER, id++);
+                Buyer buyer = (Buyer) UserFactory.createUser(User.UserType.BUYER, id++);
+                Broker broker = (Broker) UserFactory.createUser(User.UserType.BROKER, id++);
+                requests.add(new DealRequest(property, List.of("EVENING"), seller, buyer, broker));
+            }
+        }
+        Seller lateSeller = (Seller) UserFactory.createUser(User.UserType.SELLER, id++);
+        Buyer lateBuyer = (Buyer) UserFactory.createUser(User.UserType.BUYER, id++);
+        Broker lateBroker = (Broker) UserFactory.createUser(User.UserType.BROKER, id++);
+        requests.add(new DealRequest(alreadySold, new ArrayList<>(), lateSeller, lateBuyer, lateBroker));
+
+        List<DealOutcome> outcomes = systemManager.executeDeals(requests);
+        assertEquals(requests.size(), outcomes.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertSame(requests.get(i), outcomes.get(i).getRequest());
+        }
+        for (Property property : available) {
+            long committed = outcomes.stream()
+                    .filter(o -> o.getRequest().getProperty() == property && o.isCommitted())
+                    .count();
+            assertEquals(1, committed);
+            assertTrue(property.getStatus());
+        }
+        assertEquals(available.size(), outcomes.stream().filter(DealOutcome::isCommitted).count());
+        assertEquals(DealOutcome.Status.ALREADY_SOLD, outcomes.get(outcomes.size() - 1).getStatus());
+    }
+
+    // Test that snapshots cannot be modified by callers
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsUnmodifiable() {
+        systemManager.getAllProperties().clear();
+    }
+}
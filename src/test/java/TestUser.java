@@ -7,7 +7,18 @@ import src.permission.DeletePermission;
 import src.permission.EditPermission;
 import src.permission.ViewPermission;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -21,6 +32,8 @@ import static org.junit.Assert.assertTrue;
  * - Permission assignment verification
  * - User type classification
  * - Factory pattern functionality
+ * - Lookup by ID, ID allocation and bulk creation
+ * - Concurrent creation without duplicates
  * 
  * @see src.factory.UserFactory
  * @see src.factory.User
@@ -129,4 +142,93 @@ public class TestUser {
         assertFalse(broker instanceof Seller);
         assertTrue(broker instanceof Broker);
     }
+
+    /**
+     * Tests that users are found by type and ID.
+     */
+    @Test
+    public void testFindUser() {
+        User seller = UserFactory.createUser(User.UserType.SELLER, 111117);
+        assertSame(seller, UserFactory.findUser(User.UserType.SELLER, 111117));
+        assertNull(UserFactory.findUser(User.UserType.BUYER, 111117));
+        assertNull(UserFactory.findUser(User.UserType.SELLER, 111118));
+    }
+
+    /**
+     * Tests that allocated IDs are unique and skip IDs already in use.
+     */
+    @Test
+    public void testAllocatedIds() {
+        User taken = UserFactory.createUser(User.UserType.BROKER);
+        UserFactory.createUser(User.UserType.BROKER, taken.getUserId() + 1);
+        List<User> brokers = UserFactory.createUsers(User.UserType.BROKER, 3);
+        Set<Integer> ids = new HashSet<>();
+        for (User broker : brokers) {
+            assertTrue(broker instanceof Broker);
+            assertTrue(broker.getUserId() >= UserFactory.FIRST_ALLOCATED_ID);
+            assertTrue(ids.add(broker.getUserId()));
+            assertFalse(broker.getUserId() == taken.getUserId() + 1);
+        }
+    }
+
+    /**
+     * Tests that bulk creation with IDs creates all users or none.
+     */
+    @Test
+    public void testBulkCreationIsAllOrNothing() {
+        int before = UserFactory.getUserCount(User.UserType.BUYER);
+        List<User> buyers = UserFactory.createUsers(User.UserType.BUYER, new int[]{120001, 120002, 120003});
+        assertEquals(3, buyers.size());
+        assertEquals(120002, buyers.get(1).getUserId());
+        assertEquals(before + 3, UserFactory.getUserCount(User.UserType.BUYER));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> UserFactory.createUsers(User.UserType.BUYER, new int[]{120004, 120005, 120002}));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserFactory.createUsers(User.UserType.BUYER, new int[]{120006, 120006}));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserFactory.createUsers(User.UserType.BUYER, new int[]{120007, -1}));
+        assertNull(UserFactory.findUser(User.UserType.BUYER, 120004));
+        assertNull(UserFactory.findUser(User.UserType.BUYER, 120006));
+        assertNull(UserFactory.findUser(User.UserType.BUYER, 120007));
+        assertEquals(before + 3, UserFactory.getUserCount(User.UserType.BUYER));
+    }
+
+    /**
+     * Tests that concurrent sessions creating the same IDs create each user once.
+     */
+    @Test
+    public void testConcurrentCreation() throws Exception {
+        int threads = 8;
+        int users = 2000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        Set<Integer> allocated = ConcurrentHashMap.newKeySet();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < users; i++) {
+                    try {
+                        UserFactory.createUser(User.UserType.BUYER, 130000 + i);
+                        created.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        // Created by another session
+                    }
+                    allocated.add(UserFactory.createUser(User.UserType.BUYER).getUserId());
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(users, created.get());
+        assertEquals(threads * users, allocated.size());
+    }
 }
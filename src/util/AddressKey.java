@@ -0,0 +1,109 @@
+package src.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, hashable key representing a property address.
+ * Used by the system to index properties by their address so that lookups,
+ * updates and deletions do not need to scan the whole inventory.
+ *
+ * The key holds its own private copy of the coordinates and caches the hash code,
+ * so probing a hash table with it never allocates or copies arrays.
+ *
+ * Two keys are equal if and only if their coordinate arrays are equal
+ * (same length and same values in the same order), matching the
+ * Arrays.equals comparison previously used for address lookups.
+ *
+ * @see src.util.Property
+ * @see src.main.SystemManager
+ */
+public final class AddressKey {
+
+    /** The address coordinates (street, avenue, subdivisions...) */
+    private final int[] coordinates;
+
+    /** Cached hash code of the coordinates */
+    private final int hash;
+
+    /**
+     * Wraps the given coordinates without copying them.
+     * Only used when the caller guarantees the array is never modified,
+     * or for a lookup that does not keep the key.
+     *
+     * @param coordinates The address coordinates
+     */
+    AddressKey(int[] coordinates) {
+        this.coordinates = coordinates;
+        this.hash = Arrays.hashCode(coordinates);
+    }
+
+    /**
+     * Creates a key for the given address.
+     * The coordinates are copied so later changes to the array do not affect the key.
+     *
+     * @param address The address coordinates
+     * @return The key representing the address
+     * @throws IllegalArgumentException if address is null
+     */
+    public static AddressKey of(int[] address) {
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        return new AddressKey(Arrays.copyOf(address, address.length));
+    }
+
+    /**
+     * Gets the street coordinate of the address.
+     *
+     * @return The street number
+     */
+    public int getStreet() {
+        return coordinates[0];
+    }
+
+    /**
+     * Gets the avenue coordinate of the address.
+     *
+     * @return The avenue number
+     */
+    public int getAvenue() {
+        return coordinates[1];
+    }
+
+    /**
+     * Returns the internal coordinates array without copying it.
+     * Callers in this package must not modify the returned array.
+     *
+     * @return The coordinates array
+     */
+    int[] coordinates() {
+        return coordinates;
+    }
+
+    /**
+     * Returns a copy of the address coordinates.
+     *
+     * @return A copy of the coordinates array
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(coordinates, coordinates.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AddressKey)) return false;
+        AddressKey other = (AddressKey) o;
+        return hash == other.hash && Arrays.equals(coordinates, other.coordinates);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(coordinates);
+    }
+}
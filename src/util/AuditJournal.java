@@ -0,0 +1,597 @@
+package src.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous journal of the events of the system: users created, properties
+ * viewed, deals executed, services added and deletion notifications.
+ *
+ * The journal is OFF until a level is set. Recording an event never touches the
+ * console or a file:
+ * - the event is checked against the journal level first, so disabled events
+ *   cost one volatile read and nothing is built
+ * - enabled events are stored as compact records (ids, address, amount) in a
+ *   buffer owned by the recording thread, without locking
+ * - a single writer thread collects the records of all threads, formats them and
+ *   writes them in one batch, to standard output or to a rotating file through a
+ *   FileChannel after openFile; when every buffer is empty the writer blocks until
+ *   the next record wakes it
+ *
+ * Records of one thread keep their order; records of different threads are ordered
+ * by time within each batch. A thread only waits when its buffer is full, that is
+ * when the writer is more than BUFFER_SIZE records behind it. A batch that cannot be
+ * formatted or written is counted (see getWriteErrorCount) and the writer goes on.
+ * Call flush to wait until everything recorded so far has been written.
+ *
+ * Example - journal to a file rotated at 16 MB, keeping 4 old files, without property views:
+ * AuditJournal journal = AuditJournal.getInstance();
+ * journal.openFile("audit.log", 16L * 1024 * 1024, 4);
+ * journal.setLevel(AuditJournal.Level.INFO);
+ *
+ * @see src.decorator.BasicDeal
+ * @see src.permission.ViewPermission
+ */
+public class AuditJournal {
+
+    /**
+     * Enumeration defining the levels of events, from the most to the least detailed.
+     * Events below the journal level are not recorded.
+     */
+    public enum Level {
+        /** Detailed events on read paths, such as property views */
+        DEBUG,
+        /** Changes and transactions: users created, deals, services, notifications */
+        INFO,
+        /** No event is recorded */
+        OFF
+    }
+
+    /**
+     * Enumeration defining the kinds of records and how each is formatted.
+     */
+    private enum Event {
+        USER_CREATED,
+        PROPERTY_VIEWED,
+        DEAL_EXECUTED,
+        SERVICE_ADDED,
+        DELETION_NOTIFIED,
+        MESSAGE
+    }
+
+    /** Number of records each thread can buffer before waiting for the writer */
+    public static final int BUFFER_SIZE = 4096;
+
+    /** How long a thread with a full buffer waits before checking it again */
+    private static final long FULL_BUFFER_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Holder of the shared journal, created on first use.
+     */
+    private static class InstanceHolder {
+        private static final AuditJournal INSTANCE = new AuditJournal();
+    }
+
+    /** The level below which events are ignored */
+    private volatile Level level;
+
+    /** The buffer of each recording thread */
+    private final ThreadLocal<ThreadBuffer> buffers;
+
+    /** All thread buffers, read by the writer */
+    private final CopyOnWriteArrayList<ThreadBuffer> allBuffers;
+
+    /** The background thread that formats and writes records */
+    private final Thread writer;
+
+    /** Guards the file sink */
+    private final Object sinkLock = new Object();
+
+    /** The file records are written to, or null to write to standard output */
+    private RotatingFile file;
+
+    /** Whether the writer is about to block or blocked; read by recording threads */
+    private volatile boolean writerWaiting;
+
+    /** Guards passCount, and is signalled after every writer pass */
+    private final Object passLock = new Object();
+
+    /** Number of completed writer passes, for flush */
+    private long passCount;
+
+    /** Pass count flush waits for; the writer does not block before reaching it */
+    private long flushTarget;
+
+    /** Number of batches that could not be written */
+    private volatile long writeErrorCount;
+
+    /**
+     * Constructs a journal at level OFF writing to standard output, and starts its writer thread.
+     */
+    private AuditJournal() {
+        level = Level.OFF;
+        allBuffers = new CopyOnWriteArrayList<>();
+        buffers = ThreadLocal.withInitial(() -> {
+            ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread());
+            allBuffers.add(buffer);
+            return buffer;
+        });
+        writer = new Thread(this::writeLoop, "audit-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the journal shared by the whole system.
+     *
+     * @return The shared journal
+     */
+    public static AuditJournal getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Gets the level below which events are ignored.
+     *
+     * @return The journal level
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Sets the level below which events are ignored. OFF disables the journal.
+     *
+     * @param level The new level
+     * @throws IllegalArgumentException if level is null
+     */
+    public void setLevel(Level level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Level cannot be null");
+        }
+        this.level = level;
+    }
+
+    /**
+     * Checks whether events of a level are recorded.
+     * Callers building a message should check this first.
+     *
+     * @param eventLevel The level of the event
+     * @return true if events of this level are recorded
+     */
+    public boolean isEnabled(Level eventLevel) {
+        return eventLevel.compareTo(level) >= 0 && level != Level.OFF;
+    }
+
+    /**
+     * Records that a user was created.
+     *
+     * @param userType The type of user, for example "Broker"
+     * @param userId The id of the user
+     */
+    public void userCreated(String userType, int userId) {
+        if (isEnabled(Level.INFO)) {
+            record(new Record(Level.INFO, Event.USER_CREATED, userId, 0, 0, null, 0, userType));
+        }
+    }
+
+    /**
+     * Records that a property was viewed.
+     *
+     * @param property The property viewed
+     */
+    public void propertyViewed(Property property) {
+        if (isEnabled(Level.DEBUG)) {
+            record(new Record(Level.DEBUG, Event.PROPERTY_VIEWED, 0, 0, 0, null, 0, property.toString()));
+        }
+    }
+
+    /**
+     * Records that a deal was executed.
+     *
+     * @param brokerId The id of the broker managing the deal
+     * @param sellerId The id of the seller
+     * @param buyerId The id of the buyer
+     * @param property The property sold
+     */
+    public void dealExecuted(int brokerId, int sellerId, int buyerId, Property property) {
+        if (isEnabled(Level.INFO)) {
+            record(new Record(Level.INFO, Event.DEAL_EXECUTED, brokerId, sellerId, buyerId,
+                    property.getAddress(), property.getTotalPrice(), null));
+        }
+    }
+
+    /**
+     * Records that a service was added to a deal.
+     *
+     * @param service Lower case name of the service, for example "cleaning"
+     * @param cost The cost of the service in dollars
+     */
+    public void serviceAdded(String service, double cost) {
+        if (isEnabled(Level.INFO)) {
+            record(new Record(Level.INFO, Event.SERVICE_ADDED, 0, 0, 0, null, cost, service));
+        }
+    }
+
+    /**
+     * Records that a broker was notified of a deleted property.
+     *
+     * @param brokerId The id of the broker
+     * @param address The address of the deleted property
+     */
+    public void deletionNotified(int brokerId, int[] address) {
+        if (isEnabled(Level.INFO)) {
+            record(new Record(Level.INFO, Event.DELETION_NOTIFIED, brokerId, 0, 0,
+                    Arrays.copyOf(address, address.length), 0, null));
+        }
+    }
+
+    /**
+     * Records a free-text message.
+     *
+     * @param messageLevel The level of the message
+     * @param message The message
+     */
+    public void message(Level messageLevel, String message) {
+        if (isEnabled(messageLevel)) {
+            record(new Record(messageLevel, Event.MESSAGE, 0, 0, 0, null, 0, message));
+        }
+    }
+
+    /**
+     * Writes records to a file instead of standard output, appending to it if it exists.
+     * When writing a batch would make the file larger than maxFileSize, the file is
+     * renamed with suffix .1 (older files moving to .2, .3, ...) and a new file is started.
+     * Records made before this call are written to the previous destination first.
+     *
+     * @param filePath The path of the journal file
+     * @param maxFileSize The size in bytes at which the file is rotated (must be positive)
+     * @param maxRotatedFiles The number of rotated files kept (must not be negative)
+     * @throws IllegalArgumentException if filePath is null or a limit is invalid
+     * @throws RuntimeException if the file cannot be opened
+     */
+    public void openFile(String filePath, long maxFileSize, int maxRotatedFiles) {
+        if (filePath == null) {
+            throw new IllegalArgumentException("File path cannot be null");
+        }
+        if (maxFileSize <= 0 || maxRotatedFiles < 0) {
+            throw new IllegalArgumentException("File size must be positive and file count not negative");
+        }
+        RotatingFile opened = new RotatingFile(Paths.get(filePath), maxFileSize, maxRotatedFiles);
+        flush();
+        RotatingFile previous;
+        synchronized (sinkLock) {
+            previous = file;
+            file = opened;
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Writes the pending records, closes the journal file and goes back to standard output.
+     */
+    public void closeFile() {
+        flush();
+        RotatingFile previous;
+        synchronized (sinkLock) {
+            previous = file;
+            file = null;
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Waits until every record made before this call has been written.
+     * Returns early, with the interrupt status set, if the thread is interrupted.
+     */
+    public void flush() {
+        synchronized (passLock) {
+            // A complete pass that starts after this call drains everything recorded before it
+            long target = passCount + 2;
+            flushTarget = Math.max(flushTarget, target);
+            LockSupport.unpark(writer);
+            while (passCount < target) {
+                try {
+                    passLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of batches that could not be formatted or written.
+     *
+     * @return The number of write errors
+     */
+    public long getWriteErrorCount() {
+        return writeErrorCount;
+    }
+
+    /**
+     * Adds a record to the buffer of the current thread, and wakes the writer if it is blocked.
+     *
+     * @param record The record
+     */
+    private void record(Record record) {
+        ThreadBuffer buffer = buffers.get();
+        while (!buffer.offer(record)) {
+            // The writer is a full buffer behind: wait for it rather than drop the record
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FULL_BUFFER_NANOS);
+        }
+        if (writerWaiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Body of the writer thread: drains all thread buffers and writes their records in one
+     * batch, and blocks while every buffer is empty.
+     */
+    private void writeLoop() {
+        List<Record> batch = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            for (ThreadBuffer buffer : allBuffers) {
+                buffer.drainTo(batch);
+                if (!buffer.owner.isAlive() && buffer.isEmpty()) {
+                    allBuffers.remove(buffer);
+                }
+            }
+            boolean idle = batch.isEmpty();
+            if (!idle) {
+                try {
+                    batch.sort(Comparator.comparingLong(record -> record.nanos));
+                    write(batch, text);
+                } catch (RuntimeException e) {
+                    // Drop the batch and keep serving the other records
+                    writeErrorCount++;
+                } finally {
+                    batch.clear();
+                    text.setLength(0);
+                }
+            }
+            boolean flushing;
+            synchronized (passLock) {
+                passCount++;
+                passLock.notifyAll();
+                flushing = passCount < flushTarget;
+            }
+            if (idle && !flushing) {
+                // Recording threads read writerWaiting after storing a record, so a record
+                // stored after the check below always unparks the writer
+                writerWaiting = true;
+                if (allEmpty()) {
+                    LockSupport.park(this);
+                }
+                writerWaiting = false;
+            }
+        }
+    }
+
+    /**
+     * Checks whether every thread buffer is empty.
+     *
+     * @return true if no record is waiting
+     */
+    private boolean allEmpty() {
+        for (ThreadBuffer buffer : allBuffers) {
+            if (!buffer.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Formats and writes a batch of records to the current destination.
+     *
+     * @param batch The records, in order
+     * @param text Reusable text buffer
+     */
+    private void write(List<Record> batch, StringBuilder text) {
+        synchronized (sinkLock) {
+            boolean toFile = file != null;
+            for (Record record : batch) {
+                if (toFile) {
+                    text.append(Instant.ofEpochMilli(record.timeMillis)).append(' ')
+                            .append(record.level).append(' ').append(record.event).append(' ');
+                }
+                format(record, text);
+            }
+            if (!toFile) {
+                System.out.print(text);
+                System.out.flush();
+                return;
+            }
+            try {
+                file.write(StandardCharsets.UTF_8.encode(text.toString()));
+            } catch (IOException e) {
+                writeErrorCount++;
+            }
+        }
+    }
+
+    /**
+     * Appends the text of a record, ending with a line separator.
+     *
+     * @param record The record
+     * @param text The text to append to
+     */
+    private static void format(Record record, StringBuilder text) {
+        switch (record.event) {
+            case USER_CREATED -> text.append(record.text).append(" created with ID: ").append(record.first);
+            case PROPERTY_VIEWED -> text.append("Property found: ").append(record.text);
+            case DEAL_EXECUTED -> text.append("Broker ").append(record.first).append(" : I'm managing this deal\n")
+                    .append("Seller ").append(record.second).append(" : I'm offering the property at ")
+                    .append(Arrays.toString(record.address)).append(" for ").append(record.amount).append('\n')
+                    .append("Buyer ").append(record.third).append(" : I'm interested in buying the property");
+            case SERVICE_ADDED -> text.append("Adding ").append(record.text).append(" services: ").append(record.amount);
+            case DELETION_NOTIFIED -> text.append("Notification: Property at address ")
+                    .append(Arrays.toString(record.address)).append(" has been deleted");
+            case MESSAGE -> text.append(record.text);
+        }
+        text.append('\n');
+    }
+
+    /**
+     * One journal event. Immutable, so it is safely handed to the writer thread.
+     */
+    private static final class Record {
+        private final long timeMillis;
+        private final long nanos;
+        private final Level level;
+        private final Event event;
+        private final int first;
+        private final int second;
+        private final int third;
+        private final int[] address;
+        private final double amount;
+        private final String text;
+
+        private Record(Level level, Event event, int first, int second, int third,
+                       int[] address, double amount, String text) {
+            this.timeMillis = System.currentTimeMillis();
+            this.nanos = System.nanoTime();
+            this.level = level;
+            this.event = event;
+            this.first = first;
+            this.second = second;
+            this.third = third;
+            this.address = address;
+            this.amount = amount;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Ring of records written by one thread and read by the writer thread.
+     */
+    private static final class ThreadBuffer {
+        private final Thread owner;
+        private final Record[] records = new Record[BUFFER_SIZE];
+
+        /** Position of the next record to read; only written by the writer */
+        private volatile long head;
+
+        /** Position of the next record to write; only written by the owner */
+        private volatile long tail;
+
+        private ThreadBuffer(Thread owner) {
+            this.owner = owner;
+        }
+
+        private boolean offer(Record record) {
+            long position = tail;
+            if (position - head == BUFFER_SIZE) {
+                return false;
+            }
+            records[(int) (position & (BUFFER_SIZE - 1))] = record;
+            tail = position + 1;
+            return true;
+        }
+
+        private void drainTo(List<Record> batch) {
+            long position = head;
+            long end = tail;
+            while (position < end) {
+                int index = (int) (position & (BUFFER_SIZE - 1));
+                batch.add(records[index]);
+                records[index] = null;
+                position++;
+            }
+            head = position;
+        }
+
+        private boolean isEmpty() {
+            return head == tail;
+        }
+    }
+
+    /**
+     * Journal file rotated when it reaches a maximum size.
+     */
+    private static final class RotatingFile {
+        private final Path path;
+        private final long maxFileSize;
+        private final int maxRotatedFiles;
+        private FileChannel channel;
+        private long size;
+
+        private RotatingFile(Path path, long maxFileSize, int maxRotatedFiles) {
+            this.path = path;
+            this.maxFileSize = maxFileSize;
+            this.maxRotatedFiles = maxRotatedFiles;
+            try {
+                open();
+            } catch (IOException e) {
+                throw new RuntimeException("Error opening journal: " + e.getMessage());
+            }
+        }
+
+        private void open() throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            size = channel.size();
+        }
+
+        private void write(ByteBuffer bytes) throws IOException {
+            if (size > 0 && size + bytes.remaining() > maxFileSize) {
+                rotate();
+            }
+            while (bytes.hasRemaining()) {
+                size += channel.write(bytes);
+            }
+        }
+
+        private void rotate() throws IOException {
+            channel.close();
+            if (maxRotatedFiles == 0) {
+                Files.delete(path);
+            } else {
+                Files.deleteIfExists(rotated(maxRotatedFiles));
+                for (int i = maxRotatedFiles - 1; i >= 1; i--) {
+                    if (Files.exists(rotated(i))) {
+                        Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+            }
+            open();
+        }
+
+        private Path rotated(int index) {
+            return path.resolveSibling(path.getFileName() + "." + index);
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Error closing journal: " + e.getMessage());
+            }
+        }
+    }
+}
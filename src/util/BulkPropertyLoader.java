@@ -0,0 +1,539 @@
+package src.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fast loader for large property files in the FileReaderProperty text format.
+ *
+ * Expected file format for each property line (same as FileReaderProperty):
+ * address_coordinates area price_per_sqm is_sold
+ *
+ * Example:
+ * 4,5,1,1 80 10000 true
+ *
+ * Instead of reading the file line by line, the loader:
+ * 1. Memory-maps the file and splits it into chunks that end on a line break
+ * 2. Parses the chunks in parallel on a ForkJoinPool
+ * 3. Resolves duplicate addresses in one hash pass and adds the properties to the store in file order
+ *
+ * Lines are tokenized directly on the mapped bytes: no String, array of parts
+ * or boxed number is created per line. Numbers in plain decimal notation are
+ * converted without allocation; other notations fall back to the JDK parsers,
+ * so every file accepted by FileReaderProperty is parsed to the same values.
+ *
+ * Errors are reported like FileReaderProperty does:
+ * - Unreadable files and malformed lines throw a RuntimeException starting with
+ *   "Error reading from file", including the line number
+ * - Invalid property values (e.g. non-positive area) throw IllegalArgumentException
+ * - Duplicate addresses throw IllegalArgumentException with the FAIL_FAST policy (the default);
+ *   with KEEP_FIRST or KEEP_LAST they are resolved and listed in a DuplicateAddressReport
+ *
+ * Nothing is added to the store unless the whole file is valid.
+ *
+ * Each parsed file is reported to Flight Recorder as a PropertyLoadEvent.
+ *
+ * @see src.util.FileReaderProperty
+ * @see src.util.DuplicateAddressReport
+ * @see src.util.PropertyStore
+ * @see src.main.SystemManager
+ */
+public class BulkPropertyLoader {
+
+    /** Default chunk size in bytes */
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    /** Largest number of digits converted exactly by the fast decimal path */
+    private static final int MAX_FAST_DIGITS = 15;
+
+    /** Powers of ten that are exactly representable as doubles */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** The pool the chunks are parsed on */
+    private final ForkJoinPool pool;
+
+    /** Target size of a chunk in bytes */
+    private final int chunkSize;
+
+    /** How duplicate addresses are handled */
+    private final DuplicateAddressReport.Policy duplicatePolicy;
+
+    /**
+     * Constructs a loader that parses on the common ForkJoinPool with the default chunk size
+     * and fails on duplicate addresses.
+     */
+    public BulkPropertyLoader() {
+        this(DuplicateAddressReport.Policy.FAIL_FAST);
+    }
+
+    /**
+     * Constructs a loader that parses on the common ForkJoinPool with the default chunk size.
+     *
+     * @param duplicatePolicy How duplicate addresses are handled
+     * @throws IllegalArgumentException if duplicatePolicy is null
+     */
+    public BulkPropertyLoader(DuplicateAddressReport.Policy duplicatePolicy) {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, duplicatePolicy);
+    }
+
+    /**
+     * Constructs a loader with the given pool, chunk size and duplicate policy.
+     *
+     * @param pool The pool the chunks are parsed on
+     * @param chunkSize The target size of a chunk in bytes (must be positive)
+     * @param duplicatePolicy How duplicate addresses are handled
+     * @throws IllegalArgumentException if pool or duplicatePolicy is null, or chunkSize is not positive
+     */
+    public BulkPropertyLoader(ForkJoinPool pool, int chunkSize, DuplicateAddressReport.Policy duplicatePolicy) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        if (duplicatePolicy == null) {
+            throw new IllegalArgumentException("Duplicate policy cannot be null");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.duplicatePolicy = duplicatePolicy;
+    }
+
+    /**
+     * Reads and parses properties from a file.
+     *
+     * @param filePath The path to the file containing property data
+     * @return A list of Property objects in file order, without duplicate addresses
+     * @throws IllegalArgumentException if filePath is null, a property is invalid
+     *                                  or the policy is FAIL_FAST and an address appears more than once
+     * @throws RuntimeException if file reading fails or a line is malformed
+     */
+    public List<Property> readPropertiesFromFile(String filePath) {
+        List<Property> properties = new ArrayList<>();
+        parse(filePath, properties);
+        return properties;
+    }
+
+    /**
+     * Reads properties from a file and adds them to a store.
+     * A loaded property replaces any property in the store with the same address.
+     *
+     * @param filePath The path to the file containing property data
+     * @param store The store to add the properties to
+     * @return The report of the duplicate addresses in the file, with the number of properties loaded
+     * @throws IllegalArgumentException if filePath or store is null, a property is invalid
+     *                                  or the policy is FAIL_FAST and an address appears more than once
+     * @throws RuntimeException if file reading fails or a line is malformed
+     */
+    public DuplicateAddressReport loadInto(String filePath, PropertyStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("Store cannot be null");
+        }
+        List<Property> properties = new ArrayList<>();
+        DuplicateAddressReport report = parse(filePath, properties);
+        for (Property property : properties) {
+            store.put(property);
+        }
+        return report;
+    }
+
+    /**
+     * Maps the file, parses its chunks in parallel and resolves duplicate addresses.
+     *
+     * @param filePath The path to the file containing property data
+     * @param output The list the properties are added to, in file order
+     * @return The report of the duplicate addresses in the file
+     */
+    private DuplicateAddressReport parse(String filePath, List<Property> output) {
+        if (filePath == null) {
+            throw new IllegalArgumentException("File path cannot be null");
+        }
+
+        PropertyLoadEvent event = new PropertyLoadEvent();
+        event.begin();
+        List<Chunk> chunks;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            chunks = split(channel);
+            pool.invoke(new ParseAll(chunks));
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading from file: " + e.getMessage());
+        }
+
+        // Report the first failing line in file order
+        int firstLine = 1;
+        for (Chunk chunk : chunks) {
+            if (chunk.error != null) {
+                int line = firstLine + chunk.errorLine;
+                if (chunk.error instanceof IllegalArgumentException) {
+                    throw new IllegalArgumentException("Line " + line + ": " + chunk.error.getMessage());
+                }
+                throw new RuntimeException("Error reading from file: line " + line + ": " + chunk.error.getMessage());
+            }
+            firstLine += chunk.lineCount;
+        }
+
+        // Every line holds one property, so the property at index i comes from line i + 1
+        for (Chunk chunk : chunks) {
+            output.addAll(chunk.properties);
+        }
+        int candidateCount = output.size();
+        DuplicateAddressReport report = DuplicateAddressReport.resolve(output, duplicatePolicy);
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = filePath;
+            event.duplicatePolicy = duplicatePolicy.name();
+            event.candidateCount = candidateCount;
+            event.resultCount = output.size();
+            event.commit();
+        }
+        return report;
+    }
+
+    /**
+     * Splits a file into chunks of about chunkSize bytes, each ending on a line break
+     * (or at the end of the file), and maps each chunk into memory.
+     *
+     * @param channel The open file channel
+     * @return The chunks in file order
+     * @throws IOException if the file cannot be read or mapped
+     */
+    private List<Chunk> split(FileChannel channel) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long size = channel.size();
+        ByteBuffer probe = ByteBuffer.allocate(256);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            // Extend the chunk to the next line break
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int newline = -1;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            end = Math.min(end, size);
+            chunks.add(new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start)));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Parses all lines of a chunk.
+     * Stops at the first invalid line and records the error in the chunk.
+     *
+     * @param chunk The chunk to parse
+     */
+    private static void parseChunk(Chunk chunk) {
+        MappedByteBuffer buffer = chunk.buffer;
+        int limit = buffer.limit();
+        int[] address = new int[8];
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            try {
+                address = parseLine(buffer, lineStart, lineEnd, address, chunk.properties);
+            } catch (IOException | IllegalArgumentException e) {
+                chunk.error = e;
+                chunk.errorLine = chunk.lineCount;
+                return;
+            }
+            chunk.lineCount++;
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Parses one line into a property and adds it to the output list.
+     *
+     * @param buffer The mapped chunk
+     * @param start The offset of the first byte of the line
+     * @param end The offset after the last byte of the line (excluding the line break)
+     * @param address Scratch array for the address coordinates
+     * @param output The list the parsed property is added to
+     * @return The scratch array, grown if the address did not fit
+     * @throws IOException if the line format is invalid or parsing fails
+     */
+    private static int[] parseLine(ByteBuffer buffer, int start, int end, int[] address, List<Property> output)
+            throws IOException {
+        // Trim whitespace and control characters at both ends, like String.trim()
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+
+        // Locate the four space-separated parts
+        int parts = 1;
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == ' ') {
+                parts++;
+            }
+        }
+        if (parts != 4) {
+            throw new IOException("Invalid property format: expected 4 parts but found " + parts);
+        }
+        int addressEnd = indexOf(buffer, ' ', start, end);
+        int areaEnd = indexOf(buffer, ' ', addressEnd + 1, end);
+        int priceEnd = indexOf(buffer, ' ', areaEnd + 1, end);
+
+        try {
+            // Parse coordinates from first part (e.g., "4,5,1,1"), ignoring trailing commas
+            int coordinatesEnd = addressEnd;
+            while (coordinatesEnd > start && buffer.get(coordinatesEnd - 1) == ',') {
+                coordinatesEnd--;
+            }
+            int count = 0;
+            int fieldStart = start;
+            while (fieldStart <= coordinatesEnd && coordinatesEnd > start) {
+                int fieldEnd = indexOf(buffer, ',', fieldStart, coordinatesEnd);
+                if (count == address.length) {
+                    address = Arrays.copyOf(address, count * 2);
+                }
+                address[count++] = parseInt(buffer, fieldStart, fieldEnd);
+                fieldStart = fieldEnd + 1;
+            }
+            if (count < 2) {
+                throw new IOException("Address must contain at least street and avenue coordinates");
+            }
+
+            double area = parseDouble(buffer, addressEnd + 1, areaEnd);
+            double pricePerSquareMeter = parseDouble(buffer, areaEnd + 1, priceEnd);
+            boolean sold = parseBoolean(buffer, priceEnd + 1, end);
+
+            // Property copies the coordinates, so the scratch array can be reused
+            output.add(new Property(count == address.length ? address : Arrays.copyOf(address, count),
+                    area, pricePerSquareMeter, sold));
+            return address;
+        } catch (NumberFormatException e) {
+            throw new IOException("Error parsing numeric values: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the first occurrence of a byte in a range.
+     *
+     * @param buffer The buffer to search
+     * @param value The byte to find
+     * @param from The first offset to search
+     * @param to The offset after the last byte to search
+     * @return The offset of the byte, or to if not found
+     */
+    private static int indexOf(ByteBuffer buffer, char value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Parses a decimal integer, with the same rules as Integer.parseInt.
+     *
+     * @param buffer The buffer holding the number
+     * @param start The offset of the first character
+     * @param end The offset after the last character
+     * @return The parsed value
+     * @throws NumberFormatException if the text is not a valid int
+     */
+    private static int parseInt(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 9) {
+            // Empty, sign only or possibly out of range: let the JDK decide and report
+            return Integer.parseInt(text(buffer, start, end));
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(text(buffer, start, end));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a decimal number, with the same results as Double.parseDouble.
+     * Plain decimals with up to 15 significant digits are converted exactly without
+     * allocation; other notations are delegated to Double.parseDouble.
+     *
+     * @param buffer The buffer holding the number
+     * @param start The offset of the first character
+     * @param end The offset after the last character
+     * @return The parsed value
+     * @throws NumberFormatException if the text is not a valid double
+     */
+    private static double parseDouble(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        boolean sawDigit = false;
+        for (; i < end; i++) {
+            byte c = buffer.get(i);
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (mantissa != 0 || c != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (point) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (i != end || !sawDigit || digits > MAX_FAST_DIGITS || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(text(buffer, start, end));
+        }
+        // Both operands are exact doubles, so the division is correctly rounded
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a boolean with the same rules as Boolean.parseBoolean:
+     * true if the text is "true" ignoring case, false otherwise.
+     *
+     * @param buffer The buffer holding the text
+     * @param start The offset of the first character
+     * @param end The offset after the last character
+     * @return The parsed value
+     */
+    private static boolean parseBoolean(ByteBuffer buffer, int start, int end) {
+        if (end - start != 4) {
+            return false;
+        }
+        return (buffer.get(start) | 0x20) == 't'
+                && (buffer.get(start + 1) | 0x20) == 'r'
+                && (buffer.get(start + 2) | 0x20) == 'u'
+                && (buffer.get(start + 3) | 0x20) == 'e';
+    }
+
+    /**
+     * Copies a range of the buffer into a String, for the slow parsing paths and error messages.
+     *
+     * @param buffer The buffer holding the text
+     * @param start The offset of the first character
+     * @param end The offset after the last character
+     * @return The text in the range
+     */
+    private static String text(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * A newline-aligned region of the file and the result of parsing it.
+     */
+    private static final class Chunk {
+
+        /** The mapped bytes of the chunk */
+        private final MappedByteBuffer buffer;
+
+        /** The properties parsed from the chunk, in file order */
+        private final List<Property> properties;
+
+        /** The number of lines parsed successfully */
+        private int lineCount;
+
+        /** The error of the first invalid line, or null if all lines are valid */
+        private Exception error;
+
+        /** The index of the invalid line within the chunk */
+        private int errorLine;
+
+        /**
+         * Constructs a chunk for a mapped region.
+         *
+         * @param buffer The mapped bytes of the chunk
+         */
+        private Chunk(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            this.properties = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Parses every chunk as a separate fork/join subtask.
+     */
+    private static final class ParseAll extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /** The chunks to parse */
+        private final List<Chunk> chunks;
+
+        /**
+         * Constructs the parsing task.
+         *
+         * @param chunks The chunks to parse
+         */
+        private ParseAll(List<Chunk> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> tasks = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks) {
+                tasks.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        parseChunk(chunk);
+                    }
+                });
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+    }
+}
@@ -0,0 +1,572 @@
+package src.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Property store that keeps properties in parallel primitive arrays (columns)
+ * instead of one object per property.
+ *
+ * Each property occupies one row across the columns:
+ * - streets / avenues: the first two address coordinates
+ * - areas / pricesPerSquareMeter: the property values
+ * - soldBits: a bitset of sale statuses
+ * - subdivisions: the remaining address coordinates of all rows, flattened into
+ *   one array and located through subdivisionOffsets
+ *
+ * Radius and price scans walk the columns sequentially, testing the distance on the
+ * two int columns and the filter on the value columns, so they read contiguous memory
+ * and only touch the rows they need. Scans that only aggregate values never create objects.
+ *
+ * Callers still work with Property objects: the store hands out lightweight views
+ * that read and write their row. A view is created once per row on first access and
+ * reused afterwards, so the same row always gives the same object. When a row is
+ * replaced or removed, its view is detached and keeps the values it had at that time.
+ * Property objects passed to put() are copied into the columns and are not linked
+ * to the store afterwards.
+ *
+ * Addresses are indexed by an open-addressing hash table of row numbers that compares
+ * addresses directly against the columns. Removed rows are marked dead and reclaimed
+ * by compacting the columns once they make up half of the rows, which keeps the rows
+ * in insertion order.
+ *
+ * The store is not thread-safe.
+ *
+ * @see src.util.PropertyStore
+ * @see src.util.Property
+ */
+public class ColumnarPropertyStore implements PropertyStore {
+
+    /** Initial number of rows allocated for the columns */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Minimum number of dead rows before the columns are compacted */
+    private static final int MIN_DEAD_ROWS_TO_COMPACT = 32;
+
+    /** Street coordinate of each row */
+    private int[] streets;
+
+    /** Avenue coordinate of each row */
+    private int[] avenues;
+
+    /** Area in square meters of each row */
+    private double[] areas;
+
+    /** Price per square meter of each row */
+    private double[] pricesPerSquareMeter;
+
+    /** Bitset of the sale status of each row */
+    private long[] soldBits;
+
+    /** Bitset of the rows that hold a property (not removed) */
+    private long[] liveBits;
+
+    /** Address hash code of each row */
+    private int[] hashes;
+
+    /** Start of each row's subdivisions in the flattened array; entry rowCount marks the end */
+    private int[] subdivisionOffsets;
+
+    /** Subdivision coordinates of all rows, flattened */
+    private int[] subdivisions;
+
+    /** Views handed out for each row, or null if none was created */
+    private RowView[] views;
+
+    /** Open-addressing hash table of row + 1 for each live row (0 = empty slot) */
+    private int[] table;
+
+    /** Number of rows in use, including removed rows */
+    private int rowCount;
+
+    /** Number of live rows */
+    private int size;
+
+    /**
+     * Constructs an empty store.
+     */
+    public ColumnarPropertyStore() {
+        this.streets = new int[INITIAL_CAPACITY];
+        this.avenues = new int[INITIAL_CAPACITY];
+        this.areas = new double[INITIAL_CAPACITY];
+        this.pricesPerSquareMeter = new double[INITIAL_CAPACITY];
+        this.soldBits = new long[bitsetLength(INITIAL_CAPACITY)];
+        this.liveBits = new long[bitsetLength(INITIAL_CAPACITY)];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.subdivisionOffsets = new int[INITIAL_CAPACITY + 1];
+        this.subdivisions = new int[INITIAL_CAPACITY];
+        this.views = new RowView[INITIAL_CAPACITY];
+        this.table = new int[INITIAL_CAPACITY * 2];
+    }
+
+    @Override
+    public Property get(AddressKey key) {
+        int row = findRow(key);
+        return row < 0 ? null : view(row);
+    }
+
+    @Override
+    public Property put(Property property) {
+        double area = property.getArea();
+        double pricePerSquareMeter = property.getPricePerSquareMeter();
+        boolean sold = property.getStatus();
+
+        AddressKey key = property.getAddressKey();
+        int row = findRow(key);
+        if (row >= 0) {
+            // Same address: overwrite the row in place to keep its position
+            Property replaced = detach(row);
+            areas[row] = area;
+            pricesPerSquareMeter[row] = pricePerSquareMeter;
+            setBit(soldBits, row, sold);
+            return replaced;
+        }
+
+        appendRow(key, area, pricePerSquareMeter, sold);
+        return null;
+    }
+
+    @Override
+    public Property remove(AddressKey key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        int row = table[slot] - 1;
+        removeSlot(slot);
+        Property removed = detach(row);
+        setBit(liveBits, row, false);
+        size--;
+
+        int deadRows = rowCount - size;
+        if (deadRows >= MIN_DEAD_ROWS_TO_COMPACT && deadRows * 2 >= rowCount) {
+            compact();
+        }
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<Property> toList() {
+        List<Property> result = new ArrayList<>(size);
+        for (int row = 0; row < rowCount; row++) {
+            if (getBit(liveBits, row)) {
+                result.add(view(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachInRadius(int street, int avenue, int radius, ValueFilter filter, Consumer<Property> action) {
+        for (int row = 0; row < rowCount; row++) {
+            if (Math.abs(streets[row] - street) + Math.abs(avenues[row] - avenue) <= radius
+                    && getBit(liveBits, row)
+                    && (filter == null || filter.test(areas[row], pricesPerSquareMeter[row], getBit(soldBits, row)))) {
+                action.accept(view(row));
+            }
+        }
+    }
+
+    @Override
+    public void visitValuesInRadius(int street, int avenue, int radius, ValueFilter filter, ValueVisitor visitor) {
+        for (int row = 0; row < rowCount; row++) {
+            if (Math.abs(streets[row] - street) + Math.abs(avenues[row] - avenue) <= radius
+                    && getBit(liveBits, row)) {
+                double area = areas[row];
+                double pricePerSquareMeter = pricesPerSquareMeter[row];
+                boolean sold = getBit(soldBits, row);
+                if (filter == null || filter.test(area, pricePerSquareMeter, sold)) {
+                    visitor.visit(area, pricePerSquareMeter, sold);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends a new row for a property that is not in the store yet.
+     *
+     * @param key The address key of the property
+     * @param area The area of the property
+     * @param pricePerSquareMeter The price per square meter of the property
+     * @param sold The sale status of the property
+     */
+    private void appendRow(AddressKey key, double area, double pricePerSquareMeter, boolean sold) {
+        int[] coordinates = key.coordinates();
+        ensureRowCapacity(rowCount + 1);
+        ensureSubdivisionCapacity(subdivisionOffsets[rowCount] + coordinates.length - 2);
+
+        int row = rowCount++;
+        streets[row] = coordinates[0];
+        avenues[row] = coordinates[1];
+        areas[row] = area;
+        pricesPerSquareMeter[row] = pricePerSquareMeter;
+        setBit(soldBits, row, sold);
+        setBit(liveBits, row, true);
+        hashes[row] = key.hashCode();
+        int start = subdivisionOffsets[row];
+        System.arraycopy(coordinates, 2, subdivisions, start, coordinates.length - 2);
+        subdivisionOffsets[row + 1] = start + coordinates.length - 2;
+
+        size++;
+        if (size * 2 > table.length) {
+            rebuildTable(table.length * 2);
+        } else {
+            insertIntoTable(row);
+        }
+    }
+
+    /**
+     * Returns the view of a row, creating it on first access.
+     *
+     * @param row The row number
+     * @return The view of the row
+     */
+    private Property view(int row) {
+        RowView view = views[row];
+        if (view == null) {
+            view = new RowView(this, row, addressOf(row));
+            views[row] = view;
+        }
+        return view;
+    }
+
+    /**
+     * Unlinks a row from the Property object that represents it,
+     * so the object keeps the row's current values after the row changes.
+     *
+     * @param row The row number
+     * @return The detached view, or a new Property with the row's values if no view existed
+     */
+    private Property detach(int row) {
+        RowView view = views[row];
+        if (view == null) {
+            return new Property(addressOf(row), areas[row], pricesPerSquareMeter[row], getBit(soldBits, row));
+        }
+        view.detach();
+        views[row] = null;
+        return view;
+    }
+
+    /**
+     * Rebuilds the full address of a row from the address columns.
+     *
+     * @param row The row number
+     * @return A new array with the address coordinates of the row
+     */
+    private int[] addressOf(int row) {
+        int start = subdivisionOffsets[row];
+        int length = subdivisionOffsets[row + 1] - start;
+        int[] address = new int[length + 2];
+        address[0] = streets[row];
+        address[1] = avenues[row];
+        System.arraycopy(subdivisions, start, address, 2, length);
+        return address;
+    }
+
+    /**
+     * Compares the address stored in a row with the given coordinates.
+     *
+     * @param row The row number
+     * @param coordinates The address coordinates to compare with
+     * @return true if the row has exactly this address, false otherwise
+     */
+    private boolean addressEquals(int row, int[] coordinates) {
+        int start = subdivisionOffsets[row];
+        int length = subdivisionOffsets[row + 1] - start;
+        if (coordinates.length != length + 2
+                || streets[row] != coordinates[0]
+                || avenues[row] != coordinates[1]) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (subdivisions[start + i] != coordinates[i + 2]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the row holding the given address.
+     *
+     * @param key The address key
+     * @return The row number, or -1 if the address is not in the store
+     */
+    private int findRow(AddressKey key) {
+        int slot = findSlot(key);
+        return slot < 0 ? -1 : table[slot] - 1;
+    }
+
+    /**
+     * Finds the hash table slot referring to the given address.
+     *
+     * @param key The address key
+     * @return The slot, or -1 if the address is not in the store
+     */
+    private int findSlot(AddressKey key) {
+        int[] coordinates = key.coordinates();
+        int hash = key.hashCode();
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            int row = entry - 1;
+            if (hashes[row] == hash && addressEquals(row, coordinates)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Inserts a row into the hash table. The table must have a free slot.
+     *
+     * @param row The row number
+     */
+    private void insertIntoTable(int row) {
+        int mask = table.length - 1;
+        int slot = spread(hashes[row]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = row + 1;
+    }
+
+    /**
+     * Clears a hash table slot, shifting back the entries that follow it
+     * so that lookups never stop early at the freed slot.
+     *
+     * @param slot The slot to clear
+     */
+    private void removeSlot(int slot) {
+        int mask = table.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int ideal = spread(hashes[table[next] - 1]) & mask;
+            // The entry may move into the hole if the hole lies between its ideal slot and its slot
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    /**
+     * Recreates the hash table with the given capacity and inserts all live rows.
+     *
+     * @param capacity The new table capacity (a power of two)
+     */
+    private void rebuildTable(int capacity) {
+        table = new int[capacity];
+        for (int row = 0; row < rowCount; row++) {
+            if (getBit(liveBits, row)) {
+                insertIntoTable(row);
+            }
+        }
+    }
+
+    /**
+     * Removes dead rows by moving live rows down, keeping their order.
+     * Views of moved rows are updated to their new row numbers.
+     */
+    private void compact() {
+        int target = 0;
+        int subdivisionTarget = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!getBit(liveBits, row)) {
+                continue;
+            }
+            int start = subdivisionOffsets[row];
+            int length = subdivisionOffsets[row + 1] - start;
+            streets[target] = streets[row];
+            avenues[target] = avenues[row];
+            areas[target] = areas[row];
+            pricesPerSquareMeter[target] = pricesPerSquareMeter[row];
+            setBit(soldBits, target, getBit(soldBits, row));
+            hashes[target] = hashes[row];
+            System.arraycopy(subdivisions, start, subdivisions, subdivisionTarget, length);
+            subdivisionOffsets[target] = subdivisionTarget;
+            subdivisionTarget += length;
+            views[target] = views[row];
+            if (views[target] != null) {
+                views[target].row = target;
+            }
+            target++;
+        }
+        subdivisionOffsets[target] = subdivisionTarget;
+        Arrays.fill(views, target, rowCount, null);
+        Arrays.fill(liveBits, 0);
+        for (int row = 0; row < target; row++) {
+            setBit(liveBits, row, true);
+        }
+        rowCount = target;
+        rebuildTable(table.length);
+    }
+
+    /**
+     * Grows the row columns so they can hold at least the given number of rows.
+     *
+     * @param capacity The required number of rows
+     */
+    private void ensureRowCapacity(int capacity) {
+        if (capacity <= streets.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, streets.length * 2);
+        streets = Arrays.copyOf(streets, newCapacity);
+        avenues = Arrays.copyOf(avenues, newCapacity);
+        areas = Arrays.copyOf(areas, newCapacity);
+        pricesPerSquareMeter = Arrays.copyOf(pricesPerSquareMeter, newCapacity);
+        soldBits = Arrays.copyOf(soldBits, bitsetLength(newCapacity));
+        liveBits = Arrays.copyOf(liveBits, bitsetLength(newCapacity));
+        hashes = Arrays.copyOf(hashes, newCapacity);
+        subdivisionOffsets = Arrays.copyOf(subdivisionOffsets, newCapacity + 1);
+        views = Arrays.copyOf(views, newCapacity);
+    }
+
+    /**
+     * Grows the flattened subdivision array so it can hold at least the given number of coordinates.
+     *
+     * @param capacity The required number of subdivision coordinates
+     */
+    private void ensureSubdivisionCapacity(int capacity) {
+        if (capacity > subdivisions.length) {
+            subdivisions = Arrays.copyOf(subdivisions, Math.max(capacity, subdivisions.length * 2));
+        }
+    }
+
+    /**
+     * Spreads the bits of a hash code so that nearby addresses use distant table slots.
+     *
+     * @param hash The hash code
+     * @return The spread hash code
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Gets the number of longs needed for a bitset of the given size.
+     *
+     * @param bits The number of bits
+     * @return The number of longs
+     */
+    private static int bitsetLength(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Reads a bit of a bitset.
+     *
+     * @param bits The bitset
+     * @param index The bit index
+     * @return The bit value
+     */
+    private static boolean getBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Writes a bit of a bitset.
+     *
+     * @param bits The bitset
+     * @param index The bit index
+     * @param value The new bit value
+     */
+    private static void setBit(long[] bits, int index, boolean value) {
+        if (value) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Property view of one row of the store.
+     * While attached, its values are read from and written to the columns.
+     * Once detached it behaves as a regular Property holding its last values.
+     */
+    private static final class RowView extends Property {
+
+        /** The store holding the row, or null once detached */
+        private ColumnarPropertyStore store;
+
+        /** The row number in the store */
+        private int row;
+
+        /**
+         * Constructs a view of a row.
+         *
+         * @param store The store holding the row
+         * @param row The row number
+         * @param address The address of the row
+         */
+        private RowView(ColumnarPropertyStore store, int row, int[] address) {
+            super(address, store.areas[row], store.pricesPerSquareMeter[row], getBit(store.soldBits, row));
+            this.store = store;
+            this.row = row;
+        }
+
+        /**
+         * Copies the row's current values into this object and unlinks it from the store.
+         */
+        private void detach() {
+            area = store.areas[row];
+            pricePerSquareMeter = store.pricesPerSquareMeter[row];
+            isSold = getBit(store.soldBits, row);
+            store = null;
+        }
+
+        @Override
+        public double getArea() {
+            return store == null ? area : store.areas[row];
+        }
+
+        @Override
+        public double getPricePerSquareMeter() {
+            return store == null ? pricePerSquareMeter : store.pricesPerSquareMeter[row];
+        }
+
+        @Override
+        public boolean getStatus() {
+            return store == null ? isSold : getBit(store.soldBits, row);
+        }
+
+        @Override
+        public void setStatus(boolean sold) {
+            if (store == null) {
+                isSold = sold;
+            } else {
+                setBit(store.soldBits, row, sold);
+            }
+        }
+
+        /**
+         * Marks the row as sold if it is available. Rows share the words of the
+         * sale bitset, so the update is made while holding the store's monitor.
+         */
+        @Override
+        public boolean markSold() {
+            ColumnarPropertyStore current = store;
+            if (current == null) {
+                return super.markSold();
+            }
+            synchronized (current) {
+                if (getBit(current.soldBits, row)) {
+                    return false;
+                }
+                setBit(current.soldBits, row, true);
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package src.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report of the duplicate addresses found while loading a property file.
+ *
+ * Duplicates are detected with a single pass over the parsed properties and a hash
+ * table of address keys, so the check runs in linear time and never copies addresses.
+ * What happens to a duplicate depends on the Policy used for the load:
+ * - FAIL_FAST: the load fails on the first duplicate line
+ * - KEEP_FIRST: the first line with an address is kept, later lines are dropped
+ * - KEEP_LAST: the last line with an address is kept, in the position of the first one
+ *
+ * With KEEP_FIRST and KEEP_LAST the load completes, and the report lists every
+ * duplicated address with all the line numbers it appeared on.
+ * Line numbers start at 1.
+ *
+ * @see src.util.FileReaderProperty
+ * @see src.util.BulkPropertyLoader
+ */
+public final class DuplicateAddressReport {
+
+    /**
+     * How duplicate addresses in a property file are handled.
+     */
+    public enum Policy {
+        /** Fail the load with an IllegalArgumentException on the first duplicate */
+        FAIL_FAST,
+        /** Keep the first property with an address and drop the later ones */
+        KEEP_FIRST,
+        /** Keep the last property with an address and drop the earlier ones */
+        KEEP_LAST
+    }
+
+    /** The policy the duplicates were resolved with */
+    private final Policy policy;
+
+    /** The number of properties left after resolving duplicates */
+    private final int propertyCount;
+
+    /** The duplicated addresses in order of first appearance */
+    private final List<Duplicate> duplicates;
+
+    /**
+     * Constructs a report.
+     *
+     * @param policy The policy the duplicates were resolved with
+     * @param propertyCount The number of properties left after resolving duplicates
+     * @param duplicates The duplicated addresses in order of first appearance
+     */
+    private DuplicateAddressReport(Policy policy, int propertyCount, List<Duplicate> duplicates) {
+        this.policy = policy;
+        this.propertyCount = propertyCount;
+        this.duplicates = Collections.unmodifiableList(duplicates);
+    }
+
+    /**
+     * Removes duplicate addresses from a list of properties parsed from a file,
+     * where the property at index i was read from line i + 1.
+     *
+     * @param properties The parsed properties in file order; duplicates are removed in place
+     * @param policy How duplicates are handled
+     * @return The report of the duplicates found
+     * @throws IllegalArgumentException if policy is null, or policy is FAIL_FAST and a duplicate is found
+     */
+    static DuplicateAddressReport resolve(List<Property> properties, Policy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Duplicate policy cannot be null");
+        }
+
+        // Address -> position in the resolved list and line of first appearance
+        Map<AddressKey, int[]> firstSeen = new HashMap<>(properties.size() * 4 / 3 + 1);
+        Map<AddressKey, Duplicate> duplicates = new LinkedHashMap<>();
+        List<Property> resolved = new ArrayList<>(properties.size());
+
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            AddressKey key = property.getAddressKey();
+            int line = i + 1;
+            int[] seen = firstSeen.putIfAbsent(key, new int[]{resolved.size(), line});
+            if (seen == null) {
+                resolved.add(property);
+                continue;
+            }
+            if (policy == Policy.FAIL_FAST) {
+                throw new IllegalArgumentException("Duplicate address found at line " + line
+                        + " (first at line " + seen[1] + "): " + key);
+            }
+            if (policy == Policy.KEEP_LAST) {
+                resolved.set(seen[0], property);
+            }
+            duplicates.computeIfAbsent(key, k -> new Duplicate(k, seen[1])).addLine(line);
+        }
+
+        if (resolved.size() != properties.size()) {
+            properties.clear();
+            properties.addAll(resolved);
+        }
+        for (Duplicate duplicate : duplicates.values()) {
+            duplicate.keptLine = policy == Policy.KEEP_LAST
+                    ? duplicate.lines[duplicate.lineCount - 1]
+                    : duplicate.lines[0];
+        }
+        return new DuplicateAddressReport(policy, resolved.size(), new ArrayList<>(duplicates.values()));
+    }
+
+    /**
+     * Gets the policy the duplicates were resolved with.
+     *
+     * @return The duplicate policy
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Gets the number of properties left after resolving duplicates.
+     *
+     * @return The number of loaded properties
+     */
+    public int getPropertyCount() {
+        return propertyCount;
+    }
+
+    /**
+     * Checks if any duplicate addresses were found.
+     *
+     * @return true if at least one address appeared more than once, false otherwise
+     */
+    public boolean hasDuplicates() {
+        return !duplicates.isEmpty();
+    }
+
+    /**
+     * Gets the duplicated addresses.
+     *
+     * @return An unmodifiable list of duplicates in order of first appearance
+     */
+    public List<Duplicate> getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Gets the line numbers of all lines that were dropped because of a duplicate address.
+     *
+     * @return The dropped line numbers in ascending order
+     */
+    public int[] getDroppedLines() {
+        int count = 0;
+        for (Duplicate duplicate : duplicates) {
+            count += duplicate.lineCount - 1;
+        }
+        int[] dropped = new int[count];
+        int index = 0;
+        for (Duplicate duplicate : duplicates) {
+            for (int i = 0; i < duplicate.lineCount; i++) {
+                if (duplicate.lines[i] != duplicate.keptLine) {
+                    dropped[index++] = duplicate.lines[i];
+                }
+            }
+        }
+        Arrays.sort(dropped);
+        return dropped;
+    }
+
+    @Override
+    public String toString() {
+        return "DuplicateAddressReport{" +
+                "policy=" + policy +
+                ", propertyCount=" + propertyCount +
+                ", duplicates=" + duplicates +
+                '}';
+    }
+
+    /**
+     * An address that appeared on more than one line of a property file.
+     */
+    public static final class Duplicate {
+
+        /** The duplicated address */
+        private final AddressKey address;
+
+        /** The lines the address appeared on, in ascending order */
+        private int[] lines;
+
+        /** The number of used entries in lines */
+        private int lineCount;
+
+        /** The line whose property was kept */
+        private int keptLine;
+
+        /**
+         * Constructs a duplicate entry for the first line an address appeared on.
+         *
+         * @param address The duplicated address
+         * @param firstLine The line the address first appeared on
+         */
+        private Duplicate(AddressKey address, int firstLine) {
+            this.address = address;
+            this.lines = new int[]{firstLine, 0};
+            this.lineCount = 1;
+        }
+
+        /**
+         * Records another line the address appeared on.
+         *
+         * @param line The line number
+         */
+        private void addLine(int line) {
+            if (lineCount == lines.length) {
+                lines = Arrays.copyOf(lines, lineCount * 2);
+            }
+            lines[lineCount++] = line;
+        }
+
+        /**
+         * Gets the duplicated address.
+         *
+         * @return The address key
+         */
+        public AddressKey getAddress() {
+            return address;
+        }
+
+        /**
+         * Gets all lines the address appeared on.
+         *
+         * @return The line numbers in ascending order
+         */
+        public int[] getLines() {
+            return Arrays.copyOf(lines, lineCount);
+        }
+
+        /**
+         * Gets the line whose property was kept.
+         *
+         * @return The kept line number
+         */
+        public int getKeptLine() {
+            return keptLine;
+        }
+
+        @Override
+        public String toString() {
+            return address + " at lines " + Arrays.toString(getLines()) + " (kept line " + keptLine + ")";
+        }
+    }
+}
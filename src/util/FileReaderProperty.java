@@ -4,7 +4,6 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -27,10 +26,16 @@ import java.util.List;
  * The class performs validation to ensure:
  * - All required fields are present
  * - Numeric values are valid
- * - No duplicate addresses exist
+ * - No duplicate addresses exist (or duplicates are resolved by a DuplicateAddressReport.Policy)
  * - Address coordinates are properly formatted
  * 
+ * For large files, BulkPropertyLoader parses the same format in parallel.
+ * 
+ * Each read is reported to Flight Recorder as a PropertyLoadEvent.
+ * 
  * @see src.util.Property
+ * @see src.util.BulkPropertyLoader
+ * @see src.util.DuplicateAddressReport
  * @see src.main.SystemManager
  */
 public class FileReaderProperty {
@@ -38,6 +43,9 @@ public class FileReaderProperty {
     /** List to store properties read from the file */
     private final List<Property> properties;
 
+    /** Report of the duplicate addresses found by the last read */
+    private DuplicateAddressReport duplicateReport;
+
     /**
      * Constructs a new FileReaderProperty instance.
      * Initializes the internal properties list.
@@ -48,18 +56,41 @@ public class FileReaderProperty {
 
     /**
      * Reads and parses properties from a file.
+     * Fails on the first duplicate address.
      * 
      * @param filePath The path to the file containing property data
      * @return A list of Property objects parsed from the file
-     * @throws IllegalArgumentException if filePath is null
+     * @throws IllegalArgumentException if filePath is null or an address appears more than once
      * @throws RuntimeException if file reading fails or data is invalid
      */
 
     public List<Property> readPropertiesFromFile(String filePath) {
+        return readPropertiesFromFile(filePath, DuplicateAddressReport.Policy.FAIL_FAST);
+    }
+
+    /**
+     * Reads and parses properties from a file, handling duplicate addresses with the given policy.
+     * The duplicates found are available from getDuplicateReport() after the read.
+     * 
+     * @param filePath The path to the file containing property data
+     * @param duplicatePolicy How duplicate addresses are handled
+     * @return A list of Property objects parsed from the file, without duplicate addresses
+     * @throws IllegalArgumentException if filePath or duplicatePolicy is null,
+     *                                  or the policy is FAIL_FAST and an address appears more than once
+     * @throws RuntimeException if file reading fails or data is invalid
+     */
+    public List<Property> readPropertiesFromFile(String filePath, DuplicateAddressReport.Policy duplicatePolicy) {
         if (filePath == null) {
             throw new IllegalArgumentException("File path cannot be null");
         }
+        if (duplicatePolicy == null) {
+            throw new IllegalArgumentException("Duplicate policy cannot be null");
+        }
 
+        PropertyLoadEvent event = new PropertyLoadEvent();
+        event.begin();
+        properties.clear();
+        duplicateReport = null;
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
             String line;
             while ((line = reader.readLine()) != null) {
@@ -71,8 +102,27 @@ public class FileReaderProperty {
             throw new RuntimeException("Error reading from file: " + e.getMessage());
         }
 
-        validateNoDuplicateAddresses();
-        return new ArrayList<>(properties);
+        int candidateCount = properties.size();
+        duplicateReport = DuplicateAddressReport.resolve(properties, duplicatePolicy);
+        List<Property> result = new ArrayList<>(properties);
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = filePath;
+            event.duplicatePolicy = duplicatePolicy.name();
+            event.candidateCount = candidateCount;
+            event.resultCount = result.size();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the report of the duplicate addresses found by the last successful read.
+     * 
+     * @return The duplicate report, or null if no read has completed
+     */
+    public DuplicateAddressReport getDuplicateReport() {
+        return duplicateReport;
     }
 
     /**
@@ -126,26 +176,4 @@ public class FileReaderProperty {
         }
         // Additional property validations can be added here
     }
-
-    /**
-     * Validates that no duplicate addresses exist in the properties list.
-     * Removes duplicates and throws an exception if any are found.
-     * 
-     * @throws IllegalArgumentException if duplicate addresses are found
-     */
-    private void validateNoDuplicateAddresses() {
-        for (int i = 0; i < properties.size(); i++) {
-            int[] currentAddress = properties.get(i).getAddress();
-            
-            for (int j = i + 1; j < properties.size(); j++) {
-                int[] otherAddress = properties.get(j).getAddress();
-                
-                if (Arrays.equals(currentAddress, otherAddress)) {
-                    properties.remove(j);
-                    // Throw exception indicating duplicate was found and removed
-                    throw new IllegalArgumentException("Duplicate address found and removed: " + Arrays.toString(currentAddress));
-                }
-            }
-        }
-    }
-} 
+}
@@ -0,0 +1,169 @@
+package src.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Property store that keeps one Property object per property.
+ * This is the default store of the SystemManager.
+ *
+ * The store maintains three indexes:
+ * - An insertion-ordered hash map from address key to property,
+ *   used for lookups, updates and deletions by address
+ * - A spatial grid index, used for radius searches
+ * - A radius aggregate index, used for radius counts and average prices,
+ *   unless the store is created without one
+ *
+ * The properties passed to put() are stored as they are, so callers keep
+ * working with the same objects the store holds.
+ *
+ * @see src.util.PropertyStore
+ * @see src.util.SpatialGridIndex
+ * @see src.util.RadiusAggregateIndex
+ */
+public class IndexedPropertyStore implements PropertyStore {
+
+    /** All properties, indexed by address, in the order they were added */
+    private final Map<AddressKey, Property> properties;
+
+    /** Spatial index of all properties, used for radius searches */
+    private final SpatialGridIndex spatialIndex;
+
+    /** Prefix-sum index of counts and prices, used for radius aggregates, or null */
+    private final RadiusAggregateIndex aggregateIndex;
+
+    /**
+     * Constructs an empty store.
+     */
+    public IndexedPropertyStore() {
+        this(new RadiusAggregateIndex());
+    }
+
+    /**
+     * Constructs an empty store.
+     *
+     * @param aggregateIndex The aggregate index to maintain, or null to answer aggregates from the spatial index
+     */
+    private IndexedPropertyStore(RadiusAggregateIndex aggregateIndex) {
+        this.properties = new LinkedHashMap<>();
+        this.spatialIndex = new SpatialGridIndex();
+        this.aggregateIndex = aggregateIndex;
+    }
+
+    /**
+     * Creates an empty store that maintains no aggregate index, for use inside a store
+     * that keeps its own, such as a StripedPropertyStore.
+     * Radius aggregates are computed by visiting the properties in the radius.
+     *
+     * @return The new store
+     */
+    public static IndexedPropertyStore withoutAggregateIndex() {
+        return new IndexedPropertyStore(null);
+    }
+
+    @Override
+    public Property get(AddressKey key) {
+        return properties.get(key);
+    }
+
+    @Override
+    public Property put(Property property) {
+        Property replaced = properties.put(property.getAddressKey(), property);
+        if (replaced != null) {
+            spatialIndex.remove(replaced);
+            if (aggregateIndex != null) {
+                aggregateIndex.remove(replaced);
+            }
+        }
+        spatialIndex.add(property);
+        if (aggregateIndex != null) {
+            aggregateIndex.add(property);
+        }
+        return replaced;
+    }
+
+    @Override
+    public Property remove(AddressKey key) {
+        Property removed = properties.remove(key);
+        if (removed != null) {
+            spatialIndex.remove(removed);
+            if (aggregateIndex != null) {
+                aggregateIndex.remove(removed);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return properties.size();
+    }
+
+    @Override
+    public List<Property> toList() {
+        return new ArrayList<>(properties.values());
+    }
+
+    @Override
+    public void forEachInRadius(int street, int avenue, int radius, ValueFilter filter, Consumer<Property> action) {
+        if (filter == null) {
+            spatialIndex.forEachInRadius(street, avenue, radius, action);
+            return;
+        }
+        spatialIndex.forEachInRadius(street, avenue, radius, property -> {
+            if (filter.test(property.getArea(), property.getPricePerSquareMeter(), property.getStatus())) {
+                action.accept(property);
+            }
+        });
+    }
+
+    @Override
+    public void visitValuesInRadius(int street, int avenue, int radius, ValueFilter filter, ValueVisitor visitor) {
+        spatialIndex.forEachInRadius(street, avenue, radius, property -> {
+            double area = property.getArea();
+            double pricePerSquareMeter = property.getPricePerSquareMeter();
+            boolean sold = property.getStatus();
+            if (filter == null || filter.test(area, pricePerSquareMeter, sold)) {
+                visitor.visit(area, pricePerSquareMeter, sold);
+            }
+        });
+    }
+
+    @Override
+    public RadiusAggregate aggregateInRadius(int street, int avenue, int radius) {
+        if (aggregateIndex == null) {
+            return PropertyStore.super.aggregateInRadius(street, avenue, radius);
+        }
+        RadiusAggregate aggregate = aggregateIndex.aggregate(street, avenue, radius);
+        if (aggregate == null && aggregateIndex.needsRebuild()) {
+            aggregateIndex.rebuild(properties.values());
+            aggregate = aggregateIndex.aggregate(street, avenue, radius);
+        }
+        return aggregate != null ? aggregate : PropertyStore.super.aggregateInRadius(street, avenue, radius);
+    }
+
+    @Override
+    public List<Property> findNearest(int street, int avenue, int count, int maxDistance, ValueFilter filter) {
+        if (filter == null) {
+            return spatialIndex.findNearest(street, avenue, count, maxDistance, null);
+        }
+        return spatialIndex.findNearest(street, avenue, count, maxDistance,
+                property -> filter.test(property.getArea(), property.getPricePerSquareMeter(), property.getStatus()));
+    }
+
+    @Override
+    public long forEachInRadiusOnNextStreet(int street, int avenue, int radius, long fromStreet,
+                                            ValueFilter filter, Consumer<Property> action) {
+        if (filter == null) {
+            return spatialIndex.forEachInRadiusOnNextStreet(street, avenue, radius, fromStreet, action);
+        }
+        return spatialIndex.forEachInRadiusOnNextStreet(street, avenue, radius, fromStreet, property -> {
+            if (filter.test(property.getArea(), property.getPricePerSquareMeter(), property.getStatus())) {
+                action.accept(property);
+            }
+        });
+    }
+}
@@ -0,0 +1,435 @@
+package src.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic generator of synthetic Manhattan property inventories,
+ * for load tests and benchmarks.
+ *
+ * The same seed and settings always produce the same properties in the same order,
+ * on any JVM. The generated inventory mimics a real city:
+ * - Properties are clustered around neighborhood centers, with popular
+ *   neighborhoods holding more properties than others
+ * - Addresses have between 0 and maxSubdivisionDepth subdivisions (buildings,
+ *   floors, apartments...), and every address is unique
+ * - Areas and prices per square meter follow log-normal distributions, and each
+ *   neighborhood has its own price level
+ * - A configurable share of the properties is sold
+ *
+ * Inventories can be generated in memory, or written directly to a text file in
+ * the FileReaderProperty format or to a binary snapshot file.
+ *
+ * The class can also be run from the command line:
+ * java src.util.InventoryGenerator count output.txt|output.snapshot [seed]
+ *
+ * @see src.util.FileReaderProperty
+ * @see src.util.PropertySnapshotFile
+ */
+public class InventoryGenerator {
+
+    /** Default number of streets in the grid */
+    private static final int DEFAULT_STREETS = 220;
+
+    /** Default number of avenues in the grid */
+    private static final int DEFAULT_AVENUES = 12;
+
+    /** Default number of neighborhoods */
+    private static final int DEFAULT_NEIGHBORHOODS = 24;
+
+    /** Default share of sold properties */
+    private static final double DEFAULT_SOLD_RATIO = 0.3;
+
+    /** Default maximum number of subdivisions */
+    private static final int DEFAULT_MAX_SUBDIVISION_DEPTH = 3;
+
+    /** Median area in square meters */
+    private static final double MEDIAN_AREA = 70;
+
+    /** Spread of the area distribution (standard deviation of its logarithm) */
+    private static final double AREA_SIGMA = 0.45;
+
+    /** Median price per square meter in dollars, across neighborhoods */
+    private static final double MEDIAN_PRICE_PER_SQUARE_METER = 14000;
+
+    /** Spread of the neighborhood price levels */
+    private static final double NEIGHBORHOOD_PRICE_SIGMA = 0.35;
+
+    /** Spread of the prices within a neighborhood */
+    private static final double PRICE_SIGMA = 0.2;
+
+    /** The seed of the random sequence */
+    private final long seed;
+
+    /** Number of streets in the grid, numbered from 1 */
+    private int streets = DEFAULT_STREETS;
+
+    /** Number of avenues in the grid, numbered from 1 */
+    private int avenues = DEFAULT_AVENUES;
+
+    /** Number of neighborhood clusters */
+    private int neighborhoods = DEFAULT_NEIGHBORHOODS;
+
+    /** Share of sold properties, between 0 and 1 */
+    private double soldRatio = DEFAULT_SOLD_RATIO;
+
+    /** Maximum number of subdivisions in an address */
+    private int maxSubdivisionDepth = DEFAULT_MAX_SUBDIVISION_DEPTH;
+
+    /**
+     * Constructs a generator with the default settings.
+     *
+     * @param seed The seed of the random sequence
+     */
+    public InventoryGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the size of the grid the properties are placed on.
+     *
+     * @param streets The number of streets (must be positive)
+     * @param avenues The number of avenues (must be positive)
+     * @return This generator, for chaining
+     * @throws IllegalArgumentException if a size is not positive
+     */
+    public InventoryGenerator grid(int streets, int avenues) {
+        if (streets <= 0 || avenues <= 0) {
+            throw new IllegalArgumentException("Grid size must be positive");
+        }
+        this.streets = streets;
+        this.avenues = avenues;
+        return this;
+    }
+
+    /**
+     * Sets the number of neighborhood clusters.
+     *
+     * @param neighborhoods The number of neighborhoods (must be positive)
+     * @return This generator, for chaining
+     * @throws IllegalArgumentException if neighborhoods is not positive
+     */
+    public InventoryGenerator neighborhoods(int neighborhoods) {
+        if (neighborhoods <= 0) {
+            throw new IllegalArgumentException("Number of neighborhoods must be positive");
+        }
+        this.neighborhoods = neighborhoods;
+        return this;
+    }
+
+    /**
+     * Sets the share of sold properties.
+     *
+     * @param soldRatio The share of sold properties, between 0 and 1
+     * @return This generator, for chaining
+     * @throws IllegalArgumentException if soldRatio is outside [0, 1]
+     */
+    public InventoryGenerator soldRatio(double soldRatio) {
+        if (!(soldRatio >= 0 && soldRatio <= 1)) {
+            throw new IllegalArgumentException("Sold ratio must be between 0 and 1");
+        }
+        this.soldRatio = soldRatio;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of subdivisions in an address.
+     *
+     * @param maxSubdivisionDepth The maximum depth (must be non-negative)
+     * @return This generator, for chaining
+     * @throws IllegalArgumentException if maxSubdivisionDepth is negative
+     */
+    public InventoryGenerator maxSubdivisionDepth(int maxSubdivisionDepth) {
+        if (maxSubdivisionDepth < 0) {
+            throw new IllegalArgumentException("Subdivision depth cannot be negative");
+        }
+        this.maxSubdivisionDepth = maxSubdivisionDepth;
+        return this;
+    }
+
+    /**
+     * Generates an inventory in memory.
+     *
+     * @param count The number of properties (must be non-negative)
+     * @return The generated properties
+     * @throws IllegalArgumentException if count is negative
+     */
+    public List<Property> generate(int count) {
+        List<Property> properties = new ArrayList<>(Math.max(count, 0));
+        forEach(count, properties::add);
+        return properties;
+    }
+
+    /**
+     * Generates an inventory and passes each property to an action, without keeping them.
+     *
+     * @param count The number of properties (must be non-negative)
+     * @param action The action to perform on each property
+     * @throws IllegalArgumentException if count is negative
+     */
+    public void forEach(int count, Consumer<Property> action) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        if (maxSubdivisionDepth == 0 && count > (long) streets * avenues) {
+            throw new IllegalArgumentException("Cannot place " + count + " properties without subdivisions");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        Neighborhood[] clusters = createNeighborhoods(random);
+        double[] cumulativeWeights = new double[clusters.length];
+        double totalWeight = 0;
+        for (int i = 0; i < clusters.length; i++) {
+            totalWeight += clusters[i].weight;
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        // Number of properties placed in each street/avenue cell so far
+        Map<Long, int[]> cellCounts = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Neighborhood neighborhood = clusters[pick(cumulativeWeights, random.nextDouble() * totalWeight)];
+            int[] address = placeAddress(neighborhood, cellCounts, random);
+            double area = Math.max(15, Math.round(MEDIAN_AREA * StrictMath.exp(AREA_SIGMA * gaussian(random))));
+            double pricePerSquareMeter = Math.max(100, 10 * Math.round(
+                    neighborhood.medianPricePerSquareMeter * StrictMath.exp(PRICE_SIGMA * gaussian(random)) / 10));
+            boolean sold = random.nextDouble() < soldRatio;
+            action.accept(new Property(address, area, pricePerSquareMeter, sold));
+        }
+    }
+
+    /**
+     * Writes a generated inventory to a text file in the FileReaderProperty format.
+     * Properties are written as they are generated, so any size fits in memory.
+     *
+     * @param filePath The path of the file to write
+     * @param count The number of properties (must be non-negative)
+     * @throws IllegalArgumentException if filePath is null or count is negative
+     * @throws RuntimeException if writing fails
+     */
+    public void writeTextFile(String filePath, int count) {
+        if (filePath == null) {
+            throw new IllegalArgumentException("File path cannot be null");
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath))) {
+            StringBuilder line = new StringBuilder(64);
+            IOException[] failure = new IOException[1];
+            forEach(count, property -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                line.setLength(0);
+                int[] address = property.getAddressKey().coordinates();
+                for (int i = 0; i < address.length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    line.append(address[i]);
+                }
+                line.append(' ').append((long) property.getArea())
+                        .append(' ').append((long) property.getPricePerSquareMeter())
+                        .append(' ').append(property.getStatus())
+                        .append('\n');
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing to file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a generated inventory to a binary snapshot file.
+     *
+     * @param filePath The path of the file to write
+     * @param count The number of properties (must be non-negative)
+     * @throws IllegalArgumentException if filePath is null or count is negative
+     * @throws RuntimeException if writing fails
+     */
+    public void writeSnapshotFile(String filePath, int count) {
+        PropertySnapshotFile.write(filePath, new InventorySnapshot(0, generate(count)));
+    }
+
+    /**
+     * Generates an inventory file from the command line.
+     * Files ending in ".snapshot" are written in the binary snapshot format, others as text.
+     *
+     * @param args The number of properties, the output file path and an optional seed
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Usage: java src.util.InventoryGenerator <count> <output.txt|output.snapshot> [seed]");
+            return;
+        }
+        int count = Integer.parseInt(args[0]);
+        long seed = args.length == 3 ? Long.parseLong(args[2]) : 1;
+        InventoryGenerator generator = new InventoryGenerator(seed);
+        if (args[1].endsWith(".snapshot")) {
+            generator.writeSnapshotFile(args[1], count);
+        } else {
+            generator.writeTextFile(args[1], count);
+        }
+        System.out.println("Generated " + count + " properties in " + args[1]);
+    }
+
+    /**
+     * Creates the neighborhood clusters. Neighborhood sizes follow a Zipf-like
+     * distribution, so a few popular neighborhoods hold most of the properties.
+     *
+     * @param random The random sequence
+     * @return The neighborhoods
+     */
+    private Neighborhood[] createNeighborhoods(SplittableRandom random) {
+        Neighborhood[] clusters = new Neighborhood[neighborhoods];
+        for (int i = 0; i < neighborhoods; i++) {
+            double centerStreet = 1 + random.nextDouble() * (streets - 1);
+            double centerAvenue = 1 + random.nextDouble() * (avenues - 1);
+            double spread = Math.max(1, Math.max(streets, avenues) / (2.0 * Math.sqrt(neighborhoods)))
+                    * (0.5 + random.nextDouble());
+            double weight = 1.0 / (i + 1);
+            double medianPrice = MEDIAN_PRICE_PER_SQUARE_METER * StrictMath.exp(NEIGHBORHOOD_PRICE_SIGMA * gaussian(random));
+            clusters[i] = new Neighborhood(centerStreet, centerAvenue, spread, weight, medianPrice);
+        }
+        return clusters;
+    }
+
+    /**
+     * Places a property in a neighborhood and builds a unique address for it.
+     *
+     * The last coordinate of a subdivided address is the number of properties already
+     * placed in the same cell, so no two addresses in a cell can be equal. An address
+     * without subdivisions is only used for the first property of a cell, so when
+     * subdivisions are disabled a property landing on a taken cell moves to the next free one.
+     *
+     * @param neighborhood The neighborhood of the property
+     * @param cellCounts The number of properties placed in each cell so far
+     * @param random The random sequence
+     * @return The address coordinates
+     */
+    private int[] placeAddress(Neighborhood neighborhood, Map<Long, int[]> cellCounts, SplittableRandom random) {
+        int street = clamp((int) Math.round(neighborhood.centerStreet + neighborhood.spread * gaussian(random)), streets);
+        int avenue = clamp((int) Math.round(neighborhood.centerAvenue + neighborhood.spread * gaussian(random)), avenues);
+        int[] cellCount = cellCounts.computeIfAbsent(cellKey(street, avenue), k -> new int[1]);
+        // Without subdivisions each cell holds a single property: move on to the next free cell
+        while (maxSubdivisionDepth == 0 && cellCount[0] > 0) {
+            avenue++;
+            if (avenue > avenues) {
+                avenue = 1;
+                street = street == streets ? 1 : street + 1;
+            }
+            cellCount = cellCounts.computeIfAbsent(cellKey(street, avenue), k -> new int[1]);
+        }
+
+        int index = cellCount[0]++;
+        int depth = index == 0 ? random.nextInt(maxSubdivisionDepth + 1) : 1 + random.nextInt(maxSubdivisionDepth);
+        int[] address = new int[2 + depth];
+        address[0] = street;
+        address[1] = avenue;
+        for (int level = 2; level < address.length - 1; level++) {
+            address[level] = 1 + random.nextInt(20);
+        }
+        if (depth > 0) {
+            address[address.length - 1] = index + 1;
+        }
+        return address;
+    }
+
+    /**
+     * Packs a street/avenue cell into a single map key.
+     *
+     * @param street The street
+     * @param avenue The avenue
+     * @return The key of the cell
+     */
+    private static long cellKey(int street, int avenue) {
+        return ((long) street << 32) | avenue;
+    }
+
+    /**
+     * Picks an index from cumulative weights with a binary search.
+     *
+     * @param cumulativeWeights The cumulative weights
+     * @param target A value between 0 and the total weight
+     * @return The index whose weight range contains the target
+     */
+    private static int pick(double[] cumulativeWeights, double target) {
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeWeights[middle] <= target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Clamps a coordinate to the grid.
+     *
+     * @param value The coordinate
+     * @param max The largest coordinate
+     * @return The coordinate between 1 and max
+     */
+    private static int clamp(int value, int max) {
+        return Math.max(1, Math.min(max, value));
+    }
+
+    /**
+     * Draws a standard normal value with the Box-Muller transform.
+     * Implemented here with StrictMath, rather than taken from the JDK, so sequences are the same on every JVM.
+     *
+     * @param random The random sequence
+     * @return A normally distributed value with mean 0 and standard deviation 1
+     */
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return StrictMath.sqrt(-2 * StrictMath.log(u1)) * StrictMath.cos(2 * Math.PI * u2);
+    }
+
+    /**
+     * A neighborhood cluster of properties.
+     */
+    private static final class Neighborhood {
+
+        /** The street at the center of the neighborhood */
+        private final double centerStreet;
+
+        /** The avenue at the center of the neighborhood */
+        private final double centerAvenue;
+
+        /** Standard deviation of the distance from the center, in blocks */
+        private final double spread;
+
+        /** Relative share of properties in this neighborhood */
+        private final double weight;
+
+        /** Median price per square meter in this neighborhood */
+        private final double medianPricePerSquareMeter;
+
+        private Neighborhood(double centerStreet, double centerAvenue, double spread,
+                             double weight, double medianPricePerSquareMeter) {
+            this.centerStreet = centerStreet;
+            this.centerAvenue = centerAvenue;
+            this.spread = spread;
+            this.weight = weight;
+            this.medianPricePerSquareMeter = medianPricePerSquareMeter;
+        }
+    }
+}
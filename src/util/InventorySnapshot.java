@@ -0,0 +1,68 @@
+package src.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, versioned view of the property inventory at one point in time.
+ *
+ * The SystemManager publishes a new snapshot version whenever properties are
+ * added, edited or removed. Readers share the published snapshot instead of
+ * copying the inventory on every call, and a snapshot never changes after it
+ * has been published, so readers always see a consistent list even while
+ * writers keep changing the system.
+ *
+ * A snapshot fixes which properties exist and which Property object represents
+ * each address. The sale status of those objects is live: a property sold after
+ * the snapshot was taken shows as sold in the snapshot too.
+ *
+ * @see src.main.SystemManager
+ * @see src.util.Property
+ */
+public final class InventorySnapshot {
+
+    /** The inventory version this snapshot reflects */
+    private final long version;
+
+    /** The properties in the inventory, unmodifiable */
+    private final List<Property> properties;
+
+    /**
+     * Constructs a snapshot. The list must not be modified after this call.
+     *
+     * @param version The inventory version this snapshot reflects
+     * @param properties The properties in the inventory
+     */
+    public InventorySnapshot(long version, List<Property> properties) {
+        this.version = version;
+        this.properties = Collections.unmodifiableList(properties);
+    }
+
+    /**
+     * Gets the inventory version this snapshot reflects.
+     * Versions increase with every change to the inventory.
+     *
+     * @return The version number
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the properties in the inventory.
+     *
+     * @return An unmodifiable list of the properties
+     */
+    public List<Property> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Gets the number of properties in the inventory.
+     *
+     * @return The number of properties
+     */
+    public int size() {
+        return properties.size();
+    }
+}
@@ -0,0 +1,154 @@
+package src.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets, in the style of
+ * HdrHistogram, recorded without locks from any number of threads.
+ *
+ * Values below 64 ns have one bucket each. Above, each power of two is split into
+ * 32 equal buckets, so a recorded value is known within about 3% over the whole
+ * range of long values, with a fixed number of buckets and no allocation per record.
+ *
+ * Recording increments one bucket in the stripe of the current thread, so threads
+ * on different stripes never write to the same counters. Percentiles sum the stripes
+ * when they are read; a read made while values are recorded is not an atomic
+ * snapshot, which is fine for monitoring.
+ *
+ * @see src.util.OperationMetrics
+ */
+public class LatencyHistogram {
+
+    /** Number of bits of precision within each power of two, plus one */
+    private static final int SUB_BUCKET_BITS = 6;
+
+    /** Number of values with their own bucket */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets per power of two above SUB_BUCKET_COUNT */
+    private static final int HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /** Total number of buckets, enough for every positive long */
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS + 1) * HALF_COUNT;
+
+    /** Bucket counts of each stripe */
+    private final AtomicLongArray[] stripes;
+
+    /** Stripe count - 1, the count being a power of two */
+    private final int stripeMask;
+
+    /**
+     * Constructs a histogram with one stripe per available processor, up to 8.
+     */
+    public LatencyHistogram() {
+        int processors = Math.min(8, Runtime.getRuntime().availableProcessors());
+        int count = Integer.highestOneBit(Math.max(1, processors));
+        this.stripes = new AtomicLongArray[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT);
+        }
+        this.stripeMask = count - 1;
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds; negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        stripes[stripe].incrementAndGet(bucketOf(Math.max(0, nanos)));
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return The total count
+     */
+    public long getCount() {
+        long count = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                count += stripe.get(bucket);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the value below which a percentage of the recorded values fall.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The highest value of the bucket holding the percentile, or 0 if nothing was recorded
+     * @throws IllegalArgumentException if percentile is not between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                long count = stripe.get(bucket);
+                counts[bucket] += count;
+                total += count;
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return highestValueOf(bucket);
+            }
+        }
+        return highestValueOf(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                stripe.set(bucket, 0);
+            }
+        }
+    }
+
+    /**
+     * Finds the bucket of a value.
+     *
+     * @param value A non-negative value
+     * @return The bucket index
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // Keep the SUB_BUCKET_BITS - 1 bits below the highest set bit
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_COUNT + (int) (value >>> shift) - HALF_COUNT;
+    }
+
+    /**
+     * Gets the highest value that falls into a bucket.
+     *
+     * @param bucket The bucket index
+     * @return The highest value of the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKET_COUNT) / HALF_COUNT + 1;
+        long mantissa = (bucket - SUB_BUCKET_COUNT) % HALF_COUNT + HALF_COUNT;
+        long next = (mantissa + 1) << shift;
+        // The last bucket ends at Long.MAX_VALUE
+        return next <= 0 ? Long.MAX_VALUE : next - 1;
+    }
+}
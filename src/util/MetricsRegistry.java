@@ -0,0 +1,152 @@
+package src.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of the metrics of the operations of the system, exposed through JMX.
+ *
+ * Each operation gets an OperationMetrics the first time it is requested, which is
+ * registered as a platform MXBean named src.util:type=OperationMetrics,name=<operation>,
+ * so latency percentiles and row counts can be watched live with jconsole or any
+ * JMX client. The registry itself is registered as src.util:type=MetricsRegistry
+ * and turns recording and allocation counting on and off at runtime.
+ *
+ * Measured operations:
+ * - system.remove, system.update: SystemManager mutations
+ * - system.deal: executeWholeDeal and each deal of executeDeals
+ * - system.radius: radius scans of findPropertiesInRadius (used by RadiusCalculator)
+ * - search.list, search.count, search.average, search.nearest: PropertyQuery
+ *   results, which back the search strategies
+ *
+ * @see src.util.OperationMetrics
+ * @see src.util.MetricsRegistryMXBean
+ */
+public class MetricsRegistry implements MetricsRegistryMXBean {
+
+    /** JMX domain of the registered beans */
+    private static final String DOMAIN = "src.util";
+
+    /**
+     * Holder of the shared registry, created on first use.
+     */
+    private static class InstanceHolder {
+        private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    }
+
+    /** Metrics of each operation, by name */
+    private final ConcurrentHashMap<String, OperationMetrics> operations;
+
+    /** The JVM's thread bean, used to read thread allocation counters */
+    private final com.sun.management.ThreadMXBean threads;
+
+    /** Whether metrics are recorded */
+    private volatile boolean enabled;
+
+    /** Whether allocations are counted */
+    private volatile boolean allocationTracking;
+
+    /**
+     * Constructs the registry and registers it with the platform MBean server.
+     */
+    private MetricsRegistry() {
+        operations = new ConcurrentHashMap<>();
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        threads = bean instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported() ? sunBean : null;
+        enabled = true;
+        register("type=MetricsRegistry", this);
+    }
+
+    /**
+     * Returns the registry shared by the whole system.
+     *
+     * @return The shared registry
+     */
+    public static MetricsRegistry getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Gets the metrics of an operation, creating and registering them on first use.
+     *
+     * @param name The operation name
+     * @return The metrics of the operation
+     * @throws IllegalArgumentException if name is null or empty
+     */
+    public OperationMetrics operation(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Operation name cannot be empty");
+        }
+        return operations.computeIfAbsent(name, key -> {
+            OperationMetrics metrics = new OperationMetrics(key, this);
+            register("type=OperationMetrics,name=" + ObjectName.quote(key), metrics);
+            return metrics;
+        });
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean isAllocationTracking() {
+        return allocationTracking;
+    }
+
+    @Override
+    public void setAllocationTracking(boolean enabled) {
+        if (enabled && threads == null) {
+            throw new UnsupportedOperationException("Thread allocation counting is not supported by this JVM");
+        }
+        this.allocationTracking = enabled;
+    }
+
+    @Override
+    public String[] getOperationNames() {
+        return operations.keySet().stream().sorted().toArray(String[]::new);
+    }
+
+    @Override
+    public void resetAll() {
+        operations.values().forEach(OperationMetrics::reset);
+    }
+
+    /**
+     * Reads the number of bytes allocated so far by the current thread.
+     *
+     * @return The allocated bytes, or 0 if unsupported
+     */
+    long currentThreadAllocatedBytes() {
+        return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Registers a bean with the platform MBean server. Failures are ignored:
+     * metrics keep being recorded and readable from code.
+     *
+     * @param properties The key properties of the bean's object name
+     * @param bean The bean
+     */
+    private static void register(String properties, Object bean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(DOMAIN + ":" + properties);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(bean, objectName);
+            }
+        } catch (JMException e) {
+            // JMX is a view on the metrics; the system runs without it
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package src.util;
+
+/**
+ * Management interface of the metrics registry, registered with the platform
+ * MBean server under src.util:type=MetricsRegistry.
+ *
+ * @see src.util.MetricsRegistry
+ */
+public interface MetricsRegistryMXBean {
+
+    /**
+     * Checks whether operations are measured.
+     *
+     * @return true if metrics are recorded
+     */
+    boolean isEnabled();
+
+    /**
+     * Turns the recording of all metrics on or off.
+     *
+     * @param enabled true to record metrics
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Checks whether the bytes allocated by operations are counted.
+     *
+     * @return true if allocations are counted
+     */
+    boolean isAllocationTracking();
+
+    /**
+     * Turns allocation counting on or off. Counting reads the allocation counter
+     * of the current thread twice per operation, so it is off by default.
+     *
+     * @param enabled true to count allocations
+     * @throws UnsupportedOperationException if the JVM cannot measure thread allocations
+     */
+    void setAllocationTracking(boolean enabled);
+
+    /**
+     * Gets the names of the measured operations.
+     *
+     * @return The operation names
+     */
+    String[] getOperationNames();
+
+    /**
+     * Clears the metrics of all operations.
+     */
+    void resetAll();
+}
@@ -0,0 +1,131 @@
+package src.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the properties closest to a center point among the properties offered to it.
+ *
+ * The candidates are held in a bounded max-heap ordered by Manhattan distance,
+ * so offering a property costs O(log k) and at most k properties are kept,
+ * however many are offered. Properties at the same distance are kept in the
+ * order they were offered.
+ *
+ * Used by stores that cannot walk their properties by distance, and to merge
+ * the nearest properties of several stores.
+ *
+ * @see src.util.PropertyStore#findNearest(int, int, int, int, PropertyStore.ValueFilter)
+ */
+final class NearestPropertyCollector {
+
+    /** The candidates, farthest (then latest offered) first */
+    private final PriorityQueue<Candidate> heap;
+
+    /** The street of the center point */
+    private final int street;
+
+    /** The avenue of the center point */
+    private final int avenue;
+
+    /** The maximum number of properties kept */
+    private final int count;
+
+    /** Number of properties offered so far, used to keep ties in order */
+    private long offered;
+
+    /**
+     * Constructs a collector.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param count The maximum number of properties kept (non-negative)
+     */
+    NearestPropertyCollector(int street, int avenue, int count) {
+        this.street = street;
+        this.avenue = avenue;
+        this.count = count;
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(count, 64)),
+                Comparator.comparingLong((Candidate candidate) -> candidate.distance)
+                        .thenComparingLong(candidate -> candidate.order)
+                        .reversed());
+    }
+
+    /**
+     * Offers a property, keeping it if it is among the closest seen so far.
+     *
+     * @param property The property to offer
+     */
+    void offer(Property property) {
+        if (count == 0) {
+            return;
+        }
+        AddressKey key = property.getAddressKey();
+        long distance = Math.abs((long) key.getStreet() - street) + Math.abs((long) key.getAvenue() - avenue);
+        if (heap.size() == count) {
+            // A property at the same distance as the farthest one was offered later, so it loses
+            if (distance >= heap.peek().distance) {
+                return;
+            }
+            heap.poll();
+        }
+        heap.add(new Candidate(property, distance, offered++));
+    }
+
+    /**
+     * Gets the largest distance at which an offered property can still be kept.
+     * Later searches can stop at this distance.
+     *
+     * @param maxDistance The largest distance searched
+     * @return maxDistance while the collector is not full, then one less than the distance
+     *         of the farthest kept property; -1 if no property can be kept anymore
+     */
+    int distanceBound(int maxDistance) {
+        if (count == 0) {
+            return -1;
+        }
+        if (heap.size() < count) {
+            return maxDistance;
+        }
+        // A property at the same distance would lose against the kept ones
+        return (int) Math.min(maxDistance, heap.peek().distance - 1);
+    }
+
+    /**
+     * Returns the kept properties.
+     *
+     * @return A new list of the kept properties, closest first
+     */
+    List<Property> toList() {
+        List<Candidate> candidates = new ArrayList<>(heap);
+        candidates.sort(Comparator.comparingLong((Candidate candidate) -> candidate.distance)
+                .thenComparingLong(candidate -> candidate.order));
+        List<Property> result = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            result.add(candidate.property);
+        }
+        return result;
+    }
+
+    /**
+     * A property with its distance from the center.
+     */
+    private static final class Candidate {
+
+        /** The property */
+        private final Property property;
+
+        /** The Manhattan distance from the center */
+        private final long distance;
+
+        /** The position of the property among the offered properties */
+        private final long order;
+
+        private Candidate(Property property, long distance, long order) {
+            this.property = property;
+            this.distance = distance;
+            this.order = order;
+        }
+    }
+}
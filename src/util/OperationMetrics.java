@@ -0,0 +1,205 @@
+package src.util;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and counters of one operation, such as a deletion or a search.
+ *
+ * Instrumented code brackets each operation with start and stop:
+ *
+ * <pre>
+ * long start = metrics.start();
+ * ... the operation ...
+ * metrics.stop(start, rowsScanned, rowsReturned);
+ * </pre>
+ *
+ * Recording never locks: latencies go to a striped LatencyHistogram and the
+ * counters are LongAdders, so threads measuring the same operation do not contend.
+ * When the registry is disabled, start returns NOT_RECORDED and stop does nothing.
+ *
+ * For searches, rows scanned are the properties within the radius that the search
+ * examined, and rows returned those that matched.
+ *
+ * @see src.util.MetricsRegistry
+ * @see src.util.OperationMetricsMXBean
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    /** Value returned by start when the operation is not measured */
+    public static final long NOT_RECORDED = Long.MIN_VALUE;
+
+    /** The operation name */
+    private final String name;
+
+    /** The registry deciding whether metrics are recorded */
+    private final MetricsRegistry registry;
+
+    /** Latencies in nanoseconds */
+    private final LatencyHistogram latencies;
+
+    /** Sum of the latencies in nanoseconds */
+    private final LongAdder totalNanos;
+
+    /** Highest latency in nanoseconds */
+    private final LongAccumulator maxNanos;
+
+    /** Number of rows examined */
+    private final LongAdder rowsScanned;
+
+    /** Number of rows returned */
+    private final LongAdder rowsReturned;
+
+    /** Bytes allocated while allocation tracking was enabled */
+    private final LongAdder allocatedBytes;
+
+    /** Thread allocation counter at the start of the current operation of each thread */
+    private final ThreadLocal<long[]> allocationStart;
+
+    /**
+     * Constructs the metrics of an operation.
+     *
+     * @param name The operation name
+     * @param registry The registry deciding whether metrics are recorded
+     */
+    OperationMetrics(String name, MetricsRegistry registry) {
+        this.name = name;
+        this.registry = registry;
+        this.latencies = new LatencyHistogram();
+        this.totalNanos = new LongAdder();
+        this.maxNanos = new LongAccumulator(Math::max, 0);
+        this.rowsScanned = new LongAdder();
+        this.rowsReturned = new LongAdder();
+        this.allocatedBytes = new LongAdder();
+        this.allocationStart = ThreadLocal.withInitial(() -> new long[1]);
+    }
+
+    /**
+     * Starts measuring an operation on the current thread.
+     *
+     * @return The start time to pass to stop, or NOT_RECORDED if metrics are disabled
+     */
+    public long start() {
+        if (!registry.isEnabled()) {
+            return NOT_RECORDED;
+        }
+        if (registry.isAllocationTracking()) {
+            allocationStart.get()[0] = registry.currentThreadAllocatedBytes();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Stops measuring an operation.
+     *
+     * @param start The value returned by start
+     */
+    public void stop(long start) {
+        stop(start, 0, 0);
+    }
+
+    /**
+     * Stops measuring an operation that examined and returned rows.
+     *
+     * @param start The value returned by start
+     * @param scanned The number of rows examined
+     * @param returned The number of rows returned
+     */
+    public void stop(long start, long scanned, long returned) {
+        if (start == NOT_RECORDED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        latencies.record(nanos);
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (scanned != 0) {
+            rowsScanned.add(scanned);
+        }
+        if (returned != 0) {
+            rowsReturned.add(returned);
+        }
+        if (registry.isAllocationTracking()) {
+            long[] startBytes = allocationStart.get();
+            if (startBytes[0] > 0) {
+                allocatedBytes.add(registry.currentThreadAllocatedBytes() - startBytes[0]);
+                startBytes[0] = 0;
+            }
+        }
+    }
+
+    /**
+     * Gets the latency histogram of the operation.
+     *
+     * @return The histogram, in nanoseconds
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / 1000.0 / count;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latencies.getValueAtPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return latencies.getValueAtPercentile(90) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latencies.getValueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latencies.getValueAtPercentile(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return maxNanos.get() / 1000.0;
+    }
+
+    @Override
+    public long getRowsScanned() {
+        return rowsScanned.sum();
+    }
+
+    @Override
+    public long getRowsReturned() {
+        return rowsReturned.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override
+    public void reset() {
+        latencies.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        rowsScanned.reset();
+        rowsReturned.reset();
+        allocatedBytes.reset();
+    }
+}
@@ -0,0 +1,95 @@
+package src.util;
+
+/**
+ * Management interface of the metrics of one operation, registered with the
+ * platform MBean server under src.util:type=OperationMetrics,name=<operation>.
+ * Latencies are reported in microseconds.
+ *
+ * @see src.util.OperationMetrics
+ * @see src.util.MetricsRegistry
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * Gets the name of the operation.
+     *
+     * @return The operation name
+     */
+    String getName();
+
+    /**
+     * Gets the number of completed operations.
+     *
+     * @return The operation count
+     */
+    long getCount();
+
+    /**
+     * Gets the mean latency.
+     *
+     * @return The mean latency in microseconds, or 0 if nothing was recorded
+     */
+    double getMeanMicros();
+
+    /**
+     * Gets the median latency.
+     *
+     * @return The 50th percentile in microseconds
+     */
+    double getP50Micros();
+
+    /**
+     * Gets the 90th percentile latency.
+     *
+     * @return The 90th percentile in microseconds
+     */
+    double getP90Micros();
+
+    /**
+     * Gets the 99th percentile latency.
+     *
+     * @return The 99th percentile in microseconds
+     */
+    double getP99Micros();
+
+    /**
+     * Gets the 99.9th percentile latency.
+     *
+     * @return The 99.9th percentile in microseconds
+     */
+    double getP999Micros();
+
+    /**
+     * Gets the highest latency.
+     *
+     * @return The maximum latency in microseconds
+     */
+    double getMaxMicros();
+
+    /**
+     * Gets the number of rows examined by the operation, for searches.
+     *
+     * @return The total number of rows scanned
+     */
+    long getRowsScanned();
+
+    /**
+     * Gets the number of rows returned by the operation, for searches.
+     *
+     * @return The total number of rows returned
+     */
+    long getRowsReturned();
+
+    /**
+     * Gets the bytes allocated by the threads running the operation,
+     * counted while allocation tracking is enabled.
+     *
+     * @return The total bytes allocated
+     */
+    long getAllocatedBytes();
+
+    /**
+     * Clears all the metrics of the operation.
+     */
+    void reset();
+}
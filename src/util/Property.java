@@ -23,6 +23,9 @@ import java.util.Arrays;
 public class Property {
     /** The address coordinates on Manhattan's grid system */
     protected final int[] address;
+
+    /** The hashable key of the address, shared with the address array */
+    protected final AddressKey addressKey;
     
     /** The area of the property in square meters */
     protected double area;
@@ -57,6 +60,7 @@ public class Property {
         }
 
         this.address = Arrays.copyOf(address, address.length);
+        this.addressKey = new AddressKey(this.address);
         this.area = area;
         this.pricePerSquareMeter = pricePerSquareMeter;
         this.isSold = isSold;
@@ -68,7 +72,7 @@ public class Property {
      * @return The total price calculated as area * pricePerSquareMeter
      */
     public double getTotalPrice() {
-        return area * pricePerSquareMeter;
+        return getArea() * getPricePerSquareMeter();
     }
 
     /**
@@ -80,6 +84,20 @@ public class Property {
         this.isSold = sold;
     }
 
+    /**
+     * Marks the property as sold if it is still available, as one atomic step.
+     * Two deals on the same property cannot both succeed, even from different threads.
+     * 
+     * @return true if the property was available and is now sold, false if it was already sold
+     */
+    public synchronized boolean markSold() {
+        if (getStatus()) {
+            return false;
+        }
+        setStatus(true);
+        return true;
+    }
+
     /**
      * Returns a copy of the property's address to prevent external modification.
      * 
@@ -89,6 +107,16 @@ public class Property {
         return Arrays.copyOf(address, address.length);
     }
 
+    /**
+     * Returns the immutable key of the property's address.
+     * Unlike getAddress(), this does not copy the address array.
+     * 
+     * @return The address key
+     */
+    public AddressKey getAddressKey() {
+        return addressKey;
+    }
+
     /**
      * Gets the area of the property.
      * 
@@ -124,7 +152,7 @@ public class Property {
 
         @Override
     public String toString() {
-        return "address: "+Arrays.toString(address)+" area: "+area+" pricePerSquareMeter: "+pricePerSquareMeter+" status: "+isSold;
+        return "address: "+Arrays.toString(address)+" area: "+getArea()+" pricePerSquareMeter: "+getPricePerSquareMeter()+" status: "+getStatus();
     }
 
 /*
@@ -0,0 +1,35 @@
+package src.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of the reading of a property file by FileReaderProperty.
+ *
+ * @see src.util.FileReaderProperty#readPropertiesFromFile(String, DuplicateAddressReport.Policy)
+ */
+@Name("src.PropertyLoad")
+@Label("Property Load")
+@Category({"Real Estate", "Inventory"})
+@Description("Reading and validation of a property file")
+class PropertyLoadEvent extends Event {
+
+    @Label("Path")
+    @Description("Path of the property file")
+    String path;
+
+    @Label("Duplicate Policy")
+    @Description("How duplicate addresses are handled")
+    String duplicatePolicy;
+
+    @Label("Candidate Count")
+    @Description("Number of properties read from the file")
+    int candidateCount;
+
+    @Label("Result Count")
+    @Description("Number of properties kept after resolving duplicate addresses")
+    int resultCount;
+}
@@ -0,0 +1,499 @@
+package src.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead log of property mutations.
+ *
+ * Every edit, deletion and sale is appended as a record before the change is
+ * reported as done, so the changes made since the last snapshot survive a restart.
+ * Each record is framed as:
+ *
+ * <pre>
+ * 4 bytes   payload length
+ * 4 bytes   CRC32C of the payload
+ * payload   operation type, address and (for REPLACE) the new property values
+ * </pre>
+ *
+ * Records hold the resulting state rather than a delta (e.g. "the property at this
+ * address is sold"), so replaying a log on top of a snapshot that already contains
+ * some of its records still produces the same inventory.
+ *
+ * Writes are group-committed: appending only copies the record into a memory buffer,
+ * and a single writer thread writes and fsyncs everything appended since its last
+ * sync in one batch. Callers wait with awaitDurable until their record is on disk,
+ * so many concurrent callers share each fsync instead of paying one each.
+ *
+ * On replay, a truncated or corrupted record at the end of the file (from a crash
+ * during a write) is discarded and the file is cut back to the last complete record.
+ *
+ * @see src.util.PropertySnapshotFile
+ * @see src.main.SystemManager
+ */
+public class PropertyMutationLog {
+
+    /**
+     * Enumeration defining the kinds of mutations recorded in the log.
+     */
+    public enum Operation {
+        /** A property was removed */
+        REMOVE,
+        /** A property was replaced by an updated property, possibly at a new address */
+        REPLACE,
+        /** A property was sold */
+        MARK_SOLD
+    }
+
+    /** Size of the record frame (length and checksum) in bytes */
+    private static final int FRAME_SIZE = 8;
+
+    /** Largest accepted payload, to detect garbage lengths in a damaged file */
+    private static final int MAX_PAYLOAD_SIZE = 1 << 20;
+
+    /** Initial size of the append buffers */
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    /** The log file */
+    private final FileChannel channel;
+
+    /** Guards the append buffer and the sequence numbers */
+    private final Object lock = new Object();
+
+    /** The background thread that writes and syncs batches */
+    private final Thread writer;
+
+    /** Records appended but not yet handed to the writer */
+    private ByteBuffer pending;
+
+    /** Spare buffer swapped with pending by the writer */
+    private ByteBuffer spare;
+
+    /** Sequence number of the last appended record */
+    private long appendedSequence;
+
+    /** Sequence number of the last record known to be on disk */
+    private long durableSequence;
+
+    /** Whether close has been called */
+    private boolean closed;
+
+    /** Whether any record has been appended (replay is only allowed before) */
+    private boolean appended;
+
+    /** The error that stopped the writer, or null */
+    private IOException failure;
+
+    /** Size of the log file in bytes, including pending batches once written */
+    private volatile long size;
+
+    /** Number of fsync calls, for monitoring group commit efficiency */
+    private volatile long syncCount;
+
+    /**
+     * Opens a log file, creating it if it does not exist, and starts its writer thread.
+     * Existing records are kept; call replayInto before appending to apply them.
+     *
+     * @param filePath The path of the log file
+     * @throws IllegalArgumentException if filePath is null
+     * @throws RuntimeException if the file cannot be opened
+     */
+    public PropertyMutationLog(String filePath) {
+        if (filePath == null) {
+            throw new IllegalArgumentException("File path cannot be null");
+        }
+        try {
+            channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = channel.size();
+            channel.position(size);
+        } catch (IOException e) {
+            throw new RuntimeException("Error opening log: " + e.getMessage());
+        }
+        pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        writer = new Thread(this::writeLoop, "property-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Applies all complete records in the log to a store, in order.
+     * A damaged record at the end of the file is discarded together with everything after it.
+     *
+     * @param store The store to apply the records to
+     * @return The number of records applied
+     * @throws IllegalArgumentException if store is null
+     * @throws IllegalStateException if records have already been appended through this log
+     * @throws RuntimeException if the file cannot be read
+     */
+    public int replayInto(PropertyStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("Store cannot be null");
+        }
+        synchronized (lock) {
+            if (appended) {
+                throw new IllegalStateException("Cannot replay after records have been appended");
+            }
+            try {
+                long fileSize = channel.size();
+                ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE);
+                long position = 0;
+                int applied = 0;
+                while (position + FRAME_SIZE <= fileSize) {
+                    frame.clear();
+                    readFully(frame, position);
+                    int length = frame.getInt(0);
+                    if (length <= 0 || length > MAX_PAYLOAD_SIZE || position + FRAME_SIZE + length > fileSize) {
+                        break;
+                    }
+                    ByteBuffer payload = ByteBuffer.allocate(length);
+                    readFully(payload, position + FRAME_SIZE);
+                    CRC32C crc = new CRC32C();
+                    crc.update(payload.array(), 0, length);
+                    if ((int) crc.getValue() != frame.getInt(4)) {
+                        break;
+                    }
+                    apply(payload, store);
+                    applied++;
+                    position += FRAME_SIZE + length;
+                }
+                if (position < fileSize) {
+                    // Drop the incomplete tail left by a crash during a write
+                    channel.truncate(position);
+                    channel.force(true);
+                }
+                channel.position(position);
+                size = position;
+                return applied;
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading log: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Appends a REMOVE record.
+     *
+     * @param key The address of the removed property
+     * @return The sequence number of the record, to pass to awaitDurable
+     */
+    public long logRemove(AddressKey key) {
+        int[] address = key.coordinates();
+        return append(Operation.REMOVE, addressSize(address), address, null);
+    }
+
+    /**
+     * Appends a REPLACE record.
+     *
+     * @param key The address of the replaced property
+     * @param updatedProperty The property that replaced it
+     * @return The sequence number of the record, to pass to awaitDurable
+     */
+    public long logReplace(AddressKey key, Property updatedProperty) {
+        int[] address = key.coordinates();
+        int size = addressSize(address) + addressSize(updatedProperty.getAddressKey().coordinates())
+                + 2 * Double.BYTES + 1;
+        return append(Operation.REPLACE, size, address, updatedProperty);
+    }
+
+    /**
+     * Appends a MARK_SOLD record.
+     *
+     * @param key The address of the sold property
+     * @return The sequence number of the record, to pass to awaitDurable
+     */
+    public long logMarkSold(AddressKey key) {
+        int[] address = key.coordinates();
+        return append(Operation.MARK_SOLD, addressSize(address), address, null);
+    }
+
+    /**
+     * Waits until a record and all records before it are on disk.
+     *
+     * @param sequence The sequence number returned when the record was appended
+     * @throws IllegalStateException if interrupted while waiting
+     * @throws RuntimeException if the log could not be written
+     */
+    public void awaitDurable(long sequence) {
+        synchronized (lock) {
+            while (durableSequence < sequence && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the log");
+                }
+            }
+            if (durableSequence < sequence) {
+                throw new RuntimeException("Error writing to log: " + failure.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Waits until every record appended so far is on disk.
+     */
+    public void flush() {
+        long sequence;
+        synchronized (lock) {
+            sequence = appendedSequence;
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Empties the log after its records have been saved in a snapshot.
+     * The caller must make sure no records are appended concurrently.
+     *
+     * @throws RuntimeException if the log cannot be written or truncated
+     */
+    public void truncate() {
+        flush();
+        synchronized (lock) {
+            try {
+                channel.truncate(0);
+                channel.force(true);
+                size = 0;
+            } catch (IOException e) {
+                throw new RuntimeException("Error truncating log: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the size of the log file in bytes.
+     *
+     * @return The number of bytes written to the log
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of fsync calls made so far.
+     * Lower than the number of records when group commit batched several records together.
+     *
+     * @return The number of syncs
+     */
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    /**
+     * Writes all pending records, stops the writer thread and closes the file.
+     *
+     * @throws RuntimeException if the remaining records cannot be written
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Error closing log: " + e.getMessage());
+        }
+        synchronized (lock) {
+            if (failure != null) {
+                throw new RuntimeException("Error writing to log: " + failure.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Encodes a record into the pending buffer and wakes the writer.
+     *
+     * @param operation The operation type
+     * @param payloadSize The payload size without the operation byte
+     * @param address The address the operation applies to
+     * @param updatedProperty The new property for REPLACE, null otherwise
+     * @return The sequence number of the record
+     */
+    private long append(Operation operation, int payloadSize, int[] address, Property updatedProperty) {
+        int length = 1 + payloadSize;
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Log is closed");
+            }
+            if (pending.remaining() < FRAME_SIZE + length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + FRAME_SIZE + length));
+                pending.flip();
+                grown.put(pending);
+                pending = grown;
+            }
+            int start = pending.position();
+            pending.putInt(length).putInt(0);
+            pending.put((byte) operation.ordinal());
+            putAddress(pending, address);
+            if (updatedProperty != null) {
+                putAddress(pending, updatedProperty.getAddressKey().coordinates());
+                pending.putDouble(updatedProperty.getArea());
+                pending.putDouble(updatedProperty.getPricePerSquareMeter());
+                pending.put((byte) (updatedProperty.getStatus() ? 1 : 0));
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(pending.array(), start + FRAME_SIZE, length);
+            pending.putInt(start + 4, (int) crc.getValue());
+
+            appended = true;
+            appendedSequence++;
+            lock.notifyAll();
+            return appendedSequence;
+        }
+    }
+
+    /**
+     * Writer thread: repeatedly takes everything appended so far, writes it and syncs once.
+     */
+    private void writeLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long batchEnd;
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        // Only close stops the writer
+                    }
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                batchEnd = appendedSequence;
+            }
+
+            try {
+                batch.flip();
+                long written = batch.remaining();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+                syncCount++;
+                size += written;
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            } finally {
+                batch.clear();
+            }
+
+            synchronized (lock) {
+                durableSequence = batchEnd;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Decodes one record payload and applies it to a store.
+     *
+     * @param payload The record payload
+     * @param store The store to apply the record to
+     */
+    private static void apply(ByteBuffer payload, PropertyStore store) {
+        Operation operation = Operation.values()[payload.get()];
+        AddressKey key = new AddressKey(getAddress(payload));
+        switch (operation) {
+            case REMOVE -> store.remove(key);
+            case REPLACE -> {
+                int[] newAddress = getAddress(payload);
+                double area = payload.getDouble();
+                double pricePerSquareMeter = payload.getDouble();
+                boolean sold = payload.get() != 0;
+                Property updatedProperty = new Property(newAddress, area, pricePerSquareMeter, sold);
+                if (!key.equals(updatedProperty.getAddressKey())) {
+                    store.remove(key);
+                }
+                store.put(updatedProperty);
+            }
+            case MARK_SOLD -> {
+                Property property = store.get(key);
+                if (property != null) {
+                    property.setStatus(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the encoded size of an address.
+     *
+     * @param address The address coordinates
+     * @return The number of bytes used by the coordinate count and zigzag varint coordinates
+     */
+    private static int addressSize(int[] address) {
+        int size = PropertySnapshotFile.varintSize(address.length);
+        for (int coordinate : address) {
+            size += PropertySnapshotFile.varintSize(PropertySnapshotFile.zigzag(coordinate));
+        }
+        return size;
+    }
+
+    /**
+     * Writes an address as a varint count followed by zigzag varint coordinates.
+     *
+     * @param buffer The buffer to write to
+     * @param address The address coordinates
+     */
+    private static void putAddress(ByteBuffer buffer, int[] address) {
+        PropertySnapshotFile.putVarint(buffer, address.length);
+        for (int coordinate : address) {
+            PropertySnapshotFile.putVarint(buffer, PropertySnapshotFile.zigzag(coordinate));
+        }
+    }
+
+    /**
+     * Reads an address written by putAddress.
+     *
+     * @param buffer The buffer to read from
+     * @return The address coordinates
+     */
+    private static int[] getAddress(ByteBuffer buffer) {
+        int length = PropertySnapshotFile.getVarint(buffer);
+        int[] address = new int[length];
+        for (int i = 0; i < length; i++) {
+            address[i] = PropertySnapshotFile.unzigzag(PropertySnapshotFile.getVarint(buffer));
+        }
+        return address;
+    }
+
+    /**
+     * Reads bytes from the file until the buffer is full.
+     *
+     * @param buffer The buffer to fill
+     * @param position The file position to read from
+     * @throws IOException if reading fails or the file ends early
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of log");
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,471 @@
+package src.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary snapshot of the property inventory.
+ *
+ * A snapshot file stores the inventory column by column, so it can be memory-mapped
+ * and decoded with fixed offsets instead of parsing text:
+ *
+ * <pre>
+ * offset  size            content
+ * 0       4               magic "PSNP"
+ * 4       2               format version (currently 1)
+ * 6       2               flags (reserved, 0)
+ * 8       4               property count n
+ * 12      4               size of the subdivisions section in bytes
+ * 16      8               inventory version the snapshot was taken at
+ * 24      4 * n           streets (int)
+ *         4 * n           avenues (int)
+ *         8 * n           areas (double)
+ *         8 * n           prices per square meter (double)
+ *         8 * ceil(n/64)  sale status bitset (long words, bit i = property i)
+ *         variable        subdivisions: per property a varint count followed by
+ *                         zigzag varint coordinates
+ *         4               CRC32C checksum of all preceding bytes
+ * </pre>
+ *
+ * All numbers are big-endian. Properties are stored in inventory order.
+ *
+ * Snapshots are written to a temporary file, forced to disk and then moved over
+ * the target, so a crash during a write never leaves a partially written snapshot.
+ * Reading verifies the magic, version, section sizes and checksum before
+ * any property is returned.
+ *
+ * Errors are reported like the other loaders:
+ * - I/O failures throw a RuntimeException starting with "Error reading snapshot"
+ *   or "Error writing snapshot"
+ * - Files that are not valid snapshots throw IllegalArgumentException
+ *
+ * The class can also be run to convert a text property file to a snapshot:
+ * java src.util.PropertySnapshotFile input.txt output.snapshot
+ *
+ * @see src.util.InventorySnapshot
+ * @see src.util.FileReaderProperty
+ * @see src.main.SystemManager
+ */
+public final class PropertySnapshotFile {
+
+    /** Magic number at the start of every snapshot file ("PSNP") */
+    private static final int MAGIC = 0x50534E50;
+
+    /** The format version written by this class */
+    public static final int FORMAT_VERSION = 1;
+
+    /** Size of the fixed header in bytes */
+    private static final int HEADER_SIZE = 24;
+
+    /** Size of the checksum trailer in bytes */
+    private static final int TRAILER_SIZE = 4;
+
+    /** Largest encoded size of a varint in bytes */
+    static final int MAX_VARINT_SIZE = 5;
+
+    /** Size of the buffer used for writing */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /** The inventory version the snapshot was taken at */
+    private final long inventoryVersion;
+
+    /** The properties in the snapshot, in inventory order */
+    private final List<Property> properties;
+
+    /**
+     * Constructs a decoded snapshot.
+     *
+     * @param inventoryVersion The inventory version the snapshot was taken at
+     * @param properties The properties in the snapshot
+     */
+    private PropertySnapshotFile(long inventoryVersion, List<Property> properties) {
+        this.inventoryVersion = inventoryVersion;
+        this.properties = Collections.unmodifiableList(properties);
+    }
+
+    /**
+     * Gets the inventory version the snapshot was taken at.
+     *
+     * @return The inventory version
+     */
+    public long getInventoryVersion() {
+        return inventoryVersion;
+    }
+
+    /**
+     * Gets the properties in the snapshot.
+     *
+     * @return An unmodifiable list of the properties in inventory order
+     */
+    public List<Property> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Writes an inventory snapshot to a file, replacing the file atomically.
+     *
+     * @param filePath The path of the snapshot file
+     * @param snapshot The inventory snapshot to write
+     * @throws IllegalArgumentException if filePath or snapshot is null
+     * @throws RuntimeException if writing fails
+     */
+    public static void write(String filePath, InventorySnapshot snapshot) {
+        if (filePath == null) {
+            throw new IllegalArgumentException("File path cannot be null");
+        }
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Snapshot cannot be null");
+        }
+
+        Path target = Paths.get(filePath).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        List<Property> properties = snapshot.getProperties();
+        int count = properties.size();
+
+        // Capture the sale status once, so the bitset matches a single point in time
+        long[] soldBits = new long[(count + 63) >>> 6];
+        int subdivisionBytes = 0;
+        for (int i = 0; i < count; i++) {
+            Property property = properties.get(i);
+            if (property.getStatus()) {
+                soldBits[i >>> 6] |= 1L << i;
+            }
+            subdivisionBytes += subdivisionsSize(property.getAddressKey().coordinates());
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ChecksumWriter out = new ChecksumWriter(channel);
+            out.buffer(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putShort((short) FORMAT_VERSION)
+                    .putShort((short) 0)
+                    .putInt(count)
+                    .putInt(subdivisionBytes)
+                    .putLong(snapshot.getVersion());
+            for (Property property : properties) {
+                out.buffer(Integer.BYTES).putInt(property.getAddressKey().getStreet());
+            }
+            for (Property property : properties) {
+                out.buffer(Integer.BYTES).putInt(property.getAddressKey().getAvenue());
+            }
+            for (Property property : properties) {
+                out.buffer(Double.BYTES).putDouble(property.getArea());
+            }
+            for (Property property : properties) {
+                out.buffer(Double.BYTES).putDouble(property.getPricePerSquareMeter());
+            }
+            for (long word : soldBits) {
+                out.buffer(Long.BYTES).putLong(word);
+            }
+            for (Property property : properties) {
+                int[] coordinates = property.getAddressKey().coordinates();
+                putVarint(out.buffer(MAX_VARINT_SIZE), coordinates.length - 2);
+                for (int i = 2; i < coordinates.length; i++) {
+                    putVarint(out.buffer(MAX_VARINT_SIZE), zigzag(coordinates[i]));
+                }
+            }
+            out.finish();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing snapshot: " + e.getMessage());
+        }
+
+        try {
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a snapshot file by mapping it into memory and decoding its columns.
+     *
+     * @param filePath The path of the snapshot file
+     * @return The decoded snapshot
+     * @throws IllegalArgumentException if filePath is null, the file is not a valid snapshot
+     *                                  or it contains an invalid property
+     * @throws RuntimeException if reading fails
+     */
+    public static PropertySnapshotFile read(String filePath) {
+        if (filePath == null) {
+            throw new IllegalArgumentException("File path cannot be null");
+        }
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid snapshot: unexpected file size " + size);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading snapshot: " + e.getMessage());
+        }
+        return decode(buffer);
+    }
+
+    /**
+     * Converts a text property file in the FileReaderProperty format to a snapshot file.
+     *
+     * @param textFilePath The path of the text property file
+     * @param snapshotFilePath The path of the snapshot file to write
+     * @return The number of properties converted
+     * @throws IllegalArgumentException if a path is null or the text file is invalid
+     * @throws RuntimeException if reading or writing fails
+     */
+    public static int convert(String textFilePath, String snapshotFilePath) {
+        if (snapshotFilePath == null) {
+            throw new IllegalArgumentException("File path cannot be null");
+        }
+        List<Property> properties = new BulkPropertyLoader().readPropertiesFromFile(textFilePath);
+        write(snapshotFilePath, new InventorySnapshot(0, properties));
+        return properties.size();
+    }
+
+    /**
+     * Converts a text property file to a snapshot file.
+     *
+     * @param args The text file path and the snapshot file path
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java src.util.PropertySnapshotFile <input.txt> <output.snapshot>");
+            return;
+        }
+        int count = convert(args[0], args[1]);
+        System.out.println("Converted " + count + " properties to " + args[1]);
+    }
+
+    /**
+     * Validates and decodes a mapped snapshot.
+     *
+     * @param buffer The mapped snapshot file
+     * @return The decoded snapshot
+     * @throws IllegalArgumentException if the snapshot is invalid
+     */
+    private static PropertySnapshotFile decode(ByteBuffer buffer) {
+        int size = buffer.limit();
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Invalid snapshot: bad magic number");
+        }
+        int formatVersion = buffer.getShort(4);
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Invalid snapshot: unsupported format version " + formatVersion);
+        }
+        int count = buffer.getInt(8);
+        int subdivisionBytes = buffer.getInt(12);
+        long inventoryVersion = buffer.getLong(16);
+        long expectedSize = HEADER_SIZE + 24L * Math.max(count, 0) + 8L * ((Math.max(count, 0) + 63L) >>> 6)
+                + Math.max(subdivisionBytes, 0) + TRAILER_SIZE;
+        if (count < 0 || subdivisionBytes < 0 || expectedSize != size) {
+            throw new IllegalArgumentException("Invalid snapshot: section sizes do not match the file size");
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(0).limit(size - TRAILER_SIZE));
+        if ((int) crc.getValue() != buffer.getInt(size - TRAILER_SIZE)) {
+            throw new IllegalArgumentException("Invalid snapshot: checksum mismatch");
+        }
+
+        int streets = HEADER_SIZE;
+        int avenues = streets + 4 * count;
+        int areas = avenues + 4 * count;
+        int prices = areas + 8 * count;
+        int soldBits = prices + 8 * count;
+        int subdivisionsEnd = size - TRAILER_SIZE;
+        ByteBuffer subdivisions = buffer.duplicate().position(subdivisionsEnd - subdivisionBytes).limit(subdivisionsEnd);
+
+        List<Property> properties = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int subdivisionCount = getVarint(subdivisions);
+            if (subdivisionCount < 0 || subdivisionCount > subdivisions.remaining()) {
+                throw new IllegalArgumentException("Invalid snapshot: bad subdivision count for property " + i);
+            }
+            int[] address = new int[2 + subdivisionCount];
+            address[0] = buffer.getInt(streets + 4 * i);
+            address[1] = buffer.getInt(avenues + 4 * i);
+            for (int j = 2; j < address.length; j++) {
+                address[j] = unzigzag(getVarint(subdivisions));
+            }
+            boolean sold = (buffer.getLong(soldBits + 8 * (i >>> 6)) & (1L << i)) != 0;
+            properties.add(new Property(address, buffer.getDouble(areas + 8 * i),
+                    buffer.getDouble(prices + 8 * i), sold));
+        }
+        if (subdivisions.hasRemaining()) {
+            throw new IllegalArgumentException("Invalid snapshot: unexpected data after subdivisions");
+        }
+
+        DuplicateAddressReport.resolve(properties, DuplicateAddressReport.Policy.FAIL_FAST);
+        return new PropertySnapshotFile(inventoryVersion, properties);
+    }
+
+    /**
+     * Gets the encoded size of the subdivisions of an address.
+     *
+     * @param coordinates The address coordinates
+     * @return The number of bytes used by the count and the subdivision values
+     */
+    private static int subdivisionsSize(int[] coordinates) {
+        int size = varintSize(coordinates.length - 2);
+        for (int i = 2; i < coordinates.length; i++) {
+            size += varintSize(zigzag(coordinates[i]));
+        }
+        return size;
+    }
+
+    /**
+     * Maps a signed value to an unsigned one so small negative values encode in few bytes.
+     *
+     * @param value The signed value
+     * @return The zigzag encoded value
+     */
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Reverses the zigzag encoding.
+     *
+     * @param value The zigzag encoded value
+     * @return The signed value
+     */
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Gets the number of bytes a value takes as an unsigned varint.
+     *
+     * @param value The value, treated as unsigned
+     * @return The encoded size, from 1 to 5 bytes
+     */
+    static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Writes a value as an unsigned varint, 7 bits per byte with the high bit marking continuation.
+     *
+     * @param buffer The buffer to write to
+     * @param value The value, treated as unsigned
+     */
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @param buffer The buffer to read from
+     * @return The decoded value
+     * @throws IllegalArgumentException if the varint is truncated or longer than 5 bytes
+     */
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARINT_SIZE; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Invalid snapshot: truncated subdivisions");
+            }
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid snapshot: malformed varint");
+    }
+
+    /**
+     * Buffered channel writer that keeps a running CRC32C of everything written.
+     */
+    private static final class ChecksumWriter {
+
+        /** The channel being written */
+        private final FileChannel channel;
+
+        /** The write buffer */
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+        /** Checksum of the bytes flushed so far */
+        private final CRC32C crc = new CRC32C();
+
+        /**
+         * Constructs a writer for a channel.
+         *
+         * @param channel The channel to write to
+         */
+        private ChecksumWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Returns the write buffer with room for at least the given number of bytes,
+         * flushing it first if needed.
+         *
+         * @param bytes The number of bytes about to be written (at most the buffer size)
+         * @return The write buffer
+         * @throws IOException if flushing fails
+         */
+        private ByteBuffer buffer(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        /**
+         * Writes the buffered bytes to the channel and adds them to the checksum.
+         *
+         * @throws IOException if writing fails
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Flushes the remaining bytes and appends the checksum trailer.
+         *
+         * @throws IOException if writing fails
+         */
+        private void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
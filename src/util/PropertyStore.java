@@ -0,0 +1,265 @@
+package src.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage of the properties managed by the SystemManager.
+ * Defines the operations the system needs from its property inventory,
+ * so different memory layouts can be used behind the same interface.
+ *
+ * Implementations:
+ * - IndexedPropertyStore: one Property object per property, with an address index
+ *   and a spatial grid index for radius searches
+ * - ColumnarPropertyStore: parallel primitive arrays per attribute, with Property
+ *   views created for callers on demand
+ * - StripedPropertyStore: lock stripes of inner stores, for concurrent use
+ *
+ * Each property is identified by its address; a store never holds two
+ * properties with the same address.
+ *
+ * @see src.util.IndexedPropertyStore
+ * @see src.util.ColumnarPropertyStore
+ * @see src.main.SystemManager
+ */
+public interface PropertyStore {
+
+    /**
+     * Predicate over the attribute values of a property.
+     * Stores test it on their own representation of the values,
+     * before deciding whether a property needs to be passed on.
+     */
+    @FunctionalInterface
+    interface ValueFilter {
+
+        /**
+         * Tests whether a property with the given values matches.
+         *
+         * @param area The area of the property in square meters
+         * @param pricePerSquareMeter The price per square meter in dollars
+         * @param sold The sale status of the property
+         * @return true if the property matches, false otherwise
+         */
+        boolean test(double area, double pricePerSquareMeter, boolean sold);
+    }
+
+    /**
+     * Receives the attribute values of properties visited by a scan.
+     */
+    @FunctionalInterface
+    interface ValueVisitor {
+
+        /**
+         * Visits the values of one property.
+         *
+         * @param area The area of the property in square meters
+         * @param pricePerSquareMeter The price per square meter in dollars
+         * @param sold The sale status of the property
+         */
+        void visit(double area, double pricePerSquareMeter, boolean sold);
+    }
+
+    /**
+     * Gets the property with the given address.
+     *
+     * @param key The address key
+     * @return The property, or null if no property has this address
+     */
+    Property get(AddressKey key);
+
+    /**
+     * Gets the property with the given address coordinates.
+     * The coordinates are wrapped into a key for the lookup only, without copying them.
+     *
+     * @param address The address coordinates
+     * @return The property, or null if no property has this address
+     * @throws IllegalArgumentException if address is null
+     */
+    default Property get(int[] address) {
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        return get(new AddressKey(address));
+    }
+
+    /**
+     * Adds a property, replacing any property with the same address.
+     * A replaced property keeps its position in the store's order.
+     *
+     * @param property The property to add
+     * @return The replaced property, or null if the address was not in use
+     */
+    Property put(Property property);
+
+    /**
+     * Removes the property with the given address.
+     *
+     * @param key The address key
+     * @return The removed property, or null if no property has this address
+     */
+    Property remove(AddressKey key);
+
+    /**
+     * Replaces the property at an address with an updated property,
+     * which may have a different address.
+     * If the address is unchanged the property keeps its position in the store's order.
+     *
+     * @param key The address key of the property to replace
+     * @param updatedProperty The new property data
+     * @return true if the property was found and replaced, false otherwise
+     * @throws IllegalArgumentException if the address is changed to one that already exists
+     */
+    default boolean replace(AddressKey key, Property updatedProperty) {
+        AddressKey newKey = updatedProperty.getAddressKey();
+        boolean addressChanged = !key.equals(newKey);
+        if (addressChanged && get(newKey) != null) {
+            throw new IllegalArgumentException("Cannot update: new address already exists");
+        }
+        if (addressChanged) {
+            if (remove(key) == null) {
+                return false;
+            }
+        } else if (get(key) == null) {
+            return false;
+        }
+        put(updatedProperty);
+        return true;
+    }
+
+    /**
+     * Runs an action on a property only if it is still the one stored under its address,
+     * with no replacement or removal of that address in between.
+     * Used for check-then-act operations on a single property, such as deals.
+     *
+     * @param key The address key of the property
+     * @param property The property the action works on
+     * @param action The action to run
+     * @return true if the action ran, false if the property was replaced or removed
+     */
+    default boolean runIfCurrent(AddressKey key, Property property, Runnable action) {
+        if (get(key) != property) {
+            return false;
+        }
+        action.run();
+        return true;
+    }
+
+    /**
+     * Gets the number of properties in the store.
+     *
+     * @return The number of properties
+     */
+    int size();
+
+    /**
+     * Returns all properties in the order they were added.
+     *
+     * @return A new list containing all properties
+     */
+    List<Property> toList();
+
+    /**
+     * Passes every property within a Manhattan distance radius that matches the filter to the action.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param radius The search radius in Manhattan distance units (non-negative)
+     * @param filter The filter properties must match, or null to pass all properties
+     * @param action The action to perform on each matching property
+     */
+    void forEachInRadius(int street, int avenue, int radius, ValueFilter filter, Consumer<Property> action);
+
+    /**
+     * Passes the values of every property within a Manhattan distance radius that matches
+     * the filter to the visitor, without creating or returning Property objects.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param radius The search radius in Manhattan distance units (non-negative)
+     * @param filter The filter properties must match, or null to visit all properties
+     * @param visitor The visitor receiving the values of each matching property
+     */
+    void visitValuesInRadius(int street, int avenue, int radius, ValueFilter filter, ValueVisitor visitor);
+
+    /**
+     * Passes the properties within a Manhattan distance radius that match the filter and
+     * lie on the first occupied street at or after fromStreet to the action.
+     * Calling it again from the returned street + 1 streams the radius one street at a time,
+     * so a caller only ever holds the matches of one street.
+     *
+     * The default implementation scans the whole radius on every call, keeping only the
+     * matches of the smallest street; stores with a spatial index visit the street directly.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param radius The search radius in Manhattan distance units (non-negative)
+     * @param fromStreet The smallest street to visit
+     * @param filter The filter properties must match, or null to pass all properties
+     * @param action The action to perform on each matching property of the visited street
+     * @return The visited street, or Long.MIN_VALUE if no street in the radius is left
+     */
+    default long forEachInRadiusOnNextStreet(int street, int avenue, int radius, long fromStreet,
+                                             ValueFilter filter, Consumer<Property> action) {
+        long[] nextStreet = {Long.MAX_VALUE};
+        List<Property> matches = new ArrayList<>();
+        forEachInRadius(street, avenue, radius, filter, property -> {
+            int propertyStreet = property.getAddressKey().getStreet();
+            if (propertyStreet < fromStreet || propertyStreet > nextStreet[0]) {
+                return;
+            }
+            if (propertyStreet < nextStreet[0]) {
+                nextStreet[0] = propertyStreet;
+                matches.clear();
+            }
+            matches.add(property);
+        });
+        if (matches.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        matches.forEach(action);
+        return nextStreet[0];
+    }
+
+    /**
+     * Counts the properties within a Manhattan distance radius and sums their total prices.
+     * The default implementation visits the values of every property in the radius;
+     * stores with an aggregate index answer without visiting them.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param radius The search radius in Manhattan distance units (non-negative)
+     * @return The count and total price of the properties in the radius
+     * @see src.util.RadiusAggregateIndex
+     */
+    default RadiusAggregate aggregateInRadius(int street, int avenue, int radius) {
+        long[] count = new long[1];
+        double[] sum = new double[1];
+        visitValuesInRadius(street, avenue, radius, null, (area, pricePerSquareMeter, sold) -> {
+            count[0]++;
+            sum[0] += area * pricePerSquareMeter;
+        });
+        return new RadiusAggregate(count[0], sum[0]);
+    }
+
+    /**
+     * Finds the properties closest to a center point by Manhattan distance.
+     * The default implementation keeps the closest matching properties of the radius
+     * in a bounded heap; stores with a spatial index walk outwards from the center
+     * and stop as soon as enough properties are found.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param count The maximum number of properties to return (non-negative)
+     * @param maxDistance The largest distance searched (non-negative)
+     * @param filter The filter properties must match, or null to include all properties
+     * @return A new list of at most count properties, closest first
+     */
+    default List<Property> findNearest(int street, int avenue, int count, int maxDistance, ValueFilter filter) {
+        NearestPropertyCollector collector = new NearestPropertyCollector(street, avenue, count);
+        if (count > 0) {
+            forEachInRadius(street, avenue, maxDistance, filter, collector::offer);
+        }
+        return collector.toList();
+    }
+}
@@ -0,0 +1,74 @@
+package src.util;
+
+/**
+ * Count and total price of the properties within a radius.
+ * Returned by radius aggregations, which compute these values without
+ * creating a list of the properties.
+ *
+ * @see src.util.PropertyStore#aggregateInRadius(int, int, int)
+ * @see src.util.RadiusAggregateIndex
+ */
+public final class RadiusAggregate {
+
+    /** Aggregate of a radius with no properties */
+    public static final RadiusAggregate EMPTY = new RadiusAggregate(0, 0);
+
+    /** Number of properties in the radius */
+    private final long count;
+
+    /** Sum of the total prices of the properties in the radius */
+    private final double sum;
+
+    /**
+     * Constructs an aggregate.
+     *
+     * @param count The number of properties
+     * @param sum The sum of their total prices
+     */
+    public RadiusAggregate(long count, double sum) {
+        this.count = count;
+        this.sum = sum;
+    }
+
+    /**
+     * Gets the number of properties in the radius.
+     *
+     * @return The number of properties
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the total prices of the properties in the radius.
+     *
+     * @return The sum of total prices
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Gets the average total price of the properties in the radius.
+     *
+     * @return The average price, or 0.0 if there are no properties
+     */
+    public double getAverage() {
+        return count == 0 ? 0.0 : sum / count;
+    }
+
+    /**
+     * Combines this aggregate with the aggregate of a disjoint set of properties.
+     *
+     * @param other The other aggregate
+     * @return The aggregate of both sets
+     */
+    public RadiusAggregate plus(RadiusAggregate other) {
+        return new RadiusAggregate(count + other.count, sum + other.sum);
+    }
+
+    @Override
+    public String toString() {
+        return "count: " + count + " sum: " + sum + " average: " + getAverage();
+    }
+}
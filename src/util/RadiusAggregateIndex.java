@@ -0,0 +1,299 @@
+package src.util;
+
+/**
+ * Index answering the count, total price and average price of the properties
+ * within a Manhattan distance radius in constant time, without visiting them.
+ *
+ * A Manhattan distance diamond around (street, avenue) becomes an axis-aligned
+ * square in the rotated coordinates u = street + avenue and v = street - avenue:
+ * |ds| + |da| &lt;= r exactly when |du| &lt;= r and |dv| &lt;= r.
+ * The index keeps two-dimensional prefix sums of the property count and of the
+ * total prices over the rotated grid, so the sum over any square takes four
+ * table reads, whatever the radius and the number of properties in it.
+ *
+ * Additions and removals are not written into the tables, which would cost a
+ * full pass over them. They are kept in a short list of pending changes that
+ * queries apply on top of the table lookup. Once the list is full the tables
+ * are dropped, and the owning store rebuilds them from its properties before
+ * the next query. The list holds at most about the square root of the table
+ * size, so queries stay cheap and rebuilds are spread over many changes.
+ *
+ * The aggregates cover all properties regardless of their sale status, like
+ * the average price search. Sales only change the status of a property, so they
+ * leave the index unchanged; edits and deletions go through the owning store,
+ * which reports them with add and remove.
+ *
+ * Tables are only built for inventories whose rotated bounding box fits in
+ * MIN_CELLS cells, or in CELLS_PER_PROPERTY cells per property up to MAX_CELLS,
+ * so the tables never take much more memory than the properties themselves.
+ * For sparser coordinates, as while the tables wait to be rebuilt, aggregate
+ * returns null and the store falls back to scanning the radius. While the
+ * inventory is too sparse, changes are only counted, and the bounding box is
+ * checked again once as many changes as properties have been made, so the
+ * rebuild pass costs a constant amount per change.
+ *
+ * All methods are synchronized, so a store shared by several writers can
+ * report its changes from any thread.
+ *
+ * @see src.util.RadiusAggregate
+ * @see src.util.IndexedPropertyStore
+ * @see src.util.StripedPropertyStore
+ */
+public class RadiusAggregateIndex {
+
+    /** Largest number of table cells the index allocates, about 48 MB of tables */
+    private static final long MAX_CELLS = 1L << 22;
+
+    /** Number of table cells allowed however few properties there are */
+    private static final long MIN_CELLS = 1L << 16;
+
+    /** Number of table cells allowed per property, between MIN_CELLS and MAX_CELLS */
+    private static final long CELLS_PER_PROPERTY = 64;
+
+    /** Minimum number of pending changes kept before the tables are rebuilt */
+    private static final int MIN_PENDING_CHANGES = 256;
+
+    /** Whether the tables reflect the store, apart from the pending changes */
+    private boolean built;
+
+    /** Whether the tables exist; false if the bounding box was too large */
+    private boolean covered;
+
+    /** Smallest rotated u coordinate in the tables */
+    private long uMin;
+
+    /** Smallest rotated v coordinate in the tables */
+    private long vMin;
+
+    /** Number of u coordinates in the tables */
+    private int width;
+
+    /** Number of v coordinates in the tables */
+    private int height;
+
+    /** Prefix sums of the property count, (width + 1) x (height + 1), row-major by u */
+    private int[] countPrefix;
+
+    /** Prefix sums of the total prices, laid out like countPrefix */
+    private double[] sumPrefix;
+
+    /** Rotated u coordinate of each pending change */
+    private long[] pendingU;
+
+    /** Rotated v coordinate of each pending change */
+    private long[] pendingV;
+
+    /** Count change of each pending change: 1 for an addition, -1 for a removal */
+    private int[] pendingCount;
+
+    /** Price change of each pending change */
+    private double[] pendingSum;
+
+    /** Number of pending changes */
+    private int pendingSize;
+
+    /** Number of pending changes after which the tables are rebuilt */
+    private int pendingLimit;
+
+    /** Number of changes after which an inventory too sparse for the tables is checked again */
+    private long uncoveredChangesLeft;
+
+    /**
+     * Constructs an index that is built on the first query.
+     */
+    public RadiusAggregateIndex() {
+        this.pendingLimit = MIN_PENDING_CHANGES;
+    }
+
+    /**
+     * Records that a property was added to the store.
+     *
+     * @param property The added property
+     */
+    public synchronized void add(Property property) {
+        record(property, 1);
+    }
+
+    /**
+     * Records that a property was removed from the store.
+     *
+     * @param property The removed property
+     */
+    public synchronized void remove(Property property) {
+        record(property, -1);
+    }
+
+    /**
+     * Checks whether the tables must be rebuilt before the next query.
+     *
+     * @return true if rebuild must be called before aggregate
+     */
+    public synchronized boolean needsRebuild() {
+        return !built;
+    }
+
+    /**
+     * Rebuilds the tables from all properties of the store and clears the pending changes.
+     * The store must not change while this runs.
+     *
+     * @param properties All properties of the store
+     */
+    public synchronized void rebuild(Iterable<Property> properties) {
+        long minU = Long.MAX_VALUE;
+        long maxU = Long.MIN_VALUE;
+        long minV = Long.MAX_VALUE;
+        long maxV = Long.MIN_VALUE;
+        long count = 0;
+        for (Property property : properties) {
+            AddressKey key = property.getAddressKey();
+            long u = rotatedU(key);
+            long v = rotatedV(key);
+            minU = Math.min(minU, u);
+            maxU = Math.max(maxU, u);
+            minV = Math.min(minV, v);
+            maxV = Math.max(maxV, v);
+            count++;
+        }
+
+        // Each span is checked before multiplying, so the product cannot overflow
+        long uSpan = count == 0 ? 0 : maxU - minU + 2;
+        long vSpan = count == 0 ? 0 : maxV - minV + 2;
+        countPrefix = null;
+        sumPrefix = null;
+        long maxCells = Math.min(MAX_CELLS, Math.max(MIN_CELLS, CELLS_PER_PROPERTY * count));
+        covered = uSpan <= maxCells && vSpan <= maxCells && uSpan * vSpan <= maxCells;
+        long cells = covered ? uSpan * vSpan : 0;
+        if (covered && count > 0) {
+            uMin = minU;
+            vMin = minV;
+            width = (int) (maxU - minU + 1);
+            height = (int) (maxV - minV + 1);
+            countPrefix = new int[(int) cells];
+            sumPrefix = new double[(int) cells];
+            int stride = height + 1;
+            for (Property property : properties) {
+                AddressKey key = property.getAddressKey();
+                int cell = (int) (rotatedU(key) - uMin + 1) * stride + (int) (rotatedV(key) - vMin + 1);
+                countPrefix[cell]++;
+                sumPrefix[cell] += property.getTotalPrice();
+            }
+            for (int i = 1; i <= width; i++) {
+                for (int j = 1; j <= height; j++) {
+                    int cell = i * stride + j;
+                    countPrefix[cell] += countPrefix[cell - stride] + countPrefix[cell - 1] - countPrefix[cell - stride - 1];
+                    sumPrefix[cell] += sumPrefix[cell - stride] + sumPrefix[cell - 1] - sumPrefix[cell - stride - 1];
+                }
+            }
+        } else {
+            width = 0;
+            height = 0;
+        }
+
+        pendingSize = 0;
+        pendingLimit = Math.max(MIN_PENDING_CHANGES, (int) Math.sqrt((double) count + cells));
+        uncoveredChangesLeft = Math.max(MIN_PENDING_CHANGES, count);
+        built = true;
+    }
+
+    /**
+     * Computes the count and total price of the properties within a radius.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param radius The search radius in Manhattan distance units (non-negative)
+     * @return The aggregate, or null if the tables must be rebuilt first
+     *         or the inventory is too sparse for them
+     */
+    public synchronized RadiusAggregate aggregate(int street, int avenue, int radius) {
+        if (!built || !covered) {
+            return null;
+        }
+        long u = (long) street + avenue;
+        long v = (long) street - avenue;
+
+        long count = 0;
+        double sum = 0;
+        if (width > 0) {
+            // Clip the rotated square to the tables, as table indexes from 0 to width/height
+            long fromU = Math.max(u - radius - uMin, 0);
+            long toU = Math.min(u + radius - uMin + 1, width);
+            long fromV = Math.max(v - radius - vMin, 0);
+            long toV = Math.min(v + radius - vMin + 1, height);
+            if (fromU < toU && fromV < toV) {
+                int stride = height + 1;
+                int lowLow = (int) fromU * stride + (int) fromV;
+                int lowHigh = (int) fromU * stride + (int) toV;
+                int highLow = (int) toU * stride + (int) fromV;
+                int highHigh = (int) toU * stride + (int) toV;
+                count = countPrefix[highHigh] - countPrefix[lowHigh] - countPrefix[highLow] + countPrefix[lowLow];
+                sum = sumPrefix[highHigh] - sumPrefix[lowHigh] - sumPrefix[highLow] + sumPrefix[lowLow];
+            }
+        }
+        for (int i = 0; i < pendingSize; i++) {
+            if (Math.abs(pendingU[i] - u) <= radius && Math.abs(pendingV[i] - v) <= radius) {
+                count += pendingCount[i];
+                sum += pendingSum[i];
+            }
+        }
+        return count == 0 ? RadiusAggregate.EMPTY : new RadiusAggregate(count, sum);
+    }
+
+    /**
+     * Records a change as pending, or drops the tables if too many changes are pending.
+     * Without tables, only counts the change until the bounding box must be checked again.
+     *
+     * @param property The added or removed property
+     * @param countChange 1 for an addition, -1 for a removal
+     */
+    private void record(Property property, int countChange) {
+        if (!built) {
+            // The next rebuild reads the store, which already includes this change
+            return;
+        }
+        if (!covered) {
+            if (--uncoveredChangesLeft == 0) {
+                built = false;
+            }
+            return;
+        }
+        if (pendingSize == pendingLimit) {
+            built = false;
+            countPrefix = null;
+            sumPrefix = null;
+            pendingSize = 0;
+            return;
+        }
+        if (pendingU == null || pendingU.length < pendingLimit) {
+            pendingU = new long[pendingLimit];
+            pendingV = new long[pendingLimit];
+            pendingCount = new int[pendingLimit];
+            pendingSum = new double[pendingLimit];
+        }
+        AddressKey key = property.getAddressKey();
+        pendingU[pendingSize] = rotatedU(key);
+        pendingV[pendingSize] = rotatedV(key);
+        pendingCount[pendingSize] = countChange;
+        pendingSum[pendingSize] = countChange * property.getTotalPrice();
+        pendingSize++;
+    }
+
+    /**
+     * Gets the rotated u coordinate (street + avenue) of an address.
+     *
+     * @param key The address key
+     * @return The u coordinate
+     */
+    private static long rotatedU(AddressKey key) {
+        return (long) key.getStreet() + key.getAvenue();
+    }
+
+    /**
+     * Gets the rotated v coordinate (street - avenue) of an address.
+     *
+     * @param key The address key
+     * @return The v coordinate
+     */
+    private static long rotatedV(AddressKey key) {
+        return (long) key.getStreet() - key.getAvenue();
+    }
+}
@@ -2,7 +2,6 @@ package src.util;
 
 import src.main.SystemManager;
 
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -13,10 +12,16 @@ import java.util.List;
  * - Calculate Manhattan distance between two addresses
  * - Filter properties within a specified radius from a center point
  * 
+ * Radius filtering is answered by the SystemManager's property store. With the
+ * default layout this uses a spatial index, so only the grid cells inside
+ * the radius are visited. Each radius scan is reported to Flight Recorder as
+ * a RadiusScanEvent.
+ * 
  * Manhattan distance is calculated as the sum of absolute differences of coordinates,
  * which represents the actual walking distance in a grid-based city layout.
  * 
  * @see src.util.Property
+ * @see src.util.SpatialGridIndex
  * @see src.main.SystemManager
  */
 public class RadiusCalculator {
@@ -30,18 +35,16 @@ public class RadiusCalculator {
      * @param address2 The second address coordinates
      * @return The Manhattan distance between the two addresses
      */
-    private static int calculateManhattanDistance(int[] address1, int[] address2) {
+    public static int calculateManhattanDistance(int[] address1, int[] address2) {
         return (Math.abs(address1[0] - address2[0]) + Math.abs(address1[1] - address2[1]));
     }
     
     /**
      * Filters and returns properties within a specified radius from a center address.
      * 
-     * This method:
-     * 1. Gets all properties from the SystemManager
-     * 2. Calculates Manhattan distance for each property from the center
-     * 3. Removes properties that are outside the specified radius
-     * 4. Returns the filtered list
+     * With the default storage layout only the occupied grid cells whose Manhattan
+     * distance from the center is within the radius are visited, so the cost depends
+     * on the number of properties found rather than on the size of the inventory.
      * 
      * @param centerAddress The center point coordinates (must have at least 2 elements)
      * @param radius The search radius in Manhattan distance units (must be non-negative)
@@ -57,19 +60,17 @@ public class RadiusCalculator {
             throw new IllegalArgumentException("Radius cannot be negative");
         }
 
-        // Get copy of all properties
-        List<Property> propertiesInRadius = SystemManager.getInstance().getAllProperties();
-        
-        // Use Iterator to safely remove elements while iterating
-        Iterator<Property> iterator = propertiesInRadius.iterator();
-        while (iterator.hasNext()) {
-            Property property = iterator.next();
-            int distance = calculateManhattanDistance(centerAddress, property.getAddress());
-            if (distance > radius) {
-                iterator.remove();
-            }
+        RadiusScanEvent event = new RadiusScanEvent();
+        event.begin();
+        List<Property> result = SystemManager.getInstance().findPropertiesInRadius(centerAddress, radius);
+        event.end();
+        if (event.shouldCommit()) {
+            event.street = centerAddress[0];
+            event.avenue = centerAddress[1];
+            event.radius = radius;
+            event.resultCount = result.size();
+            event.commit();
         }
-
-        return propertiesInRadius;
+        return result;
     }
 } 
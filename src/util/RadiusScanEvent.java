@@ -0,0 +1,40 @@
+package src.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a radius scan made by RadiusCalculator.
+ *
+ * Radius scans are frequent, so the event records no stack trace. Its fields
+ * are only filled in when Flight Recorder keeps the event.
+ *
+ * @see src.util.RadiusCalculator#getPropertiesInRadius(int[], int)
+ */
+@Name("src.RadiusScan")
+@Label("Radius Scan")
+@Category({"Real Estate", "Search"})
+@Description("Collection of the properties within a radius")
+@StackTrace(false)
+class RadiusScanEvent extends Event {
+
+    @Label("Street")
+    @Description("Street of the center address")
+    int street;
+
+    @Label("Avenue")
+    @Description("Avenue of the center address")
+    int avenue;
+
+    @Label("Radius")
+    @Description("Search radius in Manhattan distance units")
+    int radius;
+
+    @Label("Result Count")
+    @Description("Number of properties within the radius")
+    int resultCount;
+}
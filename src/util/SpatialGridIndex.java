@@ -0,0 +1,259 @@
+package src.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Spatial index of properties bucketed by their (street, avenue) cell
+ * on Manhattan's grid system.
+ *
+ * Cells are kept in a sorted map of streets, each holding a sorted map of avenues,
+ * so a radius query only visits the occupied cells inside the Manhattan distance
+ * diamond around the center instead of every property in the system:
+ * - For each occupied street within [street - radius, street + radius]
+ * - Visit the occupied avenues within the remaining distance on that street
+ *
+ * Properties that share a cell (subdivided apartments) are kept in the order
+ * they were added.
+ *
+ * Nearest-neighbor queries walk the same cells ring by ring, from the center
+ * outwards, and stop as soon as enough properties have been found, so their cost
+ * depends on the number of properties requested rather than on the inventory size.
+ *
+ * The index is not thread-safe; it is maintained by the IndexedPropertyStore
+ * whenever properties are loaded, edited or deleted.
+ *
+ * @see src.util.Property
+ * @see src.util.RadiusCalculator
+ * @see src.util.IndexedPropertyStore
+ */
+public class SpatialGridIndex {
+
+    /** Occupied cells: street -> avenue -> properties in that cell */
+    private final NavigableMap<Integer, NavigableMap<Integer, List<Property>>> cells;
+
+    /** Number of properties on each occupied avenue, used to bound nearest-neighbor searches */
+    private final NavigableMap<Integer, Integer> avenueCounts;
+
+    /** Number of properties in the index */
+    private int size;
+
+    /**
+     * Constructs an empty spatial index.
+     */
+    public SpatialGridIndex() {
+        this.cells = new TreeMap<>();
+        this.avenueCounts = new TreeMap<>();
+    }
+
+    /**
+     * Adds a property to the cell of its street and avenue.
+     *
+     * @param property The property to add
+     */
+    public void add(Property property) {
+        AddressKey key = property.getAddressKey();
+        cells.computeIfAbsent(key.getStreet(), street -> new TreeMap<>())
+             .computeIfAbsent(key.getAvenue(), avenue -> new ArrayList<>(1))
+             .add(property);
+        avenueCounts.merge(key.getAvenue(), 1, Integer::sum);
+        size++;
+    }
+
+    /**
+     * Removes a property from its cell.
+     * Empty cells and streets are dropped from the index.
+     *
+     * @param property The property to remove
+     * @return true if the property was in the index, false otherwise
+     */
+    public boolean remove(Property property) {
+        AddressKey key = property.getAddressKey();
+        NavigableMap<Integer, List<Property>> avenues = cells.get(key.getStreet());
+        if (avenues == null) {
+            return false;
+        }
+        List<Property> cell = avenues.get(key.getAvenue());
+        if (cell == null) {
+            return false;
+        }
+        for (int i = 0; i < cell.size(); i++) {
+            if (cell.get(i) == property) {
+                cell.remove(i);
+                avenueCounts.computeIfPresent(key.getAvenue(), (avenue, count) -> count == 1 ? null : count - 1);
+                size--;
+                if (cell.isEmpty()) {
+                    avenues.remove(key.getAvenue());
+                    if (avenues.isEmpty()) {
+                        cells.remove(key.getStreet());
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes every property within the given Manhattan distance of the center to the action.
+     * Only occupied cells inside the distance diamond are visited.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param radius The search radius in Manhattan distance units (non-negative)
+     * @param action The action to perform on each property in the radius
+     */
+    public void forEachInRadius(int street, int avenue, int radius, Consumer<Property> action) {
+        long fromStreet = (long) street - radius;
+        long toStreet = (long) street + radius;
+        for (Map.Entry<Integer, NavigableMap<Integer, List<Property>>> row
+                : cells.subMap(clamp(fromStreet), true, clamp(toStreet), true).entrySet()) {
+            // Distance left for the avenue after walking to this street
+            long remaining = radius - Math.abs((long) row.getKey() - street);
+            for (List<Property> cell
+                    : row.getValue().subMap(clamp(avenue - remaining), true, clamp(avenue + remaining), true).values()) {
+                for (Property property : cell) {
+                    action.accept(property);
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes the properties within the given Manhattan distance of the center that lie
+     * on the first occupied street at or after fromStreet to the action.
+     * Used to stream a radius one street at a time, without holding an iterator
+     * over the index between streets.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param radius The search radius in Manhattan distance units (non-negative)
+     * @param fromStreet The smallest street to visit
+     * @param action The action to perform on each property of the visited street
+     * @return The visited street, or Long.MIN_VALUE if no occupied street in the radius is left
+     */
+    public long forEachInRadiusOnNextStreet(int street, int avenue, int radius, long fromStreet,
+                                            Consumer<Property> action) {
+        long from = Math.max(fromStreet, (long) street - radius);
+        long to = (long) street + radius;
+        if (from > to || from > Integer.MAX_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        Map.Entry<Integer, NavigableMap<Integer, List<Property>>> row = cells.ceilingEntry(clamp(from));
+        if (row == null || row.getKey() > to) {
+            return Long.MIN_VALUE;
+        }
+        long remaining = radius - Math.abs((long) row.getKey() - street);
+        for (List<Property> cell
+                : row.getValue().subMap(clamp(avenue - remaining), true, clamp(avenue + remaining), true).values()) {
+            for (Property property : cell) {
+                action.accept(property);
+            }
+        }
+        return row.getKey();
+    }
+
+    /**
+     * Returns all properties within the given Manhattan distance of the center.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param radius The search radius in Manhattan distance units (non-negative)
+     * @return A new list of the properties in the radius
+     */
+    public List<Property> getPropertiesInRadius(int street, int avenue, int radius) {
+        List<Property> result = new ArrayList<>();
+        forEachInRadius(street, avenue, radius, result::add);
+        return result;
+    }
+
+    /**
+     * Finds the properties closest to the center by Manhattan distance.
+     *
+     * Rings of cells at distance 0, 1, 2... from the center are visited in turn.
+     * All properties on a ring are at the same distance, so once the requested
+     * number of properties is reached no later ring can hold a closer one and the
+     * search stops. Properties at the same distance are returned by street, then avenue.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param count The maximum number of properties to return (non-negative)
+     * @param maxDistance The largest distance searched (non-negative)
+     * @param filter The filter properties must match, or null to include all properties
+     * @return A new list of at most count properties, closest first
+     */
+    public List<Property> findNearest(int street, int avenue, int count, int maxDistance, Predicate<Property> filter) {
+        List<Property> result = new ArrayList<>(Math.min(count, 64));
+        if (count == 0 || cells.isEmpty()) {
+            return result;
+        }
+        // Beyond this distance from the center there are no occupied cells
+        long reach = Math.max(Math.abs((long) street - cells.firstKey()), Math.abs((long) street - cells.lastKey()))
+                + Math.max(Math.abs((long) avenue - avenueCounts.firstKey()), Math.abs((long) avenue - avenueCounts.lastKey()));
+        long lastRing = Math.min(maxDistance, reach);
+        for (long distance = 0; distance <= lastRing; distance++) {
+            for (Map.Entry<Integer, NavigableMap<Integer, List<Property>>> row
+                    : cells.subMap(clamp(street - distance), true, clamp(street + distance), true).entrySet()) {
+                long remaining = distance - Math.abs((long) row.getKey() - street);
+                if (collect(row.getValue(), avenue - remaining, count, filter, result)
+                        || (remaining > 0 && collect(row.getValue(), avenue + remaining, count, filter, result))) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the matching properties of one cell to a nearest-neighbor result.
+     *
+     * @param row The occupied avenues of a street
+     * @param avenue The avenue of the cell
+     * @param count The maximum size of the result
+     * @param filter The filter properties must match, or null to include all properties
+     * @param result The result being built
+     * @return true if the result is full
+     */
+    private static boolean collect(NavigableMap<Integer, List<Property>> row, long avenue, int count,
+                                   Predicate<Property> filter, List<Property> result) {
+        if (avenue < Integer.MIN_VALUE || avenue > Integer.MAX_VALUE) {
+            return false;
+        }
+        List<Property> cell = row.get((int) avenue);
+        if (cell != null) {
+            for (Property property : cell) {
+                if (filter == null || filter.test(property)) {
+                    result.add(property);
+                    if (result.size() == count) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of properties in the index.
+     *
+     * @return The number of indexed properties
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Clamps a coordinate bound to the int range so large radii do not overflow.
+     *
+     * @param value The bound to clamp
+     * @return The bound limited to the int range
+     */
+    private static int clamp(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+}
@@ -0,0 +1,483 @@
+package src.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe property store that partitions properties into lock stripes
+ * by neighborhood block.
+ *
+ * The grid is divided into square blocks of 16 streets by 16 avenues,
+ * and each block is assigned to one stripe. Every stripe holds its own inner store,
+ * guarded by its own read/write lock:
+ * - Lookups and radius searches take the read locks of the stripes they touch,
+ *   so any number of readers run in parallel
+ * - Edits and deletions take only the write lock of the affected stripe,
+ *   so writers in different neighborhoods do not block each other
+ *
+ * When an operation needs several stripes (a radius search, or an edit that moves
+ * a property to another block), the locks are always acquired in ascending stripe
+ * order to avoid deadlocks.
+ *
+ * Actions passed to radius searches run while the read locks are held;
+ * they may read from the store but must not modify it.
+ *
+ * Radius counts and average prices are answered by one aggregate index shared by
+ * all stripes, which writers update while holding their stripe's write lock.
+ * The inner stores do not need an aggregate index of their own, so they are best
+ * created with IndexedPropertyStore::withoutAggregateIndex.
+ *
+ * Each property is given an insertion sequence number when its address is added,
+ * so toList returns the properties in the order they were added, like the other stores.
+ *
+ * @see src.util.PropertyStore
+ * @see src.util.RadiusAggregateIndex
+ * @see src.main.SystemManager
+ */
+public class StripedPropertyStore implements PropertyStore {
+
+    /** Number of bits used to map a coordinate to its block (blocks of 16 x 16) */
+    private static final int BLOCK_SHIFT = 4;
+
+    /** The inner store of each stripe */
+    private final PropertyStore[] stripes;
+
+    /** The lock guarding each stripe */
+    private final ReentrantReadWriteLock[] locks;
+
+    /** Insertion sequence number of each address of each stripe, guarded by the stripe's lock */
+    private final Map<AddressKey, Long>[] sequences;
+
+    /** The last insertion sequence number given */
+    private final AtomicLong lastSequence;
+
+    /** Prefix-sum index of counts and prices of all stripes, used for radius aggregates */
+    private final RadiusAggregateIndex aggregateIndex;
+
+    /**
+     * Constructs a striped store.
+     *
+     * @param stripeCount The number of lock stripes (must be positive)
+     * @param storeFactory Creates the inner store of each stripe
+     * @throws IllegalArgumentException if stripeCount is not positive or storeFactory is null
+     */
+    @SuppressWarnings("unchecked")
+    public StripedPropertyStore(int stripeCount, Supplier<PropertyStore> storeFactory) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        if (storeFactory == null) {
+            throw new IllegalArgumentException("Store factory cannot be null");
+        }
+        this.stripes = new PropertyStore[stripeCount];
+        this.locks = new ReentrantReadWriteLock[stripeCount];
+        this.sequences = new Map[stripeCount];
+        this.lastSequence = new AtomicLong();
+        this.aggregateIndex = new RadiusAggregateIndex();
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = storeFactory.get();
+            locks[i] = new ReentrantReadWriteLock();
+            sequences[i] = new HashMap<>();
+        }
+    }
+
+    /**
+     * Gets the number of lock stripes.
+     *
+     * @return The stripe count
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    @Override
+    public Property get(AddressKey key) {
+        int stripe = stripeOf(key);
+        locks[stripe].readLock().lock();
+        try {
+            return stripes[stripe].get(key);
+        } finally {
+            locks[stripe].readLock().unlock();
+        }
+    }
+
+    @Override
+    public Property put(Property property) {
+        int stripe = stripeOf(property.getAddressKey());
+        locks[stripe].writeLock().lock();
+        try {
+            Property replaced = stripes[stripe].put(property);
+            if (replaced != null) {
+                aggregateIndex.remove(replaced);
+            } else {
+                sequences[stripe].put(property.getAddressKey(), lastSequence.incrementAndGet());
+            }
+            aggregateIndex.add(property);
+            return replaced;
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Property remove(AddressKey key) {
+        int stripe = stripeOf(key);
+        locks[stripe].writeLock().lock();
+        try {
+            Property removed = stripes[stripe].remove(key);
+            if (removed != null) {
+                sequences[stripe].remove(key);
+                aggregateIndex.remove(removed);
+            }
+            return removed;
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the action while holding the write lock of the stripe of the address,
+     * so the property cannot be replaced or removed between the check and the action.
+     */
+    @Override
+    public boolean runIfCurrent(AddressKey key, Property property, Runnable action) {
+        int stripe = stripeOf(key);
+        locks[stripe].writeLock().lock();
+        try {
+            if (stripes[stripe].get(key) != property) {
+                return false;
+            }
+            action.run();
+            return true;
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a property atomically, holding the write locks of both the old
+     * and the new address for the whole check-and-replace.
+     */
+    @Override
+    public boolean replace(AddressKey key, Property updatedProperty) {
+        int oldStripe = stripeOf(key);
+        int newStripe = stripeOf(updatedProperty.getAddressKey());
+        int first = Math.min(oldStripe, newStripe);
+        int second = Math.max(oldStripe, newStripe);
+        locks[first].writeLock().lock();
+        locks[second].writeLock().lock();
+        try {
+            AddressKey newKey = updatedProperty.getAddressKey();
+            boolean addressChanged = !key.equals(newKey);
+            if (addressChanged && stripes[newStripe].get(newKey) != null) {
+                throw new IllegalArgumentException("Cannot update: new address already exists");
+            }
+            Property replaced = addressChanged ? stripes[oldStripe].remove(key) : stripes[oldStripe].get(key);
+            if (replaced == null) {
+                return false;
+            }
+            stripes[newStripe].put(updatedProperty);
+            if (addressChanged) {
+                // Like the other stores, a moved property goes to the end of the order
+                sequences[oldStripe].remove(key);
+                sequences[newStripe].put(newKey, lastSequence.incrementAndGet());
+            }
+            aggregateIndex.remove(replaced);
+            aggregateIndex.add(updatedProperty);
+            return true;
+        } finally {
+            locks[second].writeLock().unlock();
+            locks[first].writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            locks[stripe].readLock().lock();
+            try {
+                size += stripes[stripe].size();
+            } finally {
+                locks[stripe].readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns all properties in the order they were added, merging the stripes,
+     * each already in that order, by insertion sequence number.
+     * All read locks are held while the list is built, so it reflects a single point in time.
+     */
+    @Override
+    public List<Property> toList() {
+        lockAllForReading();
+        try {
+            List<List<Property>> lists = new ArrayList<>(stripes.length);
+            int size = 0;
+            for (PropertyStore stripe : stripes) {
+                List<Property> list = stripe.toList();
+                lists.add(list);
+                size += list.size();
+            }
+            int[] positions = new int[stripes.length];
+            long[] heads = new long[stripes.length];
+            PriorityQueue<Integer> queue = new PriorityQueue<>(Comparator.comparingLong(stripe -> heads[stripe]));
+            for (int stripe = 0; stripe < stripes.length; stripe++) {
+                if (!lists.get(stripe).isEmpty()) {
+                    heads[stripe] = sequenceOf(stripe, lists.get(stripe).get(0));
+                    queue.add(stripe);
+                }
+            }
+            List<Property> result = new ArrayList<>(size);
+            while (!queue.isEmpty()) {
+                int stripe = queue.poll();
+                List<Property> list = lists.get(stripe);
+                result.add(list.get(positions[stripe]++));
+                if (positions[stripe] < list.size()) {
+                    heads[stripe] = sequenceOf(stripe, list.get(positions[stripe]));
+                    queue.add(stripe);
+                }
+            }
+            return result;
+        } finally {
+            unlockAllForReading();
+        }
+    }
+
+    /**
+     * Gets the insertion sequence number of a property of a stripe.
+     * The read lock of the stripe must be held.
+     *
+     * @param stripe The stripe index
+     * @param property A property of the stripe
+     * @return The sequence number
+     */
+    private long sequenceOf(int stripe, Property property) {
+        return sequences[stripe].get(property.getAddressKey());
+    }
+
+    @Override
+    public void forEachInRadius(int street, int avenue, int radius, ValueFilter filter, Consumer<Property> action) {
+        boolean[] touched = stripesInRadius(street, avenue, radius);
+        lockForReading(touched);
+        try {
+            for (int stripe = 0; stripe < stripes.length; stripe++) {
+                if (touched[stripe]) {
+                    stripes[stripe].forEachInRadius(street, avenue, radius, filter, action);
+                }
+            }
+        } finally {
+            unlockForReading(touched);
+        }
+    }
+
+    @Override
+    public void visitValuesInRadius(int street, int avenue, int radius, ValueFilter filter, ValueVisitor visitor) {
+        boolean[] touched = stripesInRadius(street, avenue, radius);
+        lockForReading(touched);
+        try {
+            for (int stripe = 0; stripe < stripes.length; stripe++) {
+                if (touched[stripe]) {
+                    stripes[stripe].visitValuesInRadius(street, avenue, radius, filter, visitor);
+                }
+            }
+        } finally {
+            unlockForReading(touched);
+        }
+    }
+
+    /**
+     * Finds the next street across the stripes, then visits it in every stripe holding it.
+     * The read locks are only held for the duration of the call.
+     */
+    @Override
+    public long forEachInRadiusOnNextStreet(int street, int avenue, int radius, long fromStreet,
+                                            ValueFilter filter, Consumer<Property> action) {
+        boolean[] touched = stripesInRadius(street, avenue, radius);
+        lockForReading(touched);
+        try {
+            long[] nextStreets = new long[stripes.length];
+            long next = Long.MAX_VALUE;
+            for (int stripe = 0; stripe < stripes.length; stripe++) {
+                nextStreets[stripe] = Long.MIN_VALUE;
+                if (touched[stripe]) {
+                    nextStreets[stripe] = stripes[stripe].forEachInRadiusOnNextStreet(
+                            street, avenue, radius, fromStreet, filter, property -> { });
+                    if (nextStreets[stripe] != Long.MIN_VALUE) {
+                        next = Math.min(next, nextStreets[stripe]);
+                    }
+                }
+            }
+            if (next == Long.MAX_VALUE) {
+                return Long.MIN_VALUE;
+            }
+            for (int stripe = 0; stripe < stripes.length; stripe++) {
+                if (nextStreets[stripe] == next) {
+                    stripes[stripe].forEachInRadiusOnNextStreet(street, avenue, radius, next, filter, action);
+                }
+            }
+            return next;
+        } finally {
+            unlockForReading(touched);
+        }
+    }
+
+    /**
+     * Merges the nearest properties of each stripe in a bounded heap. Once k properties
+     * have been found, the following stripes only search up to the k-th distance.
+     * Properties at the same distance are ordered by stripe.
+     */
+    @Override
+    public List<Property> findNearest(int street, int avenue, int count, int maxDistance, ValueFilter filter) {
+        NearestPropertyCollector collector = new NearestPropertyCollector(street, avenue, count);
+        boolean[] touched = stripesInRadius(street, avenue, maxDistance);
+        lockForReading(touched);
+        try {
+            for (int stripe = 0; stripe < stripes.length; stripe++) {
+                int bound = collector.distanceBound(maxDistance);
+                if (bound < 0) {
+                    break;
+                }
+                if (touched[stripe]) {
+                    for (Property property : stripes[stripe].findNearest(street, avenue, count, bound, filter)) {
+                        collector.offer(property);
+                    }
+                }
+            }
+        } finally {
+            unlockForReading(touched);
+        }
+        return collector.toList();
+    }
+
+    /**
+     * Answers from the shared aggregate index. When its tables must be rebuilt,
+     * all read locks are held while they are rebuilt and queried, so no change is missed.
+     */
+    @Override
+    public RadiusAggregate aggregateInRadius(int street, int avenue, int radius) {
+        RadiusAggregate aggregate = aggregateIndex.aggregate(street, avenue, radius);
+        if (aggregate == null && aggregateIndex.needsRebuild()) {
+            lockAllForReading();
+            try {
+                if (aggregateIndex.needsRebuild()) {
+                    List<Property> all = new ArrayList<>();
+                    for (PropertyStore stripe : stripes) {
+                        all.addAll(stripe.toList());
+                    }
+                    aggregateIndex.rebuild(all);
+                }
+                aggregate = aggregateIndex.aggregate(street, avenue, radius);
+            } finally {
+                unlockAllForReading();
+            }
+        }
+        return aggregate != null ? aggregate : PropertyStore.super.aggregateInRadius(street, avenue, radius);
+    }
+
+    /**
+     * Finds the stripes whose blocks intersect the bounding square of a radius search.
+     *
+     * @param street The street of the center point
+     * @param avenue The avenue of the center point
+     * @param radius The search radius
+     * @return A flag per stripe, true if the stripe must be searched
+     */
+    private boolean[] stripesInRadius(int street, int avenue, int radius) {
+        boolean[] touched = new boolean[stripes.length];
+        long fromStreetBlock = ((long) street - radius) >> BLOCK_SHIFT;
+        long toStreetBlock = ((long) street + radius) >> BLOCK_SHIFT;
+        long fromAvenueBlock = ((long) avenue - radius) >> BLOCK_SHIFT;
+        long toAvenueBlock = ((long) avenue + radius) >> BLOCK_SHIFT;
+        long blocks = (toStreetBlock - fromStreetBlock + 1) * (toAvenueBlock - fromAvenueBlock + 1);
+        if (blocks >= stripes.length) {
+            // The area covers at least as many blocks as there are stripes: search them all
+            Arrays.fill(touched, true);
+            return touched;
+        }
+        for (long streetBlock = fromStreetBlock; streetBlock <= toStreetBlock; streetBlock++) {
+            for (long avenueBlock = fromAvenueBlock; avenueBlock <= toAvenueBlock; avenueBlock++) {
+                touched[stripeOfBlock((int) streetBlock, (int) avenueBlock)] = true;
+            }
+        }
+        return touched;
+    }
+
+    /**
+     * Gets the stripe holding an address.
+     *
+     * @param key The address key
+     * @return The stripe index
+     */
+    private int stripeOf(AddressKey key) {
+        return stripeOfBlock(key.getStreet() >> BLOCK_SHIFT, key.getAvenue() >> BLOCK_SHIFT);
+    }
+
+    /**
+     * Gets the stripe assigned to a block.
+     *
+     * @param streetBlock The block index along the streets
+     * @param avenueBlock The block index along the avenues
+     * @return The stripe index
+     */
+    private int stripeOfBlock(int streetBlock, int avenueBlock) {
+        int hash = streetBlock * 31 + avenueBlock;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, stripes.length);
+    }
+
+    /**
+     * Acquires the read locks of the flagged stripes in ascending order.
+     *
+     * @param touched A flag per stripe
+     */
+    private void lockForReading(boolean[] touched) {
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            if (touched[stripe]) {
+                locks[stripe].readLock().lock();
+            }
+        }
+    }
+
+    /**
+     * Releases the read locks of the flagged stripes.
+     *
+     * @param touched A flag per stripe
+     */
+    private void unlockForReading(boolean[] touched) {
+        for (int stripe = stripes.length - 1; stripe >= 0; stripe--) {
+            if (touched[stripe]) {
+                locks[stripe].readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Acquires the read locks of all stripes in ascending order.
+     */
+    private void lockAllForReading() {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.readLock().lock();
+        }
+    }
+
+    /**
+     * Releases the read locks of all stripes.
+     */
+    private void unlockAllForReading() {
+        for (int stripe = locks.length - 1; stripe >= 0; stripe--) {
+            locks[stripe].readLock().unlock();
+        }
+    }
+}